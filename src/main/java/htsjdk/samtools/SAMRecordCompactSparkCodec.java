@@ -0,0 +1,219 @@
+package htsjdk.samtools;
+
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import htsjdk.samtools.util.BinaryCodec;
+import htsjdk.samtools.util.StringUtil;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.util.Arrays;
+
+/**
+ * A compact alternative to {@link SAMRecordSparkCodec} for serializing SAMRecords in Spark shuffles.
+ * Like SAMRecordSparkCodec, it is safe for headerless records, and decoded records are lazily-parsed {@link BAMRecord}s.
+ * It differs from the BAM encoding in that:
+ * <ul>
+ *     <li>reference names are included (so no header is needed to decode), and the mate reference name is omitted
+ *     if it is the same as the read's reference name,</li>
+ *     <li>flags, positions, insert size, lengths and cigar elements are written as variable-length integers,</li>
+ *     <li>base qualities are bit-packed against a per-read palette when a read has at most 16 distinct qualities
+ *     (as is the case for binned qualities).</li>
+ * </ul>
+ * Bases and tags use the same packed binary encoding as BAM.
+ */
+public final class SAMRecordCompactSparkCodec {
+
+    private static final int MAX_PALETTE_SIZE = 16;
+    private static final int NO_QUALITIES = 0;
+    private static final int RAW_QUALITIES = 0xFF;
+    private static final byte MISSING_QUALITY = (byte) 0xFF;
+
+    private final SAMRecordFactory samRecordFactory;
+    private final ByteArrayOutputStream tagBuffer = new ByteArrayOutputStream();
+    private final BinaryTagCodec binaryTagCodec = new BinaryTagCodec(new BinaryCodec(tagBuffer));
+
+    // palette of the qualities of the read being encoded, and the index in the palette of each quality (or -1)
+    private final byte[] palette = new byte[MAX_PALETTE_SIZE];
+    private final int[] paletteIndexes = new int[256];
+
+    public SAMRecordCompactSparkCodec() {
+        this(new DefaultSAMRecordFactory());
+    }
+
+    public SAMRecordCompactSparkCodec(final SAMRecordFactory factory) {
+        this.samRecordFactory = factory;
+        Arrays.fill(paletteIndexes, -1);
+    }
+
+    /**
+     * Write a record to a Kryo output.
+     *
+     * @param output the output to write to
+     * @param alignment the record to write
+     */
+    public void encode(final Output output, final SAMRecord alignment) {
+        final byte[] bases = alignment.getReadBases();
+        final int readLength = bases.length;
+        final int[] binaryCigar = BinaryCigarCodec.encode(alignment.getCigar());
+
+        tagBuffer.reset();
+        SAMBinaryTagAndValue attribute = alignment.getBinaryAttributes();
+        while (attribute != null) {
+            binaryTagCodec.writeTag(attribute.tag, attribute.value, attribute.isUnsignedArray());
+            attribute = attribute.getNext();
+        }
+
+        final String referenceName = alignment.getReferenceName();
+        final String mateReferenceName = alignment.getMateReferenceName();
+        final boolean mateOnSameReference = mateReferenceName != null && mateReferenceName.equals(referenceName);
+        output.writeVarInt(alignment.getFlags(), true);
+        output.writeString(referenceName);
+        output.writeBoolean(mateOnSameReference);
+        if (!mateOnSameReference) {
+            output.writeString(mateReferenceName);
+        }
+        output.writeVarInt(alignment.getAlignmentStart(), true);
+        output.writeVarInt(alignment.getMateAlignmentStart(), true);
+        output.writeVarInt(alignment.getInferredInsertSize(), false);
+        output.writeByte(alignment.getMappingQuality());
+        output.writeString(alignment.getReadName());
+
+        output.writeVarInt(binaryCigar.length, true);
+        output.writeVarInt(readLength, true);
+        output.writeVarInt(tagBuffer.size(), true);
+        for (final int cigarElement : binaryCigar) {
+            output.writeVarInt(cigarElement, true);
+        }
+        output.writeBytes(SAMUtils.bytesToCompressedBases(bases));
+        encodeQualities(output, alignment.getBaseQualities(), readLength, alignment.getReadName());
+        output.writeBytes(tagBuffer.toByteArray());
+    }
+
+    private void encodeQualities(final Output output, final byte[] qualities, final int readLength, final String readName) {
+        if (qualities.length == 0) {
+            output.writeByte(NO_QUALITIES);
+            return;
+        }
+        if (qualities.length != readLength) {
+            throw new RuntimeException("Mismatch between read length and quals length writing read " +
+                    readName + "; read length: " + readLength + "; quals length: " + qualities.length);
+        }
+
+        int paletteSize = 0;
+        boolean fitsPalette = true;
+        for (final byte quality : qualities) {
+            if (paletteIndexes[quality & 0xFF] < 0) {
+                if (paletteSize == MAX_PALETTE_SIZE) {
+                    fitsPalette = false;
+                    break;
+                }
+                paletteIndexes[quality & 0xFF] = paletteSize;
+                palette[paletteSize++] = quality;
+            }
+        }
+
+        if (fitsPalette) {
+            final int bitsPerQuality = getBitsPerQuality(paletteSize);
+            output.writeByte(paletteSize);
+            output.writeBytes(palette, 0, paletteSize);
+            int packed = 0;
+            int shift = 0;
+            for (final byte quality : qualities) {
+                packed |= paletteIndexes[quality & 0xFF] << shift;
+                shift += bitsPerQuality;
+                if (shift == Byte.SIZE) {
+                    output.writeByte(packed);
+                    packed = 0;
+                    shift = 0;
+                }
+            }
+            if (shift > 0) {
+                output.writeByte(packed);
+            }
+        } else {
+            output.writeByte(RAW_QUALITIES);
+            output.writeBytes(qualities);
+        }
+
+        for (int i = 0; i < paletteSize; i++) {
+            paletteIndexes[palette[i] & 0xFF] = -1;
+        }
+    }
+
+    /**
+     * Read a record written by {@link #encode} from a Kryo input.
+     *
+     * @param input the input to read from
+     * @return the headerless record
+     */
+    public SAMRecord decode(final Input input) {
+        final int flags = input.readVarInt(true);
+        final String referenceName = input.readString();
+        final String mateReferenceName = input.readBoolean() ? referenceName : input.readString();
+        final int alignmentStart = input.readVarInt(true);
+        final int mateAlignmentStart = input.readVarInt(true);
+        final int insertSize = input.readVarInt(false);
+        final short mappingQuality = (short) (input.readByte() & 0xFF);
+        final String readName = input.readString();
+        final byte[] readNameBytes = readName == null ? new byte[0] : StringUtil.stringToBytes(readName);
+
+        final int cigarLength = input.readVarInt(true);
+        final int readLength = input.readVarInt(true);
+        final int tagsLength = input.readVarInt(true);
+        final int compressedBasesLength = (readLength + 1) / 2;
+
+        // reassemble the variable length part of the BAM encoding, which BAMRecord decodes lazily
+        final byte[] restOfRecord = new byte[readNameBytes.length + 1 + cigarLength * 4 + compressedBasesLength + readLength + tagsLength];
+        final ByteBuffer buffer = ByteBuffer.wrap(restOfRecord).order(ByteOrder.LITTLE_ENDIAN);
+        buffer.put(readNameBytes);
+        buffer.put((byte) 0);
+        for (int i = 0; i < cigarLength; i++) {
+            buffer.putInt(input.readVarInt(true));
+        }
+        int offset = buffer.position();
+        input.readBytes(restOfRecord, offset, compressedBasesLength);
+        offset += compressedBasesLength;
+        decodeQualities(input, restOfRecord, offset, readLength);
+        offset += readLength;
+        input.readBytes(restOfRecord, offset, tagsLength);
+
+        final BAMRecord record = samRecordFactory.createBAMRecord(
+                null, SAMRecord.NO_ALIGNMENT_REFERENCE_INDEX, alignmentStart, (short) (readNameBytes.length + 1), mappingQuality,
+                0, cigarLength, flags, readLength, SAMRecord.NO_ALIGNMENT_REFERENCE_INDEX, mateAlignmentStart, insertSize, restOfRecord);
+
+        // clear indexing bin to ensure all SAMRecords compare properly
+        record.setFlags(record.getFlags());
+        record.setReferenceName(referenceName);
+        record.setMateReferenceName(mateReferenceName);
+        return record;
+    }
+
+    private static void decodeQualities(final Input input, final byte[] destination, final int offset, final int readLength) {
+        final int paletteSize = input.readByte() & 0xFF;
+        if (paletteSize == NO_QUALITIES) {
+            Arrays.fill(destination, offset, offset + readLength, MISSING_QUALITY);
+        } else if (paletteSize == RAW_QUALITIES) {
+            input.readBytes(destination, offset, readLength);
+        } else {
+            final byte[] palette = input.readBytes(paletteSize);
+            final int bitsPerQuality = getBitsPerQuality(paletteSize);
+            final int mask = (1 << bitsPerQuality) - 1;
+            int packed = 0;
+            int shift = Byte.SIZE;
+            for (int i = 0; i < readLength; i++) {
+                if (shift == Byte.SIZE) {
+                    packed = input.readByte() & 0xFF;
+                    shift = 0;
+                }
+                destination[offset + i] = palette[(packed >>> shift) & mask];
+                shift += bitsPerQuality;
+            }
+        }
+    }
+
+    private static int getBitsPerQuality(final int paletteSize) {
+        return paletteSize <= 2 ? 1 : (paletteSize <= 4 ? 2 : 4);
+    }
+}
@@ -13,6 +13,7 @@ import org.broadinstitute.hellbender.exceptions.UserException;
 import org.broadinstitute.hellbender.utils.IGVUtils;
 import org.broadinstitute.hellbender.utils.IntervalUtils;
 import org.broadinstitute.hellbender.utils.SimpleInterval;
+import org.broadinstitute.hellbender.utils.downsampling.AssemblyRegionCostDownsampler;
 import org.broadinstitute.hellbender.utils.downsampling.PositionalDownsampler;
 import org.broadinstitute.hellbender.utils.downsampling.ReadsDownsampler;
 
@@ -69,6 +70,8 @@ public abstract class AssemblyRegionWalker extends WalkerBase {
 
     private List<MultiIntervalLocalReadShard> readShards;
 
+    private AssemblyRegionCostDownsampler regionCostDownsampler;
+
     /**
      * Initialize data sources for traversal.
      *
@@ -144,6 +147,14 @@ public abstract class AssemblyRegionWalker extends WalkerBase {
         return assemblyRegionArgs.maxReadsPerAlignmentStart > 0 ? new PositionalDownsampler(assemblyRegionArgs.maxReadsPerAlignmentStart, getHeaderForReads()) : null;
     }
 
+    /**
+     * @return the downsampler applied to each complete region before it is passed to {@link #apply}, or null
+     *         if regions should not be downsampled based on their estimated cost
+     */
+    protected AssemblyRegionCostDownsampler createRegionCostDownsampler() {
+        return assemblyRegionArgs.maxAssemblyRegionCost > 0 ? new AssemblyRegionCostDownsampler(assemblyRegionArgs.maxAssemblyRegionCost) : null;
+    }
+
     /**
      * {@inheritDoc}
      *
@@ -162,6 +173,8 @@ public abstract class AssemblyRegionWalker extends WalkerBase {
         // meter to check the time more frequently (every 10 regions instead of every 1000 regions).
         progressMeter.setRecordsBetweenTimeChecks(10L);
 
+        regionCostDownsampler = createRegionCostDownsampler();
+
         for ( final MultiIntervalLocalReadShard readShard : readShards ) {
             // Since reads in each shard are lazily fetched, we need to pass the filter and transformers to the window
             // instead of filtering the reads directly here
@@ -174,6 +187,9 @@ public abstract class AssemblyRegionWalker extends WalkerBase {
         }
 
         logger.info(countedFilter.getSummaryLine());
+        if ( regionCostDownsampler != null ) {
+            logger.info(regionCostDownsampler.getSummaryLine());
+        }
     }
 
     /**
@@ -193,6 +209,9 @@ public abstract class AssemblyRegionWalker extends WalkerBase {
             if ( assemblyRegionArgs.forceActive ) {
                 assemblyRegion.setIsActive(true);
             }
+            if ( regionCostDownsampler != null ) {
+                regionCostDownsampler.downsample(assemblyRegion);
+            }
 
             logger.debug("Processing assembly region at " + assemblyRegion.getSpan() + " isActive: " + assemblyRegion.isActive() + " numReads: " + assemblyRegion.getReads().size());
             writeAssemblyRegion(assemblyRegion);
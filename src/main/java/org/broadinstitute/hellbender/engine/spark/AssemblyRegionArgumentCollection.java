@@ -16,6 +16,7 @@ public class AssemblyRegionArgumentCollection implements Serializable {
     public static final String MAX_ASSEMBLY_LONG_NAME = "max-assembly-region-size";
     public static final String ASSEMBLY_PADDING_LONG_NAME = "assembly-region-padding";
     public static final String MAX_STARTS_LONG_NAME = "max-reads-per-alignment-start";
+    public static final String MAX_REGION_COST_LONG_NAME = "max-assembly-region-cost";
     public static final String THRESHOLD_LONG_NAME = "active-probability-threshold";
     public static final String PROPAGATION_LONG_NAME = "max-prob-propagation-distance";
 
@@ -116,6 +117,18 @@ public class AssemblyRegionArgumentCollection implements Serializable {
     @Argument(fullName = MAX_STARTS_LONG_NAME, doc = "Maximum number of reads to retain per alignment start position. Reads above this threshold will be downsampled. Set to 0 to disable.", optional = true)
     public int maxReadsPerAlignmentStart = defaultMaxReadsPerAlignmentStart();
 
+    /**
+     * The cost of an active region is estimated as (number of reads) x (padded region length) x (expected number of
+     * haplotypes), where the expected number of haplotypes is approximated from the diversity of read cigars. Active
+     * regions whose estimated cost exceeds this budget are randomly downsampled to the largest number of reads that fits
+     * it, which bounds the runtime of pathological regions such as centromeric pileups and long STRs. Other regions are
+     * not affected. A summary of what was downsampled is logged at the end of traversal (except by the Spark tools, where
+     * each partition is downsampled separately).
+     */
+    @Advanced
+    @Argument(fullName = MAX_REGION_COST_LONG_NAME, doc = "Maximum estimated assembly/PairHMM cost of an active region before its reads are downsampled. Set to 0 to disable.", optional = true)
+    public long maxAssemblyRegionCost = 0L;
+
     /**
      * @return Default value for the {@link #minAssemblyRegionSize} parameter, if none is provided on the command line
      */
@@ -163,6 +176,10 @@ public class AssemblyRegionArgumentCollection implements Serializable {
             throw new CommandLineException.BadArgumentValue("maxReadsPerAlignmentStart must be >= 0");
         }
 
+        if ( maxAssemblyRegionCost < 0 ) {
+            throw new CommandLineException.BadArgumentValue("maxAssemblyRegionCost must be >= 0");
+        }
+
         if ( snpPaddingForGenotyping < 0 ) {
             throw new CommandLineException.BadArgumentValue("paddingAroundSNPs", "" + snpPaddingForGenotyping + "< 0");
         }
@@ -1,5 +1,6 @@
 package org.broadinstitute.hellbender.engine.spark;
 
+import com.google.common.collect.Iterators;
 import htsjdk.samtools.SAMSequenceDictionary;
 import org.apache.spark.api.java.JavaRDD;
 import org.apache.spark.api.java.JavaSparkContext;
@@ -12,6 +13,7 @@ import org.broadinstitute.hellbender.engine.filters.ReadFilterLibrary;
 import org.broadinstitute.hellbender.engine.filters.WellformedReadFilter;
 import org.broadinstitute.hellbender.utils.IntervalUtils;
 import org.broadinstitute.hellbender.utils.SimpleInterval;
+import org.broadinstitute.hellbender.utils.downsampling.AssemblyRegionCostDownsampler;
 
 import java.io.Serializable;
 import java.util.ArrayList;
@@ -100,15 +102,35 @@ public abstract class AssemblyRegionWalkerSpark extends GATKSparkTool {
      */
     protected JavaRDD<AssemblyRegionWalkerContext> getAssemblyRegions(JavaSparkContext ctx) {
         SAMSequenceDictionary sequenceDictionary = getBestAvailableSequenceDictionary();
+        final JavaRDD<AssemblyRegionWalkerContext> assemblyRegions;
         if (strict) {
-            return FindAssemblyRegionsSpark.getAssemblyRegionsStrict(ctx, getReads(), getHeaderForReads(), sequenceDictionary, referenceFileName, features,
+            assemblyRegions = FindAssemblyRegionsSpark.getAssemblyRegionsStrict(ctx, getReads(), getHeaderForReads(), sequenceDictionary, referenceFileName, features,
                     intervalShards, assemblyRegionEvaluatorSupplierBroadcast(ctx), shardingArgs, assemblyRegionArgs,
                     shuffle);
         } else {
-            return FindAssemblyRegionsSpark.getAssemblyRegionsFast(ctx, getReads(), getHeaderForReads(), sequenceDictionary, referenceFileName, features,
+            assemblyRegions = FindAssemblyRegionsSpark.getAssemblyRegionsFast(ctx, getReads(), getHeaderForReads(), sequenceDictionary, referenceFileName, features,
                     intervalShards, assemblyRegionEvaluatorSupplierBroadcast(ctx), shardingArgs, assemblyRegionArgs,
                     shuffle);
         }
+        return downsampleByCost(assemblyRegions, assemblyRegionArgs.maxAssemblyRegionCost);
+    }
+
+    /**
+     * Applies an {@link AssemblyRegionCostDownsampler} to each complete region, as {@link AssemblyRegionWalker} does,
+     * if a maximum region cost was requested. Each partition has its own downsampler.
+     */
+    private static JavaRDD<AssemblyRegionWalkerContext> downsampleByCost(final JavaRDD<AssemblyRegionWalkerContext> assemblyRegions,
+                                                                         final long maxAssemblyRegionCost) {
+        if (maxAssemblyRegionCost <= 0) {
+            return assemblyRegions;
+        }
+        return assemblyRegions.mapPartitions(contexts -> {
+            final AssemblyRegionCostDownsampler downsampler = new AssemblyRegionCostDownsampler(maxAssemblyRegionCost);
+            return Iterators.transform(contexts, context -> {
+                downsampler.downsample(context.getAssemblyRegion());
+                return context;
+            });
+        });
     }
 
     @Override
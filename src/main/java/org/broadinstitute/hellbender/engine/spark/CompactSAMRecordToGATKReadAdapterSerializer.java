@@ -0,0 +1,41 @@
+package org.broadinstitute.hellbender.engine.spark;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import htsjdk.samtools.SAMRecord;
+import htsjdk.samtools.SAMRecordCompactSparkCodec;
+import org.broadinstitute.hellbender.utils.read.SAMRecordToGATKReadAdapter;
+
+/**
+ * Serializer for SAMRecordToGATKReadAdapters that uses SAMRecordCompactSparkCodec for encoding/decoding, which produces
+ * smaller records than {@link SAMRecordToGATKReadAdapterSerializer} to reduce the volume of data shuffled by Spark.
+ * Assumes that the underlying SAMRecords are headerless (and clears their header if they're not).
+ */
+public final class CompactSAMRecordToGATKReadAdapterSerializer extends Serializer<SAMRecordToGATKReadAdapter> {
+
+    private final SAMRecordCompactSparkCodec codec = new SAMRecordCompactSparkCodec();
+
+    @Override
+    public void write(Kryo kryo, Output output, SAMRecordToGATKReadAdapter adapter) {
+        SAMRecord record = adapter.getEncapsulatedSamRecord();
+        // The underlying read is likely to already be headerless, but as a defensive
+        // measure in case it's not, set the header to null explicitly.
+        record.setHeaderStrict(null);
+
+        // reference names are written by the codec, so no header is needed at read time
+        codec.encode(output, record);
+
+        // clear indexing bin after encoding to ensure all SAMRecords compare properly
+        record.setFlags(record.getFlags());
+    }
+
+    @Override
+    public SAMRecordToGATKReadAdapter read(Kryo kryo, Input input, Class<SAMRecordToGATKReadAdapter> type) {
+        // headerlessReadAdapter() calls setHeaderStrict(null), which will set reference indices to null if the
+        // codec's setReferenceName()/setMateReferenceName() calls failed to do so (eg., in the case of "*" as the
+        // reference name).
+        return SAMRecordToGATKReadAdapter.headerlessReadAdapter(codec.decode(input));
+    }
+}
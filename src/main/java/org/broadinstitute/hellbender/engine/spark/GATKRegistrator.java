@@ -24,6 +24,7 @@ import org.broadinstitute.hellbender.utils.read.markduplicates.sparkrecords.Empt
 import org.broadinstitute.hellbender.utils.read.markduplicates.sparkrecords.Fragment;
 import org.broadinstitute.hellbender.utils.read.markduplicates.sparkrecords.Pair;
 import org.broadinstitute.hellbender.utils.read.markduplicates.sparkrecords.Passthrough;
+import org.broadinstitute.hellbender.utils.variant.MinimalVariant;
 import org.objenesis.instantiator.ObjectInstantiator;
 
 import java.util.ArrayList;
@@ -126,7 +127,7 @@ public class GATKRegistrator implements KryoRegistrator {
         kryo.register(ImmutableMap.of("one","element").getClass(), new ImmutableMapSerializer());
         kryo.register(ImmutableMap.of("map","with","multiple","elements").getClass(), new ImmutableMapSerializer());
 
-        kryo.register(SAMRecordToGATKReadAdapter.class, new SAMRecordToGATKReadAdapterSerializer());
+        kryo.register(SAMRecordToGATKReadAdapter.class, new CompactSAMRecordToGATKReadAdapterSerializer());
 
         kryo.register(SAMRecord.class, new SAMRecordSerializer());
         kryo.register(BAMRecord.class, new SAMRecordSerializer());
@@ -144,5 +145,6 @@ public class GATKRegistrator implements KryoRegistrator {
         kryo.register(ReadsKey.class, new FieldSerializer(kryo, ReadsKey.class));
         kryo.register(ReadsKey.KeyForFragment.class, new FieldSerializer(kryo, ReadsKey.KeyForFragment.class));
         kryo.register(ReadsKey.KeyForPair.class, new FieldSerializer(kryo, ReadsKey.KeyForPair.class));
+        kryo.register(MinimalVariant.class, new MinimalVariant.Serializer());
     }
 }
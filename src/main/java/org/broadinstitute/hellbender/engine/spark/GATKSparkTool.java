@@ -10,6 +10,7 @@ import htsjdk.samtools.util.GZIIndex;
 import htsjdk.variant.vcf.VCFHeaderLine;
 import org.apache.spark.api.java.JavaRDD;
 import org.apache.spark.api.java.JavaSparkContext;
+import org.broadinstitute.barclay.argparser.Advanced;
 import org.broadinstitute.barclay.argparser.Argument;
 import org.broadinstitute.barclay.argparser.ArgumentCollection;
 import org.broadinstitute.barclay.argparser.CommandLinePluginDescriptor;
@@ -23,6 +24,7 @@ import org.broadinstitute.hellbender.engine.GATKTool;
 import org.broadinstitute.hellbender.engine.TraversalParameters;
 import org.broadinstitute.hellbender.engine.filters.ReadFilter;
 import org.broadinstitute.hellbender.engine.filters.WellformedReadFilter;
+import org.broadinstitute.hellbender.engine.spark.datasources.ReadField;
 import org.broadinstitute.hellbender.engine.spark.datasources.ReadsSparkSink;
 import org.broadinstitute.hellbender.engine.spark.datasources.ReadsSparkSource;
 import org.broadinstitute.hellbender.engine.spark.datasources.ReferenceMultiSparkSource;
@@ -83,6 +85,7 @@ public abstract class GATKSparkTool extends SparkCommandLineProgram {
     public static final String CREATE_OUTPUT_BAM_SPLITTING_INDEX_LONG_NAME = "create-output-bam-splitting-index";
     public static final String USE_NIO = "use-nio";
     public static final String SPLITTING_INDEX_GRANULARITY = "splitting-index-granularity";
+    public static final String OUTPUT_MERGE_THREADS_LONG_NAME = "output-merge-threads";
 
     @ArgumentCollection
     public final ReferenceInputArgumentCollection referenceArguments = requiresReference() ? new RequiredReferenceInputArgumentCollection() :  new OptionalReferenceInputArgumentCollection();
@@ -149,6 +152,15 @@ public abstract class GATKSparkTool extends SparkCommandLineProgram {
             doc = "If true, create a VCF index when writing a coordinate-sorted VCF file.", optional = true, common = true)
     public boolean createOutputVariantIndex = true;
 
+    @Advanced
+    @Argument(doc = "When writing a single BAM or VCF output that is not on remote storage, the number of driver threads to use " +
+            "to merge the parts written by the executors, which are written to a directory that must be visible to both the executors " +
+            "and the driver. Defaults to 0, which merges the parts serially.",
+            fullName = OUTPUT_MERGE_THREADS_LONG_NAME,
+            optional = true,
+            minValue = 0)
+    protected int outputMergeThreads = 0;
+
     private ReadsSparkSource readsSource;
     private SAMFileHeader readsHeader;
     private LinkedHashMap<GATKPath, SAMFileHeader> readInputs;
@@ -202,6 +214,18 @@ public abstract class GATKSparkTool extends SparkCommandLineProgram {
         concatMerge
     }
 
+    /**
+     * Which optional read fields does this tool use? Fields that are not returned are not loaded, which saves decoding
+     * time and memory for tools that only use a few fields of each read. Tools that override this should include
+     * any fields used by their default read filters (for example, {@link WellformedReadFilter} uses the bases,
+     * qualities and read group). All fields are loaded if the user enables additional read filters.
+     *
+     * @return all read fields by default
+     */
+    public Set<ReadField> getRequiredReadFields() {
+        return ReadField.ALL;
+    }
+
     /**
      * Does this tool require intervals? Tools that do should override to return true.
      *
@@ -338,7 +362,7 @@ public abstract class GATKSparkTool extends SparkCommandLineProgram {
         // TODO: This if statement is a temporary hack until #959 gets resolve
         if (inputSpecifier.hasExtension(".adam")) {
             try {
-                output = source.getADAMReads(inputSpecifier, traversalParameters, getHeaderForReads());
+                output = source.getADAMReads(inputSpecifier, traversalParameters, getHeaderForReads(), getReadFieldsToLoad());
             } catch (IOException e) {
                 throw new UserException("Failed to read ADAM file " + inputSpecifier, e);
             }
@@ -347,11 +371,29 @@ public abstract class GATKSparkTool extends SparkCommandLineProgram {
             if (hasCramInput() && !hasReference()){
                 throw UserException.MISSING_REFERENCE_FOR_CRAM;
             }
-            output = source.getParallelReads(inputSpecifier, referenceArguments.getReferenceSpecifier(), traversalParameters, bamPartitionSplitSize, useNio);
+            output = source.getParallelReads(inputSpecifier, referenceArguments.getReferenceSpecifier(), traversalParameters, bamPartitionSplitSize, useNio, getReadFieldsToLoad());
         }
         return output;
     }
 
+    /**
+     * Returns the read fields required by the tool, or all fields if the user enabled read filters other than the
+     * tool's default filters, since they may use any field.
+     */
+    private Set<ReadField> getReadFieldsToLoad() {
+        final Set<ReadField> requiredReadFields = getRequiredReadFields();
+        if (requiredReadFields.containsAll(ReadField.ALL)) {
+            return requiredReadFields;
+        }
+        final GATKReadFilterPluginDescriptor readFilterPlugin =
+                getCommandLineParser().getPluginDescriptor(GATKReadFilterPluginDescriptor.class);
+        final Set<Class<?>> defaultReadFilterClasses = readFilterPlugin.getDefaultInstances().stream()
+                .map(Object::getClass).collect(Collectors.toSet());
+        final boolean onlyDefaultReadFilters = readFilterPlugin.getResolvedInstances().stream()
+                .allMatch(readFilter -> defaultReadFilterClasses.contains(readFilter.getClass()));
+        return onlyDefaultReadFilters ? requiredReadFields : ReadField.ALL;
+    }
+
     /**
      * Writes the reads from a {@link JavaRDD} to an output file.
      * @param ctx the JavaSparkContext to write.
@@ -374,7 +416,8 @@ public abstract class GATKSparkTool extends SparkCommandLineProgram {
             ReadsSparkSink.writeReads(ctx, outputFile,
                     hasReference() ? referenceArguments.getReferenceSpecifier() : null,
                     reads, header, shardedOutput ? ReadsWriteFormat.SHARDED : ReadsWriteFormat.SINGLE,
-                    getRecommendedNumReducers(), shardedPartsDir, createOutputBamIndex, createOutputBamSplittingIndex, sortReadsToHeader, splittingIndexGranularity);
+                    getRecommendedNumReducers(), shardedPartsDir, createOutputBamIndex, createOutputBamSplittingIndex, sortReadsToHeader, splittingIndexGranularity,
+                    outputMergeThreads);
         } catch (IOException e) {
             throw new UserException.CouldNotCreateOutputFile(outputFile,"writing failed", e);
         }
@@ -12,29 +12,25 @@ import org.apache.spark.api.java.JavaRDD;
 import org.apache.spark.api.java.JavaSparkContext;
 import org.apache.spark.api.java.function.*;
 import org.apache.spark.broadcast.Broadcast;
-import org.apache.spark.rdd.PartitionCoalescer;
-import org.apache.spark.rdd.RDD;
 import org.broadinstitute.hellbender.engine.Shard;
 import org.broadinstitute.hellbender.engine.ShardBoundary;
 import org.broadinstitute.hellbender.exceptions.UserException;
 import org.broadinstitute.hellbender.utils.IntervalUtils;
 import org.broadinstitute.hellbender.utils.SimpleInterval;
 import org.broadinstitute.hellbender.utils.Utils;
-import scala.Option;
 import scala.Tuple2;
-import scala.reflect.ClassTag;
-import scala.reflect.ClassTag$;
 
 import javax.annotation.Nullable;
 import java.io.Serializable;
 import java.util.*;
 import java.util.stream.Collectors;
-import java.util.stream.IntStream;
 
 import static org.broadinstitute.hellbender.utils.IntervalUtils.overlaps;
 
 /**
  * Utility methods for sharding {@link Locatable} objects (such as reads) for given intervals, without using a shuffle.
+ * Shards are assigned to the partition they start in, and the only locatables that are moved between partitions are
+ * those at the start of a partition that overlap shards that start in an earlier partition.
  */
 public class SparkSharder {
     /**
@@ -73,7 +69,7 @@ public class SparkSharder {
     public static <L extends Locatable, SB extends ShardBoundary> JavaRDD<Shard<L>> shard(JavaSparkContext ctx, JavaRDD<L> locatables, Class<L> locatableClass,
                                                                 SAMSequenceDictionary sequenceDictionary, JavaRDD<SB> intervals,
                                                                 int maxLocatableLength) {
-        return shard(ctx, locatables, locatableClass, sequenceDictionary, intervals, maxLocatableLength, false);
+        return shard(ctx, locatables, sequenceDictionary, intervals, maxLocatableLength, false);
     }
 
     /**
@@ -105,7 +101,7 @@ public class SparkSharder {
             JavaPairRDD<ShardBoundary, Iterable<L>> grouped = intervalsToLocatables.groupByKey();
             return grouped.map((org.apache.spark.api.java.function.Function<Tuple2<ShardBoundary, Iterable<L>>, Shard<L>>) value -> value._1().createShard(value._2()));
         }
-        return joinOverlapping(ctx, locatables, locatableClass, sequenceDictionary, paddedIntervals, maxLocatableLength,
+        return joinOverlapping(ctx, locatables, sequenceDictionary, paddedIntervals, maxLocatableLength,
                 new MapFunction<Tuple2<ShardBoundary, Iterable<L>>, Shard<L>>() {
             private static final long serialVersionUID = 1L;
             @Override
@@ -115,7 +111,7 @@ public class SparkSharder {
         });
     }
 
-    private static <L extends Locatable, SB extends ShardBoundary> JavaRDD<Shard<L>> shard(JavaSparkContext ctx, JavaRDD<L> locatables, Class<L> locatableClass,
+    private static <L extends Locatable, SB extends ShardBoundary> JavaRDD<Shard<L>> shard(JavaSparkContext ctx, JavaRDD<L> locatables,
                                                                 SAMSequenceDictionary sequenceDictionary, JavaRDD<SB> intervals,
                                                                 int maxLocatableLength, boolean useShuffle) {
 
@@ -123,7 +119,7 @@ public class SparkSharder {
         if (useShuffle) {
             throw new UnsupportedOperationException("Shuffle not supported when sharding an RDD of intervals.");
         }
-        return joinOverlapping(ctx, locatables, locatableClass, sequenceDictionary, paddedIntervals, maxLocatableLength,
+        return joinOverlapping(ctx, locatables, sequenceDictionary, paddedIntervals, maxLocatableLength,
                 new MapFunction<Tuple2<ShardBoundary, Iterable<L>>, Shard<L>>() {
                     private static final long serialVersionUID = 1L;
                     @Override
@@ -137,7 +133,6 @@ public class SparkSharder {
      * Join an RDD of locatables with a set of intervals, and apply a function to process the locatables that overlap each interval.
      * @param ctx the Spark Context
      * @param locatables the locatables RDD, must be coordinate sorted
-     * @param locatableClass the class of the locatables, must be a subclass of {@link Locatable}
      * @param sequenceDictionary the sequence dictionary to use to find contig lengths
      * @param intervals the collection of intervals to apply the function to
      * @param maxLocatableLength the maximum length of a {@link Locatable}, if any is larger than this size then an exception will be thrown
@@ -147,10 +142,10 @@ public class SparkSharder {
      * @param <T> the return type of <code>f</code>
      * @return
      */
-    private static <L extends Locatable, I extends Locatable, T> JavaRDD<T> joinOverlapping(JavaSparkContext ctx, JavaRDD<L> locatables, Class<L> locatableClass,
+    private static <L extends Locatable, I extends Locatable, T> JavaRDD<T> joinOverlapping(JavaSparkContext ctx, JavaRDD<L> locatables,
                                                                                             SAMSequenceDictionary sequenceDictionary, List<I> intervals,
                                                                                             int maxLocatableLength, MapFunction<Tuple2<I, Iterable<L>>, T> f) {
-        return joinOverlapping(ctx, locatables, locatableClass, sequenceDictionary, intervals, maxLocatableLength,
+        return joinOverlapping(ctx, locatables, sequenceDictionary, intervals, maxLocatableLength,
                 (FlatMapFunction2<Iterator<L>, Iterator<I>, T>) (locatablesIterator, shardsIterator) -> Iterators.transform(locatablesPerShard(locatablesIterator, shardsIterator, sequenceDictionary, maxLocatableLength), new Function<Tuple2<I,Iterable<L>>, T>() {
                     @Nullable
                     @Override
@@ -164,10 +159,10 @@ public class SparkSharder {
                 }));
     }
 
-    private static <L extends Locatable, I extends Locatable, T> JavaRDD<T> joinOverlapping(JavaSparkContext ctx, JavaRDD<L> locatables, Class<L> locatableClass,
+    private static <L extends Locatable, I extends Locatable, T> JavaRDD<T> joinOverlapping(JavaSparkContext ctx, JavaRDD<L> locatables,
                                                                                             SAMSequenceDictionary sequenceDictionary, JavaRDD<I> intervals,
                                                                                             int maxLocatableLength, MapFunction<Tuple2<I, Iterable<L>>, T> f) {
-        return joinOverlapping(ctx, locatables, locatableClass, sequenceDictionary, intervals, maxLocatableLength,
+        return joinOverlapping(ctx, locatables, sequenceDictionary, intervals, maxLocatableLength,
                 (FlatMapFunction2<Iterator<L>, Iterator<I>, T>) (locatablesIterator, shardsIterator) -> Iterators.transform(locatablesPerShard(locatablesIterator, shardsIterator, sequenceDictionary, maxLocatableLength), new Function<Tuple2<I,Iterable<L>>, T>() {
                     @Nullable
                     @Override
@@ -183,12 +178,11 @@ public class SparkSharder {
 
     /**
      * Join an RDD of locatables with a set of intervals, and apply a function to process the locatables that overlap each interval.
-     * This differs from {@link #joinOverlapping(JavaSparkContext, JavaRDD, Class, SAMSequenceDictionary, List, int, MapFunction)}
+     * This differs from {@link #joinOverlapping(JavaSparkContext, JavaRDD, SAMSequenceDictionary, List, int, MapFunction)}
      * in that the function to apply is given two iterators: one over intervals, and one over locatables (for the partition),
      * and it is up to the function implemention to find overlaps between intervals and locatables.
      * @param ctx the Spark Context
      * @param locatables the locatables RDD, must be coordinate sorted
-     * @param locatableClass the class of the locatables, must be a subclass of {@link Locatable}
      * @param sequenceDictionary the sequence dictionary to use to find contig lengths
      * @param intervals the collection of intervals to apply the function to
      * @param maxLocatableLength the maximum length of a {@link Locatable}, if any is larger than this size then an exception will be thrown
@@ -198,14 +192,14 @@ public class SparkSharder {
      * @param <T> the return type of <code>f</code>
      * @return
      */
-    private static <L extends Locatable, I extends Locatable, T> JavaRDD<T> joinOverlapping(JavaSparkContext ctx, JavaRDD<L> locatables, Class<L> locatableClass,
+    private static <L extends Locatable, I extends Locatable, T> JavaRDD<T> joinOverlapping(JavaSparkContext ctx, JavaRDD<L> locatables,
                                                                                             SAMSequenceDictionary sequenceDictionary, List<I> intervals,
                                                                                             int maxLocatableLength, FlatMapFunction2<Iterator<L>, Iterator<I>, T> f) {
 
-        return joinOverlapping(ctx, locatables, locatableClass, sequenceDictionary, ctx.parallelize(intervals), maxLocatableLength, f);
+        return joinOverlapping(ctx, locatables, sequenceDictionary, ctx.parallelize(intervals), maxLocatableLength, f);
     }
 
-    private static <L extends Locatable, I extends Locatable, T> JavaRDD<T> joinOverlapping(JavaSparkContext ctx, JavaRDD<L> locatables, Class<L> locatableClass,
+    private static <L extends Locatable, I extends Locatable, T> JavaRDD<T> joinOverlapping(JavaSparkContext ctx, JavaRDD<L> locatables,
                                                                                             SAMSequenceDictionary sequenceDictionary, JavaRDD<I> intervals,
                                                                                             int maxLocatableLength, FlatMapFunction2<Iterator<L>, Iterator<I>, T> f) {
 
@@ -214,9 +208,9 @@ public class SparkSharder {
         Broadcast<List<SimpleInterval>> firstLocatablesBroadcast = ctx.broadcast(firstLocatablesList);
 
         // For each interval find which partition it starts and ends in.
-        // An interval is processed in the partition it starts in. However, we need to make sure that
-        // subsequent partitions are coalesced if needed, so for each partition p find the latest subsequent
-        // partition that is needed to read all of the intervals that start in p.
+        // An interval is processed in the partition it starts in. However, it may also overlap locatables in
+        // subsequent partitions, so for each partition p we find the latest subsequent partition that is needed
+        // to read all of the intervals that start in p.
         OverlapDetector<PartitionLocatable<SimpleInterval>> overlapDetector = OverlapDetector.create(partitionReadExtents);
         Broadcast<OverlapDetector<PartitionLocatable<SimpleInterval>>> overlapDetectorBroadcast = ctx.broadcast(overlapDetector);
         JavaRDD<PartitionLocatable<I>> indexedIntervals = intervals.map(interval -> {
@@ -251,22 +245,74 @@ public class SparkSharder {
 
         indexedIntervalsRepartitioned.cache(); // cache since we need to do two calculations on the intervals
 
-        // Find the end partition index for each partition.
-        Map<Integer, Integer> maxEndPartitionIndexesMap = indexedIntervalsRepartitioned.mapToPair((PairFunction<PartitionLocatable<I>, Integer, Integer>) partitionLocatable ->
-                new Tuple2<>(partitionLocatable.getPartitionIndex(), partitionLocatable.getEndPartitionIndex()))
-                .reduceByKey((Function2<Integer, Integer, Integer>) Math::max)
+        // For each start partition, find the last partition and the furthest position that its intervals extend to.
+        Map<Integer, Tuple2<Integer, SimpleInterval>> intervalEndsMap = indexedIntervalsRepartitioned.mapToPair((PairFunction<PartitionLocatable<I>, Integer, Tuple2<Integer, SimpleInterval>>) partitionLocatable ->
+                new Tuple2<>(partitionLocatable.getPartitionIndex(), new Tuple2<>(partitionLocatable.getEndPartitionIndex(),
+                        new SimpleInterval(partitionLocatable.getContig(), partitionLocatable.getEnd(), partitionLocatable.getEnd()))))
+                .reduceByKey((Function2<Tuple2<Integer, SimpleInterval>, Tuple2<Integer, SimpleInterval>, Tuple2<Integer, SimpleInterval>>) (ends1, ends2) ->
+                        new Tuple2<>(Math.max(ends1._1(), ends2._1()),
+                                IntervalUtils.compareLocatables(ends1._2(), ends2._2(), sequenceDictionary) >= 0 ? ends1._2() : ends2._2()))
                 .collectAsMap();
-        List<Integer> maxEndPartitionIndexes = IntStream.range(0, locatables.getNumPartitions()).boxed().collect(Collectors.toList());
-        maxEndPartitionIndexesMap.forEach((startIndex, endIndex) -> {
-            if (endIndex > maxEndPartitionIndexes.get(startIndex)) {
-                maxEndPartitionIndexes.set(startIndex, endIndex);
+
+        // Rather than coalescing each partition with the (whole) subsequent partitions that its intervals extend into,
+        // send each partition only the locatables from the start of subsequent partitions that it needs. These are
+        // usually a small fraction of the locatables, so only they are shuffled.
+        int numPartitions = locatables.getNumPartitions();
+        List<List<PartitionLocatable<SimpleInterval>>> edgeTargets = new ArrayList<>(numPartitions);
+        for (int i = 0; i < numPartitions; i++) {
+            edgeTargets.add(new ArrayList<>());
+        }
+        intervalEndsMap.forEach((startIndex, ends) -> {
+            for (int i = startIndex + 1; i <= ends._1(); i++) {
+                edgeTargets.get(i).add(new PartitionLocatable<>(startIndex, ends._2()));
             }
         });
+        Broadcast<List<List<PartitionLocatable<SimpleInterval>>>> edgeTargetsBroadcast = ctx.broadcast(edgeTargets);
+        JavaRDD<L> edges = JavaPairRDD.fromJavaRDD(locatables.mapPartitionsWithIndex(
+                (Function2<Integer, Iterator<L>, Iterator<Tuple2<EdgeKey, L>>>) (partitionIndex, it) ->
+                        edgeLocatables(partitionIndex, it, edgeTargetsBroadcast.getValue().get(partitionIndex), sequenceDictionary), false))
+                .repartitionAndSortWithinPartitions(new EdgeKeyPartitioner(numPartitions))
+                .values();
+        JavaRDD<L> locatablesWithEdges = locatables.zipPartitions(edges,
+                (FlatMapFunction2<Iterator<L>, Iterator<L>, L>) Iterators::concat);
+
+        // zipPartitions on locatable partitions (with their edges) and intervals, and apply the function f
+        return locatablesWithEdges.zipPartitions(indexedIntervalsRepartitioned.map(PartitionLocatable::getLocatable), f);
+    }
 
-        JavaRDD<L> coalescedRdd = coalesce(locatables, locatableClass, new RangePartitionCoalescer(maxEndPartitionIndexes));
-
-        // zipPartitions on coalesced locatable partitions and intervals, and apply the function f
-        return coalescedRdd.zipPartitions(indexedIntervalsRepartitioned.map(PartitionLocatable::getLocatable), f);
+    /**
+     * Find the locatables at the start of a partition that overlap intervals that start in earlier partitions.
+     * Since locatables are coordinate sorted, these are a prefix of the partition, so iteration stops at the first
+     * locatable that is after the ends of all of the intervals.
+     * @param partitionIndex the index of the partition
+     * @param locatables the locatables in the partition
+     * @param targets for each earlier partition whose intervals extend into this partition, the furthest end of its intervals
+     * @param sequenceDictionary the sequence dictionary to use to order contigs
+     * @return the locatables needed by each earlier partition, keyed so that they can be sent to that partition in order
+     */
+    static <L extends Locatable> Iterator<Tuple2<EdgeKey, L>> edgeLocatables(int partitionIndex, Iterator<L> locatables,
+                                                                             List<PartitionLocatable<SimpleInterval>> targets,
+                                                                             SAMSequenceDictionary sequenceDictionary) {
+        List<Tuple2<EdgeKey, L>> edges = new ArrayList<>();
+        int index = 0;
+        while (!targets.isEmpty() && locatables.hasNext()) {
+            L locatable = locatables.next();
+            if (locatable.getContig() == null) {
+                break; // unmapped locatables come last
+            }
+            boolean needed = false;
+            for (PartitionLocatable<SimpleInterval> target : targets) {
+                if (!IntervalUtils.isAfter(locatable, target, sequenceDictionary)) {
+                    edges.add(new Tuple2<>(new EdgeKey(target.getPartitionIndex(), partitionIndex, index), locatable));
+                    needed = true;
+                }
+            }
+            if (!needed) {
+                break;
+            }
+            index++;
+        }
+        return edges.iterator();
     }
 
     /**
@@ -438,12 +484,6 @@ public class SparkSharder {
         extents.add(new PartitionLocatable<>(partitionIndex, extent));
     }
 
-    private static <T> JavaRDD<T> coalesce(JavaRDD<T> rdd, Class<T> cls, PartitionCoalescer partitionCoalescer) {
-        RDD<T> coalescedRdd = rdd.rdd().coalesce(rdd.getNumPartitions(), false, Option.apply(partitionCoalescer), null);
-        ClassTag<T> tag = ClassTag$.MODULE$.apply(cls);
-        return new JavaRDD<>(coalescedRdd, tag);
-    }
-
     /**
      * Assigns {@link PartitionLocatable} objects to their start partition.
      */
@@ -467,6 +507,80 @@ public class SparkSharder {
         }
     }
 
+    /**
+     * Key for a locatable that is sent to an earlier partition, which orders locatables by their original position.
+     */
+    static final class EdgeKey implements Comparable<EdgeKey>, Serializable {
+        private static final long serialVersionUID = 1L;
+
+        private final int targetPartitionIndex;
+        private final int sourcePartitionIndex;
+        private final int index;
+
+        EdgeKey(int targetPartitionIndex, int sourcePartitionIndex, int index) {
+            this.targetPartitionIndex = targetPartitionIndex;
+            this.sourcePartitionIndex = sourcePartitionIndex;
+            this.index = index;
+        }
+
+        public int getTargetPartitionIndex() {
+            return targetPartitionIndex;
+        }
+
+        @Override
+        public int compareTo(EdgeKey other) {
+            int result = Integer.compare(targetPartitionIndex, other.targetPartitionIndex);
+            if (result == 0) {
+                result = Integer.compare(sourcePartitionIndex, other.sourcePartitionIndex);
+                if (result == 0) {
+                    result = Integer.compare(index, other.index);
+                }
+            }
+            return result;
+        }
+
+        @Override
+        public boolean equals(Object o) {
+            if (this == o) return true;
+            if (o == null || getClass() != o.getClass()) return false;
+
+            EdgeKey that = (EdgeKey) o;
+            return targetPartitionIndex == that.targetPartitionIndex && sourcePartitionIndex == that.sourcePartitionIndex
+                    && index == that.index;
+        }
+
+        @Override
+        public int hashCode() {
+            int result = targetPartitionIndex;
+            result = 31 * result + sourcePartitionIndex;
+            result = 31 * result + index;
+            return result;
+        }
+    }
+
+    /**
+     * Assigns {@link EdgeKey} objects to their target partition.
+     */
+    private static class EdgeKeyPartitioner extends Partitioner {
+        private static final long serialVersionUID = 1L;
+
+        private int numPartitions;
+
+        public EdgeKeyPartitioner(int numPartitions) {
+            this.numPartitions = numPartitions;
+        }
+
+        @Override
+        public int numPartitions() {
+            return numPartitions;
+        }
+
+        @Override
+        public int getPartition(Object key) {
+            return ((EdgeKey) key).getTargetPartitionIndex();
+        }
+    }
+
     /**
      * Compares {@link PartitionLocatable} objects using a {@link htsjdk.samtools.SAMSequenceDictionary} sequence ordering.
      * @param <L> the interval type
@@ -0,0 +1,402 @@
+package org.broadinstitute.hellbender.engine.spark.datasources;
+
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import htsjdk.samtools.BAMIndexMerger;
+import htsjdk.samtools.BAMStreamWriter;
+import htsjdk.samtools.SAMFileHeader;
+import htsjdk.samtools.SAMRecord;
+import htsjdk.samtools.SBIIndex;
+import htsjdk.samtools.SBIIndexMerger;
+import htsjdk.samtools.seekablestream.SeekablePathStream;
+import htsjdk.samtools.seekablestream.SeekableStream;
+import htsjdk.samtools.util.BlockCompressedOutputStream;
+import htsjdk.samtools.util.BlockCompressedStreamConstants;
+import htsjdk.samtools.util.FileExtensions;
+import htsjdk.tribble.index.tabix.TabixFormat;
+import htsjdk.tribble.index.tabix.TabixIndex;
+import htsjdk.tribble.index.tabix.TabixIndexCreator;
+import htsjdk.tribble.index.tabix.TabixIndexMerger;
+import htsjdk.variant.variantcontext.VariantContext;
+import htsjdk.variant.variantcontext.writer.VCFEncoder;
+import htsjdk.variant.variantcontext.writer.VariantContextWriter;
+import htsjdk.variant.variantcontext.writer.VariantContextWriterBuilder;
+import htsjdk.variant.vcf.VCFHeader;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.apache.spark.TaskContext;
+import org.apache.spark.api.java.JavaRDD;
+import org.apache.spark.api.java.JavaSparkContext;
+import org.apache.spark.broadcast.Broadcast;
+import org.broadinstitute.hellbender.exceptions.GATKException;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.gcs.BucketUtils;
+import org.broadinstitute.hellbender.utils.io.IOUtils;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Writes a single BAM or VCF file from an RDD whose partitions are already in output order, as an alternative to the
+ * disq writer for outputs on a local or shared (POSIX) file system.
+ *
+ * <p>Each partition is written by its executor to a headerless part file without a BGZF terminator, along with a
+ * fragment of each requested index (BAI, SBI or tabix) for that part. The driver then writes the header, copies the
+ * parts into the output file with multiple threads (each part is written at its own precomputed offset, so the copies
+ * are independent), appends the BGZF terminator, and merges the index fragments. disq instead concatenates the parts
+ * serially on the driver when the output is not on HDFS, which dominates the write time for large outputs.</p>
+ *
+ * <p>Each task attempt writes its part and index fragments to temporary files, which are renamed into place only once
+ * they are complete, so a failed or speculative attempt can never leave a truncated part for the driver to merge.</p>
+ *
+ * <p>The parts directory must be visible to both the executors and the driver.</p>
+ */
+final class ParallelPartsMerger {
+
+    private static final Logger logger = LogManager.getLogger(ParallelPartsMerger.class);
+
+    private static final String HEADER_PART_NAME = "header";
+
+    private ParallelPartsMerger() {}
+
+    /**
+     * Returns true if the output file and parts directory can be written by this class, i.e., they are not on remote storage.
+     */
+    static boolean isSupported(final String outputFile, final String partsDirectory) {
+        return !BucketUtils.isRemoteStorageUrl(outputFile) && !BucketUtils.isRemoteStorageUrl(partsDirectory);
+    }
+
+    /**
+     * Writes reads to a single BAM file.
+     * @param ctx the JavaSparkContext
+     * @param outputFile path to the output BAM
+     * @param reads headerless reads, in the order in which they should be written
+     * @param header the header of the output
+     * @param partsDirectory directory for the part files, which is deleted after the output has been written
+     * @param writeBai whether to write a BAI file (only done for coordinate-sorted output)
+     * @param writeSbi whether to write an SBI file
+     * @param sbiGranularity the granularity of the SBI file
+     * @param numThreads number of driver threads to use to concatenate the parts
+     */
+    static void writeBam(final JavaSparkContext ctx, final String outputFile, final JavaRDD<SAMRecord> reads,
+                         final SAMFileHeader header, final String partsDirectory, final boolean writeBai,
+                         final boolean writeSbi, final long sbiGranularity, final int numThreads) throws IOException {
+        Utils.validateArg(numThreads > 0, "numThreads must be positive");
+        final boolean bai = writeBai && header.getSortOrder() == SAMFileHeader.SortOrder.coordinate;
+        final Path partsPath = preparePartsDirectory(partsDirectory);
+        final String partsPathString = partsPath.toUri().toString();
+
+        final long startTime = System.nanoTime();
+        final Broadcast<SAMFileHeader> headerBroadcast = ctx.broadcast(header);
+        reads.foreachPartition(partition -> writeBamPart(IOUtils.getPath(partsPathString), TaskContext.getPartitionId(),
+                partition, headerBroadcast.getValue(), bai, writeSbi, sbiGranularity));
+        final long partsTime = System.nanoTime();
+
+        final Path headerPath = partsPath.resolve(HEADER_PART_NAME);
+        try (final OutputStream out = Files.newOutputStream(headerPath)) {
+            final BAMStreamWriter writer = new BAMStreamWriter(out, null, null, 0, header);
+            writer.writeHeader(header);
+            writer.finish(false);
+        }
+        final List<Path> parts = getPartPaths(partsPath, reads.getNumPartitions());
+        final Path outputPath = IOUtils.getPath(outputFile);
+        final long[] offsets = concatenate(headerPath, parts, outputPath, numThreads);
+        final long concatenationTime = System.nanoTime();
+
+        final long headerLength = offsets[0];
+        final long dataFileLength = Files.size(outputPath);
+        if (bai) {
+            try (final OutputStream out = new BufferedOutputStream(Files.newOutputStream(IOUtils.getPath(outputFile + FileExtensions.BAI_INDEX)))) {
+                final BAMIndexMerger merger = new BAMIndexMerger(out, headerLength);
+                for (int i = 0; i < parts.size(); i++) {
+                    final long partLength = offsets[i + 1] - offsets[i];
+                    if (partLength > 0) {
+                        try (final SeekableStream in = new SeekablePathStream(getIndexPath(parts.get(i), FileExtensions.BAI_INDEX))) {
+                            merger.processIndex(BAMIndexMerger.openIndex(in, header.getSequenceDictionary()), partLength);
+                        }
+                    }
+                }
+                merger.finish(dataFileLength);
+            }
+        }
+        if (writeSbi) {
+            try (final OutputStream out = new BufferedOutputStream(Files.newOutputStream(IOUtils.getPath(outputFile + FileExtensions.SBI)))) {
+                final SBIIndexMerger merger = new SBIIndexMerger(out, headerLength);
+                for (int i = 0; i < parts.size(); i++) {
+                    final long partLength = offsets[i + 1] - offsets[i];
+                    if (partLength > 0) {
+                        merger.processIndex(SBIIndex.load(getIndexPath(parts.get(i), FileExtensions.SBI)), partLength);
+                    }
+                }
+                merger.finish(dataFileLength);
+            }
+        }
+        final long indexTime = System.nanoTime();
+
+        IOUtils.deleteRecursively(partsPath);
+        logTimes(outputFile, parts.size(), startTime, partsTime, concatenationTime, indexTime);
+    }
+
+    private static void writeBamPart(final Path partsPath, final int partitionIndex, final Iterator<SAMRecord> reads,
+                                     final SAMFileHeader header, final boolean writeBai, final boolean writeSbi,
+                                     final long sbiGranularity) throws IOException {
+        final Path partPath = getPartPath(partsPath, partitionIndex);
+        final Path attemptPath = getAttemptPath(partPath);
+        try (final OutputStream out = new BufferedOutputStream(Files.newOutputStream(attemptPath));
+             final OutputStream baiOut = writeBai ? new BufferedOutputStream(Files.newOutputStream(getIndexPath(attemptPath, FileExtensions.BAI_INDEX))) : null;
+             final OutputStream sbiOut = writeSbi ? new BufferedOutputStream(Files.newOutputStream(getIndexPath(attemptPath, FileExtensions.SBI))) : null) {
+            final BAMStreamWriter writer = new BAMStreamWriter(out, baiOut, sbiOut, sbiGranularity, header);
+            while (reads.hasNext()) {
+                final SAMRecord read = reads.next();
+                read.setHeaderStrict(header);
+                writer.writeAlignment(read);
+            }
+            writer.finish(false);
+        }
+        final List<String> indexExtensions = new ArrayList<>(2);
+        if (writeBai) {
+            indexExtensions.add(FileExtensions.BAI_INDEX);
+        }
+        if (writeSbi) {
+            indexExtensions.add(FileExtensions.SBI);
+        }
+        commitAttempt(attemptPath, partPath, indexExtensions);
+    }
+
+    /**
+     * Writes variants to a single VCF file, which is block compressed if the output file name ends with .vcf.gz.
+     * @param ctx the JavaSparkContext
+     * @param outputFile path to the output VCF
+     * @param variants variants, in the order in which they should be written
+     * @param header the header of the output
+     * @param partsDirectory directory for the part files, which is deleted after the output has been written
+     * @param writeTabixIndex whether to write a tabix index (block compressed output only)
+     * @param numThreads number of driver threads to use to concatenate the parts
+     */
+    static void writeVcf(final JavaSparkContext ctx, final String outputFile, final JavaRDD<VariantContext> variants,
+                         final VCFHeader header, final String partsDirectory, final boolean writeTabixIndex,
+                         final int numThreads) throws IOException {
+        Utils.validateArg(numThreads > 0, "numThreads must be positive");
+        final boolean blockCompressed = outputFile.endsWith(FileExtensions.COMPRESSED_VCF);
+        final boolean tabix = writeTabixIndex && blockCompressed;
+        final Path partsPath = preparePartsDirectory(partsDirectory);
+        final String partsPathString = partsPath.toUri().toString();
+
+        // writing the header fills in the header fields needed to encode the records
+        final ByteArrayOutputStream headerBytes = new ByteArrayOutputStream();
+        try (final VariantContextWriter writer = new VariantContextWriterBuilder().clearOptions().setOutputVCFStream(headerBytes).build()) {
+            writer.writeHeader(header);
+        }
+
+        final long startTime = System.nanoTime();
+        final Broadcast<VCFHeader> headerBroadcast = ctx.broadcast(header);
+        variants.foreachPartition(partition -> writeVcfPart(IOUtils.getPath(partsPathString), TaskContext.getPartitionId(),
+                partition, headerBroadcast.getValue(), blockCompressed, tabix));
+        final long partsTime = System.nanoTime();
+
+        final Path headerPath = partsPath.resolve(HEADER_PART_NAME);
+        if (blockCompressed) {
+            final BlockCompressedOutputStream out = new BlockCompressedOutputStream(Files.newOutputStream(headerPath), (Path) null);
+            out.write(headerBytes.toByteArray());
+            out.close(false);
+        } else {
+            Files.write(headerPath, headerBytes.toByteArray());
+        }
+        final List<Path> parts = getPartPaths(partsPath, variants.getNumPartitions());
+        final Path outputPath = IOUtils.getPath(outputFile);
+        final long[] offsets = concatenate(headerPath, parts, outputPath, numThreads, blockCompressed);
+        final long concatenationTime = System.nanoTime();
+
+        if (tabix) {
+            try (final OutputStream out = new BufferedOutputStream(Files.newOutputStream(IOUtils.getPath(outputFile + FileExtensions.TABIX_INDEX)))) {
+                final TabixIndexMerger merger = new TabixIndexMerger(out, offsets[0]);
+                for (int i = 0; i < parts.size(); i++) {
+                    final long partLength = offsets[i + 1] - offsets[i];
+                    if (partLength > 0) {
+                        merger.processIndex(new TabixIndex(getIndexPath(parts.get(i), FileExtensions.TABIX_INDEX).toFile()), partLength);
+                    }
+                }
+                merger.finish(Files.size(outputPath));
+            }
+        }
+        final long indexTime = System.nanoTime();
+
+        IOUtils.deleteRecursively(partsPath);
+        logTimes(outputFile, parts.size(), startTime, partsTime, concatenationTime, indexTime);
+    }
+
+    private static void writeVcfPart(final Path partsPath, final int partitionIndex, final Iterator<VariantContext> variants,
+                                     final VCFHeader header, final boolean blockCompressed, final boolean writeTabixIndex) throws IOException {
+        final Path partPath = getPartPath(partsPath, partitionIndex);
+        final Path attemptPath = getAttemptPath(partPath);
+        final VCFEncoder encoder = new VCFEncoder(header, false, false);
+        final TabixIndexCreator indexCreator = writeTabixIndex ? new TabixIndexCreator(header.getSequenceDictionary(), TabixFormat.VCF) : null;
+        final BlockCompressedOutputStream blockCompressedOut = blockCompressed
+                ? new BlockCompressedOutputStream(Files.newOutputStream(attemptPath), (Path) null) : null;
+        final OutputStream out = blockCompressed ? blockCompressedOut : new BufferedOutputStream(Files.newOutputStream(attemptPath));
+        try {
+            while (variants.hasNext()) {
+                final VariantContext variant = variants.next();
+                if (indexCreator != null) {
+                    indexCreator.addFeature(variant, blockCompressedOut.getFilePointer());
+                }
+                out.write((encoder.encode(variant) + "\n").getBytes(StandardCharsets.UTF_8));
+            }
+        } finally {
+            // parts are concatenated, so only the merged file gets a BGZF terminator
+            if (blockCompressed) {
+                blockCompressedOut.close(false);
+            } else {
+                out.close();
+            }
+        }
+        if (indexCreator != null) {
+            // the file pointer of a closed stream is the end of the last block written
+            indexCreator.finalizeIndex(blockCompressedOut.getFilePointer()).write(getIndexPath(attemptPath, FileExtensions.TABIX_INDEX).toFile());
+        }
+        commitAttempt(attemptPath, partPath, indexCreator != null
+                ? Collections.singletonList(FileExtensions.TABIX_INDEX) : Collections.emptyList());
+    }
+
+    /**
+     * Copies the header and parts into the output file, using the given number of threads, and appends a BGZF terminator.
+     * @return the offset of the end of the header and of each part in the output file
+     */
+    @VisibleForTesting
+    static long[] concatenate(final Path headerPath, final List<Path> parts, final Path outputPath, final int numThreads) throws IOException {
+        return concatenate(headerPath, parts, outputPath, numThreads, true);
+    }
+
+    private static long[] concatenate(final Path headerPath, final List<Path> parts, final Path outputPath,
+                                      final int numThreads, final boolean writeTerminator) throws IOException {
+        final List<Path> inputs = new ArrayList<>(parts.size() + 1);
+        inputs.add(headerPath);
+        inputs.addAll(parts);
+        final long[] offsets = new long[inputs.size()];
+        long offset = 0;
+        for (int i = 0; i < inputs.size(); i++) {
+            offset += Files.size(inputs.get(i));
+            offsets[i] = offset;
+        }
+
+        final ExecutorService executor = Executors.newFixedThreadPool(numThreads,
+                new ThreadFactoryBuilder().setNameFormat("parts-merger-%d").setDaemon(true).build());
+        try {
+            try (final FileChannel out = FileChannel.open(outputPath, StandardOpenOption.CREATE,
+                    StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+                if (writeTerminator) {
+                    final ByteBuffer terminator = ByteBuffer.wrap(BlockCompressedStreamConstants.EMPTY_GZIP_BLOCK);
+                    long position = offset;
+                    while (terminator.hasRemaining()) {
+                        position += out.write(terminator, position);
+                    }
+                }
+            }
+            final List<Future<?>> copies = new ArrayList<>(inputs.size());
+            for (int i = 0; i < inputs.size(); i++) {
+                final Path input = inputs.get(i);
+                final long position = i == 0 ? 0 : offsets[i - 1];
+                copies.add(executor.submit(() -> copy(input, outputPath, position)));
+            }
+            for (final Future<?> copy : copies) {
+                copy.get();
+            }
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GATKException("Interrupted while merging parts into " + outputPath, e);
+        } catch (final ExecutionException e) {
+            if (e.getCause() instanceof IOException) {
+                throw (IOException) e.getCause();
+            }
+            throw new GATKException("Error merging parts into " + outputPath, e.getCause());
+        } finally {
+            executor.shutdownNow();
+        }
+        return offsets;
+    }
+
+    // each copy has its own output channel, since transferTo writes at the channel's position
+    private static Void copy(final Path input, final Path outputPath, final long position) throws IOException {
+        try (final FileChannel in = FileChannel.open(input, StandardOpenOption.READ);
+             final FileChannel out = FileChannel.open(outputPath, StandardOpenOption.WRITE)) {
+            out.position(position);
+            final long size = in.size();
+            long copied = 0;
+            while (copied < size) {
+                copied += in.transferTo(copied, size - copied, out);
+            }
+        }
+        return null;
+    }
+
+    private static Path preparePartsDirectory(final String partsDirectory) throws IOException {
+        final Path partsPath = IOUtils.getPath(partsDirectory);
+        if (Files.exists(partsPath)) {
+            IOUtils.deleteRecursively(partsPath);
+        }
+        Files.createDirectories(partsPath);
+        return partsPath;
+    }
+
+    private static List<Path> getPartPaths(final Path partsPath, final int numPartitions) {
+        final List<Path> parts = new ArrayList<>(numPartitions);
+        for (int i = 0; i < numPartitions; i++) {
+            parts.add(getPartPath(partsPath, i));
+        }
+        return parts;
+    }
+
+    private static Path getPartPath(final Path partsPath, final int partitionIndex) {
+        return partsPath.resolve(String.format("part-r-%05d", partitionIndex));
+    }
+
+    private static Path getIndexPath(final Path partPath, final String extension) {
+        return partPath.resolveSibling(partPath.getFileName() + extension);
+    }
+
+    /**
+     * Returns the temporary path to which the current task attempt writes the given part. Attempt paths are hidden
+     * files, so they are never mistaken for parts.
+     */
+    private static Path getAttemptPath(final Path partPath) {
+        final TaskContext context = TaskContext.get();
+        final long attemptId = context == null ? 0 : context.taskAttemptId();
+        return partPath.resolveSibling("." + partPath.getFileName() + ".attempt-" + attemptId);
+    }
+
+    /**
+     * Renames the files written by a task attempt into place. The index fragments are moved before the part itself,
+     * so a part that is in place always has its index fragments.
+     */
+    private static void commitAttempt(final Path attemptPath, final Path partPath, final List<String> indexExtensions) throws IOException {
+        for (final String extension : indexExtensions) {
+            Files.move(getIndexPath(attemptPath, extension), getIndexPath(partPath, extension),
+                    StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        }
+        Files.move(attemptPath, partPath, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private static void logTimes(final String outputFile, final int numParts, final long startTime, final long partsTime,
+                                 final long concatenationTime, final long indexTime) {
+        logger.info(String.format("Wrote %s from %d parts: parts %.1fs, concatenation %.1fs, index merge %.1fs",
+                outputFile, numParts, (partsTime - startTime) / 1e9, (concatenationTime - partsTime) / 1e9,
+                (indexTime - concatenationTime) / 1e9));
+    }
+}
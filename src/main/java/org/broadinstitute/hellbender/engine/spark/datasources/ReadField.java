@@ -0,0 +1,24 @@
+package org.broadinstitute.hellbender.engine.spark.datasources;
+
+import java.util.Collections;
+import java.util.EnumSet;
+import java.util.Set;
+
+/**
+ * The optional fields of a read that {@link ReadsSparkSource} can be asked to load. Fields that are not requested are
+ * not decoded (or, for Parquet input, not read from disk), and are left empty in the loaded reads.
+ *
+ * The flags, position, mapping quality, cigar and mate position of a read are always loaded.
+ */
+public enum ReadField {
+    /** The read name */
+    NAME,
+    /** The read bases. If these are not loaded, then {@link org.broadinstitute.hellbender.utils.read.GATKRead#getLength} is 0. */
+    BASES,
+    /** The base qualities. Requesting these also loads the {@link #BASES}. */
+    QUALITIES,
+    /** The read attributes (tags), including the read group */
+    ATTRIBUTES;
+
+    public static final Set<ReadField> ALL = Collections.unmodifiableSet(EnumSet.allOf(ReadField.class));
+}
@@ -20,6 +20,7 @@ import org.bdgenomics.formats.avro.AlignmentRecord;
 import org.broadinstitute.hellbender.engine.GATKPath;
 import org.broadinstitute.hellbender.exceptions.GATKException;
 import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.gcs.BucketUtils;
 import org.broadinstitute.hellbender.utils.read.GATKRead;
 import org.broadinstitute.hellbender.utils.read.GATKReadToBDGAlignmentRecordConverter;
@@ -95,6 +96,34 @@ public final class ReadsSparkSink {
             final JavaSparkContext ctx, final String outputFile, final GATKPath referencePathSpecifier, final JavaRDD<GATKRead> reads,
             final SAMFileHeader header, ReadsWriteFormat format, final int numReducers, final String outputPartsDir,
             final boolean writeBai, final boolean writeSbi, final boolean sortReadsToHeader, final long splittingIndexGranularity) throws IOException {
+        writeReads(ctx, outputFile, referencePathSpecifier, reads, header, format, numReducers, outputPartsDir, writeBai, writeSbi, sortReadsToHeader, splittingIndexGranularity, 0);
+    }
+
+    /**
+     * writeReads writes rddReads to outputFile with header as the file header.
+     * @param ctx the JavaSparkContext to write.
+     * @param outputFile path to the output bam.
+     * @param referencePathSpecifier GATKPath to the reference. required for cram output, otherwise may be null.
+     * @param reads reads to write.
+     * @param header the header to put at the top of the files
+     * @param format should the output be a single file, sharded, ADAM, etc.
+     * @param numReducers the number of reducers to use when writing a single file. A value of zero indicates that the default
+     *                    should be used.
+     * @param outputPartsDir directory for temporary files for SINGLE output format, should be null for default value of filename + .output
+     * @param writeBai whether to write a BAI file (when writing BAM format)
+     * @param writeSbi whether to write an SBI file (when writing BAM format)
+     * @param sortReadsToHeader whether to sort the reads in the underlying RDD to match the header sort order option before writing
+     * @param splittingIndexGranularity  the granularity of the splitting index if one is created
+     * @param mergeThreads the number of driver threads to use to merge the parts of a SINGLE BAM file that is not on remote
+     *                     storage (see {@link ParallelPartsMerger}). A value of zero indicates that the parts should be
+     *                     merged by disq.
+     */
+    public static void writeReads(
+            final JavaSparkContext ctx, final String outputFile, final GATKPath referencePathSpecifier, final JavaRDD<GATKRead> reads,
+            final SAMFileHeader header, ReadsWriteFormat format, final int numReducers, final String outputPartsDir,
+            final boolean writeBai, final boolean writeSbi, final boolean sortReadsToHeader, final long splittingIndexGranularity,
+            final int mergeThreads) throws IOException {
+        Utils.validateArg(mergeThreads >= 0, "mergeThreads must be non-negative");
 
         String absoluteOutputFile = BucketUtils.makeFilePathAbsolute(outputFile);
         ReadsSparkSource.checkCramReference(ctx, new GATKPath(absoluteOutputFile), referencePathSpecifier);
@@ -112,6 +141,15 @@ public final class ReadsSparkSink {
             TempPartsDirectoryWriteOption tempPartsDirectoryWriteOption = new TempPartsDirectoryWriteOption(outputPartsDirectory);
             BaiWriteOption baiWriteOption = BaiWriteOption.fromBoolean(writeBai);
             SbiWriteOption sbiWriteOption = SbiWriteOption.fromBoolean(writeSbi);
+            final boolean isBam = !absoluteOutputFile.endsWith(FileExtensions.CRAM) && !absoluteOutputFile.endsWith(FileExtensions.SAM);
+            if (mergeThreads > 0 && isBam && ParallelPartsMerger.isSupported(absoluteOutputFile, outputPartsDirectory)) {
+                ParallelPartsMerger.writeBam(ctx, absoluteOutputFile, readsToOutput, header, BucketUtils.makeFilePathAbsolute(outputPartsDirectory),
+                        writeBai, writeSbi, splittingIndexGranularity, mergeThreads);
+                return;
+            } else if (mergeThreads > 0) {
+                logger.warn("Parallel merging of output parts is only supported for BAM files that are not on remote storage; " +
+                        "merging the parts of " + absoluteOutputFile + " serially.");
+            }
             if (absoluteOutputFile.endsWith(FileExtensions.BAM) ||
                     absoluteOutputFile.endsWith(FileExtensions.CRAM) ||
                     absoluteOutputFile.endsWith(FileExtensions.SAM)) {
@@ -1,9 +1,12 @@
 package org.broadinstitute.hellbender.engine.spark.datasources;
 
+import com.google.common.annotations.VisibleForTesting;
+import com.google.common.collect.ImmutableMap;
 import htsjdk.samtools.SAMFileHeader;
 import htsjdk.samtools.SAMRecord;
 import htsjdk.samtools.SamReaderFactory;
 import htsjdk.samtools.ValidationStringency;
+import org.apache.avro.Schema;
 import org.apache.hadoop.mapreduce.Job;
 import org.apache.parquet.avro.AvroParquetInputFormat;
 import org.apache.spark.api.java.JavaRDD;
@@ -16,6 +19,7 @@ import org.broadinstitute.hellbender.engine.ReadsPathDataSource;
 import org.broadinstitute.hellbender.engine.TraversalParameters;
 import org.broadinstitute.hellbender.exceptions.UserException;
 import org.broadinstitute.hellbender.utils.SimpleInterval;
+import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.gcs.BucketUtils;
 import org.broadinstitute.hellbender.utils.read.*;
 import org.broadinstitute.hellbender.utils.spark.SparkUtils;
@@ -26,9 +30,8 @@ import org.disq_bio.disq.HtsjdkReadsTraversalParameters;
 import java.io.IOException;
 import java.io.Serializable;
 import java.nio.file.Files;
-import java.util.Collections;
-import java.util.List;
-import java.util.Objects;
+import java.util.*;
+import java.util.stream.Collectors;
 
 /** Loads the reads from disk either serially (using samReaderFactory) or in parallel using Hadoop-BAM.
  * The parallel code is a modified version of the example writing code from Hadoop-BAM.
@@ -36,6 +39,13 @@ import java.util.Objects;
 public final class ReadsSparkSource implements Serializable {
     private static final long serialVersionUID = 1L;
 
+    // the AlignmentRecord fields corresponding to each optional read field
+    private static final Map<ReadField, String> ADAM_FIELD_NAMES = ImmutableMap.of(
+            ReadField.NAME, "readName",
+            ReadField.BASES, "sequence",
+            ReadField.QUALITIES, "qual",
+            ReadField.ATTRIBUTES, "attributes");
+
     private transient final JavaSparkContext ctx;
     private ValidationStringency validationStringency = ReadConstants.DEFAULT_READ_VALIDATION_STRINGENCY;
 
@@ -85,6 +95,23 @@ public final class ReadsSparkSource implements Serializable {
      * @return RDD of (SAMRecord-backed) GATKReads from the file.
      */
     public JavaRDD<GATKRead> getParallelReads(final GATKPath readPathSpecifier, final GATKPath referencePathSpecifier, final TraversalParameters traversalParameters, final long splitSize, final boolean useNio) {
+        return getParallelReads(readPathSpecifier, referencePathSpecifier, traversalParameters, splitSize, useNio, ReadField.ALL);
+    }
+
+    /**
+     * Loads Reads using Hadoop-BAM, decoding only the requested read fields. For local files, bam must have the
+     * fully-qualified path, i.e., file:///path/to/bam.bam.
+     * @param readPathSpecifier file to load
+     * @param referencePathSpecifier GATKPath for reference or null if not available. Reference is required for CRAM files.
+     * @param traversalParameters parameters controlling which reads to include. If <code>null</code> then all the reads (both mapped and unmapped) will be returned.
+     * @param splitSize maximum bytes of bam file to read into a single partition, increasing this will result in fewer partitions. A value of zero means
+     *                  use the default split size (determined by the Hadoop input format, typically the size of one HDFS block).
+     * @param useNio whether to use NIO or the Hadoop filesystem for reading files
+     * @param readFields the optional read fields to load, the others are left empty
+     * @return RDD of (SAMRecord-backed) GATKReads from the file.
+     */
+    public JavaRDD<GATKRead> getParallelReads(final GATKPath readPathSpecifier, final GATKPath referencePathSpecifier, final TraversalParameters traversalParameters, final long splitSize, final boolean useNio, final Set<ReadField> readFields) {
+        Utils.nonNull(readFields);
         try {
             final GATKPath cramReferencePathSpec = checkCramReference(ctx, readPathSpecifier, referencePathSpecifier);
             HtsjdkReadsTraversalParameters<SimpleInterval> tp = traversalParameters == null ? null :
@@ -95,8 +122,9 @@ public final class ReadsSparkSource implements Serializable {
                     .validationStringency(validationStringency)
                     .referenceSourcePath(cramReferencePathSpec == null ? null : cramReferencePathSpec.getRawInputString())
                     .read(readPathSpecifier.getRawInputString(), tp);
+            final Set<ReadField> fieldsToLoad = getFieldsToLoad(htsjdkReadsRdd.getHeader(), readFields);
             JavaRDD<GATKRead> reads = htsjdkReadsRdd.getReads()
-                    .map(read -> (GATKRead) SAMRecordToGATKReadAdapter.headerlessReadAdapter(read))
+                    .map(read -> (GATKRead) SAMRecordToGATKReadAdapter.headerlessReadAdapter(projectRecord(read, fieldsToLoad)))
                     .filter(Objects::nonNull);
             return fixPartitionsIfQueryGrouped(ctx, htsjdkReadsRdd.getHeader(), reads);
         } catch (IOException | IllegalArgumentException e) {
@@ -104,6 +132,62 @@ public final class ReadsSparkSource implements Serializable {
         }
     }
 
+    /**
+     * Read names are always needed for query grouped input, to keep reads with the same name in the same partition.
+     * Bases are always loaded with the base qualities, since a read with qualities but no bases is not valid
+     * (and can't be serialized).
+     */
+    @VisibleForTesting
+    static Set<ReadField> getFieldsToLoad(final SAMFileHeader header, final Set<ReadField> readFields) {
+        final Set<ReadField> fieldsToLoad = readFields.isEmpty() ? EnumSet.noneOf(ReadField.class) : EnumSet.copyOf(readFields);
+        if (header != null && ReadUtils.isReadNameGroupedBam(header)) {
+            fieldsToLoad.add(ReadField.NAME);
+        }
+        if (fieldsToLoad.contains(ReadField.QUALITIES)) {
+            fieldsToLoad.add(ReadField.BASES);
+        }
+        return fieldsToLoad;
+    }
+
+    /**
+     * Returns a headerless copy of a record with only the requested optional fields. Since BAM records are decoded
+     * lazily, the fields that are not requested are never decoded. Returns the record itself if all fields are requested.
+     */
+    @VisibleForTesting
+    static SAMRecord projectRecord(final SAMRecord record, final Set<ReadField> readFields) {
+        if (readFields.containsAll(ReadField.ALL)) {
+            return record;
+        }
+        final SAMRecord projected = new SAMRecord(null);
+        if (readFields.contains(ReadField.NAME)) {
+            projected.setReadName(record.getReadName());
+        }
+        projected.setFlags(record.getFlags());
+        projected.setReferenceName(record.getReferenceName());
+        projected.setAlignmentStart(record.getAlignmentStart());
+        projected.setMappingQuality(record.getMappingQuality());
+        projected.setCigar(record.getCigar());
+        projected.setMateReferenceName(record.getMateReferenceName());
+        projected.setMateAlignmentStart(record.getMateAlignmentStart());
+        projected.setInferredInsertSize(record.getInferredInsertSize());
+        if (readFields.contains(ReadField.BASES)) {
+            projected.setReadBases(record.getReadBases());
+        }
+        if (readFields.contains(ReadField.QUALITIES)) {
+            projected.setBaseQualities(record.getBaseQualities());
+        }
+        if (readFields.contains(ReadField.ATTRIBUTES)) {
+            for (final SAMRecord.SAMTagAndValue attribute : record.getAttributes()) {
+                if (record.isUnsignedArrayAttribute(attribute.tag)) {
+                    projected.setUnsignedArrayAttribute(attribute.tag, attribute.value);
+                } else {
+                    projected.setAttribute(attribute.tag, attribute.value);
+                }
+            }
+        }
+        return projected;
+    }
+
     private static JavaRDD<GATKRead> fixPartitionsIfQueryGrouped(JavaSparkContext ctx, SAMFileHeader header, JavaRDD<GATKRead> reads) {
         if( ReadUtils.isReadNameGroupedBam(header)) {
             return SparkUtils.putReadsWithTheSameNameInTheSamePartition(header, reads, ctx);
@@ -142,8 +226,23 @@ public final class ReadsSparkSource implements Serializable {
      * @return RDD of (ADAM-backed) GATKReads from the file.
      */
     public JavaRDD<GATKRead> getADAMReads(final GATKPath inputPathSpecifier, final TraversalParameters traversalParameters, final SAMFileHeader header) throws IOException {
+        return getADAMReads(inputPathSpecifier, traversalParameters, header, ReadField.ALL);
+    }
+
+    /**
+     * Loads ADAM reads stored as Parquet, reading only the columns for the requested read fields.
+     * @param inputPathSpecifier path to the Parquet data
+     * @param readFields the optional read fields to load, the others are left empty
+     * @return RDD of (ADAM-backed) GATKReads from the file.
+     */
+    public JavaRDD<GATKRead> getADAMReads(final GATKPath inputPathSpecifier, final TraversalParameters traversalParameters, final SAMFileHeader header, final Set<ReadField> readFields) throws IOException {
+        Utils.nonNull(readFields);
         Job job = Job.getInstance(ctx.hadoopConfiguration());
         AvroParquetInputFormat.setAvroReadSchema(job, AlignmentRecord.getClassSchema());
+        final Set<ReadField> fieldsToLoad = getFieldsToLoad(header, readFields);
+        if (!fieldsToLoad.containsAll(ReadField.ALL)) {
+            AvroParquetInputFormat.setRequestedProjection(job, getAlignmentRecordProjection(fieldsToLoad));
+        }
         Broadcast<SAMFileHeader> bHeader;
         if (header == null) {
             bHeader= ctx.broadcast(null);
@@ -160,6 +259,26 @@ public final class ReadsSparkSource implements Serializable {
         return fixPartitionsIfQueryGrouped(ctx, header, filteredRdd);
     }
 
+    /**
+     * Returns the AlignmentRecord schema without the columns of the read fields that are not requested.
+     * Columns that are not read are set to their default (null) values.
+     */
+    @VisibleForTesting
+    static Schema getAlignmentRecordProjection(final Set<ReadField> readFields) {
+        final Set<String> excludedFields = new HashSet<>();
+        for (final ReadField readField : ReadField.values()) {
+            if (!readFields.contains(readField)) {
+                excludedFields.add(ADAM_FIELD_NAMES.get(readField));
+            }
+        }
+        final Schema schema = AlignmentRecord.getClassSchema();
+        final List<Schema.Field> fields = schema.getFields().stream()
+                .filter(field -> !excludedFields.contains(field.name()))
+                .map(field -> new Schema.Field(field.name(), field.schema(), field.doc(), field.defaultVal()))
+                .collect(Collectors.toList());
+        return Schema.createRecord(schema.getName(), schema.getDoc(), schema.getNamespace(), schema.isError(), fields);
+    }
+
     /**
      * Loads the header using Hadoop-BAM.
      * @param filePathSpecifier path to the bam.
@@ -3,11 +3,14 @@ package org.broadinstitute.hellbender.engine.spark.datasources;
 import htsjdk.samtools.util.FileExtensions;
 import htsjdk.variant.variantcontext.VariantContext;
 import htsjdk.variant.vcf.VCFHeader;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.apache.spark.api.java.JavaPairRDD;
 import org.apache.spark.api.java.JavaRDD;
 import org.apache.spark.api.java.JavaSparkContext;
 import org.apache.spark.api.java.function.FlatMapFunction;
 import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.gcs.BucketUtils;
 import org.broadinstitute.hellbender.utils.variant.writers.GVCFBlockCombiner;
 import org.broadinstitute.hellbender.utils.variant.writers.GVCFBlockCombiningIterator;
@@ -25,6 +28,9 @@ import java.util.List;
  * VariantsSparkSink writes variants to a VCF file in parallel using Hadoop-BAM. BCF is not supported.
  */
 public final class VariantsSparkSink {
+
+    private final static Logger logger = LogManager.getLogger(VariantsSparkSink.class);
+
     /**
      * Write variants to the given output file in VCF format with the given header. Note that writing sharded output is not supported.
      * @param ctx the JavaSparkContext
@@ -106,14 +112,42 @@ public final class VariantsSparkSink {
             final JavaSparkContext ctx, final String outputFile, final JavaRDD<VariantContext> variants,
             final VCFHeader header, final boolean writeGvcf, final List<Number> gqPartitions, final int defaultPloidy,
             final int numReducers, final boolean writeTabixIndex, final boolean sortVariantsToHeader) throws IOException {
+        writeVariants(ctx, outputFile, variants, header, writeGvcf, gqPartitions, defaultPloidy, numReducers, writeTabixIndex, sortVariantsToHeader, 0);
+    }
+
+    /**
+     * Write variants to the given output file in VCF format with the given header. Note that writing sharded output is not supported.
+     * @param ctx the JavaSparkContext
+     * @param outputFile path to the output VCF
+     * @param variants variants to write
+     * @param header the header to put at the top of the output file
+     * @param writeGvcf whether to write GVCF output
+     * @param gqPartitions the GQ partitions for GVCF output
+     * @param defaultPloidy the default ploidy for GVCF output
+     * @param numReducers the number of reducers to use when writing a single file. A value of zero indicates that the default
+     *                    should be used.
+     * @param writeTabixIndex whether to write a tabix index (bgzipped VCF only)
+     * @param sortVariantsToHeader whether to sort variants to be consistent with the header
+     * @param mergeThreads the number of driver threads to use to merge the parts of an output file that is not on remote
+     *                     storage (see {@link ParallelPartsMerger}). A value of zero indicates that the parts should be
+     *                     merged by disq.
+     * @throws IOException if an error occurs while writing
+     */
+    public static void writeVariants(
+            final JavaSparkContext ctx, final String outputFile, final JavaRDD<VariantContext> variants,
+            final VCFHeader header, final boolean writeGvcf, final List<Number> gqPartitions, final int defaultPloidy,
+            final int numReducers, final boolean writeTabixIndex, final boolean sortVariantsToHeader,
+            final int mergeThreads) throws IOException {
+        Utils.validateArg(mergeThreads >= 0, "mergeThreads must be non-negative");
         String absoluteOutputFile = BucketUtils.makeFilePathAbsolute(outputFile);
-        writeVariantsSingle(ctx, absoluteOutputFile, variants, header, writeGvcf, gqPartitions, defaultPloidy, numReducers, writeTabixIndex, sortVariantsToHeader);
+        writeVariantsSingle(ctx, absoluteOutputFile, variants, header, writeGvcf, gqPartitions, defaultPloidy, numReducers, writeTabixIndex, sortVariantsToHeader, mergeThreads);
     }
 
     private static void writeVariantsSingle(
             final JavaSparkContext ctx, final String outputFile, final JavaRDD<VariantContext> variants,
             final VCFHeader header, final boolean writeGvcf, final List<Number> gqPartitions, final int defaultPloidy,
-            final int numReducers, final boolean writeTabixIndex, final boolean sortVariantsToHeader) throws IOException {
+            final int numReducers, final boolean writeTabixIndex, final boolean sortVariantsToHeader,
+            final int mergeThreads) throws IOException {
 
         //TODO remove me when https://github.com/broadinstitute/gatk/issues/4303 is fixed
         if (outputFile.endsWith(FileExtensions.BCF) || outputFile.endsWith(FileExtensions.BCF + ".gz")) {
@@ -128,6 +162,14 @@ public final class VariantsSparkSink {
         } else {
             variantsToSave = sortedVariants;
         }
+        final String partsDirectory = ReadsSparkSink.getDefaultPartsDirectory(outputFile);
+        if (mergeThreads > 0 && ParallelPartsMerger.isSupported(outputFile, partsDirectory)) {
+            ParallelPartsMerger.writeVcf(ctx, outputFile, variantsToSave, header, partsDirectory, writeTabixIndex, mergeThreads);
+            return;
+        } else if (mergeThreads > 0) {
+            logger.warn("Parallel merging of output parts is not supported for files on remote storage; " +
+                    "merging the parts of " + outputFile + " serially.");
+        }
         TabixIndexWriteOption tabixIndexWriteOption = TabixIndexWriteOption.fromBoolean(writeTabixIndex);
         HtsjdkVariantsRdd htsjdkVariantsRdd = new HtsjdkVariantsRdd(header, variantsToSave);
         HtsjdkVariantsRddStorage.makeDefault(ctx)
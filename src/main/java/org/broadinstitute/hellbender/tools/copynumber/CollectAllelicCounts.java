@@ -17,6 +17,7 @@ import org.broadinstitute.hellbender.engine.filters.ReadFilterLibrary;
 import org.broadinstitute.hellbender.tools.copynumber.arguments.CopyNumberArgumentValidationUtils;
 import org.broadinstitute.hellbender.tools.copynumber.datacollection.AllelicCountCollector;
 import org.broadinstitute.hellbender.tools.copynumber.formats.collections.AllelicCountCollection;
+import org.broadinstitute.hellbender.tools.copynumber.formats.collections.ColumnarCountCollection;
 import org.broadinstitute.hellbender.tools.copynumber.formats.metadata.Metadata;
 import org.broadinstitute.hellbender.tools.copynumber.formats.metadata.MetadataUtils;
 import org.broadinstitute.hellbender.tools.copynumber.formats.metadata.SampleLocatableMetadata;
@@ -44,6 +45,9 @@ import java.util.List;
  *     <li>
  *         Sites at which allelic counts will be collected
  *     </li>
+ *     <li>
+ *         Output file format.  This can be used to select TSV or COLUMNAR output.
+ *     </li>
  * </ul>
  *
  *
@@ -55,6 +59,8 @@ import java.util.List;
  *         This is a tab-separated values (TSV) file with a SAM-style header containing a read group sample name, a sequence dictionary,
  *         a row specifying the column headers contained in {@link AllelicCountCollection.AllelicCountTableColumn},
  *         and the corresponding entry rows.
+ *         Alternatively, the COLUMNAR format is a simple binary format described in {@link ColumnarCountCollection},
+ *         which can be memory-mapped and read by {@link ModelSegments} without string parsing.
  *     </li>
  * </ul>
  *
@@ -78,6 +84,10 @@ import java.util.List;
 )
 @DocumentedFeature
 public final class CollectAllelicCounts extends LocusWalker {
+    public enum Format {
+        TSV, COLUMNAR
+    }
+
     private static final int DEFAULT_MINIMUM_MAPPING_QUALITY = 30;
     static final int DEFAULT_MINIMUM_BASE_QUALITY = 20;
 
@@ -88,6 +98,7 @@ public final class CollectAllelicCounts extends LocusWalker {
             new MappingQualityReadFilter(DEFAULT_MINIMUM_MAPPING_QUALITY));
 
     public static final String MINIMUM_BASE_QUALITY_LONG_NAME = "minimum-base-quality";
+    public static final String FORMAT_LONG_NAME = "format";
 
     @Argument(
             doc = "Output file for allelic counts.",
@@ -96,6 +107,13 @@ public final class CollectAllelicCounts extends LocusWalker {
     )
     private File outputAllelicCountsFile;
 
+    @Argument(
+            doc = "Output file format.",
+            fullName = FORMAT_LONG_NAME,
+            optional = true
+    )
+    private Format format = Format.TSV;
+
     @Argument(
             doc = "Minimum base quality.  Base calls with lower quality will be filtered out of pileups.",
             fullName = MINIMUM_BASE_QUALITY_LONG_NAME,
@@ -150,7 +168,12 @@ public final class CollectAllelicCounts extends LocusWalker {
     @Override
     public Object onTraversalSuccess() {
         logger.info(String.format("Writing allelic counts to %s...", outputAllelicCountsFile.getAbsolutePath()));
-        allelicCountCollector.getAllelicCounts().write(outputAllelicCountsFile);
+        final AllelicCountCollection allelicCounts = allelicCountCollector.getAllelicCounts();
+        if (format == Format.COLUMNAR) {
+            allelicCounts.writeColumnar(outputAllelicCountsFile);
+        } else {
+            allelicCounts.write(outputAllelicCountsFile);
+        }
 
         logger.info(String.format("%s complete.", getClass().getSimpleName()));
 
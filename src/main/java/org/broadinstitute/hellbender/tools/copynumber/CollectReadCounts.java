@@ -1,11 +1,7 @@
 package org.broadinstitute.hellbender.tools.copynumber;
 
-import com.google.common.collect.HashMultiset;
-import com.google.common.collect.ImmutableList;
-import com.google.common.collect.Multiset;
 import htsjdk.samtools.SAMSequenceDictionary;
-import htsjdk.samtools.util.Locatable;
-import htsjdk.samtools.util.OverlapDetector;
+import htsjdk.samtools.SamReaderFactory;
 import org.broadinstitute.barclay.argparser.Argument;
 import org.broadinstitute.barclay.argparser.CommandLineProgramProperties;
 import org.broadinstitute.barclay.help.DocumentedFeature;
@@ -13,29 +9,33 @@ import org.broadinstitute.hellbender.cmdline.StandardArgumentDefinitions;
 import org.broadinstitute.hellbender.cmdline.programgroups.CoverageAnalysisProgramGroup;
 import org.broadinstitute.hellbender.engine.FeatureContext;
 import org.broadinstitute.hellbender.engine.ReadWalker;
+import org.broadinstitute.hellbender.engine.ReadsPathDataSource;
 import org.broadinstitute.hellbender.engine.ReferenceContext;
+import org.broadinstitute.hellbender.engine.filters.CountingReadFilter;
 import org.broadinstitute.hellbender.engine.filters.MappingQualityReadFilter;
 import org.broadinstitute.hellbender.engine.filters.ReadFilter;
 import org.broadinstitute.hellbender.engine.filters.ReadFilterLibrary;
 import org.broadinstitute.hellbender.exceptions.GATKException;
+import org.broadinstitute.hellbender.exceptions.UserException;
 import org.broadinstitute.hellbender.tools.copynumber.arguments.CopyNumberArgumentValidationUtils;
+import org.broadinstitute.hellbender.tools.copynumber.datacollection.ReadCountCollector;
+import org.broadinstitute.hellbender.tools.copynumber.formats.collections.ColumnarCountCollection;
 import org.broadinstitute.hellbender.tools.copynumber.formats.collections.HDF5SimpleCountCollection;
 import org.broadinstitute.hellbender.tools.copynumber.formats.collections.SimpleCountCollection;
 import org.broadinstitute.hellbender.tools.copynumber.formats.metadata.Metadata;
 import org.broadinstitute.hellbender.tools.copynumber.formats.metadata.MetadataUtils;
 import org.broadinstitute.hellbender.tools.copynumber.formats.metadata.SampleLocatableMetadata;
-import org.broadinstitute.hellbender.tools.copynumber.formats.records.SimpleCount;
+import org.broadinstitute.hellbender.transformers.ReadTransformer;
 import org.broadinstitute.hellbender.utils.IntervalMergingRule;
-import org.broadinstitute.hellbender.utils.IntervalUtils;
-import org.broadinstitute.hellbender.utils.SimpleInterval;
 import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.read.GATKRead;
 
 import java.io.File;
 import java.util.ArrayList;
 import java.util.List;
-import java.util.Set;
-import java.util.stream.Collectors;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.IntStream;
 
 /**
  * Collects read counts at specified intervals.  The count for each interval is calculated by counting
@@ -53,7 +53,7 @@ import java.util.stream.Collectors;
  *         and all other common arguments for interval padding or merging must be set to their defaults.
  *     </li>
  *     <li>
- *         Output file format.  This can be used to select TSV or HDF5 output.
+ *         Output file format.  This can be used to select TSV, HDF5, or COLUMNAR output.
  *     </li>
  * </ul>
  *
@@ -70,9 +70,19 @@ import java.util.stream.Collectors;
  *         <a href="http://www.pytables.org/">PyTables</a> or <a href="http://www.h5py.org/">h5py</a>.
  *         The TSV format has a SAM-style header containing a read group sample name, a sequence dictionary, a row specifying the column headers contained in
  *         {@link SimpleCountCollection.SimpleCountTableColumn}, and the corresponding entry rows.
+ *         The COLUMNAR format is a simple binary format described in {@link ColumnarCountCollection}, which can be
+ *         memory-mapped and read by all copy-number tools without the native HDF5 library.
  *     </li>
  * </ul>
  *
+ * <h3>Multithreading</h3>
+ *
+ * <p>
+ *     With {@code number-of-threads} greater than 1, contigs are counted concurrently, each with its own reader
+ *     querying the intervals on that contig.  This requires indexed reads.  The counts are identical to those
+ *     collected using a single thread.
+ * </p>
+ *
  * <h3>Usage example</h3>
  *
  * <pre>
@@ -94,12 +104,13 @@ import java.util.stream.Collectors;
 @DocumentedFeature
 public final class CollectReadCounts extends ReadWalker {
     public enum Format {
-        TSV, HDF5
+        TSV, HDF5, COLUMNAR
     }
 
     private static final int DEFAULT_MINIMUM_MAPPING_QUALITY = 30;
 
     public static final String FORMAT_LONG_NAME = "format";
+    public static final String NUMBER_OF_THREADS_LONG_NAME = "number-of-threads";
 
     @Argument(
             doc = "Output file for read counts.",
@@ -115,21 +126,24 @@ public final class CollectReadCounts extends ReadWalker {
     )
     private Format format = Format.HDF5;
 
+    @Argument(
+            doc = "Number of threads to use for collecting counts.  If greater than 1, contigs are counted concurrently; " +
+                    "this requires indexed reads.",
+            fullName = NUMBER_OF_THREADS_LONG_NAME,
+            minValue = 1,
+            optional = true
+    )
+    private int numThreads = 1;
+
     /**
      * Metadata contained in the BAM file.
      */
     private SampleLocatableMetadata metadata;
 
-    private List<SimpleInterval> intervals;
-
-    private String currentContig = null;
-
     /**
-     * Overlap detector used to determine when read starts overlap with input intervals.
+     * Counts of read starts in the input intervals.
      */
-    private CachedOverlapDetector<SimpleInterval> intervalCachedOverlapDetector;
-
-    private Multiset<SimpleInterval> intervalMultiset;
+    private ReadCountCollector readCountCollector;
 
     @Override
     public boolean requiresIntervals() {
@@ -158,8 +172,7 @@ public final class CollectReadCounts extends ReadWalker {
             logger.warn("Sequence dictionary in BAM does not match the master sequence dictionary.");
         }
 
-        intervals = intervalArgumentCollection.getIntervals(sequenceDictionary);
-        intervalMultiset = HashMultiset.create(intervals.size());
+        readCountCollector = new ReadCountCollector(intervalArgumentCollection.getIntervals(sequenceDictionary));
 
         logger.info("Collecting read counts...");
     }
@@ -169,84 +182,91 @@ public final class CollectReadCounts extends ReadWalker {
         CopyNumberArgumentValidationUtils.validateOutputFiles(outputCountsFile);
     }
 
+    /**
+     * Counts reads using the default traversal if a single thread is used; otherwise, counts each contig in parallel.
+     */
+    @Override
+    public void traverse() {
+        if (numThreads == 1) {
+            super.traverse();
+        } else {
+            traverseContigsInParallel();
+        }
+    }
+
     @Override
     public void apply(GATKRead read, ReferenceContext referenceContext, FeatureContext featureContext) {
-        if (currentContig == null || !read.getContig().equals(currentContig)) {
-            //if we are on a new contig, create an OverlapDetector covering the contig
-            currentContig = read.getContig();
-            final List<SimpleInterval> intervalsOnCurrentContig = intervals.stream()
-                    .filter(i -> i.getContig().equals(currentContig))
-                    .collect(Collectors.toList());
-            intervalCachedOverlapDetector = new CachedOverlapDetector<>(intervalsOnCurrentContig);
+        readCountCollector.addReadStart(read.getContig(), read.getStart());
+    }
+
+    private void traverseContigsInParallel() {
+        SamReaderFactory factory = SamReaderFactory.makeDefault().validationStringency(readArguments.getReadValidationStringency());
+        if (hasReference()) {
+            factory = factory.referenceSequence(referenceArguments.getReferencePath());
         }
-        final SimpleInterval overlappingInterval = intervalCachedOverlapDetector.getOverlap(
-                new SimpleInterval(read.getContig(), read.getStart(), read.getStart()));
+        final SamReaderFactory samReaderFactory = factory;
+        final ReadTransformer preTransformer = makePreReadFilterTransformer();
+        final ReadTransformer postTransformer = makePostReadFilterTransformer();
+        //filters keep counts, so we make one per contig up front rather than from the worker threads
+        final List<String> contigs = readCountCollector.getContigs();
+        final List<CountingReadFilter> filters = new ArrayList<>(contigs.size());
+        contigs.forEach(c -> filters.add(makeReadFilter()));
 
-        //if read doesn't overlap any of the provided intervals, do nothing
-        if (overlappingInterval == null) {
-            return;
+        logger.info(String.format("Collecting read counts on %d contigs using %d threads...", contigs.size(), numThreads));
+        final ForkJoinPool pool = new ForkJoinPool(numThreads);
+        try {
+            pool.submit(() -> IntStream.range(0, contigs.size()).parallel().forEach(i -> {
+                final String contig = contigs.get(i);
+                final ReadCountCollector.ContigCounter contigCounter = readCountCollector.getContigCounter(contig);
+                try (final ReadsPathDataSource readsSource = new ReadsPathDataSource(
+                        readArguments.getReadPaths(), readArguments.getReadIndexPaths(), samReaderFactory)) {
+                    if (!readsSource.isQueryableByInterval()) {
+                        throw new UserException.MissingIndex(readArguments.getReadPaths().toString(),
+                                "Indexed reads are required to collect read counts using more than one thread.");
+                    }
+                    readsSource.setTraversalBounds(readCountCollector.getIntervalsOnContig(contig), false);
+                    Utils.stream(readsSource)
+                            .map(preTransformer)
+                            .filter(filters.get(i))
+                            .map(postTransformer)
+                            .forEach(read -> contigCounter.addReadStart(read.getStart()));
+                }
+                logger.debug(String.format("Finished collecting read counts on contig %s.", contig));
+            })).get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GATKException("Interrupted while collecting read counts.", e);
+        } catch (final ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new GATKException("Exception while collecting read counts.", e.getCause());
+        } finally {
+            pool.shutdown();
         }
-        intervalMultiset.add(overlappingInterval);
+
+        final long numFilteredReads = filters.stream().mapToLong(CountingReadFilter::getFilteredCount).sum();
+        logger.info(String.format("%d read(s) filtered.", numFilteredReads));
     }
 
     @Override
     public Object onTraversalSuccess() {
         logger.info(String.format("Writing read counts to %s...", outputCountsFile.getAbsolutePath()));
-        final SimpleCountCollection readCounts = new SimpleCountCollection(
-                metadata,
-                ImmutableList.copyOf(intervals.stream()     //making this an ImmutableList avoids a defensive copy in SimpleCountCollection
-                        .map(i -> new SimpleCount(i, intervalMultiset.count(i)))
-                        .iterator()));
-
-        if (format == Format.HDF5) {
-            readCounts.writeHDF5(outputCountsFile);
-        } else {
-            readCounts.write(outputCountsFile);
+        final SimpleCountCollection readCounts = readCountCollector.getReadCounts(metadata);
+
+        switch (format) {
+            case HDF5:
+                readCounts.writeHDF5(outputCountsFile);
+                break;
+            case COLUMNAR:
+                readCounts.writeColumnar(outputCountsFile);
+                break;
+            default:
+                readCounts.write(outputCountsFile);
         }
 
         logger.info(String.format("%s complete.", getClass().getSimpleName()));
 
         return null;
     }
-
-    /**
-     * A simple wrapper around {@link OverlapDetector} to provide naive caching and ensure that overlap sets
-     * only contain a single interval.
-     */
-    private final class CachedOverlapDetector<T extends Locatable> {
-        private final OverlapDetector<T> overlapDetector;
-        private T cachedResult;
-
-        CachedOverlapDetector(final List<T> intervals) {
-            Utils.nonEmpty(intervals);
-            this.overlapDetector = OverlapDetector.create(intervals);
-            //double check that intervals do not overlap
-            Utils.validateArg(intervals.stream().noneMatch(i -> overlapDetector.getOverlaps(i).size() > 1),
-                    "Input intervals may not be overlapping.");
-            cachedResult = intervals.get(0);
-        }
-
-        /**
-         * We check the previously cached result first.  Assuming that queries will be made in sorted order,
-         * this may slightly save on lookup time.
-         * @return {@code null} if no interval overlaps {@code locatable}
-         */
-        T getOverlap(final Locatable locatable) {
-            if (IntervalUtils.overlaps(cachedResult, locatable)) {
-                return cachedResult;
-            }
-            final Set<T> overlaps = overlapDetector.getOverlaps(locatable);
-            if (overlaps.size() > 1) {
-                //should not reach here since intervals are checked for overlaps;
-                //performing a redundant check to protect against future code changes
-                throw new GATKException.ShouldNeverReachHereException("Intervals should be non-overlapping, " +
-                        "so at most one interval should intersect with the start of a read.");
-            }
-            final T firstOverlap = overlaps.stream().findFirst().orElse(null);
-            if (firstOverlap != null) {
-                cachedResult = firstOverlap;
-            }
-            return firstOverlap;
-        }
-    }
 }
@@ -66,6 +66,15 @@ import java.util.stream.Collectors;
  *     a probabilistic model for systematic bias and calling rare and common germline CNVs for samples in the panel.)
  * </p>
  *
+ * <p>
+ *     By default, SVD is performed using Spark.  For large panels (e.g., thousands of samples at 1kb bins),
+ *     a randomized truncated SVD can instead be performed locally using multiple threads by specifying
+ *     {@code --svd-method RANDOMIZED} and {@code --number-of-svd-threads}.  This avoids starting Spark and the
+ *     additional copies of the standardized panel required by Spark.  However, the read counts for all samples must
+ *     still fit in memory for filtering and standardization, and the standardized panel is decomposed in memory;
+ *     the decomposition itself requires additional memory of only O((samples + intervals) x (eigensamples + 10)) values.
+ * </p>
+ *
  * <h3>Inputs</h3>
  *
  * <ul>
@@ -119,6 +128,11 @@ import java.util.stream.Collectors;
 public final class CreateReadCountPanelOfNormals extends SparkCommandLineProgram {
     private static final long serialVersionUID = 1L;
 
+    public enum SVDMethod {
+        SPARK,      //distributed SVD of the full matrix using Spark MLlib
+        RANDOMIZED  //local randomized SVD using multiple threads
+    }
+
     //default values for filtering
     private static final double DEFAULT_MINIMUM_INTERVAL_MEDIAN_PERCENTILE = 10.0;
     private static final double DEFAULT_MAXIMUM_ZEROS_IN_SAMPLE_PERCENTAGE = 5.0;
@@ -130,6 +144,8 @@ public final class CreateReadCountPanelOfNormals extends SparkCommandLineProgram
     private static final int DEFAULT_NUMBER_OF_EIGENSAMPLES = 20;
     private static final int DEFAULT_CHUNK_DIVISOR = 16;
     private static final int DEFAULT_MAXIMUM_CHUNK_SIZE = HDF5Utils.MAX_NUMBER_OF_VALUES_PER_HDF5_MATRIX / DEFAULT_CHUNK_DIVISOR;
+    private static final SVDMethod DEFAULT_SVD_METHOD = SVDMethod.SPARK;
+    private static final int DEFAULT_NUMBER_OF_SVD_THREADS = 1;
 
     //parameter names
     public static final String MINIMUM_INTERVAL_MEDIAN_PERCENTILE_LONG_NAME = "minimum-interval-median-percentile";
@@ -139,6 +155,8 @@ public final class CreateReadCountPanelOfNormals extends SparkCommandLineProgram
     public static final String IMPUTE_ZEROS_LONG_NAME = "do-impute-zeros";
     public static final String EXTREME_OUTLIER_TRUNCATION_PERCENTILE_LONG_NAME = "extreme-outlier-truncation-percentile";
     public static final String MAXIMUM_CHUNK_SIZE = "maximum-chunk-size";
+    public static final String SVD_METHOD_LONG_NAME = "svd-method";
+    public static final String NUMBER_OF_SVD_THREADS_LONG_NAME = "number-of-svd-threads";
 
     @Argument(
             doc = "Input TSV or HDF5 files containing integer read counts in genomic intervals for all samples in the panel of normals (output of CollectReadCounts).  " +
@@ -249,6 +267,39 @@ public final class CreateReadCountPanelOfNormals extends SparkCommandLineProgram
     )
     private int maximumChunkSize = DEFAULT_MAXIMUM_CHUNK_SIZE;
 
+    @Advanced
+    @Argument(
+            doc = "Method used to perform SVD.  SPARK performs an exact truncated SVD using Spark, " +
+                    "which requires additional copies of the standardized panel.  RANDOMIZED performs a randomized " +
+                    "truncated SVD locally without starting Spark or copying the standardized panel, which reduces " +
+                    "memory usage and runtime for large panels; eigensample vectors may differ from those found by " +
+                    "SPARK by small numerical errors and signs.  In either case, the standardized panel " +
+                    "(samples x intervals values) is held in memory; RANDOMIZED requires additional memory of only " +
+                    "O((samples + intervals) x (eigensamples + 10)) values.",
+            fullName = SVD_METHOD_LONG_NAME,
+            optional = true
+    )
+    private SVDMethod svdMethod = DEFAULT_SVD_METHOD;
+
+    @Advanced
+    @Argument(
+            doc = "Number of threads used to perform SVD.  Only used if " + SVD_METHOD_LONG_NAME + " is RANDOMIZED.",
+            fullName = NUMBER_OF_SVD_THREADS_LONG_NAME,
+            minValue = 1,
+            optional = true
+    )
+    private int numSVDThreads = DEFAULT_NUMBER_OF_SVD_THREADS;
+
+    @Override
+    protected Object doWork() {
+        if (svdMethod == SVDMethod.RANDOMIZED) {
+            //the randomized SVD is performed locally, so we do not need a Spark context
+            runPipeline(null);
+            return null;
+        }
+        return super.doWork();
+    }
+
     @Override
     protected void runPipeline(final JavaSparkContext ctx) {
         if (!new HDF5Library().load(null)) {  //Note: passing null means using the default temp dir.
@@ -291,7 +342,7 @@ public final class CreateReadCountPanelOfNormals extends SparkCommandLineProgram
                 sequenceDictionary, readCountMatrix, sampleFilenames, intervals, intervalGCContent,
                 minimumIntervalMedianPercentile, maximumZerosInSamplePercentage, maximumZerosInIntervalPercentage,
                 extremeSampleMedianPercentile, doImputeZeros, extremeOutlierTruncationPercentile, numEigensamplesRequested,
-                maximumChunkSize, ctx);
+                maximumChunkSize, svdMethod, numSVDThreads, ctx);
 
         logger.info(String.format("%s complete.", getClass().getSimpleName()));
     }
@@ -1,6 +1,8 @@
 package org.broadinstitute.hellbender.tools.copynumber;
 
+import com.google.common.collect.Lists;
 import org.apache.commons.math3.linear.RealMatrix;
+import org.broadinstitute.barclay.argparser.Advanced;
 import org.broadinstitute.barclay.argparser.Argument;
 import org.broadinstitute.barclay.argparser.CommandLineProgramProperties;
 import org.broadinstitute.barclay.help.DocumentedFeature;
@@ -17,8 +19,14 @@ import org.broadinstitute.hellbender.tools.copynumber.formats.collections.Annota
 import org.broadinstitute.hellbender.tools.copynumber.formats.collections.CopyRatioCollection;
 import org.broadinstitute.hellbender.tools.copynumber.formats.collections.SimpleCountCollection;
 import org.broadinstitute.hellbender.tools.copynumber.formats.records.annotation.CopyNumberAnnotations;
+import org.broadinstitute.hellbender.utils.Utils;
 
 import java.io.File;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 /**
  * Denoises read counts to produce denoised copy ratios.
@@ -55,11 +63,19 @@ import java.io.File;
  *     denoised only with panels containing only individuals of the same sex as the case samples.
  * </p>
  *
+ * <p>
+ *     Multiple samples may be denoised in a single run.  In this case, the panel of normals is read only once
+ *     and samples are standardized and denoised together in batches (see {@code number-of-samples-per-batch}),
+ *     with results written to an output directory and named by sample name.  Results are identical to those
+ *     obtained by denoising each sample separately.
+ * </p>
+ *
  * <h3>Inputs</h3>
  *
  * <ul>
  *     <li>
- *         Counts TSV or HDF5 file from {@link CollectReadCounts}.
+ *         Counts TSV or HDF5 files from {@link CollectReadCounts}.
+ *         If more than one is provided, an output directory must be specified.
  *     </li>
  *     <li>
  *         (Optional) Panel-of-normals from {@link CreateReadCountPanelOfNormals}.
@@ -101,6 +117,15 @@ import java.io.File;
  *
  * <pre>
  *     gatk DenoiseReadCounts \
+ *          -I sample_1.counts.hdf5 \
+ *          -I sample_2.counts.hdf5 \
+ *          ... \
+ *          --count-panel-of-normals panel_of_normals.pon.hdf5 \
+ *          -O denoised_output_directory
+ * </pre>
+ *
+ * <pre>
+ *     gatk DenoiseReadCounts \
  *          -I sample.counts.hdf5 \
  *          --annotated-intervals annotated_intervals.tsv \
  *          --standardized-copy-ratios sample.standardizedCR.tsv \
@@ -123,12 +148,21 @@ import java.io.File;
 )
 @DocumentedFeature
 public final class DenoiseReadCounts extends CommandLineProgram {
+    public static final String STANDARDIZED_COPY_RATIOS_FILE_SUFFIX = ".standardizedCR.tsv";
+    public static final String DENOISED_COPY_RATIOS_FILE_SUFFIX = ".denoisedCR.tsv";
+
+    public static final String NUMBER_OF_SAMPLES_PER_BATCH_LONG_NAME = "number-of-samples-per-batch";
+
+    private static final int DEFAULT_NUMBER_OF_SAMPLES_PER_BATCH = 32;
+
     @Argument(
-            doc = "Input TSV or HDF5 file containing integer read counts in genomic intervals for a single case sample (output of CollectReadCounts).",
+            doc = "Input TSV or HDF5 files containing integer read counts in genomic intervals for case samples (output of CollectReadCounts).  " +
+                    "If more than one file is provided, an output directory must be specified.",
             fullName = StandardArgumentDefinitions.INPUT_LONG_NAME,
-            shortName = StandardArgumentDefinitions.INPUT_SHORT_NAME
+            shortName = StandardArgumentDefinitions.INPUT_SHORT_NAME,
+            minElements = 1
     )
-    private File inputReadCountFile;
+    private List<File> inputReadCountFiles = new ArrayList<>();
 
     @Argument(
             doc = "Input HDF5 file containing the panel of normals (output of CreateReadCountPanelOfNormals).",
@@ -139,7 +173,7 @@ public final class DenoiseReadCounts extends CommandLineProgram {
 
     @Argument(
             doc = "Input file containing annotations for GC content in genomic intervals (output of AnnotateIntervals).  " +
-                    "Intervals must be identical to and in the same order as those in the input read-counts file.  " +
+                    "Intervals must be identical to and in the same order as those in the input read-counts files.  " +
                     "If a panel of normals is provided, this input will be ignored.",
             fullName = CopyNumberStandardArgument.ANNOTATED_INTERVALS_FILE_LONG_NAME,
             optional = true
@@ -147,16 +181,33 @@ public final class DenoiseReadCounts extends CommandLineProgram {
     private File inputAnnotatedIntervalsFile = null;
 
     @Argument(
-            doc = "Output file for standardized copy ratios.  GC-bias correction will be performed if annotations for GC content are provided.",
-            fullName = CopyNumberStandardArgument.STANDARDIZED_COPY_RATIOS_FILE_LONG_NAME
+            doc = "Output file for standardized copy ratios.  GC-bias correction will be performed if annotations for GC content are provided.  " +
+                    "Required if a single input file and no output directory are provided.",
+            fullName = CopyNumberStandardArgument.STANDARDIZED_COPY_RATIOS_FILE_LONG_NAME,
+            optional = true,
+            mutex = {StandardArgumentDefinitions.OUTPUT_LONG_NAME}
+    )
+    private File outputStandardizedCopyRatiosFile = null;
+
+    @Argument(
+            doc = "Output file for denoised copy ratios.  " +
+                    "Required if a single input file and no output directory are provided.",
+            fullName = CopyNumberStandardArgument.DENOISED_COPY_RATIOS_FILE_LONG_NAME,
+            optional = true,
+            mutex = {StandardArgumentDefinitions.OUTPUT_LONG_NAME}
     )
-    private File outputStandardizedCopyRatiosFile;
+    private File outputDenoisedCopyRatiosFile = null;
 
     @Argument(
-            doc = "Output file for denoised copy ratios.",
-            fullName = CopyNumberStandardArgument.DENOISED_COPY_RATIOS_FILE_LONG_NAME
+            doc = "Output directory for standardized and denoised copy ratios, which will be named by sample name with suffixes " +
+                    STANDARDIZED_COPY_RATIOS_FILE_SUFFIX + " and " + DENOISED_COPY_RATIOS_FILE_SUFFIX + ", respectively.  " +
+                    "Will be created if it does not exist.",
+            fullName = StandardArgumentDefinitions.OUTPUT_LONG_NAME,
+            shortName = StandardArgumentDefinitions.OUTPUT_SHORT_NAME,
+            optional = true,
+            mutex = {CopyNumberStandardArgument.STANDARDIZED_COPY_RATIOS_FILE_LONG_NAME, CopyNumberStandardArgument.DENOISED_COPY_RATIOS_FILE_LONG_NAME}
     )
-    private File outputDenoisedCopyRatiosFile;
+    private File outputDir = null;
 
     @Argument(
             doc = "Number of eigensamples to use for denoising.  " +
@@ -168,6 +219,18 @@ public final class DenoiseReadCounts extends CommandLineProgram {
     )
     private Integer numEigensamplesRequested = null;
 
+    @Advanced
+    @Argument(
+            doc = "Maximum number of samples that are read and denoised together when multiple input files are provided.  " +
+                    "Larger batches make more efficient use of the panel of normals but require more memory.",
+            fullName = NUMBER_OF_SAMPLES_PER_BATCH_LONG_NAME,
+            minValue = 1,
+            optional = true
+    )
+    private int numSamplesPerBatch = DEFAULT_NUMBER_OF_SAMPLES_PER_BATCH;
+
+    private final Set<String> outputSampleNames = new HashSet<>();
+
     @Override
     protected Object doWork() {
         if (!new HDF5Library().load(null)) { //Note: passing null means using the default temp dir.
@@ -177,9 +240,6 @@ public final class DenoiseReadCounts extends CommandLineProgram {
 
         validateArguments();
 
-        logger.info(String.format("Reading read-counts file (%s)...", inputReadCountFile));
-        final SimpleCountCollection readCounts = SimpleCountCollection.read(inputReadCountFile);
-
         if (inputPanelOfNormalsFile != null) {  //denoise using panel of normals
             try (final HDF5File hdf5PanelOfNormalsFile = new HDF5File(inputPanelOfNormalsFile)) {  //HDF5File implements AutoCloseable
                 final SVDReadCountPanelOfNormals panelOfNormals = HDF5SVDReadCountPanelOfNormals.read(hdf5PanelOfNormalsFile);
@@ -197,34 +257,49 @@ public final class DenoiseReadCounts extends CommandLineProgram {
                     logger.warn(String.format("%d eigensamples were requested but only %d are available in the panel of normals...",
                             numEigensamplesRequested, numEigensamples));
                 }
-                final SVDDenoisedCopyRatioResult denoisedCopyRatioResult = panelOfNormals.denoise(readCounts, numEigensamples);
 
-                writeResult(denoisedCopyRatioResult);
+                //the panel is read only once and samples are denoised in batches
+                final SVDBatchDenoiser denoiser = new SVDBatchDenoiser(panelOfNormals, numEigensamples);
+                for (final List<File> batchReadCountFiles : Lists.partition(inputReadCountFiles, numSamplesPerBatch)) {
+                    final List<SimpleCountCollection> batchReadCounts = batchReadCountFiles.stream()
+                            .map(this::readReadCounts)
+                            .collect(Collectors.toList());
+                    denoiser.denoise(batchReadCounts).forEach(this::writeResult);
+                }
             }
         } else {    //standardize and perform optional GC-bias correction
-            //get GC content (null if not provided)
-            final AnnotatedIntervalCollection annotatedIntervals = CopyNumberArgumentValidationUtils.validateAnnotatedIntervals(
-                    inputAnnotatedIntervalsFile, readCounts, logger);
-            final double[] intervalGCContent = annotatedIntervals == null
-                    ? null
-                    : annotatedIntervals.getRecords().stream()
-                    .mapToDouble(i -> i.getAnnotationMap().getValue(CopyNumberAnnotations.GC_CONTENT))
-                    .toArray();
-
-            if (intervalGCContent == null) {
+            if (inputAnnotatedIntervalsFile == null) {
                 logger.warn("Neither a panel of normals nor GC-content annotations were provided, so only standardization will be performed...");
             }
 
-            final RealMatrix standardizedCopyRatioValues = SVDDenoisingUtils.preprocessAndStandardizeSample(readCounts.getCounts(), intervalGCContent);
+            AnnotatedIntervalCollection annotatedIntervals = null;
+            double[] intervalGCContent = null;
+            for (final File inputReadCountFile : inputReadCountFiles) {
+                final SimpleCountCollection readCounts = readReadCounts(inputReadCountFile);
+
+                //get GC content (null if not provided) using the intervals of the first sample
+                if (annotatedIntervals == null && inputAnnotatedIntervalsFile != null) {
+                    annotatedIntervals = CopyNumberArgumentValidationUtils.validateAnnotatedIntervals(
+                            inputAnnotatedIntervalsFile, readCounts, logger);
+                    intervalGCContent = annotatedIntervals.getRecords().stream()
+                            .mapToDouble(i -> i.getAnnotationMap().getValue(CopyNumberAnnotations.GC_CONTENT))
+                            .toArray();
+                } else if (annotatedIntervals != null) {
+                    Utils.validateArg(annotatedIntervals.getIntervals().equals(readCounts.getIntervals()),
+                            String.format("Intervals for read counts in %s must be identical to those in the annotated-intervals file.", inputReadCountFile));
+                }
+
+                final RealMatrix standardizedCopyRatioValues = SVDDenoisingUtils.preprocessAndStandardizeSample(readCounts.getCounts(), intervalGCContent);
 
-            //construct a result with denoised result identical to standardized result
-            final SVDDenoisedCopyRatioResult standardizedResult = new SVDDenoisedCopyRatioResult(
-                    readCounts.getMetadata(),
-                    readCounts.getIntervals(),
-                    standardizedCopyRatioValues,
-                    standardizedCopyRatioValues);
+                //construct a result with denoised result identical to standardized result
+                final SVDDenoisedCopyRatioResult standardizedResult = new SVDDenoisedCopyRatioResult(
+                        readCounts.getMetadata(),
+                        readCounts.getIntervals(),
+                        standardizedCopyRatioValues,
+                        standardizedCopyRatioValues);
 
-            writeResult(standardizedResult);
+                writeResult(standardizedResult);
+            }
         }
 
         logger.info(String.format("%s complete.", getClass().getSimpleName()));
@@ -233,19 +308,52 @@ public final class DenoiseReadCounts extends CommandLineProgram {
     }
 
     private void validateArguments() {
+        Utils.validateArg(inputReadCountFiles.size() == new HashSet<>(inputReadCountFiles).size(),
+                "List of input read-counts files cannot contain duplicates.");
+        CopyNumberArgumentValidationUtils.validateInputs(inputReadCountFiles.toArray(new File[0]));
         CopyNumberArgumentValidationUtils.validateInputs(
-                inputReadCountFile,
                 inputPanelOfNormalsFile,
                 inputAnnotatedIntervalsFile);
-        CopyNumberArgumentValidationUtils.validateOutputFiles(
-                outputStandardizedCopyRatiosFile,
-                outputStandardizedCopyRatiosFile);
+        if (outputDir == null) {
+            Utils.validateArg(inputReadCountFiles.size() == 1,
+                    String.format("An output directory (%s) must be specified if more than one input read-counts file is provided.",
+                            StandardArgumentDefinitions.OUTPUT_LONG_NAME));
+            Utils.validateArg(outputStandardizedCopyRatiosFile != null && outputDenoisedCopyRatiosFile != null,
+                    String.format("Both output files (%s and %s) or an output directory (%s) must be specified.",
+                            CopyNumberStandardArgument.STANDARDIZED_COPY_RATIOS_FILE_LONG_NAME,
+                            CopyNumberStandardArgument.DENOISED_COPY_RATIOS_FILE_LONG_NAME,
+                            StandardArgumentDefinitions.OUTPUT_LONG_NAME));
+            CopyNumberArgumentValidationUtils.validateOutputFiles(
+                    outputStandardizedCopyRatiosFile,
+                    outputDenoisedCopyRatiosFile);
+        } else {
+            CopyNumberArgumentValidationUtils.validateAndPrepareOutputDirectories(outputDir);
+        }
+    }
+
+    private SimpleCountCollection readReadCounts(final File inputReadCountFile) {
+        logger.info(String.format("Reading read-counts file (%s)...", inputReadCountFile));
+        return SimpleCountCollection.read(inputReadCountFile);
     }
 
     private void writeResult(final SVDDenoisedCopyRatioResult result) {
+        final File standardizedCopyRatiosFile;
+        final File denoisedCopyRatiosFile;
+        if (outputDir == null) {
+            standardizedCopyRatiosFile = outputStandardizedCopyRatiosFile;
+            denoisedCopyRatiosFile = outputDenoisedCopyRatiosFile;
+        } else {
+            final String sampleName = result.getStandardizedCopyRatios().getMetadata().getSampleName();
+            if (!outputSampleNames.add(sampleName)) {
+                throw new UserException.BadInput(String.format("Input read-counts files must have distinct sample names, " +
+                        "but more than one has sample name %s.", sampleName));
+            }
+            standardizedCopyRatiosFile = new File(outputDir, sampleName + STANDARDIZED_COPY_RATIOS_FILE_SUFFIX);
+            denoisedCopyRatiosFile = new File(outputDir, sampleName + DENOISED_COPY_RATIOS_FILE_SUFFIX);
+        }
         logger.info(String.format("Writing standardized and denoised copy ratios to %s and %s...",
-                outputStandardizedCopyRatiosFile.getAbsolutePath(),
-                outputDenoisedCopyRatiosFile.getAbsolutePath()));
-        result.write(outputStandardizedCopyRatiosFile, outputDenoisedCopyRatiosFile);
+                standardizedCopyRatiosFile.getAbsolutePath(),
+                denoisedCopyRatiosFile.getAbsolutePath()));
+        result.write(standardizedCopyRatiosFile, denoisedCopyRatiosFile);
     }
 }
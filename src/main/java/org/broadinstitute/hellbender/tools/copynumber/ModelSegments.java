@@ -241,6 +241,7 @@ public final class ModelSegments extends CommandLineProgram {
     public static final String KERNEL_APPROXIMATION_DIMENSION_LONG_NAME = "kernel-approximation-dimension";
     public static final String WINDOW_SIZE_LONG_NAME = "window-size";
     public static final String NUMBER_OF_CHANGEPOINTS_PENALTY_FACTOR_LONG_NAME = "number-of-changepoints-penalty-factor";
+    public static final String NUMBER_OF_SEGMENTATION_THREADS_LONG_NAME = "number-of-segmentation-threads";
 
     //MCMC argument names
     public static final String MINOR_ALLELE_FRACTION_PRIOR_ALPHA_LONG_NAME = "minor-allele-fraction-prior-alpha";
@@ -248,6 +249,8 @@ public final class ModelSegments extends CommandLineProgram {
     public static final String NUMBER_OF_BURN_IN_SAMPLES_COPY_RATIO_LONG_NAME = "number-of-burn-in-samples-copy-ratio";
     public static final String NUMBER_OF_SAMPLES_ALLELE_FRACTION_LONG_NAME = "number-of-samples-allele-fraction";
     public static final String NUMBER_OF_BURN_IN_SAMPLES_ALLELE_FRACTION_LONG_NAME = "number-of-burn-in-samples-allele-fraction";
+    public static final String NUMBER_OF_CHAINS_LONG_NAME = "number-of-chains";
+    public static final String NUMBER_OF_MODELING_THREADS_LONG_NAME = "number-of-modeling-threads";
 
     //smoothing argument names
     public static final String SMOOTHING_CREDIBLE_INTERVAL_THRESHOLD_COPY_RATIO_LONG_NAME = "smoothing-credible-interval-threshold-copy-ratio";
@@ -396,6 +399,15 @@ public final class ModelSegments extends CommandLineProgram {
     )
     private double numChangepointsPenaltyFactor = 1.;
 
+    @Argument(
+            doc = "Number of threads to use for segmentation.  Chromosomes, and window sizes within each chromosome, " +
+                    "are segmented in parallel; the result does not depend on the number of threads.",
+            fullName = NUMBER_OF_SEGMENTATION_THREADS_LONG_NAME,
+            minValue = 1,
+            optional = true
+    )
+    private int numSegmentationThreads = 1;
+
     @Argument(
             doc = "Alpha hyperparameter for the 4-parameter beta-distribution prior on segment minor-allele fraction. " +
                     "The prior for the minor-allele fraction f in each segment is assumed to be Beta(alpha, 1, 0, 1/2). " +
@@ -438,6 +450,26 @@ public final class ModelSegments extends CommandLineProgram {
     )
     private int numBurnInAlleleFraction = 50;
 
+    @Argument(
+            doc = "Number of independent MCMC chains to run for each model fit.  Samples from all chains " +
+                    "(after discarding the burn-in samples of each chain) are pooled, and convergence diagnostics " +
+                    "(potential scale reduction factors) are logged if more than one chain is run.",
+            fullName = NUMBER_OF_CHAINS_LONG_NAME,
+            optional = true,
+            minValue = 1
+    )
+    private int numChains = 1;
+
+    @Argument(
+            doc = "Number of threads to use for MCMC model fitting.  Chains, and segment-level parameters within each chain, " +
+                    "are sampled in parallel.  Results are reproducible for a given number of chains, and do not depend " +
+                    "on the number of threads.",
+            fullName = NUMBER_OF_MODELING_THREADS_LONG_NAME,
+            optional = true,
+            minValue = 1
+    )
+    private int numModelingThreads = 1;
+
     @Argument(
             doc = "Number of 10% equal-tailed credible-interval widths to use for copy-ratio segmentation smoothing.",
             fullName = SMOOTHING_CREDIBLE_INTERVAL_THRESHOLD_COPY_RATIO_LONG_NAME,
@@ -478,8 +510,8 @@ public final class ModelSegments extends CommandLineProgram {
 
         //read input files (return null if not available) and validate metadata
         CopyRatioCollection denoisedCopyRatios = readOptionalFileOrNull(inputDenoisedCopyRatiosFile, CopyRatioCollection::new);
-        final AllelicCountCollection allelicCounts = readOptionalFileOrNull(inputAllelicCountsFile, AllelicCountCollection::new);
-        final AllelicCountCollection normalAllelicCounts = readOptionalFileOrNull(inputNormalAllelicCountsFile, AllelicCountCollection::new);
+        final AllelicCountCollection allelicCounts = readOptionalFileOrNull(inputAllelicCountsFile, AllelicCountCollection::read);
+        final AllelicCountCollection normalAllelicCounts = readOptionalFileOrNull(inputNormalAllelicCountsFile, AllelicCountCollection::read);
         final SampleLocatableMetadata metadata = getValidatedMetadata(denoisedCopyRatios, allelicCounts);
 
         //genotype hets (return empty collection containing only metadata if no allelic counts available)
@@ -513,7 +545,7 @@ public final class ModelSegments extends CommandLineProgram {
                     .findSegmentation(maxNumSegmentsPerChromosome,
                             kernelVarianceCopyRatio, kernelVarianceAlleleFraction, kernelScalingAlleleFraction, kernelApproximationDimension,
                             ImmutableSet.copyOf(windowSizes).asList(),
-                            numChangepointsPenaltyFactor, numChangepointsPenaltyFactor);
+                            numChangepointsPenaltyFactor, numChangepointsPenaltyFactor, numSegmentationThreads);
         }
 
         logger.info("Modeling available denoised copy ratios and heterozygous allelic counts...");
@@ -522,7 +554,8 @@ public final class ModelSegments extends CommandLineProgram {
         final MultidimensionalModeller modeller = new MultidimensionalModeller(
                 multidimensionalSegments, denoisedCopyRatios, hetAllelicCounts, alleleFractionPrior,
                 numSamplesCopyRatio, numBurnInCopyRatio,
-                numSamplesAlleleFraction, numBurnInAlleleFraction);
+                numSamplesAlleleFraction, numBurnInAlleleFraction,
+                numChains, numModelingThreads);
 
         //write initial segments and parameters to file
         writeModeledSegmentsAndParameterFiles(modeller, BEGIN_FIT_FILE_TAG);
@@ -614,7 +647,7 @@ public final class ModelSegments extends CommandLineProgram {
         return new CopyRatioKernelSegmenter(denoisedCopyRatios)
                 .findSegmentation(maxNumSegmentsPerChromosome, kernelVarianceCopyRatio, kernelApproximationDimension,
                         ImmutableSet.copyOf(windowSizes).asList(),
-                        numChangepointsPenaltyFactor, numChangepointsPenaltyFactor);
+                        numChangepointsPenaltyFactor, numChangepointsPenaltyFactor, numSegmentationThreads);
     }
 
     private AllelicCountCollection genotypeHets(final SampleLocatableMetadata metadata,
@@ -747,7 +780,7 @@ public final class ModelSegments extends CommandLineProgram {
         return new AlleleFractionKernelSegmenter(hetAllelicCounts)
                 .findSegmentation(maxNumSegmentsPerChromosome, kernelVarianceAlleleFraction, kernelApproximationDimension,
                         ImmutableSet.copyOf(windowSizes).asList(),
-                        numChangepointsPenaltyFactor, numChangepointsPenaltyFactor);
+                        numChangepointsPenaltyFactor, numChangepointsPenaltyFactor, numSegmentationThreads);
     }
 
     private void writeModeledSegmentsAndParameterFiles(final MultidimensionalModeller modeller,
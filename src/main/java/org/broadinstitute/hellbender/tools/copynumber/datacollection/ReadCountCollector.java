@@ -0,0 +1,172 @@
+package org.broadinstitute.hellbender.tools.copynumber.datacollection;
+
+import com.google.common.collect.ImmutableList;
+import org.broadinstitute.hellbender.tools.copynumber.formats.collections.SimpleCountCollection;
+import org.broadinstitute.hellbender.tools.copynumber.formats.metadata.SampleLocatableMetadata;
+import org.broadinstitute.hellbender.tools.copynumber.formats.records.SimpleCount;
+import org.broadinstitute.hellbender.utils.SimpleInterval;
+import org.broadinstitute.hellbender.utils.Utils;
+
+import java.util.*;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Collects read counts at specified non-overlapping intervals.  The count for each interval is the number of read starts
+ * that lie in the interval.
+ *
+ * <p>
+ *     Counts are held in a single {@code int} array, indexed in the order of the intervals given at construction.
+ *     The intervals on each contig are sorted by start, and each read start is assigned to an interval by advancing
+ *     a pointer along the sorted intervals, so that counting reads that are sorted by start costs amortized
+ *     constant time per read; read starts that arrive out of order are located by binary search.
+ * </p>
+ *
+ * <p>
+ *     {@link #addReadStart} keeps a pointer for the contig of the last read and may only be called from one thread.
+ *     To count different contigs concurrently, each thread should instead use its own {@link ContigCounter}
+ *     (see {@link #getContigCounter}); the counters of different contigs update disjoint parts of the count array.
+ * </p>
+ */
+public final class ReadCountCollector {
+
+    private final List<SimpleInterval> intervals;
+    private final int[] counts;
+    private final Map<String, ContigBins> contigBins = new LinkedHashMap<>();
+
+    private ContigCounter currentContigCounter = null;
+
+    /**
+     * @param intervals non-overlapping intervals at which to collect counts.  Not {@code null} or empty.
+     */
+    public ReadCountCollector(final List<SimpleInterval> intervals) {
+        Utils.nonEmpty(intervals);
+        this.intervals = ImmutableList.copyOf(intervals);
+        counts = new int[intervals.size()];
+
+        final Map<String, List<Integer>> intervalIndicesPerContig = new LinkedHashMap<>();
+        for (int i = 0; i < intervals.size(); i++) {
+            intervalIndicesPerContig.computeIfAbsent(intervals.get(i).getContig(), c -> new ArrayList<>()).add(i);
+        }
+        intervalIndicesPerContig.forEach((contig, intervalIndices) -> contigBins.put(contig, new ContigBins(intervalIndices)));
+    }
+
+    /**
+     * @return contigs on which there are intervals, in the order in which they first appear in the intervals
+     */
+    public List<String> getContigs() {
+        return Collections.unmodifiableList(new ArrayList<>(contigBins.keySet()));
+    }
+
+    /**
+     * @return intervals on {@code contig}, sorted by start (empty if there are no intervals on {@code contig})
+     */
+    public List<SimpleInterval> getIntervalsOnContig(final String contig) {
+        Utils.nonNull(contig);
+        final ContigBins bins = contigBins.get(contig);
+        return bins == null
+                ? Collections.emptyList()
+                : Collections.unmodifiableList(IntStream.of(bins.intervalIndices).mapToObj(intervals::get).collect(Collectors.toList()));
+    }
+
+    /**
+     * Returns a new counter for the intervals on {@code contig}, which may be used concurrently with the counters
+     * of other contigs.  Reads starting on a contig without intervals are ignored.
+     */
+    public ContigCounter getContigCounter(final String contig) {
+        Utils.nonNull(contig);
+        return new ContigCounter(contig, contigBins.get(contig));
+    }
+
+    /**
+     * Adds a read start at {@code contig:position} to the count of the interval containing it, if any.
+     * Not thread-safe; see {@link ContigCounter} for concurrent counting.
+     */
+    public void addReadStart(final String contig, final int position) {
+        if (currentContigCounter == null || !currentContigCounter.contig.equals(contig)) {
+            currentContigCounter = getContigCounter(contig);
+        }
+        currentContigCounter.addReadStart(position);
+    }
+
+    /**
+     * @return the count of the interval with index {@code intervalIndex} in the list of intervals given at construction
+     */
+    public int getCount(final int intervalIndex) {
+        Utils.validIndex(intervalIndex, counts.length);
+        return counts[intervalIndex];
+    }
+
+    /**
+     * @return the counts collected so far, in the order of the intervals given at construction
+     */
+    public SimpleCountCollection getReadCounts(final SampleLocatableMetadata metadata) {
+        Utils.nonNull(metadata);
+        return new SimpleCountCollection(
+                metadata,
+                ImmutableList.copyOf(IntStream.range(0, counts.length)     //making this an ImmutableList avoids a defensive copy in SimpleCountCollection
+                        .mapToObj(i -> new SimpleCount(intervals.get(i), counts[i]))
+                        .iterator()));
+    }
+
+    /**
+     * Starts and ends of the intervals on a contig, sorted by start, and the indices of the corresponding
+     * intervals in the list given at construction.
+     */
+    private final class ContigBins {
+        private final int[] starts;
+        private final int[] ends;
+        private final int[] intervalIndices;
+
+        private ContigBins(final List<Integer> intervalIndicesOnContig) {
+            intervalIndices = intervalIndicesOnContig.stream()
+                    .sorted(Comparator.comparingInt(i -> intervals.get(i).getStart()))
+                    .mapToInt(Integer::intValue)
+                    .toArray();
+            starts = IntStream.of(intervalIndices).map(i -> intervals.get(i).getStart()).toArray();
+            ends = IntStream.of(intervalIndices).map(i -> intervals.get(i).getEnd()).toArray();
+            Utils.validateArg(IntStream.range(1, starts.length).allMatch(k -> ends[k - 1] < starts[k]),
+                    "Input intervals may not be overlapping.");
+        }
+    }
+
+    /**
+     * Counts read starts on a single contig.  Each instance should only be used by one thread.
+     */
+    public final class ContigCounter {
+        private final String contig;
+        private final ContigBins bins;      //null if there are no intervals on the contig
+        private int binIndex = -1;
+
+        private ContigCounter(final String contig,
+                              final ContigBins bins) {
+            this.contig = contig;
+            this.bins = bins;
+        }
+
+        /**
+         * Adds a read start at {@code position} to the count of the interval containing it, if any.
+         */
+        public void addReadStart(final int position) {
+            if (bins == null) {
+                return;
+            }
+            final int[] starts = bins.starts;
+            if (binIndex < 0 || position < starts[binIndex]) {
+                //first read on this contig or out of order, so find the last interval starting at or before the read start
+                final int searchResult = Arrays.binarySearch(starts, position);
+                binIndex = searchResult >= 0 ? searchResult : -searchResult - 2;
+                if (binIndex < 0) {
+                    return;
+                }
+            } else {
+                while (binIndex + 1 < starts.length && starts[binIndex + 1] <= position) {
+                    binIndex++;
+                }
+            }
+            if (position <= bins.ends[binIndex]) {
+                counts[bins.intervalIndices[binIndex]]++;
+            }
+        }
+    }
+}
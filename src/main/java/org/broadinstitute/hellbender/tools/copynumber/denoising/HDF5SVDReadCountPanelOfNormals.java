@@ -22,6 +22,8 @@ import org.broadinstitute.hellbender.tools.copynumber.utils.HDF5Utils;
 import org.broadinstitute.hellbender.utils.SimpleInterval;
 import org.broadinstitute.hellbender.utils.io.IOUtils;
 import org.broadinstitute.hellbender.utils.spark.SparkConverter;
+import org.broadinstitute.hellbender.utils.svd.RandomizedSingularValueDecomposer;
+import org.broadinstitute.hellbender.utils.svd.SVD;
 
 import java.io.File;
 import java.io.StringWriter;
@@ -253,6 +255,38 @@ public final class HDF5SVDReadCountPanelOfNormals implements SVDReadCountPanelOf
                               final int numEigensamplesRequested,
                               final int maximumChunkSize,
                               final JavaSparkContext ctx) {
+        create(outFile, commandLine, sequenceDictionary, originalReadCounts, originalSampleFilenames, originalIntervals,
+                intervalGCContent, minimumIntervalMedianPercentile, maximumZerosInSamplePercentage, maximumZerosInIntervalPercentage,
+                extremeSampleMedianPercentile, doImputeZeros, extremeOutlierTruncationPercentile, numEigensamplesRequested,
+                maximumChunkSize, CreateReadCountPanelOfNormals.SVDMethod.SPARK, 1, ctx);
+    }
+
+    /**
+     * Create the panel of normals and write it to an HDF5 file.  All inputs are assumed to be valid.
+     * The dimensions of {@code originalReadCounts} should be samples x intervals.
+     * To reduce memory footprint, {@code originalReadCounts} is modified in place.
+     * If {@code intervalGCContent} is null, GC-bias correction will not be performed.
+     * If {@code svdMethod} is {@link CreateReadCountPanelOfNormals.SVDMethod#RANDOMIZED}, the SVD is performed locally
+     * using {@code numSVDThreads} threads and {@code ctx} is not used (and may be {@code null}).
+     */
+    public static void create(final File outFile,
+                              final String commandLine,
+                              final SAMSequenceDictionary sequenceDictionary,
+                              final RealMatrix originalReadCounts,
+                              final List<String> originalSampleFilenames,
+                              final List<SimpleInterval> originalIntervals,
+                              final double[] intervalGCContent,
+                              final double minimumIntervalMedianPercentile,
+                              final double maximumZerosInSamplePercentage,
+                              final double maximumZerosInIntervalPercentage,
+                              final double extremeSampleMedianPercentile,
+                              final boolean doImputeZeros,
+                              final double extremeOutlierTruncationPercentile,
+                              final int numEigensamplesRequested,
+                              final int maximumChunkSize,
+                              final CreateReadCountPanelOfNormals.SVDMethod svdMethod,
+                              final int numSVDThreads,
+                              final JavaSparkContext ctx) {
         try (final HDF5File file = new HDF5File(outFile, HDF5File.OpenMode.CREATE)) {
             logger.info(String.format("Creating read-count panel of normals at %s...", outFile.getAbsolutePath()));
             final HDF5SVDReadCountPanelOfNormals pon = new HDF5SVDReadCountPanelOfNormals(file);
@@ -318,13 +352,29 @@ public final class HDF5SVDReadCountPanelOfNormals implements SVDReadCountPanelOf
                 logger.warn(String.format("%d eigensamples were requested but only %d are available in the panel of normals...",
                         numEigensamplesRequested, numEigensamples));
             }
-            logger.info(String.format("Performing SVD (truncated at %d eigensamples) of standardized counts (transposed to %d x %d)...",
-                    numEigensamples, numPanelIntervals, numPanelSamples));
             if (numPanelSamples > 1 && numEigensamples > 0) {
-                final SingularValueDecomposition<RowMatrix, Matrix> svd = SparkConverter.convertRealMatrixToSparkRowMatrix(
-                        ctx, preprocessedStandardizedResult.preprocessedStandardizedValues.transpose(), NUM_SLICES_FOR_SPARK_MATRIX_CONVERSION)
-                        .computeSVD(numEigensamples, true, EPSILON);
-                final double[] singularValues = svd.s().toArray();    //should be in decreasing order (with corresponding matrices below)
+                final double[] singularValues;          //should be in decreasing order (with corresponding eigensample vectors below)
+                final double[][] eigensampleVectors;    //intervals x eigensamples
+                if (svdMethod == CreateReadCountPanelOfNormals.SVDMethod.SPARK) {
+                    logger.info(String.format("Performing SVD (truncated at %d eigensamples) of standardized counts (transposed to %d x %d)...",
+                            numEigensamples, numPanelIntervals, numPanelSamples));
+                    final SingularValueDecomposition<RowMatrix, Matrix> svd = SparkConverter.convertRealMatrixToSparkRowMatrix(
+                            ctx, preprocessedStandardizedResult.preprocessedStandardizedValues.transpose(), NUM_SLICES_FOR_SPARK_MATRIX_CONVERSION)
+                            .computeSVD(numEigensamples, true, EPSILON);
+                    singularValues = svd.s().toArray();
+                    eigensampleVectors = singularValues.length == 0
+                            ? new double[0][]
+                            : SparkConverter.convertSparkRowMatrixToRealMatrix(svd.U(), numPanelIntervals).getData();
+                } else {
+                    //the eigensample vectors are the right-singular vectors of the untransposed standardized counts,
+                    //which are decomposed without copying
+                    logger.info(String.format("Performing randomized SVD (truncated at %d eigensamples) of standardized counts (%d x %d)...",
+                            numEigensamples, numPanelSamples, numPanelIntervals));
+                    final SVD svd = new RandomizedSingularValueDecomposer(numEigensamples, numSVDThreads)
+                            .createSVD(preprocessedStandardizedResult.preprocessedStandardizedValues);
+                    singularValues = svd.getSingularValues();
+                    eigensampleVectors = svd.getV().getData();
+                }
                 if (singularValues.length == 0 || Arrays.stream(singularValues).noneMatch(s -> s > EPSILON)) {
                     //if the panel contains more than one sample, we require that at least one non-negligible singular value is found
                     throw new UserException(String.format("No non-zero singular values were found.  It may be necessary to use stricter parameters for filtering.  " +
@@ -334,7 +384,6 @@ public final class HDF5SVDReadCountPanelOfNormals implements SVDReadCountPanelOf
                     logger.warn(String.format("Attempted to truncate at %d eigensamples, but only %d non-zero singular values were found...",
                             numEigensamples, singularValues.length));
                 }
-                final double[][] eigensampleVectors = SparkConverter.convertSparkRowMatrixToRealMatrix(svd.U(), numPanelIntervals).getData();
 
                 logger.info(String.format("Writing singular values (%d)...", singularValues.length));
                 pon.writeSingularValues(singularValues);
@@ -0,0 +1,194 @@
+package org.broadinstitute.hellbender.tools.copynumber.denoising;
+
+import org.apache.commons.math3.linear.Array2DRowRealMatrix;
+import org.apache.commons.math3.linear.DefaultRealMatrixChangingVisitor;
+import org.apache.commons.math3.linear.RealMatrix;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.broadinstitute.hellbender.tools.copynumber.arguments.CopyNumberArgumentValidationUtils;
+import org.broadinstitute.hellbender.tools.copynumber.formats.collections.SimpleCountCollection;
+import org.broadinstitute.hellbender.utils.SimpleInterval;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.param.ParamUtils;
+
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Standardizes and denoises read counts for any number of samples using an {@link SVDReadCountPanelOfNormals}.
+ * The data required from the panel (intervals, GC content, interval medians, and eigensample vectors) is read
+ * once upon construction, so that the same instance can be used to denoise many batches of samples.
+ *
+ * <p>
+ *     The samples in each batch are stacked into a samples x intervals matrix, which is standardized in place;
+ *     the projection onto the eigensamples is then computed for all samples at once.  Each sample is
+ *     processed identically to how it would be processed alone, so the results do not depend on the batching.
+ * </p>
+ */
+public final class SVDBatchDenoiser {
+    private static final Logger logger = LogManager.getLogger(SVDBatchDenoiser.class);
+
+    private final SVDReadCountPanelOfNormals panelOfNormals;
+    private final int numEigensamples;
+    private final List<SimpleInterval> originalIntervals;
+    private final double[] originalIntervalGCContent;
+    private final List<SimpleInterval> panelIntervals;
+    private final int[] panelIntervalIndices;
+    private final double[] panelIntervalFractionalMedians;
+    private final double[][] eigensampleVectors;    //panel intervals x numEigensamples
+
+    /**
+     * @param panelOfNormals    panel of normals used to standardize and denoise
+     * @param numEigensamples   number of eigensamples used to denoise; must be non-negative and no greater than
+     *                          the number available in the panel
+     */
+    public SVDBatchDenoiser(final SVDReadCountPanelOfNormals panelOfNormals,
+                            final int numEigensamples) {
+        Utils.nonNull(panelOfNormals);
+        ParamUtils.isPositiveOrZero(numEigensamples, "Number of eigensamples to use for denoising must be non-negative.");
+        Utils.validateArg(numEigensamples <= panelOfNormals.getNumEigensamples(),
+                "Number of eigensamples to use for denoising is greater than the number available in the panel of normals.");
+        this.panelOfNormals = panelOfNormals;
+        this.numEigensamples = numEigensamples;
+
+        logger.info("Reading intervals, GC content, and interval medians from panel of normals...");
+        originalIntervals = panelOfNormals.getOriginalIntervals();
+        originalIntervalGCContent = panelOfNormals.getOriginalIntervalGCContent();
+        panelIntervals = panelOfNormals.getPanelIntervals();
+        final Set<SimpleInterval> panelIntervalsSet = new HashSet<>(panelIntervals);
+        panelIntervalIndices = IntStream.range(0, originalIntervals.size())
+                .filter(i -> panelIntervalsSet.contains(originalIntervals.get(i)))
+                .toArray();
+        panelIntervalFractionalMedians = panelOfNormals.getPanelIntervalFractionalMedians();
+
+        if (numEigensamples == 0 || panelOfNormals.getNumEigensamples() == 0) {
+            eigensampleVectors = null;
+        } else {
+            logger.info(String.format("Reading %d out of %d eigensamples from panel of normals...", numEigensamples, panelOfNormals.getNumEigensamples()));
+            final double[][] allEigensampleVectors = panelOfNormals.getEigensampleVectors();
+            eigensampleVectors = numEigensamples == panelOfNormals.getNumEigensamples()
+                    ? allEigensampleVectors
+                    : new Array2DRowRealMatrix(allEigensampleVectors, false)
+                            .getSubMatrix(0, allEigensampleVectors.length - 1, 0, numEigensamples - 1).getData();
+        }
+    }
+
+    /**
+     * Standardizes and denoises each sample in {@code readCounts}.
+     * @param readCounts    read counts for one or more samples, which must have the original intervals of the panel
+     * @return              results in the same order as {@code readCounts}
+     */
+    public List<SVDDenoisedCopyRatioResult> denoise(final List<SimpleCountCollection> readCounts) {
+        Utils.nonEmpty(readCounts);
+        logger.info("Validating sample intervals against original intervals used to build panel of normals...");
+        for (final SimpleCountCollection sampleReadCounts : readCounts) {
+            if (!CopyNumberArgumentValidationUtils.isSameDictionary(panelOfNormals.getSequenceDictionary(), sampleReadCounts.getMetadata().getSequenceDictionary())) {
+                logger.warn(String.format("Sequence dictionaries in panel and case sample %s do not match.", sampleReadCounts.getMetadata().getSampleName()));
+            }
+            Utils.validateArg(originalIntervals.equals(sampleReadCounts.getIntervals()),
+                    "Sample intervals must be identical to the original intervals used to build the panel of normals.");
+        }
+
+        logger.info(String.format("Preprocessing and standardizing read counts for %d sample(s)...", readCounts.size()));
+        final RealMatrix standardizedCopyRatioValues = preprocessAndStandardizeSamples(readCounts);
+
+        final RealMatrix denoisedCopyRatioValues;
+        if (eigensampleVectors == null) {
+            logger.warn("A zero number of eigensamples was specified or no eigensamples were available to perform denoising; " +
+                    "denoised copy ratios will be identical to the standardized copy ratios...");
+            denoisedCopyRatioValues = standardizedCopyRatioValues;
+        } else {
+            logger.info(String.format("Using %d out of %d eigensamples to denoise...", numEigensamples, panelOfNormals.getNumEigensamples()));
+            logger.info("Subtracting projection onto space spanned by eigensamples...");
+            denoisedCopyRatioValues = subtractProjection(standardizedCopyRatioValues);
+        }
+
+        logger.info(String.format("%d sample(s) denoised.", readCounts.size()));
+
+        return IntStream.range(0, readCounts.size())
+                .mapToObj(sampleIndex -> new SVDDenoisedCopyRatioResult(
+                        readCounts.get(sampleIndex).getMetadata(),
+                        panelIntervals,
+                        standardizedCopyRatioValues.getRowMatrix(sampleIndex),
+                        denoisedCopyRatioValues.getRowMatrix(sampleIndex)))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Preprocess (i.e., transform to fractional coverage, correct GC bias, subset, divide by fractional medians)
+     * and standardize read counts for samples, using interval fractional medians from the panel of normals.
+     * Returns a samples x panel intervals matrix.
+     */
+    private RealMatrix preprocessAndStandardizeSamples(final List<SimpleCountCollection> readCounts) {
+        RealMatrix result = new Array2DRowRealMatrix(
+                readCounts.stream().map(SimpleCountCollection::getCounts).toArray(double[][]::new), false);
+
+        //preprocess (transform to fractional coverage, correct GC bias, subset, divide by fractional medians) in place
+        logger.info("Preprocessing read counts...");
+        SVDDenoisingUtils.transformToFractionalCoverage(result);
+        SVDDenoisingUtils.performOptionalGCBiasCorrection(result, originalIntervalGCContent);
+
+        logger.info("Subsetting sample intervals to post-filter panel intervals...");
+        result = result.getSubMatrix(IntStream.range(0, readCounts.size()).toArray(), panelIntervalIndices);
+
+        logger.info("Dividing by interval medians from the panel of normals...");
+        result.walkInOptimizedOrder(new DefaultRealMatrixChangingVisitor() {
+            @Override
+            public double visit(int sampleIndex, int intervalIndex, double value) {
+                return value / panelIntervalFractionalMedians[intervalIndex];
+            }
+        });
+        logger.info("Sample read counts preprocessed.");
+
+        //standardize in place
+        logger.info("Standardizing read counts...");
+        SVDDenoisingUtils.divideBySampleMedianAndTransformToLog2(result);
+        logger.info("Subtracting sample medians...");
+        SVDDenoisingUtils.subtractSampleMedians(result);
+        logger.info("Sample read counts standardized.");
+
+        return result;
+    }
+
+    /**
+     * Given standardized read counts specified by a matrix S (dimensions {@code N x M})
+     * and the eigensample vectors U<sub>k</sub> (dimensions {@code M x K}) for the requested number of eigensamples,
+     * returns S - S U<sub>k</sub> U<sub>k</sub><sup>T</sup>.  The coefficients S U<sub>k</sub> are calculated first,
+     * so that only a single pass over the eigensample vectors is needed for each product.
+     */
+    private RealMatrix subtractProjection(final RealMatrix standardizedValues) {
+        final double[][] standardized = standardizedValues.getData();
+        final int numSamples = standardized.length;
+        final int numIntervals = eigensampleVectors.length;
+
+        final double[][] coefficients = new double[numSamples][numEigensamples];
+        for (int sampleIndex = 0; sampleIndex < numSamples; sampleIndex++) {
+            final double[] sampleValues = standardized[sampleIndex];
+            final double[] sampleCoefficients = coefficients[sampleIndex];
+            for (int intervalIndex = 0; intervalIndex < numIntervals; intervalIndex++) {
+                final double value = sampleValues[intervalIndex];
+                final double[] eigensampleRow = eigensampleVectors[intervalIndex];
+                for (int k = 0; k < numEigensamples; k++) {
+                    sampleCoefficients[k] += value * eigensampleRow[k];
+                }
+            }
+        }
+
+        for (int sampleIndex = 0; sampleIndex < numSamples; sampleIndex++) {
+            final double[] sampleValues = standardized[sampleIndex];
+            final double[] sampleCoefficients = coefficients[sampleIndex];
+            for (int intervalIndex = 0; intervalIndex < numIntervals; intervalIndex++) {
+                final double[] eigensampleRow = eigensampleVectors[intervalIndex];
+                double projection = 0.;
+                for (int k = 0; k < numEigensamples; k++) {
+                    projection += sampleCoefficients[k] * eigensampleRow[k];
+                }
+                sampleValues[intervalIndex] -= projection;
+            }
+        }
+        return new Array2DRowRealMatrix(standardized, false);
+    }
+}
@@ -10,17 +10,14 @@ import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.broadinstitute.hellbender.exceptions.UserException;
 import org.broadinstitute.hellbender.tools.copynumber.CreateReadCountPanelOfNormals;
-import org.broadinstitute.hellbender.tools.copynumber.arguments.CopyNumberArgumentValidationUtils;
 import org.broadinstitute.hellbender.tools.copynumber.formats.collections.SimpleCountCollection;
 import org.broadinstitute.hellbender.utils.MathUtils;
 import org.broadinstitute.hellbender.utils.MatrixSummaryUtils;
-import org.broadinstitute.hellbender.utils.SimpleInterval;
 import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.param.ParamUtils;
 
 import java.util.Arrays;
-import java.util.HashSet;
-import java.util.Set;
+import java.util.Collections;
 import java.util.stream.IntStream;
 
 /**
@@ -107,40 +104,8 @@ public final class SVDDenoisingUtils {
     static SVDDenoisedCopyRatioResult denoise(final SVDReadCountPanelOfNormals panelOfNormals,
                                               final SimpleCountCollection readCounts,
                                               final int numEigensamples) {
-        Utils.nonNull(panelOfNormals);
-        if (!CopyNumberArgumentValidationUtils.isSameDictionary(panelOfNormals.getSequenceDictionary(), readCounts.getMetadata().getSequenceDictionary())) {
-            logger.warn("Sequence dictionaries in panel and case sample do not match.");
-        }
-        ParamUtils.isPositiveOrZero(numEigensamples, "Number of eigensamples to use for denoising must be non-negative.");
-        Utils.validateArg(numEigensamples <= panelOfNormals.getNumEigensamples(),
-                "Number of eigensamples to use for denoising is greater than the number available in the panel of normals.");
-
-        logger.info("Validating sample intervals against original intervals used to build panel of normals...");
-        Utils.validateArg(panelOfNormals.getOriginalIntervals().equals(readCounts.getIntervals()),
-                "Sample intervals must be identical to the original intervals used to build the panel of normals.");
-
-        logger.info("Preprocessing and standardizing sample read counts...");
-        final RealMatrix standardizedCopyRatioValues = preprocessAndStandardizeSample(panelOfNormals, readCounts.getCounts());
-
-        final RealMatrix denoisedCopyRatioValues;
-        if (numEigensamples == 0 || panelOfNormals.getNumEigensamples() == 0) {
-            logger.warn("A zero number of eigensamples was specified or no eigensamples were available to perform denoising; " +
-                    "denoised copy ratios will be identical to the standardized copy ratios...");
-            denoisedCopyRatioValues = standardizedCopyRatioValues;
-        } else {
-            logger.info(String.format("Using %d out of %d eigensamples to denoise...", numEigensamples, panelOfNormals.getNumEigensamples()));
-            logger.info("Subtracting projection onto space spanned by eigensamples...");
-            denoisedCopyRatioValues = subtractProjection(standardizedCopyRatioValues, panelOfNormals.getEigensampleVectors(), numEigensamples);
-        }
-
-        logger.info("Sample denoised.");
-
-        //construct the result
-        return new SVDDenoisedCopyRatioResult(
-                readCounts.getMetadata(),
-                panelOfNormals.getPanelIntervals(),
-                standardizedCopyRatioValues,
-                denoisedCopyRatioValues);
+        Utils.nonNull(readCounts);
+        return new SVDBatchDenoiser(panelOfNormals, numEigensamples).denoise(Collections.singletonList(readCounts)).get(0);
     }
 
     /**
@@ -167,13 +132,7 @@ public final class SVDDenoisingUtils {
         logger.info("Standardizing read counts...");
         divideBySampleMedianAndTransformToLog2(result);
         logger.info("Subtracting sample median...");
-        final double[] sampleLog2Medians = MatrixSummaryUtils.getRowMedians(result);
-        result.walkInOptimizedOrder(new DefaultRealMatrixChangingVisitor() {
-            @Override
-            public double visit(int sampleIndex, int intervalIndex, double value) {
-                return value - sampleLog2Medians[sampleIndex];
-            }
-        });
+        subtractSampleMedians(result);
         logger.info("Sample read counts standardized.");
 
         return result;
@@ -369,85 +328,6 @@ public final class SVDDenoisingUtils {
         logger.info("Maximum memory: " + runtime.maxMemory() / mb);
     }
 
-    /**
-     * Preprocess (i.e., transform to fractional coverage, correct GC bias, subset, divide by fractional medians)
-     * and standardize read counts for samples, using interval fractional medians from a panel of normals.
-     * The original {@code readCounts} has dimensions 1 x intervals and is not modified.
-     */
-    private static RealMatrix preprocessAndStandardizeSample(final SVDReadCountPanelOfNormals panelOfNormals,
-                                                             final double[] readCounts) {
-        RealMatrix result = new Array2DRowRealMatrix(new double[][]{readCounts});
-
-        //preprocess (transform to fractional coverage, correct GC bias, subset, divide by fractional medians) copy in place
-        logger.info("Preprocessing read counts...");
-        transformToFractionalCoverage(result);
-        performOptionalGCBiasCorrection(result, panelOfNormals.getOriginalIntervalGCContent());
-
-        logger.info("Subsetting sample intervals to post-filter panel intervals...");
-        final Set<SimpleInterval> panelIntervals = new HashSet<>(panelOfNormals.getPanelIntervals());
-        final int[] subsetIntervalIndices = IntStream.range(0, panelOfNormals.getOriginalIntervals().size())
-                .filter(i -> panelIntervals.contains(panelOfNormals.getOriginalIntervals().get(i)))
-                .toArray();
-        result = result.getSubMatrix(new int[]{0}, subsetIntervalIndices);
-
-        logger.info("Dividing by interval medians from the panel of normals...");
-        final double[] intervalMedians = panelOfNormals.getPanelIntervalFractionalMedians();
-        result.walkInOptimizedOrder(new DefaultRealMatrixChangingVisitor() {
-            @Override
-            public double visit(int sampleIndex, int intervalIndex, double value) {
-                return value / intervalMedians[intervalIndex];
-            }
-        });
-        logger.info("Sample read counts preprocessed.");
-
-        //standardize copy in place
-        logger.info("Standardizing read counts...");
-        divideBySampleMedianAndTransformToLog2(result);
-        logger.info("Subtracting sample median...");
-        final double[] sampleLog2Medians = MatrixSummaryUtils.getRowMedians(result);
-        result.walkInOptimizedOrder(new DefaultRealMatrixChangingVisitor() {
-            @Override
-            public double visit(int sampleIndex, int intervalIndex, double value) {
-                return value - sampleLog2Medians[sampleIndex];
-            }
-        });
-        logger.info("Sample read counts standardized.");
-
-        return result;
-    }
-
-    /**
-     * Given standardized read counts specified by a row vector S (dimensions {@code 1 x M})
-     * and all eigensample vectors U (dimensions {@code M x K}),
-     * returns s - s U<sub>k</sub> U<sub>k</sub><sup>T</sup>,
-     * where U<sub>k</sub> contains the first {@code numEigensamples}.
-     */
-    private static RealMatrix subtractProjection(final RealMatrix standardizedValues,
-                                                 final double[][] eigensampleVectors,
-                                                 final int numEigensamples) {
-        if (numEigensamples == 0) {
-            return standardizedValues.copy();
-        }
-
-        final int numIntervals = eigensampleVectors.length;
-        final int numAllEigensamples = eigensampleVectors[0].length;
-
-        logger.info("Distributing the standardized read counts...");
-
-        logger.info("Composing eigensample matrix for the requested number of eigensamples and transposing them...");
-        final RealMatrix eigensampleTruncatedMatrix = numEigensamples == numAllEigensamples
-                ? new Array2DRowRealMatrix(eigensampleVectors, false)
-                : new Array2DRowRealMatrix(eigensampleVectors, false).getSubMatrix(0, numIntervals - 1, 0, numEigensamples - 1);
-
-        logger.info("Computing projection...");
-        final RealMatrix projection = standardizedValues
-                .multiply(eigensampleTruncatedMatrix)
-                .multiply(eigensampleTruncatedMatrix.transpose());
-
-        logger.info("Subtracting projection...");
-        return standardizedValues.subtract(projection);
-    }
-
     private static int countNumberPassingFilter(final boolean[] filter) {
         final int numPassingFilter = (int) IntStream.range(0, filter.length).filter(i -> !filter[i]).count();
         if (numPassingFilter == 0) {
@@ -456,7 +336,7 @@ public final class SVDDenoisingUtils {
         return numPassingFilter;
     }
 
-    private static void transformToFractionalCoverage(final RealMatrix matrix) {
+    static void transformToFractionalCoverage(final RealMatrix matrix) {
         logger.info("Transforming read counts to fractional coverage...");
         final double[] sampleSums = IntStream.range(0, matrix.getRowDimension())
                 .mapToDouble(r -> MathUtils.sum(matrix.getRow(r))).toArray();
@@ -468,7 +348,7 @@ public final class SVDDenoisingUtils {
         });
     }
 
-    private static void performOptionalGCBiasCorrection(final RealMatrix matrix, 
+    static void performOptionalGCBiasCorrection(final RealMatrix matrix,
                                                         final double[] intervalGCContent) {
         if (intervalGCContent != null) {
             logger.info("Performing GC-bias correction...");
@@ -476,7 +356,7 @@ public final class SVDDenoisingUtils {
         }
     }
 
-    private static void divideBySampleMedianAndTransformToLog2(final RealMatrix matrix) {
+    static void divideBySampleMedianAndTransformToLog2(final RealMatrix matrix) {
         logger.info("Dividing by sample medians and transforming to log2 space...");
         final double[] sampleMedians = MatrixSummaryUtils.getRowMedians(matrix);
         IntStream.range(0, sampleMedians.length).forEach(sampleIndex ->
@@ -492,6 +372,16 @@ public final class SVDDenoisingUtils {
         });
     }
 
+    static void subtractSampleMedians(final RealMatrix matrix) {
+        final double[] sampleLog2Medians = MatrixSummaryUtils.getRowMedians(matrix);
+        matrix.walkInOptimizedOrder(new DefaultRealMatrixChangingVisitor() {
+            @Override
+            public double visit(int sampleIndex, int intervalIndex, double value) {
+                return value - sampleLog2Medians[sampleIndex];
+            }
+        });
+    }
+
     private static int calculateMaximumZerosCount(final int numTotalCounts,
                                                   final double percentage) {
         return (int) Math.ceil(numTotalCounts * percentage / 100.0);
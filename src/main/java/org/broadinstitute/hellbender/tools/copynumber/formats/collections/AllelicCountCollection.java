@@ -4,17 +4,25 @@ import org.broadinstitute.hellbender.tools.copynumber.formats.metadata.SampleLoc
 import org.broadinstitute.hellbender.tools.copynumber.formats.records.AllelicCount;
 import org.broadinstitute.hellbender.utils.Nucleotide;
 import org.broadinstitute.hellbender.utils.SimpleInterval;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.io.IOUtils;
 import org.broadinstitute.hellbender.utils.tsv.DataLine;
 import org.broadinstitute.hellbender.utils.tsv.TableColumnCollection;
 
 import java.io.File;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.function.BiConsumer;
 import java.util.function.Function;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 /**
  * Simple data structure to pass and read/write a List of {@link AllelicCount} objects.
  * All {@link AllelicCount} fields (including ref/alt nucleotide) must be specified if reading/writing from/to file.
+ * Supports TSV and the columnar binary format described in {@link ColumnarCountCollection}.
  *
  * @author Samuel Lee &lt;slee@broadinstitute.org&gt;
  * @author Mehrtash Babadi &lt;mehrtash@broadinstitute.org&gt;
@@ -46,6 +54,13 @@ public final class AllelicCountCollection extends AbstractSampleLocatableCollect
         return new AllelicCount(interval, refReadCount, altReadCount, refNucleotide, altNucleotide);
     };
 
+    private static final List<String> COLUMNAR_COLUMN_NAMES = Arrays.asList(
+            AllelicCountTableColumn.POSITION.name(),
+            AllelicCountTableColumn.REF_COUNT.name(),
+            AllelicCountTableColumn.ALT_COUNT.name(),
+            AllelicCountTableColumn.REF_NUCLEOTIDE.name(),
+            AllelicCountTableColumn.ALT_NUCLEOTIDE.name());
+
     private static final BiConsumer<AllelicCount, DataLine> ALLELIC_COUNT_RECORD_TO_DATA_LINE_ENCODER = (allelicCount, dataLine) ->
             dataLine.append(allelicCount.getInterval().getContig())
                     .append(allelicCount.getInterval().getEnd())
@@ -62,4 +77,54 @@ public final class AllelicCountCollection extends AbstractSampleLocatableCollect
                                   final List<AllelicCount> AllelicCounts) {
         super(metadata, AllelicCounts, AllelicCountCollection.AllelicCountTableColumn.COLUMNS, ALLELIC_COUNT_RECORD_FROM_DATA_LINE_DECODER, ALLELIC_COUNT_RECORD_TO_DATA_LINE_ENCODER);
     }
+
+    /**
+     * Read all allelic counts from a file (columnar or TSV).
+     */
+    public static AllelicCountCollection read(final File file) {
+        IOUtils.canReadFile(file);
+        return ColumnarCountCollection.isColumnarFile(file)
+                ? readColumnar(file)
+                : new AllelicCountCollection(file);
+    }
+
+    private static AllelicCountCollection readColumnar(final File file) {
+        final ColumnarCountCollection columnarCounts = ColumnarCountCollection.read(file, COLUMNAR_COLUMN_NAMES);
+        final String positionColumn = AllelicCountTableColumn.POSITION.name();
+        final String refCountColumn = AllelicCountTableColumn.REF_COUNT.name();
+        final String altCountColumn = AllelicCountTableColumn.ALT_COUNT.name();
+        final String refNucleotideColumn = AllelicCountTableColumn.REF_NUCLEOTIDE.name();
+        final String altNucleotideColumn = AllelicCountTableColumn.ALT_NUCLEOTIDE.name();
+        final List<AllelicCount> allelicCounts = IntStream.range(0, columnarCounts.getNumRecords())
+                .mapToObj(i -> {
+                    final int position = columnarCounts.getInt(positionColumn, i);
+                    return new AllelicCount(
+                            new SimpleInterval(columnarCounts.getContig(i), position, position),
+                            columnarCounts.getInt(refCountColumn, i),
+                            columnarCounts.getInt(altCountColumn, i),
+                            Nucleotide.decode((byte) columnarCounts.getInt(refNucleotideColumn, i)),
+                            Nucleotide.decode((byte) columnarCounts.getInt(altNucleotideColumn, i)));
+                })
+                .collect(Collectors.toList());
+        return new AllelicCountCollection(columnarCounts.getMetadata(), allelicCounts);
+    }
+
+    /**
+     * Write allelic counts in the columnar binary format described in {@link ColumnarCountCollection}.
+     * Nucleotides are stored as the values of their upper-case bytes.
+     */
+    public void writeColumnar(final File file) {
+        Utils.nonNull(file);
+        final Map<String, int[]> columns = new LinkedHashMap<>();
+        columns.put(AllelicCountTableColumn.POSITION.name(), getRecords().stream().mapToInt(AllelicCount::getEnd).toArray());
+        columns.put(AllelicCountTableColumn.REF_COUNT.name(), getRecords().stream().mapToInt(AllelicCount::getRefReadCount).toArray());
+        columns.put(AllelicCountTableColumn.ALT_COUNT.name(), getRecords().stream().mapToInt(AllelicCount::getAltReadCount).toArray());
+        columns.put(AllelicCountTableColumn.REF_NUCLEOTIDE.name(), getRecords().stream().mapToInt(c -> c.getRefNucleotide().encodeAsByte()).toArray());
+        columns.put(AllelicCountTableColumn.ALT_NUCLEOTIDE.name(), getRecords().stream().mapToInt(c -> c.getAltNucleotide().encodeAsByte()).toArray());
+        ColumnarCountCollection.write(
+                file,
+                getMetadata(),
+                getRecords().stream().map(AllelicCount::getContig).collect(Collectors.toList()),
+                columns);
+    }
 }
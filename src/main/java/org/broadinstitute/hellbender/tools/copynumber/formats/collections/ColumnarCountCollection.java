@@ -0,0 +1,281 @@
+package org.broadinstitute.hellbender.tools.copynumber.formats.collections;
+
+import htsjdk.samtools.SAMFileHeader;
+import htsjdk.samtools.SAMSequenceDictionary;
+import htsjdk.samtools.SAMTextHeaderCodec;
+import htsjdk.samtools.util.BufferedLineReader;
+import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.tools.copynumber.formats.metadata.SampleLocatableMetadata;
+import org.broadinstitute.hellbender.tools.copynumber.formats.metadata.SimpleSampleLocatableMetadata;
+import org.broadinstitute.hellbender.utils.Utils;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.StringWriter;
+import java.nio.BufferUnderflowException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Helper class for {@link SimpleCountCollection} and {@link AllelicCountCollection} used to read/write
+ * a simple columnar binary format, which can be read without string parsing or the native HDF5 library.
+ * Class is only visible so that it can be referenced in documentation.
+ *
+ * <p>
+ *     All values are stored in little-endian byte order.  The file consists of:
+ * </p>
+ * <ul>
+ *     <li>
+ *         header: the magic bytes {@code GATKCNC\1}, the format version, the number of records,
+ *         the sample name, the sequence dictionary (as a SAM-style header), the names of the contigs on which records lie,
+ *         and the names of the columns, followed by zero padding to a multiple of 8 bytes
+ *     </li>
+ *     <li>
+ *         contig column: for each record, the 32-bit index of its contig in the list of contig names in the header
+ *     </li>
+ *     <li>
+ *         data columns: for each column in the header, a 32-bit integer value for each record
+ *     </li>
+ * </ul>
+ * <p>
+ *     Integers in the header are 32-bit; strings are stored as their length in bytes followed by their UTF-8 encoding.
+ *     Each column is memory-mapped when the file is read.
+ * </p>
+ */
+public final class ColumnarCountCollection {
+    private static final byte[] MAGIC = {'G', 'A', 'T', 'K', 'C', 'N', 'C', 1};
+    private static final int VERSION = 1;
+    private static final ByteOrder BYTE_ORDER = ByteOrder.LITTLE_ENDIAN;
+    private static final int HEADER_ALIGNMENT = 8;
+    private static final int MAX_NUM_RECORDS = Integer.MAX_VALUE / Integer.BYTES;    //each column is mapped as a single buffer
+
+    private final SampleLocatableMetadata metadata;
+    private final int numRecords;
+    private final String[] contigNames;
+    private final IntBuffer contigIndices;
+    private final Map<String, IntBuffer> columns;
+
+    private ColumnarCountCollection(final SampleLocatableMetadata metadata,
+                                    final int numRecords,
+                                    final String[] contigNames,
+                                    final IntBuffer contigIndices,
+                                    final Map<String, IntBuffer> columns) {
+        this.metadata = metadata;
+        this.numRecords = numRecords;
+        this.contigNames = contigNames;
+        this.contigIndices = contigIndices;
+        this.columns = columns;
+    }
+
+    /**
+     * Returns true if the file starts with the magic bytes of this format.
+     */
+    public static boolean isColumnarFile(final File file) {
+        Utils.nonNull(file);
+        try (final InputStream inputStream = Files.newInputStream(file.toPath())) {
+            final byte[] candidateMagic = new byte[MAGIC.length];
+            int numBytesRead = 0;
+            while (numBytesRead < MAGIC.length) {
+                final int n = inputStream.read(candidateMagic, numBytesRead, MAGIC.length - numBytesRead);
+                if (n < 0) {
+                    return false;
+                }
+                numBytesRead += n;
+            }
+            return Arrays.equals(candidateMagic, MAGIC);
+        } catch (final IOException e) {
+            throw new UserException.CouldNotReadInputFile(file.toPath(), e);
+        }
+    }
+
+    /**
+     * Reads the header and memory-maps the columns of a file.
+     * @param expectedColumnNames   names of the columns that must be present, in order
+     */
+    static ColumnarCountCollection read(final File file,
+                                        final List<String> expectedColumnNames) {
+        Utils.nonNull(file);
+        Utils.nonNull(expectedColumnNames);
+        try (final FileChannel channel = FileChannel.open(file.toPath(), StandardOpenOption.READ)) {
+            final ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, 0, Math.min(channel.size(), Integer.MAX_VALUE))
+                    .order(BYTE_ORDER);
+            final byte[] magic = new byte[MAGIC.length];
+            header.get(magic);
+            if (!Arrays.equals(magic, MAGIC)) {
+                throw new UserException.BadInput(String.format("File %s is not in the columnar count format.", file));
+            }
+            final int version = header.getInt();
+            if (version != VERSION) {
+                throw new UserException.BadInput(String.format("File %s has unsupported columnar count format version %d.", file, version));
+            }
+            final int numRecords = header.getInt();
+            if (numRecords < 0 || numRecords > MAX_NUM_RECORDS) {
+                throw new UserException.BadInput(String.format("File %s has an invalid number of records (%d).", file, numRecords));
+            }
+            final String sampleName = getString(header);
+            final String sequenceDictionaryString = getString(header);
+            final SAMSequenceDictionary sequenceDictionary = new SAMTextHeaderCodec()
+                    .decode(BufferedLineReader.fromString(sequenceDictionaryString), file.getAbsolutePath())
+                    .getSequenceDictionary();
+            final String[] contigNames = new String[header.getInt()];
+            for (int i = 0; i < contigNames.length; i++) {
+                contigNames[i] = getString(header);
+            }
+            final List<String> columnNames = new ArrayList<>();
+            final int numColumns = header.getInt();
+            for (int i = 0; i < numColumns; i++) {
+                columnNames.add(getString(header));
+            }
+            if (!columnNames.equals(expectedColumnNames)) {
+                throw new UserException.BadInput(String.format("File %s has columns %s, but columns %s were expected.",
+                        file, columnNames, expectedColumnNames));
+            }
+
+            final long headerLength = padToAlignment(header.position());
+            final long columnLength = (long) Integer.BYTES * numRecords;
+            if (channel.size() != headerLength + (numColumns + 1) * columnLength) {
+                throw new UserException.BadInput(String.format("File %s is truncated or corrupt.", file));
+            }
+            final IntBuffer contigIndices = mapColumn(channel, headerLength, columnLength);
+            final Map<String, IntBuffer> columns = new LinkedHashMap<>(numColumns);
+            for (int i = 0; i < numColumns; i++) {
+                columns.put(columnNames.get(i), mapColumn(channel, headerLength + (i + 1) * columnLength, columnLength));
+            }
+            return new ColumnarCountCollection(
+                    new SimpleSampleLocatableMetadata(sampleName, sequenceDictionary),
+                    numRecords, contigNames, contigIndices, columns);
+        } catch (final BufferUnderflowException | NegativeArraySizeException e) {
+            throw new UserException.BadInput(String.format("File %s has a truncated or corrupt header.", file));
+        } catch (final IOException e) {
+            throw new UserException.CouldNotReadInputFile(file.toPath(), e);
+        }
+    }
+
+    SampleLocatableMetadata getMetadata() {
+        return metadata;
+    }
+
+    int getNumRecords() {
+        return numRecords;
+    }
+
+    /**
+     * Contig names are shared by all records on the same contig.
+     */
+    String getContig(final int recordIndex) {
+        return contigNames[contigIndices.get(recordIndex)];
+    }
+
+    int getInt(final String columnName,
+               final int recordIndex) {
+        return columns.get(columnName).get(recordIndex);
+    }
+
+    /**
+     * @param contigs   contig of each record
+     * @param columns   values of each column for each record, in the order in which columns should be stored
+     */
+    static void write(final File outputFile,
+                      final SampleLocatableMetadata metadata,
+                      final List<String> contigs,
+                      final Map<String, int[]> columns) {
+        Utils.nonNull(outputFile);
+        Utils.nonNull(metadata);
+        Utils.nonNull(contigs);
+        Utils.nonNull(columns);
+        final int numRecords = contigs.size();
+        Utils.validateArg(numRecords <= MAX_NUM_RECORDS,
+                String.format("The columnar count format supports at most %d records.", MAX_NUM_RECORDS));
+        Utils.validateArg(columns.values().stream().allMatch(c -> c.length == numRecords),
+                "Number of values in each column must match the number of records.");
+
+        //index contigs in order of appearance
+        final Map<String, Integer> contigIndexMap = new LinkedHashMap<>();
+        final int[] contigIndices = new int[numRecords];
+        for (int i = 0; i < numRecords; i++) {
+            contigIndices[i] = contigIndexMap.computeIfAbsent(contigs.get(i), c -> contigIndexMap.size());
+        }
+
+        final StringWriter sequenceDictionaryWriter = new StringWriter();
+        new SAMTextHeaderCodec().encode(sequenceDictionaryWriter, new SAMFileHeader(metadata.getSequenceDictionary()));
+        final List<byte[]> headerStrings = new ArrayList<>();
+        headerStrings.add(metadata.getSampleName().getBytes(StandardCharsets.UTF_8));
+        headerStrings.add(sequenceDictionaryWriter.toString().getBytes(StandardCharsets.UTF_8));
+        contigIndexMap.keySet().forEach(c -> headerStrings.add(c.getBytes(StandardCharsets.UTF_8)));
+        columns.keySet().forEach(c -> headerStrings.add(c.getBytes(StandardCharsets.UTF_8)));
+
+        //magic, version, number of records, number of contigs, number of columns, and the length-prefixed strings
+        final long unpaddedHeaderLength = MAGIC.length + 4L * Integer.BYTES +
+                headerStrings.stream().mapToLong(s -> Integer.BYTES + s.length).sum();
+        final ByteBuffer header = ByteBuffer.allocate((int) padToAlignment(unpaddedHeaderLength)).order(BYTE_ORDER);
+        header.put(MAGIC);
+        header.putInt(VERSION);
+        header.putInt(numRecords);
+        putString(header, headerStrings.get(0));
+        putString(header, headerStrings.get(1));
+        header.putInt(contigIndexMap.size());
+        headerStrings.subList(2, 2 + contigIndexMap.size()).forEach(s -> putString(header, s));
+        header.putInt(columns.size());
+        headerStrings.subList(2 + contigIndexMap.size(), headerStrings.size()).forEach(s -> putString(header, s));
+        header.position(header.capacity());
+        header.flip();
+
+        try (final FileChannel channel = FileChannel.open(outputFile.toPath(),
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            writeFully(channel, header);
+            writeColumn(channel, contigIndices);
+            for (final int[] column : columns.values()) {
+                writeColumn(channel, column);
+            }
+        } catch (final IOException e) {
+            throw new UserException.CouldNotCreateOutputFile(outputFile, e);
+        }
+    }
+
+    private static long padToAlignment(final long length) {
+        return (length + HEADER_ALIGNMENT - 1) / HEADER_ALIGNMENT * HEADER_ALIGNMENT;
+    }
+
+    private static String getString(final ByteBuffer buffer) {
+        final byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return new String(bytes, StandardCharsets.UTF_8);
+    }
+
+    private static void putString(final ByteBuffer buffer,
+                                  final byte[] bytes) {
+        buffer.putInt(bytes.length);
+        buffer.put(bytes);
+    }
+
+    private static IntBuffer mapColumn(final FileChannel channel,
+                                       final long offset,
+                                       final long length) throws IOException {
+        return channel.map(FileChannel.MapMode.READ_ONLY, offset, length).order(BYTE_ORDER).asIntBuffer();
+    }
+
+    private static void writeColumn(final FileChannel channel,
+                                    final int[] values) throws IOException {
+        final ByteBuffer buffer = ByteBuffer.allocate(Integer.BYTES * values.length).order(BYTE_ORDER);
+        buffer.asIntBuffer().put(values);
+        writeFully(channel, buffer);
+    }
+
+    private static void writeFully(final FileChannel channel,
+                                   final ByteBuffer buffer) throws IOException {
+        while (buffer.hasRemaining()) {
+            channel.write(buffer);
+        }
+    }
+}
@@ -17,7 +17,10 @@ import org.broadinstitute.hellbender.utils.tsv.DataLine;
 import org.broadinstitute.hellbender.utils.tsv.TableColumnCollection;
 
 import java.io.File;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
 import java.util.Set;
 import java.util.function.BiConsumer;
 import java.util.function.Function;
@@ -26,12 +29,16 @@ import java.util.stream.IntStream;
 
 /**
  * Simple data structure to pass and read/write a List of {@link SimpleCount} objects.
- * Supports both TSV and HDF5.
+ * Supports TSV, HDF5, and the columnar binary format described in {@link ColumnarCountCollection}.
  *
  * @author Samuel Lee &lt;slee@broadinstitute.org&gt;
  */
 public final class SimpleCountCollection extends AbstractSampleLocatableCollection<SimpleCount> {
     private static final int DEFAULT_FEATURE_QUERY_LOOKAHEAD_IN_BP = 1_000_000;
+    private static final List<String> COLUMNAR_COLUMN_NAMES = Arrays.asList(
+            SimpleCountTableColumn.START.name(),
+            SimpleCountTableColumn.END.name(),
+            SimpleCountTableColumn.COUNT.name());
 
     //note to developers: repeat the column headers in Javadoc so that they are viewable when linked
     /**
@@ -75,7 +82,7 @@ public final class SimpleCountCollection extends AbstractSampleLocatableCollecti
     }
 
     /**
-     * Read all counts from a file (HDF5 or TSV).
+     * Read all counts from a file (HDF5, columnar, or TSV).
      */
     public static SimpleCountCollection read(final File file) {
         IOUtils.canReadFile(file);
@@ -83,7 +90,7 @@ public final class SimpleCountCollection extends AbstractSampleLocatableCollecti
     }
 
     /**
-     * From a file (HDF5 or TSV), subset only the counts with intervals coinciding with intervals from a given list.
+     * From a file (HDF5, columnar, or TSV), subset only the counts with intervals coinciding with intervals from a given list.
      * The list may contain intervals that do not coincide with any count intervals.
      * Unlike {@link #readOverlappingSubsetFromGCS(String, List)}, this method first reads and constructs a {@link SimpleCountCollection}
      * using the entire file, and then creates and returns a second {@link SimpleCountCollection} containing only the
@@ -94,9 +101,14 @@ public final class SimpleCountCollection extends AbstractSampleLocatableCollecti
     public static SimpleCountCollection readAndSubset(final File file,
                                                       final Set<SimpleInterval> intervalSubset) {
         IOUtils.canReadFile(file);
-        final SimpleCountCollection simpleCounts = IOUtils.isHDF5File(file.toPath())
-                ? readHDF5(new HDF5File(file))
-                : readTSV(file);
+        final SimpleCountCollection simpleCounts;
+        if (IOUtils.isHDF5File(file.toPath())) {
+            simpleCounts = readHDF5(new HDF5File(file));
+        } else if (ColumnarCountCollection.isColumnarFile(file)) {
+            simpleCounts = readColumnar(file);
+        } else {
+            simpleCounts = readTSV(file);
+        }
         if (intervalSubset == null || intervalSubset.isEmpty()) {
             return simpleCounts;
         }
@@ -124,6 +136,22 @@ public final class SimpleCountCollection extends AbstractSampleLocatableCollecti
         return new SimpleCountCollection(metadata, simpleCounts);
     }
 
+    private static SimpleCountCollection readColumnar(final File file) {
+        final ColumnarCountCollection columnarCounts = ColumnarCountCollection.read(file, COLUMNAR_COLUMN_NAMES);
+        final String startColumn = SimpleCountTableColumn.START.name();
+        final String endColumn = SimpleCountTableColumn.END.name();
+        final String countColumn = SimpleCountTableColumn.COUNT.name();
+        final List<SimpleCount> simpleCounts = IntStream.range(0, columnarCounts.getNumRecords())
+                .mapToObj(i -> new SimpleCount(
+                        new SimpleInterval(
+                                columnarCounts.getContig(i),
+                                columnarCounts.getInt(startColumn, i),
+                                columnarCounts.getInt(endColumn, i)),
+                        columnarCounts.getInt(countColumn, i)))
+                .collect(Collectors.toList());
+        return new SimpleCountCollection(columnarCounts.getMetadata(), simpleCounts);
+    }
+
     /**
      * Read all counts from a Google Cloud Storage URL.
      * A corresponding index for the counts file must also be present.
@@ -174,6 +202,22 @@ public final class SimpleCountCollection extends AbstractSampleLocatableCollecti
         HDF5SimpleCountCollection.write(file, getMetadata(), getIntervals(), getCounts());
     }
 
+    /**
+     * Write counts in the columnar binary format described in {@link ColumnarCountCollection}.
+     */
+    public void writeColumnar(final File file) {
+        Utils.nonNull(file);
+        final Map<String, int[]> columns = new LinkedHashMap<>();
+        columns.put(SimpleCountTableColumn.START.name(), getRecords().stream().mapToInt(SimpleCount::getStart).toArray());
+        columns.put(SimpleCountTableColumn.END.name(), getRecords().stream().mapToInt(SimpleCount::getEnd).toArray());
+        columns.put(SimpleCountTableColumn.COUNT.name(), getRecords().stream().mapToInt(SimpleCount::getCount).toArray());
+        ColumnarCountCollection.write(
+                file,
+                getMetadata(),
+                getRecords().stream().map(SimpleCount::getContig).collect(Collectors.toList()),
+                columns);
+    }
+
     public double[] getCounts() {
         return getRecords().stream().mapToDouble(SimpleCount::getCount).toArray();
     }
@@ -1,5 +1,9 @@
 package org.broadinstitute.hellbender.tools.copynumber.models;
 
+import org.apache.commons.math3.random.RandomGenerator;
+import org.apache.commons.math3.random.RandomGeneratorFactory;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.broadinstitute.hellbender.tools.copynumber.formats.collections.AllelicCountCollection;
 import org.broadinstitute.hellbender.tools.copynumber.formats.collections.ParameterDecileCollection;
 import org.broadinstitute.hellbender.tools.copynumber.formats.collections.SimpleIntervalCollection;
@@ -8,12 +12,14 @@ import org.broadinstitute.hellbender.tools.copynumber.formats.metadata.SimpleSam
 import org.broadinstitute.hellbender.tools.copynumber.formats.records.ModeledSegment;
 import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.mcmc.DecileCollection;
-import org.broadinstitute.hellbender.utils.mcmc.GibbsSampler;
+import org.broadinstitute.hellbender.utils.mcmc.MultipleChainGibbsSampler;
 import org.broadinstitute.hellbender.utils.mcmc.ParameterSampler;
 import org.broadinstitute.hellbender.utils.mcmc.ParameterizedModel;
+import org.broadinstitute.hellbender.utils.param.ParamUtils;
 
 import java.util.*;
 import java.util.function.Function;
+import java.util.function.IntFunction;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -54,12 +60,18 @@ import java.util.stream.IntStream;
  * @author Samuel Lee &lt;slee@broadinstitute.org&gt;
  */
 public final class AlleleFractionModeller {
+    private static final Logger logger = LogManager.getLogger(AlleleFractionModeller.class);
+
     private static final double MAX_REASONABLE_MEAN_BIAS = AlleleFractionInitializer.MAX_REASONABLE_MEAN_BIAS;
     private static final double MAX_REASONABLE_BIAS_VARIANCE = AlleleFractionInitializer.MAX_REASONABLE_BIAS_VARIANCE;
     private static final double MAX_REASONABLE_OUTLIER_PROBABILITY = AlleleFractionInitializer.MAX_REASONABLE_OUTLIER_PROBABILITY;
     private static final double MIN_MINOR_FRACTION_SAMPLING_WIDTH = 1E-3;
+    private static final int DISPERSED_INITIAL_STATE_SEED = 1453;
+    private static final double DISPERSED_INITIAL_GLOBAL_PARAMETER_MAX_FACTOR = 2.;
+    private static final double MAX_MINOR_FRACTION = 0.5;
 
     private final SampleLocatableMetadata metadata;
+    private final IntFunction<ParameterizedModel<AlleleFractionParameter, AlleleFractionState, AlleleFractionSegmentedData>> initialModelFactory;
     private final ParameterizedModel<AlleleFractionParameter, AlleleFractionState, AlleleFractionSegmentedData> model;
 
     private final List<Double> meanBiasSamples = new ArrayList<>();
@@ -111,12 +123,43 @@ public final class AlleleFractionModeller {
         final ParameterSampler<AlleleFractionState.MinorFractions, AlleleFractionParameter, AlleleFractionState, AlleleFractionSegmentedData> minorFractionsSampler =
                 new AlleleFractionSamplers.MinorFractionsSampler(prior, minorFractionsSliceSamplingWidths);
 
-        model = new ParameterizedModel.GibbsBuilder<>(initialState, data)
+        //the samplers are stateless, so that models for independent chains can share them;
+        //the first chain starts at the initialized state and any further chains start at states dispersed around it
+        //(see createDispersedInitialState), so that the convergence diagnostics are meaningful
+        initialModelFactory = chainIndex -> new ParameterizedModel.GibbsBuilder<>(
+                chainIndex == 0
+                        ? new AlleleFractionState(initialParameters.getMeanBias(), initialParameters.getBiasVariance(), initialParameters.getOutlierProbability(),
+                                new AlleleFractionState.MinorFractions(initialMinorFractions))
+                        : createDispersedInitialState(chainIndex, initialParameters, initialMinorFractions.size()),
+                data)
                 .addParameterSampler(AlleleFractionParameter.MEAN_BIAS, meanBiasSampler, Double.class)
                 .addParameterSampler(AlleleFractionParameter.BIAS_VARIANCE, biasVarianceSampler, Double.class)
                 .addParameterSampler(AlleleFractionParameter.OUTLIER_PROBABILITY, outlierProbabilitySampler, Double.class)
                 .addParameterSampler(AlleleFractionParameter.MINOR_ALLELE_FRACTIONS, minorFractionsSampler, AlleleFractionState.MinorFractions.class)
                 .build();
+        model = initialModelFactory.apply(0);
+    }
+
+    /**
+     * Draws an initial state for the chain with the given (positive) index that is overdispersed relative to the
+     * posterior: the mean bias and bias variance are scaled by log-uniform factors, and the outlier probability
+     * and minor-allele fractions are drawn uniformly from their allowed ranges.
+     * The draw depends only on the chain index, so results are reproducible.
+     */
+    private static AlleleFractionState createDispersedInitialState(final int chainIndex,
+                                                                   final AlleleFractionGlobalParameters initialParameters,
+                                                                   final int numSegments) {
+        final RandomGenerator rng = RandomGeneratorFactory.createRandomGenerator(new Random(DISPERSED_INITIAL_STATE_SEED + chainIndex));
+        final double logMaxFactor = Math.log(DISPERSED_INITIAL_GLOBAL_PARAMETER_MAX_FACTOR);
+        final double meanBias = Math.min(MAX_REASONABLE_MEAN_BIAS,
+                initialParameters.getMeanBias() * Math.exp(logMaxFactor * (2. * rng.nextDouble() - 1.)));
+        final double biasVariance = Math.min(MAX_REASONABLE_BIAS_VARIANCE,
+                initialParameters.getBiasVariance() * Math.exp(logMaxFactor * (2. * rng.nextDouble() - 1.)));
+        final double outlierProbability = MAX_REASONABLE_OUTLIER_PROBABILITY * rng.nextDouble();
+        final List<Double> minorFractions = IntStream.range(0, numSegments)
+                .mapToObj(segment -> MAX_MINOR_FRACTION * rng.nextDouble())
+                .collect(Collectors.toList());
+        return new AlleleFractionState(meanBias, biasVariance, outlierProbability, new AlleleFractionState.MinorFractions(minorFractions));
     }
 
     /**
@@ -127,8 +170,28 @@ public final class AlleleFractionModeller {
      * @param numBurnIn     number of burn-in samples to discard
      */
     void fitMCMC(final int numSamples, final int numBurnIn) {
+        fitMCMC(numSamples, numBurnIn, 1, 1);
+    }
+
+    /**
+     * Adds {@code numChains * (numSamples - numBurnIn)} Markov-Chain Monte-Carlo samples of the parameter posteriors
+     * (generated using Gibbs sampling of {@code numChains} independent chains) to the collections held internally.
+     * The current {@link AlleleFractionState} held internally is used to initialize the first chain; the other chains
+     * are initialized using the state found by {@link AlleleFractionInitializer} at construction.  If more than one
+     * chain is run, the potential scale reduction factors of the parameters are logged as convergence diagnostics.
+     * @param numSamples    total number of samples per posterior per chain
+     * @param numBurnIn     number of burn-in samples to discard from each chain
+     * @param numChains     number of independent chains
+     * @param numThreads    number of threads used to run the chains and to sample minor-allele fractions in parallel
+     */
+    void fitMCMC(final int numSamples, final int numBurnIn, final int numChains, final int numThreads) {
+        ParamUtils.isPositive(numChains, "Number of chains must be positive.");
+
         //run MCMC
-        final GibbsSampler<AlleleFractionParameter, AlleleFractionState, AlleleFractionSegmentedData> gibbsSampler = new GibbsSampler<>(numSamples, model);
+        final List<ParameterizedModel<AlleleFractionParameter, AlleleFractionState, AlleleFractionSegmentedData>> models =
+                IntStream.range(0, numChains).mapToObj(i -> i == 0 ? model : initialModelFactory.apply(i)).collect(Collectors.toList());
+        final MultipleChainGibbsSampler<AlleleFractionParameter, AlleleFractionState, AlleleFractionSegmentedData> gibbsSampler =
+                new MultipleChainGibbsSampler<>(numSamples, models, numThreads);
         gibbsSampler.runMCMC();
 
         //update posterior samples
@@ -136,6 +199,18 @@ public final class AlleleFractionModeller {
         biasVarianceSamples.addAll(gibbsSampler.getSamples(AlleleFractionParameter.BIAS_VARIANCE, Double.class, numBurnIn));
         outlierProbabilitySamples.addAll(gibbsSampler.getSamples(AlleleFractionParameter.OUTLIER_PROBABILITY, Double.class, numBurnIn));
         minorFractionsSamples.addAll(gibbsSampler.getSamples(AlleleFractionParameter.MINOR_ALLELE_FRACTIONS, AlleleFractionState.MinorFractions.class, numBurnIn));
+
+        if (numChains > 1) {
+            logger.info(String.format("Potential scale reduction factors for allele-fraction model: mean bias = %.3f, bias variance = %.3f, outlier probability = %.3f, minor-allele fractions (maximum) = %.3f",
+                    MultipleChainGibbsSampler.calculatePotentialScaleReductionFactor(
+                            gibbsSampler.getSamplesPerChain(AlleleFractionParameter.MEAN_BIAS, Double.class, numBurnIn)),
+                    MultipleChainGibbsSampler.calculatePotentialScaleReductionFactor(
+                            gibbsSampler.getSamplesPerChain(AlleleFractionParameter.BIAS_VARIANCE, Double.class, numBurnIn)),
+                    MultipleChainGibbsSampler.calculatePotentialScaleReductionFactor(
+                            gibbsSampler.getSamplesPerChain(AlleleFractionParameter.OUTLIER_PROBABILITY, Double.class, numBurnIn)),
+                    MultipleChainGibbsSampler.calculateMaximumPotentialScaleReductionFactor(
+                            gibbsSampler.getSamplesPerChain(AlleleFractionParameter.MINOR_ALLELE_FRACTIONS, AlleleFractionState.MinorFractions.class, numBurnIn))));
+        }
     }
 
     List<Double> getMeanBiasSamples() {
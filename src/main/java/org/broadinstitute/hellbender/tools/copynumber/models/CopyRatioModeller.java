@@ -1,5 +1,10 @@
 package org.broadinstitute.hellbender.tools.copynumber.models;
 
+import org.apache.commons.math3.distribution.BetaDistribution;
+import org.apache.commons.math3.random.RandomGenerator;
+import org.apache.commons.math3.random.RandomGeneratorFactory;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.broadinstitute.hellbender.tools.copynumber.formats.collections.CopyRatioCollection;
 import org.broadinstitute.hellbender.tools.copynumber.formats.collections.ParameterDecileCollection;
 import org.broadinstitute.hellbender.tools.copynumber.formats.collections.SimpleIntervalCollection;
@@ -8,13 +13,15 @@ import org.broadinstitute.hellbender.tools.copynumber.formats.metadata.SimpleSam
 import org.broadinstitute.hellbender.tools.copynumber.formats.records.ModeledSegment;
 import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.mcmc.DecileCollection;
-import org.broadinstitute.hellbender.utils.mcmc.GibbsSampler;
+import org.broadinstitute.hellbender.utils.mcmc.MultipleChainGibbsSampler;
 import org.broadinstitute.hellbender.utils.mcmc.ParameterSampler;
 import org.broadinstitute.hellbender.utils.mcmc.ParameterizedModel;
 import org.broadinstitute.hellbender.utils.param.ParamUtils;
 
 import java.util.*;
+import java.util.function.IntFunction;
 import java.util.stream.Collectors;
+import java.util.stream.IntStream;
 
 /**
  * Represents a segmented model for copy ratio fit to denoised log2 copy-ratio data.
@@ -28,6 +35,8 @@ import java.util.stream.Collectors;
  * @author Samuel Lee &lt;slee@broadinstitute.org&gt;
  */
 public final class CopyRatioModeller {
+    private static final Logger logger = LogManager.getLogger(CopyRatioModeller.class);
+
     private static final double EPSILON = 1E-6;
     static final double LOG2_COPY_RATIO_MIN = -50.;
     static final double LOG2_COPY_RATIO_MAX = 10.;
@@ -37,8 +46,11 @@ public final class CopyRatioModeller {
     private static final double OUTLIER_PROBABILITY_INITIAL = 0.05;
     private static final double OUTLIER_PROBABILITY_PRIOR_ALPHA = 5.;
     private static final double OUTLIER_PROBABILITY_PRIOR_BETA = 95.;
+    private static final int DISPERSED_INITIAL_STATE_SEED = 1453;
+    private static final double DISPERSED_INITIAL_VARIANCE_MAX_FACTOR = 4.;
 
     private final SampleLocatableMetadata metadata;
+    private final IntFunction<ParameterizedModel<CopyRatioParameter, CopyRatioState, CopyRatioSegmentedData>> initialModelFactory;
     private final ParameterizedModel<CopyRatioParameter, CopyRatioState, CopyRatioSegmentedData> model;
 
     private final List<Double> varianceSamples = new ArrayList<>();
@@ -80,8 +92,12 @@ public final class CopyRatioModeller {
         final double outlierUniformLogLikelihood = -Math.log(dataRange);
 
         //use empirical segment means and empirical average variance across segments to initialize CopyRatioState
-        final CopyRatioState initialState = new CopyRatioState(varianceEstimate, CopyRatioModeller.OUTLIER_PROBABILITY_INITIAL,
-                new CopyRatioState.SegmentMeans(segmentMeans), new CopyRatioState.OutlierIndicators(Collections.nCopies(data.getNumPoints(), false)));
+        //for the first chain; initial states for any further chains are dispersed around these values
+        //(see createDispersedInitialState), so that the convergence diagnostics are meaningful
+        final IntFunction<CopyRatioState> initialStateFactory = chainIndex -> chainIndex == 0
+                ? new CopyRatioState(varianceEstimate, CopyRatioModeller.OUTLIER_PROBABILITY_INITIAL,
+                        new CopyRatioState.SegmentMeans(segmentMeans), new CopyRatioState.OutlierIndicators(Collections.nCopies(data.getNumPoints(), false)))
+                : createDispersedInitialState(chainIndex, varianceEstimate, varianceMax, segmentMeans, data.getNumPoints());
 
         //define ParameterSamplers
         final ParameterSampler<Double, CopyRatioParameter, CopyRatioState, CopyRatioSegmentedData> varianceSampler =
@@ -93,12 +109,37 @@ public final class CopyRatioModeller {
         final ParameterSampler<CopyRatioState.OutlierIndicators, CopyRatioParameter, CopyRatioState, CopyRatioSegmentedData> outlierIndicatorsSampler =
                 new CopyRatioSamplers.OutlierIndicatorsSampler(outlierUniformLogLikelihood);
 
-        model = new ParameterizedModel.GibbsBuilder<>(initialState, data)
+        //the samplers are stateless, so that models for independent chains can share them
+        initialModelFactory = chainIndex -> new ParameterizedModel.GibbsBuilder<>(initialStateFactory.apply(chainIndex), data)
                 .addParameterSampler(CopyRatioParameter.VARIANCE, varianceSampler, Double.class)
                 .addParameterSampler(CopyRatioParameter.OUTLIER_PROBABILITY, outlierProbabilitySampler, Double.class)
                 .addParameterSampler(CopyRatioParameter.SEGMENT_MEANS, segmentMeansSampler, CopyRatioState.SegmentMeans.class)
                 .addParameterSampler(CopyRatioParameter.OUTLIER_INDICATORS, outlierIndicatorsSampler, CopyRatioState.OutlierIndicators.class)
                 .build();
+        model = initialModelFactory.apply(0);
+    }
+
+    /**
+     * Draws an initial state for the chain with the given (positive) index that is overdispersed relative to the
+     * posterior: the variance is scaled by a log-uniform factor, the outlier probability is drawn from its prior,
+     * and each segment mean is displaced by a Gaussian with the estimated variance of the individual points.
+     * The draw depends only on the chain index, so results are reproducible.
+     */
+    private static CopyRatioState createDispersedInitialState(final int chainIndex,
+                                                              final double varianceEstimate,
+                                                              final double varianceMax,
+                                                              final List<Double> segmentMeans,
+                                                              final int numPoints) {
+        final RandomGenerator rng = RandomGeneratorFactory.createRandomGenerator(new Random(DISPERSED_INITIAL_STATE_SEED + chainIndex));
+        final double logVarianceFactor = Math.log(DISPERSED_INITIAL_VARIANCE_MAX_FACTOR) * (2. * rng.nextDouble() - 1.);
+        final double variance = Math.max(VARIANCE_MIN, Math.min(varianceMax, varianceEstimate * Math.exp(logVarianceFactor)));
+        final double outlierProbability = new BetaDistribution(rng, OUTLIER_PROBABILITY_PRIOR_ALPHA, OUTLIER_PROBABILITY_PRIOR_BETA).sample();
+        final double standardDeviation = Math.sqrt(varianceEstimate);
+        final List<Double> dispersedSegmentMeans = segmentMeans.stream()
+                .map(m -> Math.max(LOG2_COPY_RATIO_MIN, Math.min(LOG2_COPY_RATIO_MAX, m + standardDeviation * rng.nextGaussian())))
+                .collect(Collectors.toList());
+        return new CopyRatioState(variance, outlierProbability,
+                new CopyRatioState.SegmentMeans(dispersedSegmentMeans), new CopyRatioState.OutlierIndicators(Collections.nCopies(numPoints, false)));
     }
 
     /**
@@ -110,17 +151,49 @@ public final class CopyRatioModeller {
      */
     void fitMCMC(final int numSamples,
                         final int numBurnIn) {
+        fitMCMC(numSamples, numBurnIn, 1, 1);
+    }
+
+    /**
+     * Adds {@code numChains * (numSamples - numBurnIn)} Markov-Chain Monte-Carlo samples of the parameter posteriors
+     * (generated using Gibbs sampling of {@code numChains} independent chains) to the collections held internally.
+     * The current {@link CopyRatioState} held internally is used to initialize the first chain; the other chains are
+     * initialized using states dispersed around the initial state determined at construction.  If more than one chain is run, the potential
+     * scale reduction factors of the parameters are logged as convergence diagnostics.
+     * @param numSamples    total number of samples per posterior per chain
+     * @param numBurnIn     number of burn-in samples to discard from each chain
+     * @param numChains     number of independent chains
+     * @param numThreads    number of threads used to run the chains and to sample segment means in parallel
+     */
+    void fitMCMC(final int numSamples,
+                 final int numBurnIn,
+                 final int numChains,
+                 final int numThreads) {
         ParamUtils.isPositiveOrZero(numBurnIn, "Number of burn-in samples must be non-negative.");
         Utils.validateArg(numBurnIn < numSamples, "Number of samples must be greater than number of burn-in samples.");
+        ParamUtils.isPositive(numChains, "Number of chains must be positive.");
 
         //run MCMC
-        final GibbsSampler<CopyRatioParameter, CopyRatioState, CopyRatioSegmentedData> gibbsSampler = new GibbsSampler<>(numSamples, model);
+        final List<ParameterizedModel<CopyRatioParameter, CopyRatioState, CopyRatioSegmentedData>> models =
+                IntStream.range(0, numChains).mapToObj(i -> i == 0 ? model : initialModelFactory.apply(i)).collect(Collectors.toList());
+        final MultipleChainGibbsSampler<CopyRatioParameter, CopyRatioState, CopyRatioSegmentedData> gibbsSampler =
+                new MultipleChainGibbsSampler<>(numSamples, models, numThreads);
         gibbsSampler.runMCMC();
 
         //update posterior samples
         varianceSamples.addAll(gibbsSampler.getSamples(CopyRatioParameter.VARIANCE, Double.class, numBurnIn));
         outlierProbabilitySamples.addAll(gibbsSampler.getSamples(CopyRatioParameter.OUTLIER_PROBABILITY, Double.class, numBurnIn));
         segmentMeansSamples.addAll(gibbsSampler.getSamples(CopyRatioParameter.SEGMENT_MEANS, CopyRatioState.SegmentMeans.class, numBurnIn));
+
+        if (numChains > 1) {
+            logger.info(String.format("Potential scale reduction factors for copy-ratio model: variance = %.3f, outlier probability = %.3f, segment means (maximum) = %.3f",
+                    MultipleChainGibbsSampler.calculatePotentialScaleReductionFactor(
+                            gibbsSampler.getSamplesPerChain(CopyRatioParameter.VARIANCE, Double.class, numBurnIn)),
+                    MultipleChainGibbsSampler.calculatePotentialScaleReductionFactor(
+                            gibbsSampler.getSamplesPerChain(CopyRatioParameter.OUTLIER_PROBABILITY, Double.class, numBurnIn)),
+                    MultipleChainGibbsSampler.calculateMaximumPotentialScaleReductionFactor(
+                            gibbsSampler.getSamplesPerChain(CopyRatioParameter.SEGMENT_MEANS, CopyRatioState.SegmentMeans.class, numBurnIn))));
+        }
     }
 
     List<Double> getVarianceSamples() {
@@ -0,0 +1,48 @@
+package org.broadinstitute.hellbender.tools.copynumber.models;
+
+import org.apache.commons.math3.random.RandomGenerator;
+import org.apache.commons.math3.random.RandomGeneratorFactory;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinTask;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Samples the segment-level parameters of the copy-ratio and allele-fraction models, which are conditionally
+ * independent given the global parameters.
+ *
+ * <p>
+ *     A seed for each segment is first drawn from the random number generator of the chain, and each segment is
+ *     sampled using its own generator.  When called from within a {@link java.util.concurrent.ForkJoinPool} (i.e., when
+ *     MCMC is run using more than one thread; see {@link org.broadinstitute.hellbender.utils.mcmc.MultipleChainGibbsSampler}),
+ *     segments are sampled in parallel in that pool; otherwise, they are sampled in order on the calling thread.
+ *     Either way, the chain draws the same random numbers, so the samples do not depend on the number of threads.
+ * </p>
+ *
+ * <p>
+ *     Note that this changes the samples (and hence the output of ModelSegments) from those of earlier versions, which
+ *     drew segment-level parameters directly from the generator of the chain, even when run with the default single
+ *     chain and thread.  The posterior summaries agree to within Monte Carlo error.
+ * </p>
+ */
+final class SegmentSamplingUtils {
+    private SegmentSamplingUtils() {}
+
+    @FunctionalInterface
+    interface SegmentSampler {
+        double sample(final RandomGenerator rng, final int segmentIndex);
+    }
+
+    static List<Double> sampleSegments(final RandomGenerator rng,
+                                       final int numSegments,
+                                       final SegmentSampler segmentSampler) {
+        final long[] segmentSeeds = IntStream.range(0, numSegments).mapToLong(i -> rng.nextLong()).toArray();
+        final IntStream segmentIndices = IntStream.range(0, numSegments);
+        return (ForkJoinTask.inForkJoinPool() ? segmentIndices.parallel() : segmentIndices)
+                .mapToObj(segmentIndex -> segmentSampler.sample(
+                        RandomGeneratorFactory.createRandomGenerator(new Random(segmentSeeds[segmentIndex])), segmentIndex))
+                .collect(Collectors.toList());
+    }
+}
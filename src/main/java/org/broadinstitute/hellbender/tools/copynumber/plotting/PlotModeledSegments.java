@@ -197,7 +197,7 @@ public final class PlotModeledSegments extends CommandLineProgram {
 
         logger.info("Reading and validating input files...");
         denoisedCopyRatios = inputDenoisedCopyRatiosFile == null ? null : new CopyRatioCollection(inputDenoisedCopyRatiosFile);
-        allelicCounts = inputAllelicCountsFile == null ? null : new AllelicCountCollection(inputAllelicCountsFile);
+        allelicCounts = inputAllelicCountsFile == null ? null : AllelicCountCollection.read(inputAllelicCountsFile);
         modeledSegments = new ModeledSegmentCollection(inputModeledSegmentsFile);
 
         //get sample name from input files (consistency check is performed)
@@ -13,7 +13,8 @@ import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.param.ParamUtils;
 
 import java.util.*;
-import java.util.function.BiFunction;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleFunction;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -28,7 +29,7 @@ public final class AlleleFractionKernelSegmenter {
     private static final int MIN_NUM_POINTS_REQUIRED_PER_CHROMOSOME = 10;
 
     //Gaussian kernel for a specified variance; if variance is zero, use a linear kernel
-    private static final Function<Double, BiFunction<Double, Double, Double>> KERNEL =
+    private static final DoubleFunction<DoubleBinaryOperator> KERNEL =
             variance -> variance == 0.
                     ? (x, y) -> x * y
                     : (x, y) -> FastMath.exp(-(x - y) * (x - y) / (2. * variance));
@@ -56,7 +57,22 @@ public final class AlleleFractionKernelSegmenter {
                                                             final List<Integer> windowSizes,
                                                             final double numChangepointsPenaltyLinearFactor,
                                                             final double numChangepointsPenaltyLogLinearFactor) {
+        return findSegmentation(maxNumSegmentsPerChromosome, kernelVariance, kernelApproximationDimension, windowSizes,
+                numChangepointsPenaltyLinearFactor, numChangepointsPenaltyLogLinearFactor, 1);
+    }
+
+    /**
+     * As above, but segments up to {@code numThreads} chromosomes at a time (see {@link KernelSegmenter#mapInParallel}).
+     */
+    public AlleleFractionSegmentCollection findSegmentation(final int maxNumSegmentsPerChromosome,
+                                                            final double kernelVariance,
+                                                            final int kernelApproximationDimension,
+                                                            final List<Integer> windowSizes,
+                                                            final double numChangepointsPenaltyLinearFactor,
+                                                            final double numChangepointsPenaltyLogLinearFactor,
+                                                            final int numThreads) {
         ParamUtils.isPositive(maxNumSegmentsPerChromosome, "Maximum number of segments must be positive.");
+        ParamUtils.isPositive(numThreads, "Number of threads must be positive.");
         ParamUtils.isPositiveOrZero(kernelVariance, "Variance of Gaussian kernel must be non-negative (if zero, a linear kernel will be used).");
         ParamUtils.isPositive(kernelApproximationDimension, "Dimension of kernel approximation must be positive.");
         Utils.validateArg(windowSizes.stream().allMatch(ws -> ws > 0), "Window sizes must all be positive.");
@@ -71,46 +87,61 @@ public final class AlleleFractionKernelSegmenter {
         logger.info(String.format("Finding changepoints in %d data points and %d chromosomes...",
                 allelicCounts.size(), allelicCountsPerChromosome.size()));
 
-        //loop over chromosomes, find changepoints, and create allele-fraction segments
-        final List<AlleleFractionSegment> segments = new ArrayList<>();
-        for (final String chromosome : allelicCountsPerChromosome.keySet()) {
-            final List<AllelicCount> allelicCountsInChromosome = allelicCountsPerChromosome.get(chromosome);
-            final int numAllelicCountsInChromosome = allelicCountsInChromosome.size();
-            logger.info(String.format("Finding changepoints in %d data points in chromosome %s...",
-                    numAllelicCountsInChromosome, chromosome));
-
-            if (numAllelicCountsInChromosome < MIN_NUM_POINTS_REQUIRED_PER_CHROMOSOME) {
-                logger.warn(String.format("Number of points in chromosome %s (%d) is less than that required (%d), skipping segmentation...",
-                        chromosome, numAllelicCountsInChromosome, MIN_NUM_POINTS_REQUIRED_PER_CHROMOSOME));
-                final int start = allelicCountsInChromosome.get(0).getStart();
-                final int end = allelicCountsInChromosome.get(numAllelicCountsInChromosome - 1).getEnd();
-                segments.add(new AlleleFractionSegment(
-                        new SimpleInterval(chromosome, start, end), numAllelicCountsInChromosome));
-                continue;
-            }
-
-            final List<Double> alternateAlleleFractionsInChromosome = allelicCountsPerChromosome.get(chromosome).stream()
-                    .map(AllelicCount::getAlternateAlleleFraction)
-                    .collect(Collectors.toList());
-            final List<Integer> changepoints = new ArrayList<>(new KernelSegmenter<>(alternateAlleleFractionsInChromosome)
-                .findChangepoints(maxNumChangepointsPerChromosome, KERNEL.apply(kernelVariance), kernelApproximationDimension,
-                        windowSizes, numChangepointsPenaltyLinearFactor, numChangepointsPenaltyLogLinearFactor, KernelSegmenter.ChangepointSortOrder.INDEX));
-
-            if (!changepoints.contains(numAllelicCountsInChromosome)) {
-                changepoints.add(numAllelicCountsInChromosome - 1);
-            }
-            int previousChangepoint = -1;
-            for (final int changepoint : changepoints) {
-                final int start = allelicCountsPerChromosome.get(chromosome).get(previousChangepoint + 1).getStart();
-                final int end = allelicCountsPerChromosome.get(chromosome).get(changepoint).getEnd();
-                final List<AllelicCount> allelicCountsInSegment = allelicCountsInChromosome.subList(
-                        previousChangepoint + 1, changepoint + 1);
-                segments.add(new AlleleFractionSegment(
-                        new SimpleInterval(chromosome, start, end), allelicCountsInSegment));
-                previousChangepoint = changepoint;
-            }
-        }
+        //find changepoints and create allele-fraction segments for each chromosome
+        final DoubleBinaryOperator kernel = KERNEL.apply(kernelVariance);
+        final List<AlleleFractionSegment> segments = KernelSegmenter.mapInParallel(
+                new ArrayList<>(allelicCountsPerChromosome.keySet()),
+                chromosome -> findSegmentationInChromosome(chromosome, maxNumChangepointsPerChromosome, kernel, kernelApproximationDimension,
+                        windowSizes, numChangepointsPenaltyLinearFactor, numChangepointsPenaltyLogLinearFactor),
+                numThreads).stream()
+                .flatMap(List::stream)
+                .collect(Collectors.toList());
         logger.info(String.format("Found %d segments in %d chromosomes.", segments.size(), allelicCountsPerChromosome.keySet().size()));
         return new AlleleFractionSegmentCollection(allelicCounts.getMetadata(), segments);
     }
+
+    private List<AlleleFractionSegment> findSegmentationInChromosome(final String chromosome,
+                                                                     final int maxNumChangepointsPerChromosome,
+                                                                     final DoubleBinaryOperator kernel,
+                                                                     final int kernelApproximationDimension,
+                                                                     final List<Integer> windowSizes,
+                                                                     final double numChangepointsPenaltyLinearFactor,
+                                                                     final double numChangepointsPenaltyLogLinearFactor) {
+        final List<AllelicCount> allelicCountsInChromosome = allelicCountsPerChromosome.get(chromosome);
+        final int numAllelicCountsInChromosome = allelicCountsInChromosome.size();
+        logger.info(String.format("Finding changepoints in %d data points in chromosome %s...",
+                numAllelicCountsInChromosome, chromosome));
+
+        if (numAllelicCountsInChromosome < MIN_NUM_POINTS_REQUIRED_PER_CHROMOSOME) {
+            logger.warn(String.format("Number of points in chromosome %s (%d) is less than that required (%d), skipping segmentation...",
+                    chromosome, numAllelicCountsInChromosome, MIN_NUM_POINTS_REQUIRED_PER_CHROMOSOME));
+            final int start = allelicCountsInChromosome.get(0).getStart();
+            final int end = allelicCountsInChromosome.get(numAllelicCountsInChromosome - 1).getEnd();
+            return Collections.singletonList(new AlleleFractionSegment(
+                    new SimpleInterval(chromosome, start, end), numAllelicCountsInChromosome));
+        }
+
+        final double[] alternateAlleleFractionsInChromosome = allelicCountsPerChromosome.get(chromosome).stream()
+                .mapToDouble(AllelicCount::getAlternateAlleleFraction)
+                .toArray();
+        final List<Integer> changepoints = new ArrayList<>(KernelSegmenter.findChangepoints(alternateAlleleFractionsInChromosome,
+                maxNumChangepointsPerChromosome, kernel, kernelApproximationDimension,
+                windowSizes, numChangepointsPenaltyLinearFactor, numChangepointsPenaltyLogLinearFactor, KernelSegmenter.ChangepointSortOrder.INDEX));
+
+        if (!changepoints.contains(numAllelicCountsInChromosome)) {
+            changepoints.add(numAllelicCountsInChromosome - 1);
+        }
+        final List<AlleleFractionSegment> segments = new ArrayList<>(changepoints.size());
+        int previousChangepoint = -1;
+        for (final int changepoint : changepoints) {
+            final int start = allelicCountsPerChromosome.get(chromosome).get(previousChangepoint + 1).getStart();
+            final int end = allelicCountsPerChromosome.get(chromosome).get(changepoint).getEnd();
+            final List<AllelicCount> allelicCountsInSegment = allelicCountsInChromosome.subList(
+                    previousChangepoint + 1, changepoint + 1);
+            segments.add(new AlleleFractionSegment(
+                    new SimpleInterval(chromosome, start, end), allelicCountsInSegment));
+            previousChangepoint = changepoint;
+        }
+        return segments;
+    }
 }
@@ -13,7 +13,8 @@ import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.param.ParamUtils;
 
 import java.util.*;
-import java.util.function.BiFunction;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.DoubleFunction;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -28,7 +29,7 @@ public final class CopyRatioKernelSegmenter {
     private static final int MIN_NUM_POINTS_REQUIRED_PER_CHROMOSOME = 10;
 
     //Gaussian kernel for a specified variance; if variance is zero, use a linear kernel
-    private static final Function<Double, BiFunction<Double, Double, Double>> KERNEL =
+    private static final DoubleFunction<DoubleBinaryOperator> KERNEL =
             variance -> variance == 0.
                     ? (x, y) -> x * y
                     : (x, y) -> FastMath.exp(-(x - y) * (x - y) / (2. * variance));
@@ -59,7 +60,22 @@ public final class CopyRatioKernelSegmenter {
                                                        final List<Integer> windowSizes,
                                                        final double numChangepointsPenaltyLinearFactor,
                                                        final double numChangepointsPenaltyLogLinearFactor) {
+        return findSegmentation(maxNumSegmentsPerChromosome, kernelVariance, kernelApproximationDimension, windowSizes,
+                numChangepointsPenaltyLinearFactor, numChangepointsPenaltyLogLinearFactor, 1);
+    }
+
+    /**
+     * As above, but segments up to {@code numThreads} chromosomes at a time (see {@link KernelSegmenter#mapInParallel}).
+     */
+    public CopyRatioSegmentCollection findSegmentation(final int maxNumSegmentsPerChromosome,
+                                                       final double kernelVariance,
+                                                       final int kernelApproximationDimension,
+                                                       final List<Integer> windowSizes,
+                                                       final double numChangepointsPenaltyLinearFactor,
+                                                       final double numChangepointsPenaltyLogLinearFactor,
+                                                       final int numThreads) {
         ParamUtils.isPositive(maxNumSegmentsPerChromosome, "Maximum number of segments must be positive.");
+        ParamUtils.isPositive(numThreads, "Number of threads must be positive.");
         ParamUtils.isPositiveOrZero(kernelVariance, "Variance of Gaussian kernel must be non-negative (if zero, a linear kernel will be used).");
         ParamUtils.isPositive(kernelApproximationDimension, "Dimension of kernel approximation must be positive.");
         Utils.validateArg(windowSizes.stream().allMatch(ws -> ws > 0), "Window sizes must all be positive.");
@@ -74,47 +90,62 @@ public final class CopyRatioKernelSegmenter {
         logger.info(String.format("Finding changepoints in %d data points and %d chromosomes...",
                 denoisedCopyRatios.size(), denoisedCopyRatiosPerChromosome.size()));
 
-        //loop over chromosomes, find changepoints, and create copy-ratio segments
-        final List<CopyRatioSegment> segments = new ArrayList<>();
-        for (final String chromosome : denoisedCopyRatiosPerChromosome.keySet()) {
-            final List<CopyRatio> denoisedCopyRatiosInChromosome = denoisedCopyRatiosPerChromosome.get(chromosome);
-            final int numDenoisedCopyRatiosInChromosome = denoisedCopyRatiosInChromosome.size();
-            logger.info(String.format("Finding changepoints in %d data points in chromosome %s...",
-                    numDenoisedCopyRatiosInChromosome, chromosome));
-
-            if (numDenoisedCopyRatiosInChromosome < MIN_NUM_POINTS_REQUIRED_PER_CHROMOSOME) {
-                logger.warn(String.format("Number of points in chromosome %s (%d) is less than that required (%d), skipping segmentation...",
-                        chromosome, numDenoisedCopyRatiosInChromosome, MIN_NUM_POINTS_REQUIRED_PER_CHROMOSOME));
-                final int start = denoisedCopyRatiosPerChromosome.get(chromosome).get(0).getStart();
-                final int end = denoisedCopyRatiosPerChromosome.get(chromosome).get(numDenoisedCopyRatiosInChromosome - 1).getEnd();
-                segments.add(new CopyRatioSegment(
-                        new SimpleInterval(chromosome, start, end), denoisedCopyRatiosInChromosome));
-                continue;
-            }
-
-            final List<Double> denoisedLog2CopyRatioValuesInChromosome = denoisedCopyRatiosInChromosome.stream()
-                    .map(CopyRatio::getLog2CopyRatioValue)
-                    .collect(Collectors.toList());
-            final List<Integer> changepoints = new ArrayList<>(new KernelSegmenter<>(denoisedLog2CopyRatioValuesInChromosome)
-                .findChangepoints(maxNumChangepointsPerChromosome, KERNEL.apply(kernelVariance), kernelApproximationDimension,
-                        windowSizes, numChangepointsPenaltyLinearFactor, numChangepointsPenaltyLogLinearFactor, KernelSegmenter.ChangepointSortOrder.INDEX));
-
-            if (!changepoints.contains(numDenoisedCopyRatiosInChromosome)) {
-                changepoints.add(numDenoisedCopyRatiosInChromosome - 1);
-            }
-            int previousChangepoint = -1;
-            for (final int changepoint : changepoints) {
-                final int start = denoisedCopyRatiosPerChromosome.get(chromosome).get(previousChangepoint + 1).getStart();
-                final int end = denoisedCopyRatiosPerChromosome.get(chromosome).get(changepoint).getEnd();
-                final List<CopyRatio> denoisedCopyRatiosInSegment = denoisedCopyRatiosInChromosome.subList(
-                        previousChangepoint + 1, changepoint + 1);
-                segments.add(new CopyRatioSegment(
-                        new SimpleInterval(chromosome, start, end),
-                        denoisedCopyRatiosInSegment));
-                previousChangepoint = changepoint;
-            }
-        }
+        //find changepoints and create copy-ratio segments for each chromosome
+        final DoubleBinaryOperator kernel = KERNEL.apply(kernelVariance);
+        final List<CopyRatioSegment> segments = KernelSegmenter.mapInParallel(
+                new ArrayList<>(denoisedCopyRatiosPerChromosome.keySet()),
+                chromosome -> findSegmentationInChromosome(chromosome, maxNumChangepointsPerChromosome, kernel, kernelApproximationDimension,
+                        windowSizes, numChangepointsPenaltyLinearFactor, numChangepointsPenaltyLogLinearFactor),
+                numThreads).stream()
+                .flatMap(List::stream)
+                .collect(Collectors.toList());
         logger.info(String.format("Found %d segments in %d chromosomes.", segments.size(), denoisedCopyRatiosPerChromosome.keySet().size()));
         return new CopyRatioSegmentCollection(denoisedCopyRatios.getMetadata(), segments);
     }
+
+    private List<CopyRatioSegment> findSegmentationInChromosome(final String chromosome,
+                                                                final int maxNumChangepointsPerChromosome,
+                                                                final DoubleBinaryOperator kernel,
+                                                                final int kernelApproximationDimension,
+                                                                final List<Integer> windowSizes,
+                                                                final double numChangepointsPenaltyLinearFactor,
+                                                                final double numChangepointsPenaltyLogLinearFactor) {
+        final List<CopyRatio> denoisedCopyRatiosInChromosome = denoisedCopyRatiosPerChromosome.get(chromosome);
+        final int numDenoisedCopyRatiosInChromosome = denoisedCopyRatiosInChromosome.size();
+        logger.info(String.format("Finding changepoints in %d data points in chromosome %s...",
+                numDenoisedCopyRatiosInChromosome, chromosome));
+
+        if (numDenoisedCopyRatiosInChromosome < MIN_NUM_POINTS_REQUIRED_PER_CHROMOSOME) {
+            logger.warn(String.format("Number of points in chromosome %s (%d) is less than that required (%d), skipping segmentation...",
+                    chromosome, numDenoisedCopyRatiosInChromosome, MIN_NUM_POINTS_REQUIRED_PER_CHROMOSOME));
+            final int start = denoisedCopyRatiosPerChromosome.get(chromosome).get(0).getStart();
+            final int end = denoisedCopyRatiosPerChromosome.get(chromosome).get(numDenoisedCopyRatiosInChromosome - 1).getEnd();
+            return Collections.singletonList(new CopyRatioSegment(
+                    new SimpleInterval(chromosome, start, end), denoisedCopyRatiosInChromosome));
+        }
+
+        final double[] denoisedLog2CopyRatioValuesInChromosome = denoisedCopyRatiosInChromosome.stream()
+                .mapToDouble(CopyRatio::getLog2CopyRatioValue)
+                .toArray();
+        final List<Integer> changepoints = new ArrayList<>(KernelSegmenter.findChangepoints(denoisedLog2CopyRatioValuesInChromosome,
+                maxNumChangepointsPerChromosome, kernel, kernelApproximationDimension,
+                windowSizes, numChangepointsPenaltyLinearFactor, numChangepointsPenaltyLogLinearFactor, KernelSegmenter.ChangepointSortOrder.INDEX));
+
+        if (!changepoints.contains(numDenoisedCopyRatiosInChromosome)) {
+            changepoints.add(numDenoisedCopyRatiosInChromosome - 1);
+        }
+        final List<CopyRatioSegment> segments = new ArrayList<>(changepoints.size());
+        int previousChangepoint = -1;
+        for (final int changepoint : changepoints) {
+            final int start = denoisedCopyRatiosPerChromosome.get(chromosome).get(previousChangepoint + 1).getStart();
+            final int end = denoisedCopyRatiosPerChromosome.get(chromosome).get(changepoint).getEnd();
+            final List<CopyRatio> denoisedCopyRatiosInSegment = denoisedCopyRatiosInChromosome.subList(
+                    previousChangepoint + 1, changepoint + 1);
+            segments.add(new CopyRatioSegment(
+                    new SimpleInterval(chromosome, start, end),
+                    denoisedCopyRatiosInSegment));
+            previousChangepoint = changepoint;
+        }
+        return segments;
+    }
 }
@@ -17,8 +17,9 @@ import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.param.ParamUtils;
 
 import java.util.*;
-import java.util.function.BiFunction;
+import java.util.function.DoubleBinaryOperator;
 import java.util.function.Function;
+import java.util.function.ToDoubleBiFunction;
 import java.util.stream.Collectors;
 
 /**
@@ -38,7 +39,7 @@ public final class MultidimensionalKernelSegmenter {
     private static final AllelicCount BALANCED_ALLELIC_COUNT = new AllelicCount(DUMMY_INTERVAL, 1, 1);
 
     //Gaussian kernel for a specified variance; if variance is zero, use a linear kernel
-    private static final Function<Double, BiFunction<Double, Double, Double>> KERNEL =
+    private static final Function<Double, DoubleBinaryOperator> KERNEL =
             standardDeviation -> standardDeviation == 0.
                     ? (x, y) -> x * y
                     : (x, y) -> new NormalDistribution(null, x, standardDeviation).density(y);
@@ -127,7 +128,25 @@ public final class MultidimensionalKernelSegmenter {
                                                               final List<Integer> windowSizes,
                                                               final double numChangepointsPenaltyLinearFactor,
                                                               final double numChangepointsPenaltyLogLinearFactor) {
+        return findSegmentation(maxNumSegmentsPerChromosome,
+                kernelVarianceCopyRatio, kernelVarianceAlleleFraction, kernelScalingAlleleFraction, kernelApproximationDimension, windowSizes,
+                numChangepointsPenaltyLinearFactor, numChangepointsPenaltyLogLinearFactor, 1);
+    }
+
+    /**
+     * As above, but segments up to {@code numThreads} chromosomes at a time (see {@link KernelSegmenter#mapInParallel}).
+     */
+    public MultidimensionalSegmentCollection findSegmentation(final int maxNumSegmentsPerChromosome,
+                                                              final double kernelVarianceCopyRatio,
+                                                              final double kernelVarianceAlleleFraction,
+                                                              final double kernelScalingAlleleFraction,
+                                                              final int kernelApproximationDimension,
+                                                              final List<Integer> windowSizes,
+                                                              final double numChangepointsPenaltyLinearFactor,
+                                                              final double numChangepointsPenaltyLogLinearFactor,
+                                                              final int numThreads) {
         ParamUtils.isPositive(maxNumSegmentsPerChromosome, "Maximum number of segments must be positive.");
+        ParamUtils.isPositive(numThreads, "Number of threads must be positive.");
         ParamUtils.isPositiveOrZero(kernelVarianceCopyRatio, "Variance of copy-ratio Gaussian kernel must be non-negative (if zero, a linear kernel will be used).");
         ParamUtils.isPositiveOrZero(kernelVarianceAlleleFraction, "Variance of allele-fraction Gaussian kernel must be non-negative (if zero, a linear kernel will be used).");
         ParamUtils.isPositiveOrZero(kernelScalingAlleleFraction, "Scaling of allele-fraction Gaussian kernel must be non-negative.");
@@ -141,64 +160,80 @@ public final class MultidimensionalKernelSegmenter {
 
         final int maxNumChangepointsPerChromosome = maxNumSegmentsPerChromosome - 1;
 
-        final BiFunction<MultidimensionalPoint, MultidimensionalPoint, Double> kernel = constructKernel(
+        final ToDoubleBiFunction<MultidimensionalPoint, MultidimensionalPoint> kernel = constructKernel(
                 kernelVarianceCopyRatio, kernelVarianceAlleleFraction, kernelScalingAlleleFraction);
 
         logger.info(String.format("Finding changepoints in (%d, %d) data points and %d chromosomes...",
                 denoisedCopyRatios.size(), allelicCounts.size(), multidimensionalPointsPerChromosome.size()));
 
-        //loop over chromosomes, find changepoints, and create allele-fraction segments
-        final List<MultidimensionalSegment> segments = new ArrayList<>();
-        for (final String chromosome : multidimensionalPointsPerChromosome.keySet()) {
-            final List<MultidimensionalPoint> multidimensionalPointsInChromosome = multidimensionalPointsPerChromosome.get(chromosome);
-            final int numMultidimensionalPointsInChromosome = multidimensionalPointsInChromosome.size();
-            logger.info(String.format("Finding changepoints in %d data points in chromosome %s...",
-                    numMultidimensionalPointsInChromosome, chromosome));
-
-            if (numMultidimensionalPointsInChromosome < MIN_NUM_POINTS_REQUIRED_PER_CHROMOSOME) {
-                logger.warn(String.format("Number of points in chromosome %s (%d) is less than that required (%d), skipping segmentation...",
-                        chromosome, numMultidimensionalPointsInChromosome, MIN_NUM_POINTS_REQUIRED_PER_CHROMOSOME));
-                final int start = multidimensionalPointsInChromosome.get(0).getStart();
-                final int end = multidimensionalPointsInChromosome.get(numMultidimensionalPointsInChromosome - 1).getEnd();
-                segments.add(new MultidimensionalSegment(
-                        new SimpleInterval(chromosome, start, end),
-                        comparator,
-                        copyRatioMidpointOverlapDetector,
-                        allelicCountOverlapDetector));
-                continue;
-            }
-
-            final List<Integer> changepoints = new ArrayList<>(new KernelSegmenter<>(multidimensionalPointsInChromosome)
-                .findChangepoints(maxNumChangepointsPerChromosome, kernel, kernelApproximationDimension,
-                        windowSizes, numChangepointsPenaltyLinearFactor, numChangepointsPenaltyLogLinearFactor, KernelSegmenter.ChangepointSortOrder.INDEX));
-
-            if (!changepoints.contains(numMultidimensionalPointsInChromosome)) {
-                changepoints.add(numMultidimensionalPointsInChromosome - 1);
-            }
-            int previousChangepoint = -1;
-            for (final int changepoint : changepoints) {
-                final int start = multidimensionalPointsPerChromosome.get(chromosome).get(previousChangepoint + 1).getStart();
-                final int end = multidimensionalPointsPerChromosome.get(chromosome).get(changepoint).getEnd();
-                segments.add(new MultidimensionalSegment(
-                        new SimpleInterval(chromosome, start, end),
-                        comparator,
-                        copyRatioMidpointOverlapDetector,
-                        allelicCountOverlapDetector));
-                previousChangepoint = changepoint;
-            }
-        }
+        //find changepoints and create segments for each chromosome
+        final List<MultidimensionalSegment> segments = KernelSegmenter.mapInParallel(
+                new ArrayList<>(multidimensionalPointsPerChromosome.keySet()),
+                chromosome -> findSegmentationInChromosome(chromosome, maxNumChangepointsPerChromosome, kernel, kernelApproximationDimension,
+                        windowSizes, numChangepointsPenaltyLinearFactor, numChangepointsPenaltyLogLinearFactor),
+                numThreads).stream()
+                .flatMap(List::stream)
+                .collect(Collectors.toList());
         logger.info(String.format("Found %d segments in %d chromosomes.", segments.size(), multidimensionalPointsPerChromosome.keySet().size()));
         return new MultidimensionalSegmentCollection(allelicCounts.getMetadata(), segments);
     }
 
-    private BiFunction<MultidimensionalPoint, MultidimensionalPoint, Double> constructKernel(final double kernelVarianceCopyRatio,
+    private List<MultidimensionalSegment> findSegmentationInChromosome(final String chromosome,
+                                                                       final int maxNumChangepointsPerChromosome,
+                                                                       final ToDoubleBiFunction<MultidimensionalPoint, MultidimensionalPoint> kernel,
+                                                                       final int kernelApproximationDimension,
+                                                                       final List<Integer> windowSizes,
+                                                                       final double numChangepointsPenaltyLinearFactor,
+                                                                       final double numChangepointsPenaltyLogLinearFactor) {
+        final List<MultidimensionalPoint> multidimensionalPointsInChromosome = multidimensionalPointsPerChromosome.get(chromosome);
+        final int numMultidimensionalPointsInChromosome = multidimensionalPointsInChromosome.size();
+        logger.info(String.format("Finding changepoints in %d data points in chromosome %s...",
+                numMultidimensionalPointsInChromosome, chromosome));
+
+        if (numMultidimensionalPointsInChromosome < MIN_NUM_POINTS_REQUIRED_PER_CHROMOSOME) {
+            logger.warn(String.format("Number of points in chromosome %s (%d) is less than that required (%d), skipping segmentation...",
+                    chromosome, numMultidimensionalPointsInChromosome, MIN_NUM_POINTS_REQUIRED_PER_CHROMOSOME));
+            final int start = multidimensionalPointsInChromosome.get(0).getStart();
+            final int end = multidimensionalPointsInChromosome.get(numMultidimensionalPointsInChromosome - 1).getEnd();
+            return Collections.singletonList(new MultidimensionalSegment(
+                    new SimpleInterval(chromosome, start, end),
+                    comparator,
+                    copyRatioMidpointOverlapDetector,
+                    allelicCountOverlapDetector));
+        }
+
+        final List<Integer> changepoints = new ArrayList<>(new KernelSegmenter<>(multidimensionalPointsInChromosome)
+            .findChangepoints(maxNumChangepointsPerChromosome, kernel, kernelApproximationDimension,
+                    windowSizes, numChangepointsPenaltyLinearFactor, numChangepointsPenaltyLogLinearFactor, KernelSegmenter.ChangepointSortOrder.INDEX));
+
+        if (!changepoints.contains(numMultidimensionalPointsInChromosome)) {
+            changepoints.add(numMultidimensionalPointsInChromosome - 1);
+        }
+        final List<MultidimensionalSegment> segments = new ArrayList<>(changepoints.size());
+        int previousChangepoint = -1;
+        for (final int changepoint : changepoints) {
+            final int start = multidimensionalPointsPerChromosome.get(chromosome).get(previousChangepoint + 1).getStart();
+            final int end = multidimensionalPointsPerChromosome.get(chromosome).get(changepoint).getEnd();
+            segments.add(new MultidimensionalSegment(
+                    new SimpleInterval(chromosome, start, end),
+                    comparator,
+                    copyRatioMidpointOverlapDetector,
+                    allelicCountOverlapDetector));
+            previousChangepoint = changepoint;
+        }
+        return segments;
+    }
+
+    private ToDoubleBiFunction<MultidimensionalPoint, MultidimensionalPoint> constructKernel(final double kernelVarianceCopyRatio,
                                                                                              final double kernelVarianceAlleleFraction,
                                                                                              final double kernelScalingAlleleFraction) {
         final double standardDeviationCopyRatio = Math.sqrt(kernelVarianceCopyRatio);
         final double standardDeviationAlleleFraction = Math.sqrt(kernelVarianceAlleleFraction);
+        //construct the kernel for each dimension once, rather than for every evaluation
+        final DoubleBinaryOperator copyRatioKernel = KERNEL.apply(standardDeviationCopyRatio);
+        final DoubleBinaryOperator alleleFractionKernel = KERNEL.apply(standardDeviationAlleleFraction);
         return (p1, p2) ->
-                KERNEL.apply(standardDeviationCopyRatio).apply(p1.log2CopyRatio, p2.log2CopyRatio) +
-                        kernelScalingAlleleFraction * KERNEL.apply(standardDeviationAlleleFraction).apply(p1.alternateAlleleFraction, p2.alternateAlleleFraction);
-
+                copyRatioKernel.applyAsDouble(p1.log2CopyRatio, p2.log2CopyRatio) +
+                        kernelScalingAlleleFraction * alleleFractionKernel.applyAsDouble(p1.alternateAlleleFraction, p2.alternateAlleleFraction);
     }
 }
@@ -1,13 +1,14 @@
 package org.broadinstitute.hellbender.tools.copynumber.utils.segmentation;
 
 import org.apache.commons.math3.linear.Array2DRowRealMatrix;
-import org.apache.commons.math3.linear.DefaultRealMatrixChangingVisitor;
+import org.apache.commons.math3.linear.ArrayRealVector;
 import org.apache.commons.math3.linear.RealMatrix;
 import org.apache.commons.math3.linear.SingularValueDecomposition;
 import org.apache.commons.math3.random.RandomGenerator;
 import org.apache.commons.math3.random.RandomGeneratorFactory;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
+import org.broadinstitute.hellbender.exceptions.GATKException;
 import org.broadinstitute.hellbender.tools.copynumber.utils.optimization.PersistenceOptimizer;
 import org.broadinstitute.hellbender.utils.IndexRange;
 import org.broadinstitute.hellbender.utils.MathUtils;
@@ -15,9 +16,16 @@ import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.param.ParamUtils;
 
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
 import java.util.function.BiFunction;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.Function;
+import java.util.function.ToDoubleBiFunction;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
+import java.util.stream.Stream;
 
 /**
  * <p>
@@ -69,6 +77,13 @@ import java.util.stream.IntStream;
  * </ol>
  *
  * <p>
+ *     When called from within a {@link ForkJoinPool} (see {@link #mapInParallel}), the rows of the reduced observation
+ *     matrix, the local costs for the different window sizes, and the initial segment costs for backward selection
+ *     are calculated in parallel in that pool;
+ *     otherwise, everything is done on the calling thread.  The result is the same either way.
+ * </p>
+ *
+ * <p>
  *     Note that we break with camelCase naming convention in places to match some notation in the paper
  * </p>
  *
@@ -109,6 +124,62 @@ public final class KernelSegmenter<DATA> {
                                           final double numChangepointsPenaltyLinearFactor,
                                           final double numChangepointsPenaltyLogLinearFactor,
                                           final ChangepointSortOrder changepointSortOrder) {
+        Utils.nonNull(kernel);
+        final ToDoubleBiFunction<DATA, DATA> unboxedKernel = kernel::apply;
+        return findChangepoints(maxNumChangepoints, unboxedKernel, kernelApproximationDimension, windowSizes,
+                numChangepointsPenaltyLinearFactor, numChangepointsPenaltyLogLinearFactor, changepointSortOrder);
+    }
+
+    /**
+     * As {@link #findChangepoints(int, BiFunction, int, List, double, double, ChangepointSortOrder)}, but with a kernel
+     * that returns a primitive double.  This avoids boxing each of the N x p kernel evaluations and should be preferred.
+     */
+    public List<Integer> findChangepoints(final int maxNumChangepoints,
+                                          final ToDoubleBiFunction<DATA, DATA> kernel,
+                                          final int kernelApproximationDimension,
+                                          final List<Integer> windowSizes,
+                                          final double numChangepointsPenaltyLinearFactor,
+                                          final double numChangepointsPenaltyLogLinearFactor,
+                                          final ChangepointSortOrder changepointSortOrder) {
+        Utils.nonNull(kernel);
+        return findChangepoints(data.size(), (i, j) -> kernel.applyAsDouble(data.get(i), data.get(j)), maxNumChangepoints,
+                kernelApproximationDimension, windowSizes, numChangepointsPenaltyLinearFactor, numChangepointsPenaltyLogLinearFactor,
+                changepointSortOrder);
+    }
+
+    /**
+     * As {@link #findChangepoints(int, ToDoubleBiFunction, int, List, double, double, ChangepointSortOrder)}, but for
+     * one-dimensional data held in a primitive array, which is neither copied nor boxed.
+     */
+    public static List<Integer> findChangepoints(final double[] data,
+                                                 final int maxNumChangepoints,
+                                                 final DoubleBinaryOperator kernel,
+                                                 final int kernelApproximationDimension,
+                                                 final List<Integer> windowSizes,
+                                                 final double numChangepointsPenaltyLinearFactor,
+                                                 final double numChangepointsPenaltyLogLinearFactor,
+                                                 final ChangepointSortOrder changepointSortOrder) {
+        Utils.nonNull(data);
+        Utils.nonNull(kernel);
+        return findChangepoints(data.length, (i, j) -> kernel.applyAsDouble(data[i], data[j]), maxNumChangepoints,
+                kernelApproximationDimension, windowSizes, numChangepointsPenaltyLinearFactor, numChangepointsPenaltyLogLinearFactor,
+                changepointSortOrder);
+    }
+
+    //kernel evaluated on the data points with the given indices, so that the data itself need not be boxed or copied
+    @FunctionalInterface
+    private interface IndexedKernel {
+        double apply(final int i, final int j);
+    }
+
+    private static List<Integer> findChangepoints(final int numData,
+                                                  final IndexedKernel kernel,
+                                                  final int maxNumChangepoints,
+                                                  final int kernelApproximationDimension,
+                                                  final List<Integer> windowSizes,
+                                                  final double numChangepointsPenaltyLinearFactor,
+                                                  final double numChangepointsPenaltyLogLinearFactor,
+                                                  final ChangepointSortOrder changepointSortOrder) {
         ParamUtils.isPositiveOrZero(maxNumChangepoints, "Maximum number of changepoints must be non-negative.");
         ParamUtils.isPositive(kernelApproximationDimension, "Dimension of kernel approximation must be positive.");
         Utils.validateArg(!windowSizes.isEmpty(), "At least one window size must be provided.");
@@ -123,21 +194,21 @@ public final class KernelSegmenter<DATA> {
             logger.warn("No changepoints were requested, returning an empty list...");
             return Collections.emptyList();
         }
-        if (data.isEmpty()) {
+        if (numData == 0) {
             logger.warn("No data points were provided, returning an empty list...");
             return Collections.emptyList();
         }
 
-        logger.debug(String.format("Finding up to %d changepoints in %d data points...", maxNumChangepoints, data.size()));
+        logger.debug(String.format("Finding up to %d changepoints in %d data points...", maxNumChangepoints, numData));
         final RandomGenerator rng = RandomGeneratorFactory.createRandomGenerator(new Random(RANDOM_SEED));
 
         logger.debug("Calculating low-rank approximation to kernel matrix...");
-        final RealMatrix reducedObservationMatrix = calculateReducedObservationMatrix(rng, data, kernel, kernelApproximationDimension);
+        final double[][] reducedObservationMatrix = calculateReducedObservationMatrix(rng, numData, kernel, kernelApproximationDimension);
         final double[] kernelApproximationDiagonal = calculateKernelApproximationDiagonal(reducedObservationMatrix);
 
         logger.debug(String.format("Finding changepoint candidates for all window sizes %s...", windowSizes.toString()));
         final List<Integer> changepointCandidates = findChangepointCandidates(
-                data, reducedObservationMatrix, kernelApproximationDiagonal, maxNumChangepoints, windowSizes);
+                numData, reducedObservationMatrix, kernelApproximationDiagonal, maxNumChangepoints, windowSizes);
 
         logger.debug("Performing backward model selection on changepoint candidates...");
         return selectChangepoints(
@@ -162,7 +233,7 @@ public final class KernelSegmenter<DATA> {
 
         private Segment(final int start,
                         final int end,
-                        final RealMatrix reducedObservationMatrix,
+                        final double[][] reducedObservationMatrix,
                         final double[] kernelApproximationDiagonal) {
             this(start, end, calculateSegmentCost(start, end, reducedObservationMatrix, kernelApproximationDiagonal).C);
         }
@@ -186,93 +257,150 @@ public final class KernelSegmenter<DATA> {
         }
     }
 
-    //calculates the N x p reduced observation matrix, defined as Z in equation preceding Eq. 14 in https://hal.inria.fr/hal-01413230/document
-    private static <DATA> RealMatrix calculateReducedObservationMatrix(final RandomGenerator rng,
-                                                                       final List<DATA> data,
-                                                                       final BiFunction<DATA, DATA, Double> kernel,
-                                                                       final int kernelApproximationDimension) {
-        if (kernelApproximationDimension > data.size()) {
+    /**
+     * Applies {@code function} to each of {@code items} and returns the results in the same order.  If {@code numThreads}
+     * is greater than one, the items are processed in parallel in a dedicated {@link ForkJoinPool}, within which
+     * calls to {@link #findChangepoints} made by {@code function} are themselves parallelized.
+     * This is intended for segmenting each chromosome with a separate {@link KernelSegmenter}.
+     */
+    public static <T, R> List<R> mapInParallel(final List<T> items,
+                                               final Function<T, R> function,
+                                               final int numThreads) {
+        Utils.nonNull(items);
+        Utils.nonNull(function);
+        ParamUtils.isPositive(numThreads, "Number of threads must be positive.");
+
+        if (numThreads == 1) {
+            return items.stream().map(function).collect(Collectors.toList());
+        }
+
+        final ForkJoinPool pool = new ForkJoinPool(numThreads);
+        try {
+            return pool.submit(() -> items.parallelStream().map(function).collect(Collectors.toList())).get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GATKException("Interrupted during parallel segmentation.", e);
+        } catch (final ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new GATKException("Exception during parallel segmentation.", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    //returns a parallel stream if we are running in a fork-join pool (see mapInParallel), and a sequential stream otherwise
+    private static <T> Stream<T> maybeParallel(final Stream<T> stream) {
+        return ForkJoinTask.inForkJoinPool() ? stream.parallel() : stream;
+    }
+
+    private static IntStream maybeParallel(final IntStream stream) {
+        return ForkJoinTask.inForkJoinPool() ? stream.parallel() : stream;
+    }
+
+    //calculates the N x p reduced observation matrix, defined as Z in equation preceding Eq. 14 in https://hal.inria.fr/hal-01413230/document;
+    //rows are stored as primitive arrays, since the cost calculations below iterate over them many times
+    private static double[][] calculateReducedObservationMatrix(final RandomGenerator rng,
+                                                                final int numData,
+                                                                final IndexedKernel kernel,
+                                                                final int kernelApproximationDimension) {
+        if (kernelApproximationDimension > numData) {
             logger.warn(String.format("Specified dimension of the kernel approximation (%d) exceeds the number of data points (%d) to segment; " +
-                    "using all data points to calculate kernel matrix.", kernelApproximationDimension, data.size()));
+                    "using all data points to calculate kernel matrix.", kernelApproximationDimension, numData));
         }
 
-        //subsample data with replacement
-        final int numSubsample = Math.min(kernelApproximationDimension, data.size());
+        //subsample data with replacement (by index)
+        final int numSubsample = Math.min(kernelApproximationDimension, numData);
         logger.debug(String.format("Subsampling %d points from data to find kernel approximation...", numSubsample));
-        final List<DATA> dataSubsample = numSubsample == data.size()
-                ? data
-                : IntStream.range(0, numSubsample).mapToObj(i -> data.get(rng.nextInt(data.size()))).collect(Collectors.toList());
+        final int[] dataSubsample = numSubsample == numData
+                ? IntStream.range(0, numData).toArray()
+                : IntStream.range(0, numSubsample).map(i -> rng.nextInt(numData)).toArray();
 
         //calculate (symmetric) kernel matrix of subsampled data
         logger.debug(String.format("Calculating kernel matrix of subsampled data (%d x %d)...", numSubsample, numSubsample));
-        final RealMatrix subKernelMatrix = new Array2DRowRealMatrix(numSubsample, numSubsample);
+        final double[][] subKernelMatrix = new double[numSubsample][numSubsample];
         for (int i = 0; i < numSubsample; i++) {
             for (int j = 0; j < i; j++) {
-                final double value = kernel.apply(dataSubsample.get(i), dataSubsample.get(j));
-                subKernelMatrix.setEntry(i, j, value);
-                subKernelMatrix.setEntry(j, i, value);
+                final double value = kernel.apply(dataSubsample[i], dataSubsample[j]);
+                subKernelMatrix[i][j] = value;
+                subKernelMatrix[j][i] = value;
             }
-            subKernelMatrix.setEntry(i, i, kernel.apply(dataSubsample.get(i), dataSubsample.get(i)));
+            subKernelMatrix[i][i] = kernel.apply(dataSubsample[i], dataSubsample[i]);
         }
 
         //perform SVD of kernel matrix of subsampled data
         logger.debug(String.format("Performing SVD of kernel matrix of subsampled data (%d x %d)...", numSubsample, numSubsample));
-        final SingularValueDecomposition svd = new SingularValueDecomposition(subKernelMatrix);
+        final SingularValueDecomposition svd = new SingularValueDecomposition(new Array2DRowRealMatrix(subKernelMatrix, false));
 
         //calculate reduced observation matrix
-        logger.debug(String.format("Calculating reduced observation matrix (%d x %d)...", data.size(), numSubsample));
+        logger.debug(String.format("Calculating reduced observation matrix (%d x %d)...", numData, numSubsample));
         final double[] invSqrtSingularValues = Arrays.stream(svd.getSingularValues()).map(Math::sqrt).map(x -> 1. / (x + EPSILON)).toArray();
-        final RealMatrix subKernelUMatrix = new Array2DRowRealMatrix(numSubsample, numSubsample);
-        subKernelUMatrix.walkInOptimizedOrder(new DefaultRealMatrixChangingVisitor() {
-            @Override
-            public double visit(int i, int j, double value) {
-                return svd.getU().getEntry(i, j) * invSqrtSingularValues[j];
+        final RealMatrix svdU = svd.getU();
+        final double[][] subKernelUMatrix = new double[numSubsample][numSubsample];
+        for (int i = 0; i < numSubsample; i++) {
+            for (int j = 0; j < numSubsample; j++) {
+                subKernelUMatrix[i][j] = svdU.getEntry(i, j) * invSqrtSingularValues[j];
             }
-        });
-        final RealMatrix reducedKernelMatrix = new Array2DRowRealMatrix(data.size(), numSubsample);
-        reducedKernelMatrix.walkInOptimizedOrder(new DefaultRealMatrixChangingVisitor() {
-            @Override
-            public double visit(int i, int j, double value) {
-                return kernel.apply(data.get(i), dataSubsample.get(j));
+        }
+
+        //each row of the reduced observation matrix is the corresponding row of the reduced kernel matrix
+        //multiplied by subKernelUMatrix, so we can calculate rows independently without storing the former
+        final double[][] reducedObservationMatrix = new double[numData][];
+        maybeParallel(IntStream.range(0, numData)).forEach(i -> {
+            final double[] reducedKernelRow = new double[numSubsample];
+            for (int j = 0; j < numSubsample; j++) {
+                reducedKernelRow[j] = kernel.apply(i, dataSubsample[j]);
+            }
+            final double[] row = new double[numSubsample];
+            for (int k = 0; k < numSubsample; k++) {
+                double sum = 0.;
+                for (int j = 0; j < numSubsample; j++) {
+                    sum += reducedKernelRow[j] * subKernelUMatrix[j][k];
+                }
+                row[k] = sum;
             }
+            reducedObservationMatrix[i] = row;
         });
-        return reducedKernelMatrix.multiply(subKernelUMatrix);
+        return reducedObservationMatrix;
     }
 
     //for N x p matrix Z_ij, returns the N-dimensional vector sum(Z_ij * Z_ij, j = 0,..., p - 1),
     //which are the diagonal elements K_ii of the approximate kernel matrix
-    private static double[] calculateKernelApproximationDiagonal(final RealMatrix reducedObservationMatrix) {
-        return new IndexRange(0, reducedObservationMatrix.getRowDimension())
-                .mapToDouble(i -> MathUtils.square(reducedObservationMatrix.getRowVector(i).getNorm()));
+    private static double[] calculateKernelApproximationDiagonal(final double[][] reducedObservationMatrix) {
+        return new IndexRange(0, reducedObservationMatrix.length)
+                .mapToDouble(i -> MathUtils.square(new ArrayRealVector(reducedObservationMatrix[i], false).getNorm()));
     }
 
     //finds indices of changepoint candidates from all window sizes
-    private static <DATA> List<Integer> findChangepointCandidates(final List<DATA> data,
-                                                                  final RealMatrix reducedObservationMatrix,
-                                                                  final double[] kernelApproximationDiagonal,
-                                                                  final int maxNumChangepoints,
-                                                                  final List<Integer> windowSizes) {
-        final List<Integer> changepointCandidates = new ArrayList<>(windowSizes.size() * maxNumChangepoints);
-
+    private static List<Integer> findChangepointCandidates(final int numData,
+                                                           final double[][] reducedObservationMatrix,
+                                                           final double[] kernelApproximationDiagonal,
+                                                           final int maxNumChangepoints,
+                                                           final List<Integer> windowSizes) {
         //for each window size, calculate local changepoint costs at each point and add maxNumChangepoints candidates
         //(this is overkill, but we cannot guarantee that the most significant maxNumChangepoints changepoints
-        //do not all appear at only a single window size)
-        for (final int windowSize : windowSizes) {
-            logger.debug(String.format("Calculating local changepoints costs for window size %d...", windowSize));
-            if (windowSize > data.size()) {
-                logger.warn(String.format("Number of points needed to calculate local changepoint costs (2 * window size = %d) " +
-                        "exceeds number of data points (%d).  Local changepoint costs will not be calculated for this window size.",
-                        2 * windowSize, data.size()));
-                continue;
-            }
-            final double[] windowCosts = calculateWindowCosts(reducedObservationMatrix, kernelApproximationDiagonal, windowSize);
-
-            logger.debug(String.format("Finding local minima of local changepoint costs for window size %d...", windowSize));
-            final List<Integer> windowCostLocalMinima = new ArrayList<>(new PersistenceOptimizer(windowCosts).getMinimaIndices());
-            windowCostLocalMinima.remove(Integer.valueOf(0));                //remove first data point if present
-            windowCostLocalMinima.remove(Integer.valueOf(data.size() - 1));  //remove last data point if present
-            changepointCandidates.addAll(windowCostLocalMinima.subList(0, Math.min(maxNumChangepoints, windowCostLocalMinima.size())));
-        }
+        //do not all appear at only a single window size); window sizes are independent, so these may be done in parallel,
+        //but candidates are always collected in the order of the window sizes
+        final List<Integer> changepointCandidates = maybeParallel(windowSizes.stream())
+                .map(windowSize -> {
+                    logger.debug(String.format("Calculating local changepoints costs for window size %d...", windowSize));
+                    if (windowSize > numData) {
+                        logger.warn(String.format("Number of points needed to calculate local changepoint costs (2 * window size = %d) " +
+                                "exceeds number of data points (%d).  Local changepoint costs will not be calculated for this window size.",
+                                2 * windowSize, numData));
+                        return Collections.<Integer>emptyList();
+                    }
+                    final double[] windowCosts = calculateWindowCosts(reducedObservationMatrix, kernelApproximationDiagonal, windowSize);
+
+                    logger.debug(String.format("Finding local minima of local changepoint costs for window size %d...", windowSize));
+                    final List<Integer> windowCostLocalMinima = new ArrayList<>(new PersistenceOptimizer(windowCosts).getMinimaIndices());
+                    windowCostLocalMinima.remove(Integer.valueOf(0));                //remove first data point if present
+                    windowCostLocalMinima.remove(Integer.valueOf(numData - 1));      //remove last data point if present
+                    return windowCostLocalMinima.subList(0, Math.min(maxNumChangepoints, windowCostLocalMinima.size()));
+                })
+                .flatMap(List::stream)
+                .collect(Collectors.toList());
 
         if (changepointCandidates.isEmpty()) {
             logger.warn("No changepoint candidates were found.  The specified window sizes may be inappropriate, or there may be insufficient data points.");
@@ -287,12 +415,12 @@ public final class KernelSegmenter<DATA> {
                                                     final int maxNumChangepoints,
                                                     final double numChangepointsPenaltyLinearFactor,
                                                     final double numChangepointsPenaltyLogLinearFactor,
-                                                    final RealMatrix reducedObservationMatrix,
+                                                    final double[][] reducedObservationMatrix,
                                                     final double[] kernelApproximationDiagonal) {
         final List<Integer> changepoints = new ArrayList<>(changepointCandidates.size());
 
         //calculate penalties as a function of the number of changepoints
-        final int numData = reducedObservationMatrix.getRowDimension();
+        final int numData = reducedObservationMatrix.length;
         final List<Double> changepointPenalties = IntStream.range(0, maxNumChangepoints + 1)
                 .mapToObj(numChangepoints -> calculateChangepointPenalty(
                         numChangepoints, numChangepointsPenaltyLinearFactor, numChangepointsPenaltyLogLinearFactor, numData))
@@ -305,15 +433,22 @@ public final class KernelSegmenter<DATA> {
         final List<Integer> candidateEnds = changepointCandidates.stream().sorted().distinct().collect(Collectors.toList());
         candidateEnds.add(numData - 1);
         final int numSegments = candidateStarts.size();
+        //the initial segment costs are independent and account for most of the work, so they may be calculated in parallel;
+        //the merges below each depend on the previous one and so are done serially
+        final double[] initialSegmentCosts = new double[numSegments];
+        maybeParallel(IntStream.range(0, numSegments)).forEach(i -> initialSegmentCosts[i] =
+                calculateSegmentCost(candidateStarts.get(i), candidateEnds.get(i), reducedObservationMatrix, kernelApproximationDiagonal).C);
+        final double[] initialMergedSegmentPairCosts = new double[numSegments - 1];
+        maybeParallel(IntStream.range(0, numSegments - 1)).forEach(i -> initialMergedSegmentPairCosts[i] =
+                calculateSegmentCost(candidateStarts.get(i), candidateEnds.get(i + 1), reducedObservationMatrix, kernelApproximationDiagonal).C);
         final List<Segment> segments = IntStream.range(0, numSegments)
-                .mapToObj(i -> new Segment(candidateStarts.get(i), candidateEnds.get(i), reducedObservationMatrix, kernelApproximationDiagonal))
+                .mapToObj(i -> new Segment(candidateStarts.get(i), candidateEnds.get(i), initialSegmentCosts[i]))
                 .collect(Collectors.toList());
         final List<Double> totalSegmentationCosts = new ArrayList<>(Collections.singletonList(segments.stream().mapToDouble(s -> s.cost).sum()));
         final List<Double> costsForSegmentPairs = IntStream.range(0, numSegments - 1)
                 .mapToObj(i -> segments.get(i).cost + segments.get(i + 1).cost)
                 .collect(Collectors.toList());  //sum of the costs for the segments in each adjacent pair
-        final List<Double> costsForMergedSegmentPairs = IntStream.range(0, numSegments - 1)
-                .mapToObj(i -> new Segment(candidateStarts.get(i), candidateEnds.get(i + 1), reducedObservationMatrix, kernelApproximationDiagonal).cost)
+        final List<Double> costsForMergedSegmentPairs = Arrays.stream(initialMergedSegmentPairCosts).boxed()
                 .collect(Collectors.toList());  //cost of each adjacent pair when considered as a single segment
         final List<Double> costsForMergingSegmentPairs = IntStream.range(0, numSegments - 1)
                 .mapToObj(i -> costsForSegmentPairs.get(i) - costsForMergedSegmentPairs.get(i))
@@ -379,39 +514,38 @@ public final class KernelSegmenter<DATA> {
      * Various recurrence relations are used to calculate costs iteratively.
      * @param start inclusive start index of segment
      * @param end   inclusive end index of segment
-     * @param reducedObservationMatrix      N x p matrix of projected observations, where N is the number of data points
+     * @param reducedObservationMatrix      N x p matrix of projected observations (stored by row), where N is the number of data points
      *                                      and p is the dimension of the low-rank approximation of the kernel matrix;
      *                                      this is the Z matrix described in the text preceding Eq. 14, ibid
      * @param kernelApproximationDiagonal   N diagonal terms of the low-rank approximation to the kernel matrix
      */
     private static Cost calculateSegmentCost(final int start,
                                              final int end,
-                                             final RealMatrix reducedObservationMatrix,
+                                             final double[][] reducedObservationMatrix,
                                              final double[] kernelApproximationDiagonal) {
-        final int N = reducedObservationMatrix.getRowDimension();
-        final int p = reducedObservationMatrix.getColumnDimension();
+        final int N = reducedObservationMatrix.length;
+        final int p = reducedObservationMatrix[start].length;
 
         //initialize quantities for recurrence
         double D = kernelApproximationDiagonal[start];
-        final double[] W = Arrays.copyOf(reducedObservationMatrix.getRow(start), p);
+        final double[] W = Arrays.copyOf(reducedObservationMatrix[start], p);
         double V = Arrays.stream(W).map(w -> w * w).sum();
 
-        //generate indices for iteration; we need to wrap around to beginning of data if start > end
-        final List<Integer> indices = start <= end 
-                ? IntStream.range(start + 1, end + 1).boxed().collect(Collectors.toList()) 
-                : IntStream.concat(IntStream.range(start + 1, N), IntStream.range(0, end + 1)).boxed().collect(Collectors.toList());
+        //iterate over indices, wrapping around to beginning of data if start > end
+        final int numIndices = start <= end ? end - start : N - start - 1 + end + 1;
 
         //use recurrence relations to iteratively calculate cost
-        for (final int tauPrime : indices) {
+        for (int n = 1, tauPrime = (start + 1) % N; n <= numIndices; n++, tauPrime = (tauPrime + 1) % N) {
+            final double[] Z = reducedObservationMatrix[tauPrime];
             D += kernelApproximationDiagonal[tauPrime];
             double ZdotW = 0.;
             for (int j = 0; j < p; j++) {
-                ZdotW += reducedObservationMatrix.getEntry(tauPrime, j) * W[j];
-                W[j] += reducedObservationMatrix.getEntry(tauPrime, j);
+                ZdotW += Z[j] * W[j];
+                W[j] += Z[j];
             }
             V += 2. * ZdotW + kernelApproximationDiagonal[tauPrime];
         }
-        final double C = D - V / (indices.size() + 1);
+        final double C = D - V / (numIndices + 1);
 
         return new Cost(D, W, V, C);
     }
@@ -424,17 +558,17 @@ public final class KernelSegmenter<DATA> {
      * contain the points with indices <i>[i - w + 1, i]</i> and <i>[i + 1, i + w]</i>, respectively, and
      * subtract the cost of a single segment containing all of these points.
      * Various recurrence relations are used to calculate costs iteratively.
-     * @param reducedObservationMatrix      N x p matrix of projected observations, where N is the number of data points
+     * @param reducedObservationMatrix      N x p matrix of projected observations (stored by row), where N is the number of data points
      *                                      and p is the dimension of the low-rank approximation of the kernel matrix;
      *                                      this is the Z matrix described in the text preceding Eq. 14, ibid
      * @param kernelApproximationDiagonal   N diagonal terms of the low-rank approximation to the kernel matrix
      * @param windowSize                    number of points to include in either flanking segment when calculating cost
      */
-    private static double[] calculateWindowCosts(final RealMatrix reducedObservationMatrix,
+    private static double[] calculateWindowCosts(final double[][] reducedObservationMatrix,
                                                  final double[] kernelApproximationDiagonal,
                                                  final int windowSize) {
-        final int N = reducedObservationMatrix.getRowDimension();
-        final int p = reducedObservationMatrix.getColumnDimension();
+        final int N = reducedObservationMatrix.length;
+        final int p = reducedObservationMatrix[0].length;
 
         //initialize indices of the boundaries of the two flanking segments, wrapping around to beginning of data if necessary
         int center = 0;
@@ -477,16 +611,16 @@ public final class KernelSegmenter<DATA> {
             leftD -= kernelApproximationDiagonal[start];
             ZdotW = 0.;
             for (int j = 0; j < p; j++) {
-                ZdotW += reducedObservationMatrix.getEntry(start, j) * leftW[j];
-                leftW[j] -= reducedObservationMatrix.getEntry(start, j);
+                ZdotW += reducedObservationMatrix[start][j] * leftW[j];
+                leftW[j] -= reducedObservationMatrix[start][j];
             }
             leftV += -2. * ZdotW + kernelApproximationDiagonal[start];
 
             leftD += kernelApproximationDiagonal[centerNext];
             ZdotW = 0.;
             for (int j = 0; j < p; j++) {
-                ZdotW += reducedObservationMatrix.getEntry(centerNext, j) * leftW[j];
-                leftW[j] += reducedObservationMatrix.getEntry(centerNext, j);
+                ZdotW += reducedObservationMatrix[centerNext][j] * leftW[j];
+                leftW[j] += reducedObservationMatrix[centerNext][j];
             }
             leftV += 2. * ZdotW + kernelApproximationDiagonal[centerNext];
 
@@ -496,16 +630,16 @@ public final class KernelSegmenter<DATA> {
             rightD -= kernelApproximationDiagonal[centerNext];
             ZdotW = 0.;
             for (int j = 0; j < p; j++) {
-                ZdotW += reducedObservationMatrix.getEntry(centerNext, j) * rightW[j];
-                rightW[j] -= reducedObservationMatrix.getEntry(centerNext, j);
+                ZdotW += reducedObservationMatrix[centerNext][j] * rightW[j];
+                rightW[j] -= reducedObservationMatrix[centerNext][j];
             }
             rightV += -2. * ZdotW + kernelApproximationDiagonal[centerNext];
 
             rightD += kernelApproximationDiagonal[endNext];
             ZdotW = 0.;
             for (int j = 0; j < p; j++) {
-                ZdotW += reducedObservationMatrix.getEntry(endNext, j) * rightW[j];
-                rightW[j] += reducedObservationMatrix.getEntry(endNext, j);
+                ZdotW += reducedObservationMatrix[endNext][j] * rightW[j];
+                rightW[j] += reducedObservationMatrix[endNext][j];
             }
             rightV += 2. * ZdotW + kernelApproximationDiagonal[endNext];
 
@@ -515,16 +649,16 @@ public final class KernelSegmenter<DATA> {
             totalD -= kernelApproximationDiagonal[start];
             ZdotW = 0.;
             for (int j = 0; j < p; j++) {
-                ZdotW += reducedObservationMatrix.getEntry(start, j) * totalW[j];
-                totalW[j] -= reducedObservationMatrix.getEntry(start, j);
+                ZdotW += reducedObservationMatrix[start][j] * totalW[j];
+                totalW[j] -= reducedObservationMatrix[start][j];
             }
             totalV += -2. * ZdotW + kernelApproximationDiagonal[start];
 
             totalD += kernelApproximationDiagonal[endNext];
             ZdotW = 0.;
             for (int j = 0; j < p; j++) {
-                ZdotW += reducedObservationMatrix.getEntry(endNext, j) * totalW[j];
-                totalW[j] += reducedObservationMatrix.getEntry(endNext, j);
+                ZdotW += reducedObservationMatrix[endNext][j] * totalW[j];
+                totalW[j] += reducedObservationMatrix[endNext][j];
             }
             totalV += 2. * ZdotW + kernelApproximationDiagonal[endNext];
 
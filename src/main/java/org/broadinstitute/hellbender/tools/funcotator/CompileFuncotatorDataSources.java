@@ -0,0 +1,152 @@
+package org.broadinstitute.hellbender.tools.funcotator;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.broadinstitute.barclay.argparser.Argument;
+import org.broadinstitute.barclay.argparser.CommandLineProgramProperties;
+import org.broadinstitute.barclay.argparser.ExperimentalFeature;
+import org.broadinstitute.barclay.help.DocumentedFeature;
+import org.broadinstitute.hellbender.cmdline.CommandLineProgram;
+import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.tools.funcotator.dataSources.DataSourceUtils;
+import org.broadinstitute.hellbender.tools.funcotator.dataSources.gencode.GencodeTranscriptIndex;
+import org.broadinstitute.hellbender.tools.funcotator.dataSources.xsv.SimpleKeyXsvFuncotationFactory;
+import org.broadinstitute.hellbender.tools.funcotator.dataSources.xsv.SimpleKeyXsvIndex;
+import picard.cmdline.programgroups.VariantEvaluationProgramGroup;
+
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Properties;
+
+/**
+ * {@link CompileFuncotatorDataSources} pre-compiles <b><i>{@link Funcotator}</i></b> data sources into binary indices
+ * that are much faster to open than the original files.
+ *
+ * <h3>General Information</h3>
+ * <p>
+ * Currently this compiles the transcript FASTA file of each GENCODE data source into a
+ * {@link GencodeTranscriptIndex}, which is written next to the FASTA file and used automatically by
+ * <b><i>{@link Funcotator}</i></b> when present.  Opening the index only reads the transcript coordinates;
+ * transcript sequences are memory-mapped and read on demand.
+ * </p>
+ *
+ * <p>
+ * The XSV file of each simple XSV data source is compiled into a {@link SimpleKeyXsvIndex}, a memory-mapped hash
+ * table of its rows, so that large gene-level tables no longer need to be loaded into memory by
+ * <b><i>{@link Funcotator}</i></b>.
+ * </p>
+ *
+ * <p>
+ * This only needs to be run once for a given set of data sources, which must be on a local disk:
+ * <pre>{@code ./gatk CompileFuncotatorDataSources --data-sources-path dataSourcesFolder/ --ref-version hg19}</pre>
+ * </p>
+ */
+@CommandLineProgramProperties(
+        summary = "Compile Funcotator data sources into binary indices that are faster to open.",
+        oneLineSummary = "Data source compiler for Funcotator.",
+        programGroup = VariantEvaluationProgramGroup.class
+)
+@DocumentedFeature
+@ExperimentalFeature
+public class CompileFuncotatorDataSources extends CommandLineProgram {
+
+    private static final Logger logger = LogManager.getLogger(CompileFuncotatorDataSources.class);
+
+    @Argument(
+            fullName =  FuncotatorArgumentDefinitions.DATA_SOURCES_PATH_LONG_NAME,
+            doc = "The path to a data source folder to compile.  Can be specified multiple times."
+    )
+    private List<String> dataSourceDirectories;
+
+    @Argument(
+            fullName =  FuncotatorArgumentDefinitions.REFERENCE_VERSION_LONG_NAME,
+            doc = "The version of the Human Genome reference for which to compile data sources."
+    )
+    private String referenceVersion;
+
+    @Argument(
+            fullName = "overwrite-existing-indices",
+            optional = true,
+            doc = "Recompile data sources that already have a compiled index.  Indices that are out of date with " +
+                    "their data source files are always recompiled."
+    )
+    private boolean overwrite = false;
+
+    @Override
+    protected Object doWork() {
+        final Map<Path, Properties> configData = DataSourceUtils.getAndValidateDataSourcesFromPaths(referenceVersion, dataSourceDirectories);
+
+        final List<Path> compiledIndices = new ArrayList<>();
+        for ( final Map.Entry<Path, Properties> entry : configData.entrySet() ) {
+            final Properties properties = entry.getValue();
+            switch ( FuncotatorArgumentDefinitions.DataSourceType.getEnum(properties.getProperty(DataSourceUtils.CONFIG_FILE_FIELD_NAME_TYPE)) ) {
+                case GENCODE:
+                    compileGencodeDataSource(entry.getKey(), properties, compiledIndices);
+                    break;
+                case SIMPLE_XSV:
+                    compileSimpleXsvDataSource(entry.getKey(), properties, compiledIndices);
+                    break;
+                default:
+                    break;
+            }
+        }
+
+        logger.info("Compiled " + compiledIndices.size() + " data source indices.");
+        return compiledIndices.size();
+    }
+
+    private void compileGencodeDataSource(final Path configFilePath, final Properties properties, final List<Path> compiledIndices) {
+        final Path transcriptFastaPath = getLocalDataSourceFile(configFilePath, properties.getProperty(DataSourceUtils.CONFIG_FILE_FIELD_NAME_GENCODE_FASTA_PATH));
+        final Path indexPath = GencodeTranscriptIndex.getIndexPath(transcriptFastaPath);
+        // Always recompile an index that is out of date with its transcript FASTA file:
+        if ( GencodeTranscriptIndex.isUpToDate(indexPath, transcriptFastaPath) && skipExistingIndex(indexPath) ) {
+            return;
+        }
+
+        logger.info("Compiling GENCODE transcript FASTA file: " + transcriptFastaPath.toUri());
+        GencodeTranscriptIndex.compile(transcriptFastaPath, indexPath);
+        compiledIndices.add(indexPath);
+    }
+
+    private void compileSimpleXsvDataSource(final Path configFilePath, final Properties properties, final List<Path> compiledIndices) {
+        final Path xsvPath = getLocalDataSourceFile(configFilePath, properties.getProperty(DataSourceUtils.CONFIG_FILE_FIELD_NAME_SRC_FILE));
+        final Path indexPath = SimpleKeyXsvIndex.getIndexPath(xsvPath);
+
+        // These settings must match those used to create the data source in DataSourceUtils:
+        final String delimiter = properties.getProperty(DataSourceUtils.CONFIG_FILE_FIELD_NAME_XSV_DELIMITER);
+        final int keyColumn = Integer.valueOf(properties.getProperty(DataSourceUtils.CONFIG_FILE_FIELD_NAME_XSV_KEY_COLUMN));
+        final SimpleKeyXsvFuncotationFactory.XsvDataKeyType keyType =
+                SimpleKeyXsvFuncotationFactory.XsvDataKeyType.valueOf(properties.getProperty(DataSourceUtils.CONFIG_FILE_FIELD_NAME_XSV_KEY));
+        final boolean permissiveColumns = Boolean.valueOf(properties.getProperty(DataSourceUtils.CONFIG_FILE_FIELD_NAME_XSV_PERMISSIVE_COLS));
+
+        // Always recompile an index that is out of date with its XSV file or settings:
+        if ( SimpleKeyXsvFuncotationFactory.isIndexUpToDate(xsvPath, indexPath, delimiter, keyColumn, keyType, 0, permissiveColumns) &&
+                skipExistingIndex(indexPath) ) {
+            return;
+        }
+
+        logger.info("Compiling simple XSV data source file: " + xsvPath.toUri());
+        SimpleKeyXsvFuncotationFactory.compileIndex(xsvPath, indexPath, delimiter, keyColumn, keyType, 0, permissiveColumns);
+        compiledIndices.add(indexPath);
+    }
+
+    private static Path getLocalDataSourceFile(final Path configFilePath, final String filePathString) {
+        final Path dataSourceFile = DataSourceUtils.resolveFilePathStringFromKnownPath(filePathString, configFilePath);
+        if ( !dataSourceFile.getFileSystem().equals(FileSystems.getDefault()) ) {
+            throw new UserException.BadInput("Data sources must be on a local disk to be compiled: " + dataSourceFile.toUri());
+        }
+        return dataSourceFile;
+    }
+
+    private boolean skipExistingIndex(final Path indexPath) {
+        if ( Files.exists(indexPath) && !overwrite ) {
+            logger.info("Compiled index already exists, skipping: " + indexPath.toUri());
+            return true;
+        }
+        return false;
+    }
+}
@@ -199,13 +199,34 @@ public abstract class DataSourceFuncotationFactory implements Closeable {
         Utils.nonNull(referenceContext);
         Utils.nonNull(featureContext);
 
-        final List<Funcotation> outputFuncotations;
-
         // Query this funcotation factory to get the list of overlapping features.
         // NOTE: This will only get features that are LOCATABLE!
         //       This corresponds to requiresFeatures() returning `True`.
         final List<Feature> featureList = getFeaturesFromFeatureContext(featureContext);
 
+        return createFuncotationsFromFeatures(variant, referenceContext, featureList, gencodeFuncotations);
+    }
+
+    /**
+     * Creates a {@link List} of {@link Funcotation} for the given {@code variant} from features of this data source that
+     * have already been queried, for example by a single query spanning a batch of variants.
+     * Accounts for override values passed into the constructor as well.
+     * @param variant {@link VariantContext} to annotate.  Never {@code null}.
+     * @param referenceContext {@link ReferenceContext} corresponding to the given {@code variant}.  Never {@code null}.
+     * @param featureList {@link List} of {@link Feature} from {@link #getMainSourceFileAsFeatureInput()} that overlap
+     *   {@link #getFeatureQueryInterval(SimpleInterval)} for the given {@code variant}.  Ignored if {@link #requiresFeatures()} is {@code false}.  Never {@code null}.
+     * @param gencodeFuncotations {@link List} of {@link GencodeFuncotation} that have already been created for the given {@code variant}.
+     *   {@code null} is acceptable if there are no corresponding gencode funcotations.
+     * @return {@link List} of {@link Funcotation} given the {@code variant}, {@code referenceContext}, and {@code featureList}.  This should never be empty.
+     */
+    public List<Funcotation> createFuncotationsFromFeatures(final VariantContext variant, final ReferenceContext referenceContext, final List<Feature> featureList, final List<GencodeFuncotation> gencodeFuncotations) {
+
+        Utils.nonNull(variant);
+        Utils.nonNull(referenceContext);
+        Utils.nonNull(featureList);
+
+        final List<Funcotation> outputFuncotations;
+
         // If our featureList is compatible with this DataSourceFuncotationFactory, then we make our funcotations:
         if ( isFeatureListCompatible(featureList) ) {
             outputFuncotations = determineFuncotations(variant, referenceContext, featureList, gencodeFuncotations);
@@ -290,7 +311,30 @@ public abstract class DataSourceFuncotationFactory implements Closeable {
     private List<Feature> queryFeaturesFromFeatureContext(final FeatureContext featureContext) {
         final List<Feature> features;
 
-        SimpleInterval queryInterval = featureContext.getInterval();
+        final SimpleInterval queryInterval = getFeatureQueryInterval(featureContext.getInterval());
+
+        // If the interval has not changed, we should use the original one:
+        if ( queryInterval.equals(featureContext.getInterval() ) ) {    // Get the features:
+            features = (List<Feature>) featureContext.getValues(mainSourceFileAsFeatureInput);
+        }
+        else {
+            // Query as normal:
+            features = (List<Feature>) featureContext.getValues(mainSourceFileAsFeatureInput, queryInterval);
+        }
+
+        return features;
+    }
+
+    /**
+     * Gets the interval over which this {@link DataSourceFuncotationFactory} queries its features for a variant at
+     * {@code variantInterval}, accounting for b37 contig names and any transformation from {@link #transformFeatureQueryInterval(SimpleInterval)}.
+     * @param variantInterval The {@link SimpleInterval} of the variant to annotate.  Never {@code null}.
+     * @return The {@link SimpleInterval} to use to query features from {@link #getMainSourceFileAsFeatureInput()}.
+     */
+    public SimpleInterval getFeatureQueryInterval(final SimpleInterval variantInterval) {
+        Utils.nonNull(variantInterval);
+
+        SimpleInterval queryInterval = variantInterval;
 
         // Do we need to do a fuzzy hg19 / b37 conversion for querying our features:
         if ( dataSourceIsB37 ) {
@@ -303,18 +347,7 @@ public abstract class DataSourceFuncotationFactory implements Closeable {
         }
 
         // Perform extra transformations on the query interval:
-        queryInterval = transformFeatureQueryInterval(queryInterval);
-
-        // If the interval has not changed, we should use the original one:
-        if ( queryInterval.equals(featureContext.getInterval() ) ) {    // Get the features:
-            features = (List<Feature>) featureContext.getValues(mainSourceFileAsFeatureInput);
-        }
-        else {
-            // Query as normal:
-            features = (List<Feature>) featureContext.getValues(mainSourceFileAsFeatureInput, queryInterval);
-        }
-
-        return features;
+        return transformFeatureQueryInterval(queryInterval);
     }
 
     /**
@@ -1,5 +1,6 @@
 package org.broadinstitute.hellbender.tools.funcotator;
 
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import htsjdk.samtools.SAMSequenceDictionary;
 import htsjdk.variant.variantcontext.VariantContext;
 import htsjdk.variant.vcf.VCFHeader;
@@ -21,6 +22,9 @@ import picard.cmdline.programgroups.VariantEvaluationProgramGroup;
 
 import java.nio.file.Path;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
 
 /**
  * Funcotator (FUNCtional annOTATOR) analyzes given variants for their function (as retrieved from a set of data sources) and produces the analysis in a specified output file.
@@ -728,6 +732,18 @@ public class Funcotator extends VariantWalker {
 
     private FuncotatorEngine funcotatorEngine;
 
+    /**
+     * Variants (with their contexts) waiting to be annotated together, if {@link FuncotatorVariantArgumentCollection#variantBatchSize} > 1.
+     */
+    private final List<VariantContext> pendingVariants = new ArrayList<>();
+    private final List<ReferenceContext> pendingReferenceContexts = new ArrayList<>();
+    private final List<FeatureContext> pendingFeatureContexts = new ArrayList<>();
+
+    /**
+     * Runs the non-GENCODE data sources on each batch of variants, or {@code null} to run them in the traversal thread.
+     */
+    private ExecutorService annotationExecutor;
+
     //==================================================================================================================
 
     /**
@@ -799,6 +815,14 @@ public class Funcotator extends VariantWalker {
                 dataSourceFuncotationFactories
         );
 
+        if ( funcotatorArgs.annotationThreads > 1 ) {
+            logger.info("Annotating batches of up to " + funcotatorArgs.variantBatchSize + " variants with " + funcotatorArgs.annotationThreads + " threads");
+            final ThreadFactory threadFactory = new ThreadFactoryBuilder()
+                    .setNameFormat("funcotator-annotation-thread-%d")
+                    .setDaemon(true).build();
+            annotationExecutor = Executors.newFixedThreadPool(funcotatorArgs.annotationThreads, threadFactory);
+        }
+
         // Create our output renderer:
         logger.info("Creating a " + funcotatorArgs.outputFormatType + " file for output: " + funcotatorArgs.outputFile.toURI());
         outputRenderer = funcotatorEngine.createOutputRenderer(
@@ -861,6 +885,9 @@ public class Funcotator extends VariantWalker {
     @Override
     public Object onTraversalSuccess() {
 
+        // Annotate any variants left over from the last batch:
+        flushPendingVariants();
+
         // If we only saw IGRs, we most likely have a configuration issue.
         // Make sure the user knows this by making a HUGE stink about it.
         if ( funcotatorEngine.onlyProducedIGRs() ) {
@@ -882,6 +909,10 @@ public class Funcotator extends VariantWalker {
 
     @Override
     public void closeTool() {
+        if ( annotationExecutor != null ) {
+            annotationExecutor.shutdownNow();
+        }
+
         if ( funcotatorEngine != null) {
             funcotatorEngine.close();
         }
@@ -901,9 +932,45 @@ public class Funcotator extends VariantWalker {
      */
     private void enqueueAndHandleVariant(final VariantContext variant, final ReferenceContext referenceContext, final FeatureContext featureContext) {
 
-        final FuncotationMap funcotationMap = funcotatorEngine.createFuncotationMapForVariant(variant, referenceContext, featureContext);
+        if ( funcotatorArgs.variantBatchSize == 1 ) {
+            final FuncotationMap funcotationMap = funcotatorEngine.createFuncotationMapForVariant(variant, referenceContext, featureContext);
+
+            // At this point there is only one transcript ID in the funcotation map if canonical or best effect are selected
+            outputRenderer.write(variant, funcotationMap);
+            return;
+        }
+
+        // Batches never span contigs so that each data source can be queried once per batch:
+        if ( !pendingVariants.isEmpty() && !pendingVariants.get(0).getContig().equals(variant.getContig()) ) {
+            flushPendingVariants();
+        }
+
+        pendingVariants.add(variant);
+        pendingReferenceContexts.add(referenceContext);
+        pendingFeatureContexts.add(featureContext);
+
+        if ( pendingVariants.size() >= funcotatorArgs.variantBatchSize ) {
+            flushPendingVariants();
+        }
+    }
+
+    /**
+     * Annotates all pending variants as a single batch and writes them out in the order in which they were enqueued.
+     */
+    private void flushPendingVariants() {
+        if ( pendingVariants.isEmpty() ) {
+            return;
+        }
+
+        final List<FuncotationMap> funcotationMaps = funcotatorEngine.createFuncotationMapsForVariants(
+                pendingVariants, pendingReferenceContexts, pendingFeatureContexts, annotationExecutor);
+
+        for ( int i = 0; i < pendingVariants.size(); i++ ) {
+            outputRenderer.write(pendingVariants.get(i), funcotationMaps.get(i));
+        }
 
-        // At this point there is only one transcript ID in the funcotation map if canonical or best effect are selected
-        outputRenderer.write(variant, funcotationMap);
+        pendingVariants.clear();
+        pendingReferenceContexts.clear();
+        pendingFeatureContexts.clear();
     }
 }
@@ -63,6 +63,11 @@ public class FuncotatorArgumentDefinitions {
     public static final String LOOKAHEAD_CACHE_IN_BP_NAME = "lookahead-cache-bp";
     public static final int LOOKAHEAD_CACHE_IN_BP_DEFAULT_VALUE = VariantWalkerBase.DEFAULT_DRIVING_VARIANTS_LOOKAHEAD_BASES;
 
+    public static final String VARIANT_BATCH_SIZE_LONG_NAME = "variant-batch-size";
+    public static final int VARIANT_BATCH_SIZE_DEFAULT_VALUE = 1;
+    public static final String ANNOTATION_THREADS_LONG_NAME = "annotation-threads";
+    public static final int ANNOTATION_THREADS_DEFAULT_VALUE = 1;
+
     public static final String FORCE_B37_TO_HG19_REFERENCE_CONTIG_CONVERSION = "force-b37-to-hg19-reference-contig-conversion";
     public static final String MIN_NUM_BASES_FOR_SEGMENT_FUNCOTATION = "min-num-bases-for-segment-funcotation";
 
@@ -2,6 +2,7 @@ package org.broadinstitute.hellbender.tools.funcotator;
 
 import com.google.common.annotations.VisibleForTesting;
 import htsjdk.samtools.SAMSequenceDictionary;
+import htsjdk.tribble.Feature;
 import htsjdk.tribble.util.ParsingUtils;
 import htsjdk.variant.variantcontext.VariantContext;
 import htsjdk.variant.variantcontext.VariantContextBuilder;
@@ -10,6 +11,7 @@ import htsjdk.variant.vcf.VCFHeaderLine;
 import org.apache.logging.log4j.LogManager;
 import org.apache.logging.log4j.Logger;
 import org.broadinstitute.hellbender.engine.FeatureContext;
+import org.broadinstitute.hellbender.engine.FeatureInput;
 import org.broadinstitute.hellbender.engine.GATKTool;
 import org.broadinstitute.hellbender.engine.ReferenceContext;
 import org.broadinstitute.hellbender.engine.filters.VariantFilter;
@@ -35,6 +37,10 @@ import java.io.IOException;
 import java.nio.file.Files;
 import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.Callable;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Future;
 import java.util.stream.Collectors;
 import java.util.stream.Stream;
 
@@ -47,6 +53,18 @@ public final class FuncotatorEngine implements AutoCloseable {
 
     /** Obligatory logger. */
     private static final Logger logger = LogManager.getLogger(FuncotatorEngine.class);
+    /**
+     * Maximum distance between consecutive variants that are queried for features together.
+     */
+    @VisibleForTesting
+    static final int MAX_BATCH_QUERY_GAP = 10_000;
+
+    /**
+     * Maximum span of a single query for the features of a batch of variants.
+     */
+    @VisibleForTesting
+    static final int MAX_BATCH_QUERY_SPAN = 100_000;
+
     private static final String SIMPLE_TSV_SEG_FILE_CONFIG = "org/broadinstitute/hellbender/tools/funcotator/simple_funcotator_seg_file.config";
 
     @VisibleForTesting
@@ -136,6 +154,42 @@ public final class FuncotatorEngine implements AutoCloseable {
         Utils.nonNull(referenceContext);
         Utils.nonNull(featureContext);
 
+        return createFuncotationMapsForVariants(
+                Collections.singletonList(variantContext),
+                Collections.singletonList(referenceContext),
+                Collections.singletonList(featureContext),
+                null
+        ).get(0);
+    }
+
+    /**
+     * Creates a {@link FuncotationMap} for each of the given {@code variantContexts}.
+     *
+     * Each data source is queried once for the span of all the given variants (if they are on the same contig), rather
+     * than once per variant.  The GENCODE funcotations are created first, in the calling thread, since they require
+     * the reference and all other data sources depend on them.  The remaining data sources are then each run over all
+     * the variants as a separate task on the given {@code executor}.  Each {@link DataSourceFuncotationFactory} is
+     * only ever used by one thread at a time, so the factories need not be thread-safe.
+     *
+     * @param variantContexts  {@link VariantContext}s to annotate, in coordinate order.  Never {@code null}.
+     * @param referenceContexts {@link ReferenceContext}s corresponding to each of the given {@code variantContexts}.  Never {@code null}.
+     * @param featureContexts {@link FeatureContext}s corresponding to each of the given {@code variantContexts}.  Never {@code null}.
+     * @param executor {@link ExecutorService} on which to run the non-GENCODE data sources.  If {@code null}, all data sources are run in the calling thread.
+     * @return a {@link List} of {@link FuncotationMap}, one per variant, in the same order as {@code variantContexts}.
+     */
+    public List<FuncotationMap> createFuncotationMapsForVariants(final List<VariantContext> variantContexts,
+                                                                 final List<ReferenceContext> referenceContexts,
+                                                                 final List<FeatureContext> featureContexts,
+                                                                 final ExecutorService executor) {
+
+        Utils.nonNull(variantContexts);
+        Utils.nonNull(referenceContexts);
+        Utils.nonNull(featureContexts);
+        Utils.validateArg(variantContexts.size() == referenceContexts.size() && variantContexts.size() == featureContexts.size(),
+                "There must be exactly one reference context and one feature context per variant.");
+
+        final int numVariants = variantContexts.size();
+
         //==============================================================================================================
         // First create only the transcript (Gencode) funcotations:
 
@@ -143,35 +197,50 @@ public final class FuncotatorEngine implements AutoCloseable {
             logger.warn("Attempting to annotate with more than one GENCODE datasource.  If these have overlapping transcript IDs, errors may occur.");
         }
 
-        final List<GencodeFuncotation> transcriptFuncotations = retrieveGencodeFuncotationFactoryStream()
-                .map(gf -> gf.createFuncotations(variantContext, referenceContext, featureContext))
-                .flatMap(List::stream)
-                .map(f -> {
-                        final GencodeFuncotation gf = (GencodeFuncotation) f;
-                        if (onlyProducedIGRs && (gf.getVariantClassification() != GencodeFuncotation.VariantClassification.IGR)) {
-                            onlyProducedIGRs = false;
-                        }
-                        return gf;
+        final List<List<GencodeFuncotation>> transcriptFuncotations = new ArrayList<>(numVariants);
+        for ( int i = 0; i < numVariants; i++ ) {
+            transcriptFuncotations.add(new ArrayList<>());
+        }
+
+        retrieveGencodeFuncotationFactoryStream().forEach(gf -> {
+            final List<List<Feature>> features = queryFeaturesForVariants(gf, variantContexts, featureContexts);
+            for ( int i = 0; i < numVariants; i++ ) {
+                for ( final Funcotation f : gf.createFuncotationsFromFeatures(variantContexts.get(i), referenceContexts.get(i), features.get(i), null) ) {
+                    final GencodeFuncotation gencodeFuncotation = (GencodeFuncotation) f;
+                    if (onlyProducedIGRs && (gencodeFuncotation.getVariantClassification() != GencodeFuncotation.VariantClassification.IGR)) {
+                        onlyProducedIGRs = false;
                     }
-                )
+                    transcriptFuncotations.get(i).add(gencodeFuncotation);
+                }
+            }
+        });
+
+        // Create a place to keep our funcotations:
+        final List<FuncotationMap> funcotationMaps = transcriptFuncotations.stream()
+                .map(FuncotationMap::createFromGencodeFuncotations)
                 .collect(Collectors.toList());
 
         //==============================================================================================================
         // Create the funcotations for non-Gencode data sources:
 
-        // Create a place to keep our funcotations:
-        final FuncotationMap funcotationMap = FuncotationMap.createFromGencodeFuncotations(transcriptFuncotations);
-
-        // Perform the rest of the annotation.  Note that this code manually excludes the Gencode Funcotations.
-        for (final DataSourceFuncotationFactory funcotationFactory : dataSourceFactories ) {
+        // Query all features up front, since feature sources may not be accessed concurrently.
+        // Note that this guarantees that we do not add GencodeFuncotations a second time.
+        final List<DataSourceFuncotationFactory> otherFactories = dataSourceFactories.stream()
+                .filter(ff -> !ff.getType().equals(FuncotatorArgumentDefinitions.DataSourceType.GENCODE))
+                .collect(Collectors.toList());
+        final List<Callable<List<List<List<Funcotation>>>>> tasks = new ArrayList<>(otherFactories.size());
+        for ( final DataSourceFuncotationFactory funcotationFactory : otherFactories ) {
+            final List<List<Feature>> features = queryFeaturesForVariants(funcotationFactory, variantContexts, featureContexts);
+            tasks.add(() -> createFuncotationsForTranscripts(funcotationFactory, variantContexts, referenceContexts, features, funcotationMaps));
+        }
 
-            // Note that this guarantees that we do not add GencodeFuncotations a second time.
-            if (!funcotationFactory.getType().equals(FuncotatorArgumentDefinitions.DataSourceType.GENCODE)) {
+        // Add the results in data source order, which is the order in which they would have been created serially:
+        for ( final List<List<List<Funcotation>>> factoryFuncotations : runTasks(tasks, executor) ) {
+            for ( int i = 0; i < numVariants; i++ ) {
+                final FuncotationMap funcotationMap = funcotationMaps.get(i);
                 final List<String> txIds = funcotationMap.getTranscriptList();
-
-                for (final String txId: txIds) {
-                    funcotationMap.add(txId, funcotationFactory.createFuncotations(variantContext, referenceContext,
-                            featureContext, funcotationMap.getGencodeFuncotations(txId)));
+                for ( int t = 0; t < txIds.size(); t++ ) {
+                    funcotationMap.add(txIds.get(t), factoryFuncotations.get(i).get(t));
                 }
             }
         }
@@ -179,13 +248,161 @@ public final class FuncotatorEngine implements AutoCloseable {
         //==============================================================================================================
         // Create the funcotations for the input and add to all txID mappings.
 
-        final List<String> txIds = funcotationMap.getTranscriptList();
+        for ( int i = 0; i < numVariants; i++ ) {
+            final FuncotationMap funcotationMap = funcotationMaps.get(i);
+            for (final String txId: funcotationMap.getTranscriptList()) {
+                funcotationMap.add(txId, FuncotatorUtils.createFuncotations(variantContexts.get(i), inputMetadata, FuncotatorConstants.DATASOURCE_NAME_FOR_INPUT_VCFS));
+            }
+        }
+
+        return funcotationMaps;
+    }
 
-        for (final String txId: txIds) {
-            funcotationMap.add(txId, FuncotatorUtils.createFuncotations(variantContext, inputMetadata, FuncotatorConstants.DATASOURCE_NAME_FOR_INPUT_VCFS));
+    /**
+     * Creates the funcotations of a single non-GENCODE data source for every transcript of every variant.
+     * @return the funcotations indexed by variant and then by transcript, in {@link FuncotationMap#getTranscriptList()} order.
+     */
+    private static List<List<List<Funcotation>>> createFuncotationsForTranscripts(final DataSourceFuncotationFactory funcotationFactory,
+                                                                                final List<VariantContext> variantContexts,
+                                                                                final List<ReferenceContext> referenceContexts,
+                                                                                final List<List<Feature>> features,
+                                                                                final List<FuncotationMap> funcotationMaps) {
+        final List<List<List<Funcotation>>> result = new ArrayList<>(variantContexts.size());
+        for ( int i = 0; i < variantContexts.size(); i++ ) {
+            final FuncotationMap funcotationMap = funcotationMaps.get(i);
+            final List<List<Funcotation>> variantFuncotations = new ArrayList<>();
+            for ( final String txId : funcotationMap.getTranscriptList() ) {
+                variantFuncotations.add(funcotationFactory.createFuncotationsFromFeatures(variantContexts.get(i), referenceContexts.get(i),
+                        features.get(i), funcotationMap.getGencodeFuncotations(txId)));
+            }
+            result.add(variantFuncotations);
         }
+        return result;
+    }
 
-        return funcotationMap;
+    /**
+     * Runs the given tasks on {@code executor}, or in the calling thread if {@code executor} is {@code null}.
+     * @return the results of the tasks in the order the tasks were given.
+     */
+    private static <T> List<T> runTasks(final List<Callable<T>> tasks, final ExecutorService executor) {
+        final List<T> results = new ArrayList<>(tasks.size());
+        try {
+            if ( executor == null ) {
+                for ( final Callable<T> task : tasks ) {
+                    results.add(task.call());
+                }
+            }
+            else {
+                for ( final Future<T> future : executor.invokeAll(tasks) ) {
+                    results.add(future.get());
+                }
+            }
+        }
+        catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GATKException("Interrupted while creating funcotations.", e);
+        }
+        catch (final ExecutionException e) {
+            if ( e.getCause() instanceof RuntimeException ) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new GATKException("Error while creating funcotations.", e.getCause());
+        }
+        catch (final RuntimeException e) {
+            throw e;
+        }
+        catch (final Exception e) {
+            throw new GATKException("Error while creating funcotations.", e);
+        }
+        return results;
+    }
+
+    /**
+     * Queries the features of the given {@code funcotationFactory} for each of the given variants.
+     * Variants whose query intervals are on the same contig and close together are queried with a single query
+     * spanning all of them, and the results are then split up by variant.  A new query is started whenever the gap to
+     * the next variant exceeds {@link #MAX_BATCH_QUERY_GAP} or the span would exceed {@link #MAX_BATCH_QUERY_SPAN},
+     * so that sparse variants don't pull in the features of large stretches of the genome between them.
+     * @return a {@link List} of the {@link Feature}s overlapping the query interval of each variant, in variant order.
+     */
+    @SuppressWarnings("unchecked")
+    private static List<List<Feature>> queryFeaturesForVariants(final DataSourceFuncotationFactory funcotationFactory,
+                                                                final List<VariantContext> variantContexts,
+                                                                final List<FeatureContext> featureContexts) {
+        final int numVariants = variantContexts.size();
+        if ( !funcotationFactory.requiresFeatures() ) {
+            return Collections.nCopies(numVariants, Collections.emptyList());
+        }
+
+        final FeatureInput<? extends Feature> featureInput = funcotationFactory.getMainSourceFileAsFeatureInput();
+        final List<SimpleInterval> queryIntervals = featureContexts.stream()
+                .map(fc -> fc.getInterval() == null ? null : funcotationFactory.getFeatureQueryInterval(fc.getInterval()))
+                .collect(Collectors.toList());
+
+        final List<List<Feature>> features = new ArrayList<>(Collections.nCopies(numVariants, null));
+        for ( final List<Integer> batch : batchQueryIntervals(queryIntervals) ) {
+            if ( batch.size() == 1 ) {
+                final int i = batch.get(0);
+                features.set(i, (List<Feature>) featureContexts.get(i).getValues(featureInput, queryIntervals.get(i)));
+            }
+            else {
+                final SimpleInterval first = queryIntervals.get(batch.get(0));
+                final SimpleInterval span = new SimpleInterval(first.getContig(), first.getStart(),
+                        batch.stream().mapToInt(i -> queryIntervals.get(i).getEnd()).max().getAsInt());
+                final List<? extends Feature> spanFeatures = featureContexts.get(batch.get(0)).getValues(featureInput, span);
+                for ( final int i : batch ) {
+                    final SimpleInterval queryInterval = queryIntervals.get(i);
+                    features.set(i, spanFeatures.stream()
+                            .filter(f -> f != null && f.getStart() <= queryInterval.getEnd() && f.getEnd() >= queryInterval.getStart())
+                            .collect(Collectors.toList()));
+                }
+            }
+        }
+        return features;
+    }
+
+    /**
+     * Splits the given query intervals into batches that can each be covered by a single query.
+     * Each batch holds the indices of intervals on one contig, in order of start position, such that no gap between
+     * consecutive intervals exceeds {@link #MAX_BATCH_QUERY_GAP} and the whole batch spans at most
+     * {@link #MAX_BATCH_QUERY_SPAN} bases (unless it is a single interval).  {@code null} intervals get batches of their own.
+     * @param queryIntervals The intervals to be queried.  Entries may be {@code null}.
+     * @return The batches of indices into {@code queryIntervals}.  Every index appears in exactly one batch.
+     */
+    @VisibleForTesting
+    static List<List<Integer>> batchQueryIntervals(final List<SimpleInterval> queryIntervals) {
+        final List<List<Integer>> batches = new ArrayList<>();
+        final List<Integer> sortedIndices = new ArrayList<>(queryIntervals.size());
+        for ( int i = 0; i < queryIntervals.size(); i++ ) {
+            if ( queryIntervals.get(i) == null ) {
+                batches.add(Collections.singletonList(i));
+            }
+            else {
+                sortedIndices.add(i);
+            }
+        }
+        sortedIndices.sort(Comparator.comparing((Integer i) -> queryIntervals.get(i).getContig())
+                .thenComparingInt(i -> queryIntervals.get(i).getStart()));
+
+        int batchStart = 0;
+        while ( batchStart < sortedIndices.size() ) {
+            final SimpleInterval first = queryIntervals.get(sortedIndices.get(batchStart));
+            int batchEnd = batchStart + 1;
+            int spanEnd = first.getEnd();
+            while ( batchEnd < sortedIndices.size() ) {
+                final SimpleInterval next = queryIntervals.get(sortedIndices.get(batchEnd));
+                if ( !next.getContig().equals(first.getContig())
+                        || next.getStart() - spanEnd > MAX_BATCH_QUERY_GAP
+                        || Math.max(spanEnd, next.getEnd()) - first.getStart() + 1 > MAX_BATCH_QUERY_SPAN ) {
+                    break;
+                }
+                spanEnd = Math.max(spanEnd, next.getEnd());
+                batchEnd++;
+            }
+            batches.add(new ArrayList<>(sortedIndices.subList(batchStart, batchEnd)));
+            batchStart = batchEnd;
+        }
+        return batches;
     }
 
     /**
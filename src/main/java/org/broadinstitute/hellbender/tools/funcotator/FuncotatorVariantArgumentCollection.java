@@ -1,5 +1,6 @@
 package org.broadinstitute.hellbender.tools.funcotator;
 
+import org.broadinstitute.barclay.argparser.Advanced;
 import org.broadinstitute.barclay.argparser.Argument;
 
 /**
@@ -40,4 +41,22 @@ public class FuncotatorVariantArgumentCollection extends BaseFuncotatorArgumentC
     )
     public int threePrimeFlankSize = FuncotatorArgumentDefinitions.THREE_PRIME_FLANK_SIZE_DEFAULT_VALUE;
 
+    @Advanced
+    @Argument(
+            fullName = FuncotatorArgumentDefinitions.VARIANT_BATCH_SIZE_LONG_NAME,
+            optional = true,
+            minValue = 1,
+            doc = "Number of consecutive variants on the same contig to annotate together.  Each data source is queried once per batch rather than once per variant."
+    )
+    public int variantBatchSize = FuncotatorArgumentDefinitions.VARIANT_BATCH_SIZE_DEFAULT_VALUE;
+
+    @Advanced
+    @Argument(
+            fullName = FuncotatorArgumentDefinitions.ANNOTATION_THREADS_LONG_NAME,
+            optional = true,
+            minValue = 1,
+            doc = "Number of threads with which to run the non-GENCODE data sources on each batch of variants.  Only useful with a " + FuncotatorArgumentDefinitions.VARIANT_BATCH_SIZE_LONG_NAME + " greater than 1."
+    )
+    public int annotationThreads = FuncotatorArgumentDefinitions.ANNOTATION_THREADS_DEFAULT_VALUE;
+
 }
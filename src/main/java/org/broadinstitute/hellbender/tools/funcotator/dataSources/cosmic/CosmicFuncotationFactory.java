@@ -15,6 +15,7 @@ import org.broadinstitute.hellbender.tools.funcotator.FuncotatorArgumentDefiniti
 import org.broadinstitute.hellbender.tools.funcotator.FuncotatorUtils;
 import org.broadinstitute.hellbender.tools.funcotator.dataSources.TableFuncotation;
 import org.broadinstitute.hellbender.tools.funcotator.dataSources.gencode.GencodeFuncotation;
+import org.broadinstitute.hellbender.utils.LRUCache;
 import org.broadinstitute.hellbender.utils.SimpleInterval;
 import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.io.IOUtils;
@@ -45,6 +46,11 @@ public class CosmicFuncotationFactory extends DataSourceFuncotationFactory {
     //==================================================================================================================
     // Public Static Members:
 
+    /**
+     * Default number of genes for which parsed COSMIC records are kept in memory.
+     */
+    public static final int DEFAULT_GENE_CACHE_SIZE = 256;
+
     //==================================================================================================================
     // Private Static Members:
 
@@ -96,10 +102,11 @@ public class CosmicFuncotationFactory extends DataSourceFuncotationFactory {
     private static final String FIELD_NAME_QUERY = "SELECT * FROM " + TABLE_NAME + " LIMIT 1;";
 
     /**
-     * Template for results query for matching genes in the database.
+     * Parameterized query for the records of a single gene in the database.
+     * Only the columns needed to match and count mutations are retrieved.
      */
-    private static final String RESULT_QUERY_TEMPLATE = "SELECT * FROM " + TABLE_NAME + " WHERE \""
-            + GENE_NAME_COLUMN + "\" == ";
+    private static final String GENE_RECORDS_QUERY = "SELECT \"" + GENOME_POSITION_COLUMN_NAME + "\", \"" + PROTEIN_POSITION_COLUMN_NAME
+            + "\" FROM " + TABLE_NAME + " WHERE \"" + GENE_NAME_COLUMN + "\" == ?;";
 
     //==================================================================================================================
     // Private Members:
@@ -122,6 +129,20 @@ public class CosmicFuncotationFactory extends DataSourceFuncotationFactory {
      */
     private final Connection dbConnection;
 
+    /**
+     * The prepared query for the records of a gene, re-used for every gene.
+     */
+    private final PreparedStatement geneRecordsStatement;
+
+    /**
+     * Parsed COSMIC records of the most recently queried genes.
+     * Consecutive variants often fall in the same gene, so this saves re-querying and re-parsing the same rows.
+     */
+    private final LRUCache<String, List<CosmicRecord>> geneRecordCache;
+
+    private long geneCacheHits = 0;
+    private long geneCacheMisses = 0;
+
     /**
      * The ordered set of fields that this {@link CosmicFuncotationFactory} supports.
      */
@@ -152,9 +173,21 @@ public class CosmicFuncotationFactory extends DataSourceFuncotationFactory {
                                     final String version,
                                     final boolean isDataSourceB37,
                                     final int minBasesForValidSegment) {
+        this(pathToCosmicDb, annotationOverridesMap, version, isDataSourceB37, minBasesForValidSegment, DEFAULT_GENE_CACHE_SIZE);
+    }
+
+    public CosmicFuncotationFactory(final Path pathToCosmicDb,
+                                    final LinkedHashMap<String, String> annotationOverridesMap,
+                                    final String version,
+                                    final boolean isDataSourceB37,
+                                    final int minBasesForValidSegment,
+                                    final int geneCacheSize) {
 
         super(minBasesForValidSegment);
 
+        Utils.validateArg(geneCacheSize > 0, "The COSMIC gene cache size must be positive.");
+        geneRecordCache = new LRUCache<>(geneCacheSize);
+
         this.pathToCosmicDb = localizeCosmicDbFileIfRemote(pathToCosmicDb);
         this.version = version;
         this.dataSourceIsB37 = isDataSourceB37;
@@ -171,6 +204,8 @@ public class CosmicFuncotationFactory extends DataSourceFuncotationFactory {
             logger.debug("Connecting to SQLite database at: " + this.pathToCosmicDb.toUri().toString());
             dbConnection = DriverManager.getConnection("jdbc:sqlite:" + this.pathToCosmicDb.toUri().toString(), config.toProperties());
             logger.debug("Connected to SQLite database!");
+
+            geneRecordsStatement = dbConnection.prepareStatement(GENE_RECORDS_QUERY);
         }
         catch (final SQLException ex) {
             throw new UserException("Unable to open SQLite DB for COSMIC at: " + this.pathToCosmicDb.toUri().toString(), ex);
@@ -198,8 +233,10 @@ public class CosmicFuncotationFactory extends DataSourceFuncotationFactory {
 
     @Override
     public void close() {
+        logger.info(String.format("COSMIC gene cache: %d hits, %d misses", geneCacheHits, geneCacheMisses));
         if (dbConnection != null) {
             try {
+                geneRecordsStatement.close();
                 dbConnection.close();
             }
             catch (final SQLException ex) {
@@ -283,41 +320,26 @@ public class CosmicFuncotationFactory extends DataSourceFuncotationFactory {
                 proteinPosition = null;
             }
 
-            try {
-                try ( final Statement statement = dbConnection.createStatement() ) {
-                    try ( final ResultSet resultSet = statement.executeQuery(RESULT_QUERY_TEMPLATE + "\"" + geneName + "\";") ) {
-                        // iterate through our results:
-                        while ( resultSet.next() ) {
-
-                            // Get the genome position:
-                            final SimpleInterval cosmicGenomePosition = getGenomePositionFromResults(resultSet);
-
-                            // Try to match on genome position first:
-                            if ( cosmicGenomePosition != null ) {
-                                if ( genomePosition.overlaps(cosmicGenomePosition) ) {
-                                    // If we overlap the records, we get the protein change and add it to the map:
-                                    updateProteinChangeCountMap(proteinChangeCounts, resultSet);
-                                    continue;
-                                }
-                            }
-
-                            // Get the protein position:
-                            final SimpleInterval cosmicProteinPosition = getProteinPositionFromResults(resultSet);
-
-                            // Now try to match on protein position:
-                            if ( proteinPosition != null ) {
-                                // If we overlap the records, we update the counter:
-                                if ( proteinPosition.overlaps(cosmicProteinPosition) ) {
-                                    updateProteinChangeCountMap(proteinChangeCounts, resultSet);
-                                }
-                            }
-                            // NOTE: We can't annotate if the protein position is null.
-                        }
+            // iterate through the records for this gene:
+            for ( final CosmicRecord record : getRecordsForGene(geneName) ) {
+
+                // Try to match on genome position first:
+                if ( record.genomePosition != null ) {
+                    if ( genomePosition.overlaps(record.genomePosition) ) {
+                        // If we overlap the records, we get the protein change and add it to the map:
+                        updateProteinChangeCountMap(proteinChangeCounts, record.proteinChange);
+                        continue;
                     }
                 }
-            }
-            catch (final SQLException ex) {
-                throw new GATKException("Unable to query the database for geneName: " + geneName, ex);
+
+                // Now try to match on protein position:
+                if ( proteinPosition != null ) {
+                    // If we overlap the records, we update the counter:
+                    if ( proteinPosition.overlaps(record.proteinPosition) ) {
+                        updateProteinChangeCountMap(proteinChangeCounts, record.proteinChange);
+                    }
+                }
+                // NOTE: We can't annotate if the protein position is null.
             }
         }
 
@@ -338,8 +360,7 @@ public class CosmicFuncotationFactory extends DataSourceFuncotationFactory {
         return outputFuncotations;
     }
 
-    private void updateProteinChangeCountMap(final Map<String, Integer> proteinChangeCounts, final ResultSet resultSet) {
-        final String proteinChange = getProteinChangeStringFromResults(resultSet);
+    private void updateProteinChangeCountMap(final Map<String, Integer> proteinChangeCounts, final String proteinChange) {
         if ( !proteinChange.isEmpty() ) {
             final int count = proteinChangeCounts.getOrDefault(proteinChange, 0);
             proteinChangeCounts.put(proteinChange, count + 1);
@@ -357,6 +378,47 @@ public class CosmicFuncotationFactory extends DataSourceFuncotationFactory {
     //==================================================================================================================
     // Instance Methods:
 
+    /**
+     * Get the parsed COSMIC records for the given gene, from the cache if possible or else from the database.
+     * @param geneName The name of the gene for which to get records (must not be {@code null}).
+     * @return A {@link List} of the {@link CosmicRecord}s for the given gene, in database order.  Will not be {@code null}.
+     */
+    private List<CosmicRecord> getRecordsForGene(final String geneName) {
+        final List<CosmicRecord> cachedRecords = geneRecordCache.get(geneName);
+        if ( cachedRecords != null ) {
+            geneCacheHits++;
+            return cachedRecords;
+        }
+        geneCacheMisses++;
+
+        final List<CosmicRecord> records = new ArrayList<>();
+        try {
+            geneRecordsStatement.setString(1, geneName);
+            try ( final ResultSet resultSet = geneRecordsStatement.executeQuery() ) {
+                while ( resultSet.next() ) {
+                    records.add(new CosmicRecord(getGenomePositionFromResults(resultSet), getProteinPositionFromResults(resultSet),
+                            getProteinChangeStringFromResults(resultSet)));
+                }
+            }
+        }
+        catch (final SQLException ex) {
+            throw new GATKException("Unable to query the database for geneName: " + geneName, ex);
+        }
+
+        geneRecordCache.put(geneName, records);
+        return records;
+    }
+
+    @VisibleForTesting
+    long getGeneCacheHits() {
+        return geneCacheHits;
+    }
+
+    @VisibleForTesting
+    long getGeneCacheMisses() {
+        return geneCacheMisses;
+    }
+
     private Path localizeCosmicDbFileIfRemote(final Path cosmicDbPathMaybeRemote ) {
 
         // Is the path local or in the cloud:
@@ -511,4 +573,19 @@ public class CosmicFuncotationFactory extends DataSourceFuncotationFactory {
     //==================================================================================================================
     // Helper Data Types:
 
+    /**
+     * The parts of a row in the COSMIC database that are needed to match it against a variant.
+     */
+    private static final class CosmicRecord {
+        private final SimpleInterval genomePosition;
+        private final SimpleInterval proteinPosition;
+        private final String proteinChange;
+
+        private CosmicRecord(final SimpleInterval genomePosition, final SimpleInterval proteinPosition, final String proteinChange) {
+            this.genomePosition = genomePosition;
+            this.proteinPosition = proteinPosition;
+            this.proteinChange = proteinChange;
+        }
+    }
+
 }
@@ -40,6 +40,7 @@ import org.sqlite.util.StringUtils;
 
 import java.io.File;
 import java.nio.file.FileSystems;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.*;
 import java.util.regex.Matcher;
@@ -215,6 +216,7 @@ public class GencodeFuncotationFactory extends DataSourceFuncotationFactory {
 
     /**
      * The {@link Path} from which we will read the sequences for the coding regions in given transcripts.
+     * This is either the transcript FASTA file or its compiled {@link GencodeTranscriptIndex}.
      */
     private final Path gencodeTranscriptFastaFile;
 
@@ -356,14 +358,41 @@ public class GencodeFuncotationFactory extends DataSourceFuncotationFactory {
 
         super(mainFeatureInput, minBasesForValidSegment);
 
-        // Set up our local transcript fasta file.
-        // We must localize it (if not on disk) to make read times fast enough to be manageable:
-        gencodeTranscriptFastaFile = localizeGencodeTranscriptFastaFile( gencodeTranscriptFastaFilePath );
         this.flankSettings = flankSettings;
 
-        // Initialize our transcript data source and ID map:
-        transcriptFastaReferenceDataSource = ReferenceDataSource.of(gencodeTranscriptFastaFile);
-        transcriptIdMap = createTranscriptIdMap(transcriptFastaReferenceDataSource);
+        // Use a compiled transcript index if one has been created for this data source, since it is much faster to open.
+        // A stale index is never rebuilt here, since the data sources may be shared by other jobs that are using it:
+        final Path transcriptIndexPath = GencodeTranscriptIndex.getIndexPath(gencodeTranscriptFastaFilePath);
+        final boolean useTranscriptIndex;
+        if ( !Files.exists(transcriptIndexPath) ) {
+            useTranscriptIndex = false;
+        }
+        else if ( !GencodeTranscriptIndex.isUpToDate(transcriptIndexPath, gencodeTranscriptFastaFilePath) ) {
+            logger.warn("GENCODE transcript index " + transcriptIndexPath.toUri() + " is out of date with its transcript FASTA file - " +
+                    "loading the transcript FASTA file instead.  Run CompileFuncotatorDataSources to recompile the index.");
+            useTranscriptIndex = false;
+        }
+        else {
+            useTranscriptIndex = true;
+        }
+        if ( useTranscriptIndex ) {
+            // The index must be on disk to be memory-mapped:
+            gencodeTranscriptFastaFile = localizeGencodeTranscriptIndexFile( transcriptIndexPath );
+
+            logger.info("Using compiled GENCODE transcript index: " + gencodeTranscriptFastaFile.toUri());
+            final GencodeTranscriptIndex transcriptIndex = GencodeTranscriptIndex.load(gencodeTranscriptFastaFile);
+            transcriptFastaReferenceDataSource = transcriptIndex;
+            transcriptIdMap = transcriptIndex.getTranscriptIdMap();
+        }
+        else {
+            // Set up our local transcript fasta file.
+            // We must localize it (if not on disk) to make read times fast enough to be manageable:
+            gencodeTranscriptFastaFile = localizeGencodeTranscriptFastaFile( gencodeTranscriptFastaFilePath );
+
+            // Initialize our transcript data source and ID map:
+            transcriptFastaReferenceDataSource = ReferenceDataSource.of(gencodeTranscriptFastaFile);
+            transcriptIdMap = createTranscriptIdMap(transcriptFastaReferenceDataSource);
+        }
 
         this.transcriptSelectionMode = transcriptSelectionMode;
 
@@ -396,6 +425,25 @@ public class GencodeFuncotationFactory extends DataSourceFuncotationFactory {
         initializeAnnotationOverrides( annotationOverrides );
     }
 
+    private Path localizeGencodeTranscriptIndexFile( final Path gencodeTranscriptIndexFilePath ) {
+
+        // Is the path local or in the cloud:
+        if ( gencodeTranscriptIndexFilePath.getFileSystem().equals(FileSystems.getDefault()) ) {
+            // local path, just return it:
+            return gencodeTranscriptIndexFilePath;
+        }
+
+        // Not a local path!  We must localize it!
+        final File tmpDir = IOUtils.createTempDir(LOCAL_GENCODE_TRANSCRIPT_TMP_DIR_PREFIX);
+        tmpDir.deleteOnExit();
+        final Path localGencodeTranscriptIndexFilePath = tmpDir.toPath().resolve(LOCAL_GENCODE_TRANSCRIPT_FILE_BASE_NAME + GencodeTranscriptIndex.INDEX_EXTENSION);
+
+        logger.info("Localizing Gencode transcript index file...");
+        NioFileCopierWithProgressMeter.create(gencodeTranscriptIndexFilePath, localGencodeTranscriptIndexFilePath, true).initiateCopy();
+
+        return localGencodeTranscriptIndexFilePath;
+    }
+
     private Path localizeGencodeTranscriptFastaFile( final Path gencodeTranscriptFastaFilePath ) {
 
         // Is the path local or in the cloud:
@@ -669,7 +717,7 @@ public class GencodeFuncotationFactory extends DataSourceFuncotationFactory {
      * @param sequence The {@link SAMSequenceRecord} from which to create the {@link MappedTranscriptIdInfo}.
      * @return A populated {@link MappedTranscriptIdInfo} object based on the given {@link SAMSequenceRecord}.
      */
-    private static MappedTranscriptIdInfo createMappedTranscriptIdInfo( final SAMSequenceRecord sequence ) {
+    static MappedTranscriptIdInfo createMappedTranscriptIdInfo( final SAMSequenceRecord sequence ) {
 
         final MappedTranscriptIdInfo transcriptIdInfo = new MappedTranscriptIdInfo();
 
@@ -0,0 +1,314 @@
+package org.broadinstitute.hellbender.tools.funcotator.dataSources.gencode;
+
+import htsjdk.samtools.SAMSequenceDictionary;
+import htsjdk.samtools.SAMSequenceRecord;
+import htsjdk.samtools.reference.ReferenceSequence;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.broadinstitute.hellbender.engine.ReferenceDataSource;
+import org.broadinstitute.hellbender.exceptions.GATKException;
+import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.io.IOUtils;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * A compiled, memory-mapped index of a GENCODE transcript FASTA file.
+ *
+ * The index holds the sequence names and lengths of the transcript FASTA, the pre-parsed coding sequence and UTR
+ * coordinates of each transcript ({@link GencodeFuncotationFactory.MappedTranscriptIdInfo}), and all transcript bases
+ * in a single contiguous block.  Opening it only reads the (small) header; the bases are memory-mapped and paged in
+ * on demand, so no FASTA index, sequence dictionary, or parsing of transcript names is needed at startup.
+ *
+ * The index is created once per data source with {@link #compile(Path, Path)} (see {@code CompileFuncotatorDataSources})
+ * and is picked up automatically by {@link GencodeFuncotationFactory} if it exists next to the transcript FASTA file
+ * with the extension {@link #INDEX_EXTENSION}.  The size and modification time of the transcript FASTA file are stored
+ * in the index so that an index that is out of date with its FASTA file can be detected ({@link #isUpToDate(Path, Path)})
+ * and recompiled by {@code CompileFuncotatorDataSources}.
+ *
+ * File layout: a 4-byte magic number, a 4-byte format version, the 8-byte size and 8-byte modification time (in
+ * milliseconds) of the source FASTA file, a 4-byte header length, the header, and then the bases of every transcript,
+ * back to back.
+ */
+public final class GencodeTranscriptIndex implements ReferenceDataSource {
+
+    private static final Logger logger = LogManager.getLogger(GencodeTranscriptIndex.class);
+
+    /**
+     * The extension added to the path of a transcript FASTA file to get the path of its compiled index.
+     */
+    public static final String INDEX_EXTENSION = ".gtidx";
+
+    private static final int MAGIC_NUMBER = 0x47544958; // "GTIX"
+    private static final int FORMAT_VERSION = 2;
+
+    private final SAMSequenceDictionary sequenceDictionary;
+    private final Map<String, GencodeFuncotationFactory.MappedTranscriptIdInfo> transcriptIdMap;
+    private final long[] sequenceOffsets;
+    private final MappedByteBuffer bases;
+
+    private GencodeTranscriptIndex(final SAMSequenceDictionary sequenceDictionary,
+                                   final Map<String, GencodeFuncotationFactory.MappedTranscriptIdInfo> transcriptIdMap,
+                                   final long[] sequenceOffsets,
+                                   final MappedByteBuffer bases) {
+        this.sequenceDictionary = sequenceDictionary;
+        this.transcriptIdMap = transcriptIdMap;
+        this.sequenceOffsets = sequenceOffsets;
+        this.bases = bases;
+    }
+
+    /**
+     * @param transcriptFastaPath path to a GENCODE transcript FASTA file
+     * @return the path at which the compiled index for the given transcript FASTA file is expected
+     */
+    public static Path getIndexPath(final Path transcriptFastaPath) {
+        Utils.nonNull(transcriptFastaPath);
+        return IOUtils.getPath(transcriptFastaPath.toUri().toString() + INDEX_EXTENSION);
+    }
+
+    /**
+     * Compiles the given GENCODE transcript FASTA file into an index at {@code indexPath}.
+     * The index is written to a temporary file in the same directory, which then atomically replaces any existing index,
+     * so that a reader (possibly one that has the existing index memory-mapped) never sees a partially written index.
+     * @param transcriptFastaPath path to an indexed GENCODE transcript FASTA file with a sequence dictionary
+     * @param indexPath path to which to write the index
+     */
+    public static void compile(final Path transcriptFastaPath, final Path indexPath) {
+        Utils.nonNull(transcriptFastaPath);
+        Utils.nonNull(indexPath);
+
+        final long sourceSize;
+        final long sourceLastModified;
+        try {
+            sourceSize = Files.size(transcriptFastaPath);
+            sourceLastModified = Files.getLastModifiedTime(transcriptFastaPath).toMillis();
+        }
+        catch (final IOException ex) {
+            throw new UserException.CouldNotReadInputFile(transcriptFastaPath, "Could not get the size and modification time of the GENCODE transcript FASTA file", ex);
+        }
+
+        final Path tempIndexPath = indexPath.resolveSibling(indexPath.getFileName() + "." + UUID.randomUUID() + ".tmp");
+        try {
+            writeIndex(transcriptFastaPath, tempIndexPath, sourceSize, sourceLastModified);
+            Files.move(tempIndexPath, indexPath, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+            logger.info("Compiled GENCODE transcript index " + indexPath.toUri() + " from " + transcriptFastaPath.toUri());
+        }
+        catch (final IOException ex) {
+            // Don't leave a partial index behind.  Any existing index is left as it was:
+            try {
+                Files.deleteIfExists(tempIndexPath);
+            }
+            catch (final IOException deleteEx) {
+                ex.addSuppressed(deleteEx);
+            }
+            throw new UserException.CouldNotCreateOutputFile(indexPath.toUri().toString(), "Could not write GENCODE transcript index", ex);
+        }
+    }
+
+    private static void writeIndex(final Path transcriptFastaPath, final Path indexPath,
+                                   final long sourceSize, final long sourceLastModified) throws IOException {
+        try ( final ReferenceDataSource fasta = ReferenceDataSource.of(transcriptFastaPath);
+              final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(indexPath))) ) {
+
+            final List<SAMSequenceRecord> sequences = fasta.getSequenceDictionary().getSequences();
+
+            // Write the header to memory first, since we need its length up front:
+            final ByteArrayOutputStream headerBytes = new ByteArrayOutputStream();
+            try ( final DataOutputStream header = new DataOutputStream(headerBytes) ) {
+                header.writeInt(sequences.size());
+                for ( final SAMSequenceRecord sequence : sequences ) {
+                    final GencodeFuncotationFactory.MappedTranscriptIdInfo info = GencodeFuncotationFactory.createMappedTranscriptIdInfo(sequence);
+                    header.writeUTF(sequence.getSequenceName());
+                    header.writeInt(sequence.getSequenceLength());
+                    header.writeInt(info.codingSequenceStart);
+                    header.writeInt(info.codingSequenceEnd);
+                    header.writeBoolean(info.has5pUtr);
+                    header.writeInt(info.fivePrimeUtrStart);
+                    header.writeInt(info.fivePrimeUtrEnd);
+                    header.writeBoolean(info.has3pUtr);
+                    header.writeInt(info.threePrimeUtrStart);
+                    header.writeInt(info.threePrimeUtrEnd);
+                }
+            }
+
+            out.writeInt(MAGIC_NUMBER);
+            out.writeInt(FORMAT_VERSION);
+            out.writeLong(sourceSize);
+            out.writeLong(sourceLastModified);
+            out.writeInt(headerBytes.size());
+            headerBytes.writeTo(out);
+
+            for ( final SAMSequenceRecord sequence : sequences ) {
+                if ( sequence.getSequenceLength() > 0 ) {
+                    out.write(fasta.queryAndPrefetch(sequence.getSequenceName(), 1, sequence.getSequenceLength()).getBases());
+                }
+            }
+
+            logger.info("Wrote " + sequences.size() + " transcripts from " + transcriptFastaPath.toUri() + " to " + indexPath.toUri());
+        }
+    }
+
+    /**
+     * Checks whether the index at {@code indexPath} was compiled from the current contents of the given transcript FASTA
+     * file, by comparing the size and modification time of the FASTA file with those stored in the index.
+     * @param indexPath path to an index created by {@link #compile(Path, Path)}
+     * @param transcriptFastaPath path to the transcript FASTA file the index was compiled from
+     * @return {@code true} if the index exists, has the current format version, and matches the FASTA file;
+     * {@code false} if it should be (re)compiled
+     */
+    public static boolean isUpToDate(final Path indexPath, final Path transcriptFastaPath) {
+        Utils.nonNull(indexPath);
+        Utils.nonNull(transcriptFastaPath);
+
+        if ( !Files.exists(indexPath) ) {
+            return false;
+        }
+
+        try ( final DataInputStream in = new DataInputStream(new BufferedInputStream(Files.newInputStream(indexPath))) ) {
+            if ( in.readInt() != MAGIC_NUMBER || in.readInt() != FORMAT_VERSION ) {
+                return false;
+            }
+            return in.readLong() == Files.size(transcriptFastaPath) &&
+                    in.readLong() == Files.getLastModifiedTime(transcriptFastaPath).toMillis();
+        }
+        catch (final EOFException ex) {
+            return false;
+        }
+        catch (final IOException ex) {
+            throw new UserException.CouldNotReadInputFile(indexPath, "Could not read GENCODE transcript index", ex);
+        }
+    }
+
+    /**
+     * Opens a compiled transcript index.  The index must be on the local file system to be memory-mapped.
+     * @param indexPath path to an index created by {@link #compile(Path, Path)}
+     * @return the opened {@link GencodeTranscriptIndex}
+     */
+    public static GencodeTranscriptIndex load(final Path indexPath) {
+        Utils.nonNull(indexPath);
+
+        try ( final FileChannel channel = FileChannel.open(indexPath, StandardOpenOption.READ) ) {
+            final DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+            if ( in.readInt() != MAGIC_NUMBER ) {
+                throw new UserException.MalformedFile(indexPath, "Not a GENCODE transcript index.");
+            }
+            final int version = in.readInt();
+            if ( version != FORMAT_VERSION ) {
+                throw new UserException.MalformedFile(indexPath, "Unsupported GENCODE transcript index version " + version + ", expected " + FORMAT_VERSION + ".  Please recompile the index.");
+            }
+            // Skip the size and modification time of the source FASTA file, which are only used by isUpToDate:
+            in.readLong();
+            in.readLong();
+            final int headerLength = in.readInt();
+            final long dataOffset = 3 * Integer.BYTES + 2 * Long.BYTES + (long) headerLength;
+
+            final int numSequences = in.readInt();
+            final List<SAMSequenceRecord> sequenceRecords = new ArrayList<>(numSequences);
+            final Map<String, GencodeFuncotationFactory.MappedTranscriptIdInfo> transcriptIdMap = new HashMap<>();
+            final long[] sequenceOffsets = new long[numSequences];
+            long offset = 0;
+            for ( int i = 0; i < numSequences; i++ ) {
+                final String sequenceName = in.readUTF();
+                final int length = in.readInt();
+
+                final GencodeFuncotationFactory.MappedTranscriptIdInfo info = new GencodeFuncotationFactory.MappedTranscriptIdInfo();
+                info.mapKey = sequenceName;
+                info.codingSequenceStart = in.readInt();
+                info.codingSequenceEnd = in.readInt();
+                info.has5pUtr = in.readBoolean();
+                info.fivePrimeUtrStart = in.readInt();
+                info.fivePrimeUtrEnd = in.readInt();
+                info.has3pUtr = in.readBoolean();
+                info.threePrimeUtrStart = in.readInt();
+                info.threePrimeUtrEnd = in.readInt();
+
+                // The names in the file are a list with | between each name, as in GencodeFuncotationFactory#createTranscriptIdMap:
+                for ( final String transcriptId : Utils.split(sequenceName, "|") ) {
+                    transcriptIdMap.put(transcriptId, info);
+                }
+
+                sequenceRecords.add(new SAMSequenceRecord(sequenceName, length));
+                sequenceOffsets[i] = offset;
+                offset += length;
+            }
+
+            if ( channel.size() - dataOffset != offset ) {
+                throw new UserException.MalformedFile(indexPath, "GENCODE transcript index is truncated: expected " + offset + " bases but found " + (channel.size() - dataOffset) + ".");
+            }
+            if ( offset > Integer.MAX_VALUE ) {
+                throw new UserException.BadInput("GENCODE transcript index " + indexPath.toUri() + " holds too many bases to be memory-mapped: " + offset);
+            }
+
+            final MappedByteBuffer bases = channel.map(FileChannel.MapMode.READ_ONLY, dataOffset, offset);
+            return new GencodeTranscriptIndex(new SAMSequenceDictionary(sequenceRecords), transcriptIdMap, sequenceOffsets, bases);
+        }
+        catch (final IOException ex) {
+            throw new UserException.CouldNotReadInputFile(indexPath, "Could not read GENCODE transcript index", ex);
+        }
+    }
+
+    /**
+     * @return A {@link Map} of transcript ID to the information about that transcript in the transcript FASTA file,
+     * equivalent to {@link GencodeFuncotationFactory#createTranscriptIdMap(ReferenceDataSource)} on the original FASTA.
+     */
+    Map<String, GencodeFuncotationFactory.MappedTranscriptIdInfo> getTranscriptIdMap() {
+        return transcriptIdMap;
+    }
+
+    @Override
+    public ReferenceSequence queryAndPrefetch(final String contig, final long start, final long stop) {
+        final int sequenceIndex = sequenceDictionary.getSequenceIndex(contig);
+        if ( sequenceIndex < 0 ) {
+            throw new GATKException("Transcript sequence not found in GENCODE transcript index: " + contig);
+        }
+        final int length = sequenceDictionary.getSequence(sequenceIndex).getSequenceLength();
+        Utils.validateArg(start >= 1 && stop <= length && stop >= start - 1,
+                () -> String.format("Query %s:%d-%d is outside of the transcript sequence of length %d.", contig, start, stop, length));
+
+        final byte[] result = new byte[(int) (stop - start + 1)];
+        // Duplicate the buffer so that concurrent queries don't share a position:
+        final ByteBuffer view = bases.duplicate();
+        view.position((int) (sequenceOffsets[sequenceIndex] + start - 1));
+        view.get(result);
+        return new ReferenceSequence(contig, sequenceIndex, result);
+    }
+
+    @Override
+    public SAMSequenceDictionary getSequenceDictionary() {
+        return sequenceDictionary;
+    }
+
+    /**
+     * @return An {@link Iterator} over the bases of every transcript in the index, in the order of the sequence dictionary.
+     */
+    @Override
+    public Iterator<Byte> iterator() {
+        // Duplicate the buffer so that the iterator has its own position:
+        final ByteBuffer view = bases.duplicate();
+        view.position(0);
+        return new Iterator<Byte>() {
+            @Override
+            public boolean hasNext() {
+                return view.hasRemaining();
+            }
+
+            @Override
+            public Byte next() {
+                if ( !hasNext() ) {
+                    throw new NoSuchElementException();
+                }
+                return view.get();
+            }
+        };
+    }
+}
@@ -13,17 +13,25 @@ import org.broadinstitute.hellbender.tools.funcotator.FuncotatorArgumentDefiniti
 import org.broadinstitute.hellbender.tools.funcotator.FuncotatorUtils;
 import org.broadinstitute.hellbender.tools.funcotator.dataSources.TableFuncotation;
 import org.broadinstitute.hellbender.tools.funcotator.dataSources.gencode.GencodeFuncotation;
+import org.broadinstitute.hellbender.utils.LRUCache;
 import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.nio.PathLineIterator;
 
+import java.io.IOException;
+import java.nio.file.FileSystems;
+import java.nio.file.Files;
 import java.nio.file.Path;
 import java.util.*;
+import java.util.function.BiConsumer;
 import java.util.stream.Collectors;
 
 /**
  * Factory for creating {@link TableFuncotation}s by handling `Separated Value` files with arbitrary delimiters
  * (e.g. CSV/TSV files) which contain data that use a simple key (i.e. {@link XsvDataKeyType}).
  *
+ * If a compiled {@link SimpleKeyXsvIndex} exists next to the XSV file (see {@link #compileIndex}), rows are looked up
+ * in the memory-mapped index (behind a small LRU cache) instead of being loaded into memory up front.
+ *
  * This is a high-level object that interfaces with the internals of {@link org.broadinstitute.hellbender.tools.funcotator.Funcotator}.
  * Created by jonn on 11/28/17.
  */
@@ -32,6 +40,11 @@ public class SimpleKeyXsvFuncotationFactory extends DataSourceFuncotationFactory
     //==================================================================================================================
     // Public Static Members:
 
+    /**
+     * Default number of rows to cache in memory when looking rows up in a compiled {@link SimpleKeyXsvIndex}.
+     */
+    public static final int DEFAULT_LOOKUP_CACHE_SIZE = 1024;
+
     //==================================================================================================================
     // Private Static Members:
 
@@ -81,10 +94,21 @@ public class SimpleKeyXsvFuncotationFactory extends DataSourceFuncotationFactory
     private final List<String> emptyAnnotationList;
 
     /**
-     * Map containing the annotations that we have to
+     * Map containing the annotations of each row key, or {@code null} if the rows are looked up in {@link #annotationIndex}.
      */
     private final Map<String, List<String>> annotationMap;
 
+    /**
+     * Compiled on-disk index of the rows of the XSV file, or {@code null} if the rows are held in {@link #annotationMap}.
+     */
+    private final SimpleKeyXsvIndex annotationIndex;
+
+    /**
+     * Cache of the most recently looked up rows in {@link #annotationIndex}, including rows that were not found.
+     * {@code null} if the cache is disabled.
+     */
+    private final LRUCache<String, Optional<List<String>>> lookupCache;
+
     //==================================================================================================================
     // Constructors:
 
@@ -136,9 +160,30 @@ public class SimpleKeyXsvFuncotationFactory extends DataSourceFuncotationFactory
                                           final boolean permissiveColumns,
                                           final boolean isDataSourceB37,
                                           final int minBasesForValidSegment) {
+        this(name, filePath, version, delim, keyColumn, keyType, annotationOverrides, numHeaderLinesToIgnore, permissiveColumns, isDataSourceB37, minBasesForValidSegment, DEFAULT_LOOKUP_CACHE_SIZE);
+    }
+
+    /**
+     * @param lookupCacheSize The number of rows to cache in memory if rows are looked up in a compiled
+     *                        {@link SimpleKeyXsvIndex}.  If {@code 0}, no rows are cached.
+     */
+    public SimpleKeyXsvFuncotationFactory(final String name,
+                                          final Path filePath,
+                                          final String version,
+                                          final String delim,
+                                          final int keyColumn,
+                                          final XsvDataKeyType keyType,
+                                          final LinkedHashMap<String, String> annotationOverrides,
+                                          final int numHeaderLinesToIgnore,
+                                          final boolean permissiveColumns,
+                                          final boolean isDataSourceB37,
+                                          final int minBasesForValidSegment,
+                                          final int lookupCacheSize) {
 
         super(minBasesForValidSegment);
 
+        Utils.validateArg(lookupCacheSize >= 0, "Lookup cache size must be non-negative.");
+
         this.name = name;
 
         delimiter = delim;
@@ -154,8 +199,10 @@ public class SimpleKeyXsvFuncotationFactory extends DataSourceFuncotationFactory
 
         this.dataSourceIsB37 = isDataSourceB37;
 
-        // Initialize our annotations map:
-        annotationMap = new HashMap<>();
+        // Use the compiled index if there is one that matches our settings, otherwise load all rows into memory:
+        annotationIndex = openIndex(xsvInputPath, createIndexSignature(xsvInputPath, delimiter, keyColumn, keyType, numHeaderLinesToIgnore, permissiveColumns));
+        annotationMap = (annotationIndex == null) ? new HashMap<>() : null;
+        lookupCache = (annotationIndex != null && lookupCacheSize > 0) ? new LRUCache<>(lookupCacheSize) : null;
 
         // Create our iterator:
         try ( final PathLineIterator pathLineIterator = new PathLineIterator(xsvInputPath) ) {
@@ -173,7 +220,10 @@ public class SimpleKeyXsvFuncotationFactory extends DataSourceFuncotationFactory
             }
 
             // Populate our annotation map:
-            populateAnnotationMap(it, permissiveColumns);
+            if ( annotationMap != null ) {
+                parseDataRows(it, xsvInputPath, delimiter, keyColumn, keyType, annotationColumnNames.size(),
+                        numHeaderLinesToIgnore, permissiveColumns, annotationMap::put);
+            }
         }
 
         // Initialize overrides / defaults:
@@ -227,7 +277,7 @@ public class SimpleKeyXsvFuncotationFactory extends DataSourceFuncotationFactory
     /**
      * {@inheritDoc}
      * For each {@link org.broadinstitute.hellbender.tools.funcotator.dataSources.gencode.GencodeFuncotation}, the Transcript ID or Gene Name (Hugo Symbol)
-     * is checked for a match against the key of any annotation in {@link SimpleKeyXsvFuncotationFactory#annotationMap}.
+     * is checked for a match against the key of any annotation in the XSV file.
      * If a match is found, an {@link TableFuncotation} is added to the list to be returned.
      */
     protected List<Funcotation> createFuncotationsOnVariant(final VariantContext variant,
@@ -258,7 +308,7 @@ public class SimpleKeyXsvFuncotationFactory extends DataSourceFuncotationFactory
             }
 
             // Get our annotations:
-            final List<String> annotations = annotationMap.get( key );
+            final List<String> annotations = getAnnotations( key );
             if ( annotations != null ) {
                 // Create 1 annotation for each alt allele and add our annotations to the list:
                 for ( final Allele altAllele : variant.getAlternateAlleles() ) {
@@ -285,66 +335,161 @@ public class SimpleKeyXsvFuncotationFactory extends DataSourceFuncotationFactory
     //==================================================================================================================
     // Static Methods:
 
-    //==================================================================================================================
-    // Instance Methods:
+    /**
+     * Compiles the given XSV file into a {@link SimpleKeyXsvIndex} at {@code indexPath}, which is used by every
+     * {@link SimpleKeyXsvFuncotationFactory} created on the XSV file with the same parsing settings.
+     * Only the row keys are held in memory while compiling.
+     * @param xsvPath Path to the XSV file to compile.
+     * @param indexPath Path to which to write the index (normally {@link SimpleKeyXsvIndex#getIndexPath(Path)}).
+     * @param delim Delimiter used in the XSV file.
+     * @param keyColumn The column (0-indexed) containing the key.
+     * @param keyType The type of key in {@code keyColumn}.
+     * @param numHeaderLinesToIgnore The number of lines at the top of the file to ignore.
+     * @param permissiveColumns Whether to allow mismatches between the number of columns in the header row and data rows.
+     */
+    public static void compileIndex(final Path xsvPath,
+                                    final Path indexPath,
+                                    final String delim,
+                                    final int keyColumn,
+                                    final XsvDataKeyType keyType,
+                                    final int numHeaderLinesToIgnore,
+                                    final boolean permissiveColumns) {
+        Utils.nonNull(xsvPath);
+        Utils.nonNull(indexPath);
+
+        final String signature = createIndexSignature(xsvPath, delim, keyColumn, keyType, numHeaderLinesToIgnore, permissiveColumns);
+        try ( final PathLineIterator pathLineIterator = new PathLineIterator(xsvPath);
+              final SimpleKeyXsvIndex.Writer writer = new SimpleKeyXsvIndex.Writer(indexPath, signature) ) {
+            final Iterator<String> it = pathLineIterator.iterator();
+            final int numAnnotationColumns = readHeaderColumns(it, xsvPath, delim, numHeaderLinesToIgnore).size() - 1;
+            parseDataRows(it, xsvPath, delim, keyColumn, keyType, numAnnotationColumns, numHeaderLinesToIgnore, permissiveColumns, writer::add);
+        }
+    }
 
-    private List<Funcotation> createDefaultFuncotationsOnVariantHelper( final VariantContext variant, final ReferenceContext referenceContext, final Set<Allele> annotatedAltAlleles  ) {
+    /**
+     * Checks whether the index at {@code indexPath} was compiled from the current contents of the given XSV file with
+     * the given parsing settings.
+     * @return {@code true} if the index exists and matches the XSV file and settings; {@code false} if it should be (re)compiled.
+     */
+    public static boolean isIndexUpToDate(final Path xsvPath,
+                                          final Path indexPath,
+                                          final String delim,
+                                          final int keyColumn,
+                                          final XsvDataKeyType keyType,
+                                          final int numHeaderLinesToIgnore,
+                                          final boolean permissiveColumns) {
+        Utils.nonNull(xsvPath);
+        Utils.nonNull(indexPath);
 
-        final List<Funcotation> funcotationList = new ArrayList<>();
+        if ( !Files.exists(indexPath) ) {
+            return false;
+        }
+        try {
+            return SimpleKeyXsvIndex.load(indexPath).getSignature().equals(
+                    createIndexSignature(xsvPath, delim, keyColumn, keyType, numHeaderLinesToIgnore, permissiveColumns));
+        }
+        catch (final UserException.MalformedFile ex) {
+            return false;
+        }
+    }
 
-        final List<Allele> alternateAlleles = variant.getAlternateAlleles();
+    /**
+     * @return A signature of the XSV file (its size and modification time) and the settings used to parse it, stored in
+     * a compiled index so that an index is only used with the file and settings it was compiled for.
+     */
+    private static String createIndexSignature(final Path xsvPath,
+                                               final String delim,
+                                               final int keyColumn,
+                                               final XsvDataKeyType keyType,
+                                               final int numHeaderLinesToIgnore,
+                                               final boolean permissiveColumns) {
+        final long fileSize;
+        final long lastModified;
+        try {
+            fileSize = Files.size(xsvPath);
+            lastModified = Files.getLastModifiedTime(xsvPath).toMillis();
+        }
+        catch (final IOException ex) {
+            throw new UserException.CouldNotReadInputFile(xsvPath, "Could not get the size and modification time of the data source file", ex);
+        }
+        return String.join("\t",
+                "size=" + fileSize,
+                "lastModified=" + lastModified,
+                "delimiter=" + delim,
+                "keyColumn=" + keyColumn,
+                "keyType=" + keyType,
+                "headerLinesToIgnore=" + numHeaderLinesToIgnore,
+                "permissiveColumns=" + permissiveColumns);
+    }
 
-        for ( final Allele altAllele : alternateAlleles ) {
-            if ( !annotatedAltAlleles.contains(altAllele) ) {
-                funcotationList.add(TableFuncotation.create(annotationColumnNames, emptyAnnotationList, altAllele, name, null));
-            }
+    /**
+     * Opens the compiled index of the given XSV file, if there is one on the local file system that was compiled with
+     * the given signature.
+     * @return The opened {@link SimpleKeyXsvIndex}, or {@code null} if there is no usable index.
+     */
+    private static SimpleKeyXsvIndex openIndex(final Path xsvPath, final String signature) {
+        final Path indexPath = SimpleKeyXsvIndex.getIndexPath(xsvPath);
+        if ( !indexPath.getFileSystem().equals(FileSystems.getDefault()) || !Files.exists(indexPath) ) {
+            return null;
         }
 
-        return funcotationList;
+        final SimpleKeyXsvIndex index = SimpleKeyXsvIndex.load(indexPath);
+        if ( !index.getSignature().equals(signature) ) {
+            logger.warn("Ignoring out of date XSV data source index " + indexPath.toUri() + " - please recompile it with CompileFuncotatorDataSources.  Loading the data source into memory instead.");
+            return null;
+        }
+
+        logger.info("Using compiled XSV data source index (" + index.getNumKeys() + " keys): " + indexPath.toUri());
+        return index;
     }
 
     /**
-     * Creates the annotation column names from the given iterator.
+     * Reads the header row of an XSV file from the given iterator.
      * @param lineIterator An iterator at the start of an XSV file from which to get the header columns.
      * @param numHeaderLinesToIgnore The number of lines at the start of the file to ignore before beginning parsing.
+     * @return The trimmed names of all columns in the header row, including the key column.
      */
-    private List<String> createColumnNames(final Iterator<String> lineIterator,
-                                            final int numHeaderLinesToIgnore) {
+    private static List<String> readHeaderColumns(final Iterator<String> lineIterator,
+                                                  final Path xsvInputPath,
+                                                  final String delimiter,
+                                                  final int numHeaderLinesToIgnore) {
         // Ignore the leading lines that we were told to ignore:
         for ( int i = 0; i < numHeaderLinesToIgnore ; ++i ) {
             lineIterator.next();
         }
 
-        // We're at the header, so we need to initialize the header columns,
-        // And fix the column headers to not contain any spaces:
-        final List<String> annotationColumnNames =
+        final List<String> columnNames =
                 Utils.split(lineIterator.next(), delimiter).stream()
                         .map(n -> n.replaceAll("^\\s+", "").replaceAll("\\s+$", ""))
-                        .map(n -> getName() + "_" + n.replaceAll(" ", "_"))
                         .collect(Collectors.toCollection(ArrayList::new));
 
         // If the number of columns is < 2, we don't have any data (because we don't add in the column containing
         // the key).  This is an error:
-        if ( annotationColumnNames.size() < 2 ) {
-            throw new UserException.MalformedFile("Data Source is badly formatted (" + xsvInputPath.toUri().toString() + ") - contains too few columns (" + annotationColumnNames.size() + ")!  Is the delimiter specified incorrectly?");
+        if ( columnNames.size() < 2 ) {
+            throw new UserException.MalformedFile("Data Source is badly formatted (" + xsvInputPath.toUri().toString() + ") - contains too few columns (" + columnNames.size() + ")!  Is the delimiter specified incorrectly?");
         }
 
-        // Pull out the column containing the key so it doesn't appear in our data:
-        annotationColumnNames.remove(keyColumn);
-
-        return annotationColumnNames;
+        return columnNames;
     }
 
     /**
-     * Populates {@link SimpleKeyXsvFuncotationFactory#annotationMap} with data from the given iterator.
-     * Assumes that {@link SimpleKeyXsvFuncotationFactory#annotationColumnNames} is populated.
+     * Parses the data rows of an XSV file from the given iterator and hands each row to {@code rowConsumer}.
      * @param it An {@link Iterator} of {@link String} starting at the first data line in the file to parse.
+     * @param numAnnotationColumns The number of columns in the header, not counting the key column.
      * @param permissiveColumnNumbers A flag which if true indicates to allow mismatches between the number of columns in the header row and data rows.
      *                                In the event of a mismatch, the data row with either be padded to the number of columns in the header
      *                                or it will be truncated to match the number of columns in the header.
+     * @param rowConsumer Receives the key and the annotation values (without the key) of each row.
      */
-    private void populateAnnotationMap(final Iterator<String> it,
-                                       final boolean permissiveColumnNumbers) {
+    private static void parseDataRows(final Iterator<String> it,
+                                      final Path xsvInputPath,
+                                      final String delimiter,
+                                      final int keyColumn,
+                                      final XsvDataKeyType keyType,
+                                      final int numAnnotationColumns,
+                                      final int numHeaderLinesToIgnore,
+                                      final boolean permissiveColumnNumbers,
+                                      final BiConsumer<String, List<String>> rowConsumer) {
 
         boolean emptyLineFlag = false;
 
@@ -380,28 +525,80 @@ public class SimpleKeyXsvFuncotationFactory extends DataSourceFuncotationFactory
             }
 
             // Make sure we have the same number of columns:
-            if ( (dataRow.size() != annotationColumnNames.size()) ) {
+            if ( (dataRow.size() != numAnnotationColumns) ) {
                 if ( !permissiveColumnNumbers ) {
-                    throw new UserException.MalformedFile("Data Source is badly formatted (" + xsvInputPath.toUri().toString() + ") - row " + dataRowNum + " does not contain the same number of columns as header (" + dataRow.size() + " != " + annotationColumnNames.size() + ")!");
+                    throw new UserException.MalformedFile("Data Source is badly formatted (" + xsvInputPath.toUri().toString() + ") - row " + dataRowNum + " does not contain the same number of columns as header (" + dataRow.size() + " != " + numAnnotationColumns + ")!");
                 }
-                else if ( dataRow.size() > annotationColumnNames.size() ) {
+                else if ( dataRow.size() > numAnnotationColumns ) {
                     dataRow.remove(dataRow.size()-1);
                 }
                 else {
-                    while ( dataRow.size() < annotationColumnNames.size() ) {
+                    while ( dataRow.size() < numAnnotationColumns ) {
                         dataRow.add( "" );
                     }
                 }
             }
 
-            // Store this in our map:
-            annotationMap.put(rowKey, dataRow);
+            // Hand off this row:
+            rowConsumer.accept(rowKey, dataRow);
 
             // Increment our row counter:
             ++dataRowNum;
         }
     }
 
+    //==================================================================================================================
+    // Instance Methods:
+
+    private List<Funcotation> createDefaultFuncotationsOnVariantHelper( final VariantContext variant, final ReferenceContext referenceContext, final Set<Allele> annotatedAltAlleles  ) {
+
+        final List<Funcotation> funcotationList = new ArrayList<>();
+
+        final List<Allele> alternateAlleles = variant.getAlternateAlleles();
+
+        for ( final Allele altAllele : alternateAlleles ) {
+            if ( !annotatedAltAlleles.contains(altAllele) ) {
+                funcotationList.add(TableFuncotation.create(annotationColumnNames, emptyAnnotationList, altAllele, name, null));
+            }
+        }
+
+        return funcotationList;
+    }
+
+    /**
+     * Looks up the annotations for the given key in the loaded map or the compiled index.
+     * @return The annotation values of the row with the given key, or {@code null} if there is no such row.
+     */
+    private List<String> getAnnotations(final String key) {
+        if ( annotationMap != null ) {
+            return annotationMap.get(key);
+        }
+        if ( lookupCache == null ) {
+            return annotationIndex.get(key);
+        }
+        return lookupCache.computeIfAbsent(key, k -> Optional.ofNullable(annotationIndex.get(k))).orElse(null);
+    }
+
+    /**
+     * Creates the annotation column names from the given iterator.
+     * @param lineIterator An iterator at the start of an XSV file from which to get the header columns.
+     * @param numHeaderLinesToIgnore The number of lines at the start of the file to ignore before beginning parsing.
+     */
+    private List<String> createColumnNames(final Iterator<String> lineIterator,
+                                            final int numHeaderLinesToIgnore) {
+        // We're at the header, so we need to initialize the header columns,
+        // And fix the column headers to not contain any spaces:
+        final List<String> annotationColumnNames =
+                readHeaderColumns(lineIterator, xsvInputPath, delimiter, numHeaderLinesToIgnore).stream()
+                        .map(n -> getName() + "_" + n.replaceAll(" ", "_"))
+                        .collect(Collectors.toCollection(ArrayList::new));
+
+        // Pull out the column containing the key so it doesn't appear in our data:
+        annotationColumnNames.remove(keyColumn);
+
+        return annotationColumnNames;
+    }
+
     //==================================================================================================================
     // Helper Data Types:
 
@@ -0,0 +1,281 @@
+package org.broadinstitute.hellbender.tools.funcotator.dataSources.xsv;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.io.IOUtils;
+
+import java.io.*;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.*;
+
+/**
+ * A compiled, memory-mapped hash index of the rows of a simple-key XSV data source
+ * (see {@link SimpleKeyXsvFuncotationFactory}).
+ *
+ * The index maps each row key to the (already split) annotation values of that row.  Opening it reads only a few
+ * header fields; the hash table and the rows are memory-mapped and paged in on demand, so a lookup touches a handful
+ * of pages and the table never has to be held on the heap.
+ *
+ * The index is created once per data source (see {@code CompileFuncotatorDataSources}) and is picked up automatically
+ * by {@link SimpleKeyXsvFuncotationFactory} if it exists next to the XSV file with the extension
+ * {@link #INDEX_EXTENSION} and was compiled with the same parsing settings.
+ *
+ * File layout: a 4-byte magic number, a 4-byte format version, the settings signature the index was compiled with,
+ * the number of keys, the number of hash buckets (a power of two), the offset of the row record of each bucket (or
+ * {@code -1} if the bucket is empty), and then the row records.  Collisions are resolved by linear probing.
+ */
+public final class SimpleKeyXsvIndex {
+
+    private static final Logger logger = LogManager.getLogger(SimpleKeyXsvIndex.class);
+
+    /**
+     * The extension added to the path of an XSV file to get the path of its compiled index.
+     */
+    public static final String INDEX_EXTENSION = ".skidx";
+
+    private static final int MAGIC_NUMBER = 0x534B4958; // "SKIX"
+    private static final int FORMAT_VERSION = 1;
+
+    private static final long EMPTY_BUCKET = -1L;
+
+    private final String signature;
+    private final int numKeys;
+    private final int bucketMask;
+    private final MappedByteBuffer buckets;
+    private final MappedByteBuffer records;
+
+    private SimpleKeyXsvIndex(final String signature, final int numKeys, final int numBuckets,
+                              final MappedByteBuffer buckets, final MappedByteBuffer records) {
+        this.signature = signature;
+        this.numKeys = numKeys;
+        this.bucketMask = numBuckets - 1;
+        this.buckets = buckets;
+        this.records = records;
+    }
+
+    /**
+     * @param xsvPath path to an XSV data source file
+     * @return the path at which the compiled index for the given XSV file is expected
+     */
+    public static Path getIndexPath(final Path xsvPath) {
+        Utils.nonNull(xsvPath);
+        return IOUtils.getPath(xsvPath.toUri().toString() + INDEX_EXTENSION);
+    }
+
+    /**
+     * Opens a compiled XSV index.  The index must be on the local file system to be memory-mapped.
+     * @param indexPath path to an index written by a {@link Writer}
+     * @return the opened {@link SimpleKeyXsvIndex}
+     */
+    public static SimpleKeyXsvIndex load(final Path indexPath) {
+        Utils.nonNull(indexPath);
+
+        try ( final FileChannel channel = FileChannel.open(indexPath, StandardOpenOption.READ) ) {
+            final DataInputStream in = new DataInputStream(new BufferedInputStream(Channels.newInputStream(channel)));
+            if ( in.readInt() != MAGIC_NUMBER ) {
+                throw new UserException.MalformedFile(indexPath, "Not an XSV data source index.");
+            }
+            final int version = in.readInt();
+            if ( version != FORMAT_VERSION ) {
+                throw new UserException.MalformedFile(indexPath, "Unsupported XSV data source index version " + version + ", expected " + FORMAT_VERSION + ".  Please recompile the index.");
+            }
+            final byte[] signatureBytes = new byte[in.readInt()];
+            in.readFully(signatureBytes);
+            final int numKeys = in.readInt();
+            final int numBuckets = in.readInt();
+            if ( numBuckets <= 0 || Integer.bitCount(numBuckets) != 1 ) {
+                throw new UserException.MalformedFile(indexPath, "XSV data source index has an invalid number of hash buckets: " + numBuckets);
+            }
+
+            final long bucketsOffset = 5 * Integer.BYTES + (long) signatureBytes.length;
+            final long recordsOffset = bucketsOffset + (long) numBuckets * Long.BYTES;
+            if ( channel.size() < recordsOffset ) {
+                throw new UserException.MalformedFile(indexPath, "XSV data source index is truncated.");
+            }
+            final long recordsLength = channel.size() - recordsOffset;
+            if ( recordsLength > Integer.MAX_VALUE ) {
+                throw new UserException.BadInput("XSV data source index " + indexPath.toUri() + " is too large to be memory-mapped: " + recordsLength + " bytes of rows");
+            }
+
+            return new SimpleKeyXsvIndex(
+                    new String(signatureBytes, StandardCharsets.UTF_8),
+                    numKeys,
+                    numBuckets,
+                    channel.map(FileChannel.MapMode.READ_ONLY, bucketsOffset, (long) numBuckets * Long.BYTES),
+                    channel.map(FileChannel.MapMode.READ_ONLY, recordsOffset, recordsLength));
+        }
+        catch (final IOException ex) {
+            throw new UserException.CouldNotReadInputFile(indexPath, "Could not read XSV data source index", ex);
+        }
+    }
+
+    /**
+     * @return The settings signature this index was compiled with.
+     */
+    public String getSignature() {
+        return signature;
+    }
+
+    /**
+     * @return The number of distinct keys in this index.
+     */
+    public int getNumKeys() {
+        return numKeys;
+    }
+
+    /**
+     * Looks up the annotation values of the row with the given key.  Safe to call from multiple threads.
+     * @param key The row key to look up.  Must not be {@code null}.
+     * @return The annotation values of the row with the given key, or {@code null} if there is no such row.
+     */
+    public List<String> get(final String key) {
+        Utils.nonNull(key);
+        final byte[] keyBytes = key.getBytes(StandardCharsets.UTF_8);
+
+        // Duplicate the buffer so that concurrent lookups don't share a position:
+        final ByteBuffer view = records.duplicate();
+        for ( int bucket = bucketFor(key, bucketMask); ; bucket = (bucket + 1) & bucketMask ) {
+            final long offset = buckets.getLong(bucket * Long.BYTES);
+            if ( offset == EMPTY_BUCKET ) {
+                return null;
+            }
+            view.position((int) offset);
+            if ( Arrays.equals(readBytes(view), keyBytes) ) {
+                final int numValues = view.getInt();
+                final List<String> values = new ArrayList<>(numValues);
+                for ( int i = 0; i < numValues; ++i ) {
+                    values.add(new String(readBytes(view), StandardCharsets.UTF_8));
+                }
+                return values;
+            }
+        }
+    }
+
+    private static int bucketFor(final String key, final int bucketMask) {
+        // String::hashCode is fixed by the language specification, so it is stable across JVMs:
+        final int hash = key.hashCode();
+        return (hash ^ (hash >>> 16)) & bucketMask;
+    }
+
+    private static byte[] readBytes(final ByteBuffer buffer) {
+        final byte[] bytes = new byte[buffer.getInt()];
+        buffer.get(bytes);
+        return bytes;
+    }
+
+    private static void writeBytes(final DataOutputStream out, final byte[] bytes) throws IOException {
+        out.writeInt(bytes.length);
+        out.write(bytes);
+    }
+
+    //==================================================================================================================
+    // Helper Data Types:
+
+    /**
+     * Writes a {@link SimpleKeyXsvIndex} from rows added one at a time.  Only the keys and the offsets of their rows are
+     * kept in memory; the rows themselves are streamed to a temporary file and copied into the index on {@link #close()}.
+     * If the same key is added more than once, the last row wins (as when loading the XSV file into a map).
+     */
+    public static final class Writer implements Closeable {
+        private final Path indexPath;
+        private final String signature;
+        private final Path recordsPath;
+        private final DataOutputStream recordsOut;
+        private final Map<String, Long> recordOffsets = new LinkedHashMap<>();
+
+        /**
+         * @param indexPath path to which to write the index
+         * @param signature the settings signature to store in the index, checked by readers before using it
+         */
+        public Writer(final Path indexPath, final String signature) {
+            this.indexPath = Utils.nonNull(indexPath);
+            this.signature = Utils.nonNull(signature);
+            try {
+                recordsPath = Files.createTempFile(indexPath.toAbsolutePath().getParent(), indexPath.getFileName().toString(), ".tmp");
+                recordsOut = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(recordsPath)));
+            }
+            catch (final IOException ex) {
+                throw new UserException.CouldNotCreateOutputFile(indexPath.toUri().toString(), "Could not write XSV data source index", ex);
+            }
+        }
+
+        /**
+         * Adds a row to the index.
+         * @param key The key of the row.  Must not be {@code null}.
+         * @param values The annotation values of the row (without the key).  Must not be {@code null}.
+         */
+        public void add(final String key, final List<String> values) {
+            Utils.nonNull(key);
+            Utils.nonNull(values);
+            try {
+                recordOffsets.put(key, (long) recordsOut.size());
+                writeBytes(recordsOut, key.getBytes(StandardCharsets.UTF_8));
+                recordsOut.writeInt(values.size());
+                for ( final String value : values ) {
+                    writeBytes(recordsOut, value.getBytes(StandardCharsets.UTF_8));
+                }
+                // DataOutputStream::size saturates at Integer.MAX_VALUE, which is also the most we can map:
+                if ( recordsOut.size() == Integer.MAX_VALUE ) {
+                    throw new UserException.BadInput("Too much data to index in XSV data source for " + indexPath.toUri());
+                }
+            }
+            catch (final IOException ex) {
+                throw new UserException.CouldNotCreateOutputFile(indexPath.toUri().toString(), "Could not write XSV data source index", ex);
+            }
+        }
+
+        @Override
+        public void close() {
+            try {
+                recordsOut.close();
+
+                // Keep the table at most half full so that probe sequences stay short:
+                final int numBuckets = Integer.highestOneBit(Math.max(1, recordOffsets.size()) * 2 - 1) << 1;
+                final long[] bucketOffsets = new long[numBuckets];
+                Arrays.fill(bucketOffsets, EMPTY_BUCKET);
+                for ( final Map.Entry<String, Long> entry : recordOffsets.entrySet() ) {
+                    int bucket = bucketFor(entry.getKey(), numBuckets - 1);
+                    while ( bucketOffsets[bucket] != EMPTY_BUCKET ) {
+                        bucket = (bucket + 1) & (numBuckets - 1);
+                    }
+                    bucketOffsets[bucket] = entry.getValue();
+                }
+
+                try ( final DataOutputStream out = new DataOutputStream(new BufferedOutputStream(Files.newOutputStream(indexPath))) ) {
+                    final byte[] signatureBytes = signature.getBytes(StandardCharsets.UTF_8);
+                    out.writeInt(MAGIC_NUMBER);
+                    out.writeInt(FORMAT_VERSION);
+                    writeBytes(out, signatureBytes);
+                    out.writeInt(recordOffsets.size());
+                    out.writeInt(numBuckets);
+                    for ( final long offset : bucketOffsets ) {
+                        out.writeLong(offset);
+                    }
+                    Files.copy(recordsPath, out);
+                }
+
+                logger.info("Compiled " + recordOffsets.size() + " rows into " + indexPath.toUri());
+            }
+            catch (final IOException ex) {
+                throw new UserException.CouldNotCreateOutputFile(indexPath.toUri().toString(), "Could not write XSV data source index", ex);
+            }
+            finally {
+                try {
+                    Files.deleteIfExists(recordsPath);
+                }
+                catch (final IOException ex) {
+                    logger.warn("Could not delete temporary file " + recordsPath.toUri(), ex);
+                }
+            }
+        }
+    }
+}
@@ -1,5 +1,6 @@
 package org.broadinstitute.hellbender.tools.spark.bwa;
 
+import org.broadinstitute.barclay.argparser.Advanced;
 import org.broadinstitute.barclay.argparser.Argument;
 import org.broadinstitute.hellbender.tools.BwaMemIndexImageCreator;
 
@@ -15,6 +16,7 @@ public class BwaArgumentCollection implements Serializable {
     public static final String SINGLE_END_ALIGNMENT_SHORT_NAME = "se";
     public static final String BWA_MEM_INDEX_IMAGE_FULL_NAME = "bwa-mem-index-image";
     public static final String BWA_MEM_INDEX_IMAGE_SHORT_NAME = "image";
+    public static final String BWA_MEM_INDEX_IMAGE_LOCAL_DIR_FULL_NAME = "bwa-mem-index-image-local-dir";
 
     /**
      * The BWA-MEM index image file name that you've distributed to each executor. The image file can be generated using
@@ -27,6 +29,18 @@ public class BwaArgumentCollection implements Serializable {
             optional = true)
     public String indexImageFile;
 
+    /**
+     * A directory on local disk, the same on every node, into which the BWA-MEM index image is copied once per node.
+     * All the executors on a node then memory-map that one copy and so share its memory, which makes it practical to
+     * run more, smaller executors per node. When this argument is given, the index image (or the default image next to
+     * the reference) may be on any file system that GATK can read, and it is not distributed to each executor.
+     */
+    @Advanced
+    @Argument(doc = "A local directory, the same on every node, into which the BWA-MEM index image is copied once per node and shared by all its executors",
+            fullName = BWA_MEM_INDEX_IMAGE_LOCAL_DIR_FULL_NAME,
+            optional = true)
+    public String indexImageLocalDirectory;
+
     /**
      * Run single-end instead of paired-end alignment.
      */
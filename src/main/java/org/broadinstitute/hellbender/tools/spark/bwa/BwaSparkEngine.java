@@ -33,6 +33,7 @@ public final class BwaSparkEngine implements AutoCloseable {
     private final JavaSparkContext ctx;
     private final String indexFileName;
     private final boolean resolveIndexFileName;
+    private final String indexImageLocalDirectory;
     private final Broadcast<SAMFileHeader> broadcastHeader;
 
     /**
@@ -48,10 +49,34 @@ public final class BwaSparkEngine implements AutoCloseable {
                           final String indexFileName,
                           SAMFileHeader inputHeader,
                           final SAMSequenceDictionary refDictionary) {
+        this(ctx, referenceFile, indexFileName, null, inputHeader, refDictionary);
+    }
+
+    /**
+     * @param ctx           the Spark context
+     * @param referenceFile the path to the reference file named <i>_prefix_.fa</i>, which is used to find the image file with name <i>_prefix_.fa.img</i>.
+     *                      Can be <code>null</code> if the indexFileName is provided.
+     * @param indexFileName the index image file name that already exists, or <code>null</code> to use the image file next to the reference.
+     * @param indexImageLocalDirectory a local directory, the same on every node, into which the image file is copied once per node
+     *                      and shared by all the executors on that node (see {@link BwaMemIndexCache#getSharedInstance}),
+     *                      or <code>null</code> to load the image file in each executor as usual.
+     * @param inputHeader   the SAM file header to use for reads
+     * @param refDictionary the sequence dictionary to use for reads if the SAM file header doesn't have one (or it's empty)
+     */
+    public BwaSparkEngine(final JavaSparkContext ctx,
+                          final String referenceFile,
+                          final String indexFileName,
+                          final String indexImageLocalDirectory,
+                          SAMFileHeader inputHeader,
+                          final SAMSequenceDictionary refDictionary) {
         Utils.nonNull(referenceFile);
         Utils.nonNull(inputHeader);
         this.ctx = ctx;
-        if (indexFileName != null) {
+        this.indexImageLocalDirectory = indexImageLocalDirectory;
+        if (indexImageLocalDirectory != null) {
+            this.indexFileName = indexFileName != null ? indexFileName : referenceFile + REFERENCE_INDEX_IMAGE_FILE_SUFFIX;
+            this.resolveIndexFileName = false;
+        } else if (indexFileName != null) {
             this.indexFileName = indexFileName;
             this.resolveIndexFileName = false;
         } else {
@@ -100,8 +125,10 @@ public final class BwaSparkEngine implements AutoCloseable {
         final Broadcast<SAMFileHeader> broadcastHeader = this.broadcastHeader;
         final String indexFileName = this.indexFileName;
         final boolean resolveIndexFileName = this.resolveIndexFileName;
+        final String indexImageLocalDirectory = this.indexImageLocalDirectory;
         return unalignedReads.mapPartitions(itr ->
-                new ReadAligner(resolveIndexFileName ? SparkFiles.get(indexFileName) : indexFileName, broadcastHeader.value(), pairedAlignment).apply(itr));
+                new ReadAligner(resolveIndexFileName ? SparkFiles.get(indexFileName) : indexFileName, indexImageLocalDirectory,
+                                broadcastHeader.value(), pairedAlignment).apply(itr));
     }
 
     @Override
@@ -118,8 +145,10 @@ public final class BwaSparkEngine implements AutoCloseable {
         // assumes 128Mb partitions, with reads needing about 100bytes each when BAM compressed
         private static final int READS_PER_PARTITION_GUESS = 1500000;
 
-        ReadAligner( final String indexFileName, final SAMFileHeader readsHeader, final boolean alignsPairs) {
-            this.bwaMemIndex = BwaMemIndexCache.getInstance(indexFileName);
+        ReadAligner( final String indexFileName, final String indexImageLocalDirectory,
+                     final SAMFileHeader readsHeader, final boolean alignsPairs) {
+            this.bwaMemIndex = indexImageLocalDirectory == null ? BwaMemIndexCache.getInstance(indexFileName) :
+                    BwaMemIndexCache.getSharedInstance(indexFileName, indexImageLocalDirectory);
             this.readsHeader = readsHeader;
             this.alignsPairs = alignsPairs;
             if ( alignsPairs && readsHeader.getSortOrder() != SAMFileHeader.SortOrder.queryname ) {
@@ -24,7 +24,8 @@ public final class PSBwaAligner {
     private final boolean pairedAlignment;
 
     public PSBwaAligner(final PSBwaArgumentCollection bwaArgs, final boolean pairedAlignment) {
-        this.bwaIndex = BwaMemIndexCache.getInstance(bwaArgs.bwaImage);
+        this.bwaIndex = bwaArgs.bwaImageLocalDirectory == null ? BwaMemIndexCache.getInstance(bwaArgs.bwaImage) :
+                BwaMemIndexCache.getSharedInstance(bwaArgs.bwaImage, bwaArgs.bwaImageLocalDirectory);
         this.bwaArgs = bwaArgs;
         this.pairedAlignment = pairedAlignment;
     }
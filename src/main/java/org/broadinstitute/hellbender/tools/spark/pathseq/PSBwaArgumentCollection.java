@@ -1,5 +1,6 @@
 package org.broadinstitute.hellbender.tools.spark.pathseq;
 
+import org.broadinstitute.barclay.argparser.Advanced;
 import org.broadinstitute.barclay.argparser.Argument;
 
 import java.io.Serializable;
@@ -8,6 +9,7 @@ public final class PSBwaArgumentCollection implements Serializable {
     private static final long serialVersionUID = 1L;
 
     public static final String MICROBE_BWA_IMAGE_LONG_NAME = "microbe-bwa-image";
+    public static final String MICROBE_BWA_IMAGE_LOCAL_DIR_LONG_NAME = "microbe-bwa-image-local-dir";
     public static final String MICROBE_REF_DICT_LONG_NAME = "microbe-dict";
     public static final String MICROBE_MIN_SEED_LENGTH_LONG_NAME = "microbe-min-seed-length";
     public static final String MAX_ALT_HITS_LONG_NAME = "max-alternate-hits";
@@ -17,6 +19,16 @@ public final class PSBwaArgumentCollection implements Serializable {
             fullName = MICROBE_BWA_IMAGE_LONG_NAME)
     public String bwaImage;
 
+    /**
+     * If this is given, the microbe BWA image may be on any file system that GATK can read. It is copied into this
+     * directory once per node, and all the executors on the node share that copy's memory.
+     */
+    @Advanced
+    @Argument(doc = "A local directory, the same on every node, into which the microbe BWA image is copied once per node and shared by all its executors",
+            fullName = MICROBE_BWA_IMAGE_LOCAL_DIR_LONG_NAME,
+            optional = true)
+    public String bwaImageLocalDirectory = null;
+
     @Argument(fullName = MICROBE_REF_DICT_LONG_NAME,
             doc = "Use the given sequence dictionary as the microbe sequence dictionary.  Must be a .dict file.")
     public String microbeDictionary = null;
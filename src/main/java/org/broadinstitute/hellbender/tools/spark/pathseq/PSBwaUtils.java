@@ -6,6 +6,7 @@ import htsjdk.samtools.SAMSequenceRecord;
 import org.apache.logging.log4j.Logger;
 import org.apache.spark.api.java.JavaRDD;
 import org.broadinstitute.hellbender.tools.spark.sv.utils.SVUtils;
+import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.read.GATKRead;
 import org.broadinstitute.hellbender.utils.reference.ReferenceUtils;
 
@@ -39,7 +40,25 @@ public final class PSBwaUtils {
     static SAMFileHeader removeUnmappedHeaderSequences(final SAMFileHeader header,
                                                        final JavaRDD<GATKRead> reads,
                                                        final Logger logger) {
-        final List<String> usedSequences = PSBwaUtils.getAlignedSequenceNames(reads);
+        return removeUnusedHeaderSequences(header, PSBwaUtils.getAlignedSequenceNames(reads), logger);
+    }
+
+    /**
+     * Returns header with sequences that were aligned to at least once in reads held in memory
+     */
+    static SAMFileHeader removeUnmappedHeaderSequences(final SAMFileHeader header,
+                                                       final Collection<GATKRead> reads,
+                                                       final Logger logger) {
+        final List<String> usedSequences = reads.stream()
+                .flatMap(read -> Utils.stream(PSBwaUtils.getSequenceNames(read)))
+                .distinct()
+                .collect(Collectors.toList());
+        return removeUnusedHeaderSequences(header, usedSequences, logger);
+    }
+
+    private static SAMFileHeader removeUnusedHeaderSequences(final SAMFileHeader header,
+                                                             final List<String> usedSequences,
+                                                             final Logger logger) {
         final List<SAMSequenceRecord> usedSequenceRecords = usedSequences.stream()
                 .map(seqName -> header.getSequence(seqName))
                 .filter(seq -> {
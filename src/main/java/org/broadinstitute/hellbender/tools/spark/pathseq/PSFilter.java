@@ -36,7 +36,7 @@ public final class PSFilter implements AutoCloseable {
     private final PSFilterArgumentCollection filterArgs;
     private final SAMFileHeader header;
 
-    private static final List<String> ADAPTER_SEQUENCES = CollectionUtil.makeList(
+    static final List<String> ADAPTER_SEQUENCES = CollectionUtil.makeList(
             IlluminaAdapterPair.SINGLE_END.get5PrimeAdapter(),
             IlluminaAdapterPair.SINGLE_END.get3PrimeAdapter(),
             IlluminaAdapterPair.PAIRED_END.get5PrimeAdapter(),
@@ -45,12 +45,12 @@ public final class PSFilter implements AutoCloseable {
             IlluminaAdapterPair.INDEXED.get3PrimeAdapter()
     );
 
-    private final static int REPEAT_WINDOW_SIZE_1 = 30;
-    private final static int MAX_AT_CONTENT_1 = 29;
-    private final static int MAX_GC_CONTENT_1 = 29;
-    private final static int REPEAT_WINDOW_SIZE_2= 100;
-    private final static int MAX_AT_CONTENT_2 = 87;
-    private final static int MAX_GC_CONTENT_2 = 89;
+    final static int REPEAT_WINDOW_SIZE_1 = 30;
+    final static int MAX_AT_CONTENT_1 = 29;
+    final static int MAX_GC_CONTENT_1 = 29;
+    final static int REPEAT_WINDOW_SIZE_2= 100;
+    final static int MAX_AT_CONTENT_2 = 87;
+    final static int MAX_GC_CONTENT_2 = 89;
 
     public PSFilter(final JavaSparkContext ctx, final PSFilterArgumentCollection filterArgs,
                     final SAMFileHeader header) {
@@ -59,7 +59,7 @@ public final class PSFilter implements AutoCloseable {
         this.ctx = ctx;
         this.filterArgs = filterArgs;
         this.header = header;
-        validateFilterArguments();
+        validateFilterArguments(filterArgs, header);
     }
 
     @VisibleForTesting
@@ -74,7 +74,7 @@ public final class PSFilter implements AutoCloseable {
     /**
      * Returns input read with alignment-related info cleared
      */
-    private static GATKRead clearReadAlignment(final GATKRead read, final SAMFileHeader header) {
+    static GATKRead clearReadAlignment(final GATKRead read, final SAMFileHeader header) {
         final GATKRead newRead = new SAMRecordToGATKReadAdapter(new SAMRecord(header));
         newRead.setName(read.getName());
         newRead.setBases(read.getBases());
@@ -103,7 +103,7 @@ public final class PSFilter implements AutoCloseable {
     /**
      * Sets proper pairedness flags
      */
-    private static Iterator<GATKRead> setPartitionUnpairedFlags(final Iterator<GATKRead> iter, final int readsPerPartitionGuess) {
+    static Iterator<GATKRead> setPartitionUnpairedFlags(final Iterator<GATKRead> iter, final int readsPerPartitionGuess) {
         final Tuple2<List<GATKRead>, List<GATKRead>> lists = getPairedAndUnpairedLists(iter, readsPerPartitionGuess);
         final List<GATKRead> pairedReadsList = lists._1;
         final List<GATKRead> unpairedReadsList = lists._2;
@@ -176,7 +176,7 @@ public final class PSFilter implements AutoCloseable {
     /**
      * Validate arguments
      */
-    private void validateFilterArguments() {
+    static void validateFilterArguments(final PSFilterArgumentCollection filterArgs, final SAMFileHeader header) {
         final SAMSequenceDictionary dictionary = header.getSequenceDictionary();
         if (filterArgs.alignedInput) {
             final Set<String> contigsToIgnoreSet = new HashSet<>(filterArgs.alignmentContigsToIgnore);
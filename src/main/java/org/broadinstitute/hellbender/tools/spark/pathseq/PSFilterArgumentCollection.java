@@ -50,7 +50,8 @@ public final class PSFilterArgumentCollection implements Serializable {
             optional = true)
     public boolean alignedInput = false;
 
-    @Argument(doc = "Path to host k-mer file generated with PathSeqBuildKmers. K-mer filtering is skipped if this is not specified.",
+    @Argument(doc = "Path to host k-mer file generated with PathSeqBuildKmers. K-mer filtering is skipped if this is not specified. " +
+            "Memory-mapped k-mer files must be on local disk at this path on every executor.",
             fullName = KMER_FILE_PATH_LONG_NAME,
             optional = true)
     public String kmerFilePath = null;
@@ -13,9 +13,11 @@ import org.broadinstitute.hellbender.tools.spark.sv.utils.SVKmerizer;
 import org.broadinstitute.hellbender.tools.spark.utils.LargeLongHopscotchSet;
 import org.broadinstitute.hellbender.tools.spark.utils.LongBloomFilter;
 import org.broadinstitute.hellbender.utils.gcs.BucketUtils;
+import org.broadinstitute.hellbender.utils.io.IOUtils;
 import org.broadinstitute.hellbender.utils.reference.ReferenceBases;
 
 import java.io.IOException;
+import java.nio.file.Path;
 import java.util.ArrayList;
 import java.util.Collection;
 import java.util.Map;
@@ -27,6 +29,8 @@ public class PSKmerUtils {
 
     public static final String HOPSCOTCH_SET_EXTENSION = ".hss";
     public static final String BLOOM_FILTER_EXTENSION = ".bfi";
+    public static final String MAPPED_HOPSCOTCH_SET_EXTENSION = ".mhss";
+    public static final String MAPPED_BLOOM_FILTER_EXTENSION = ".mbfi";
     private static final Logger logger = LogManager.getLogger(PSKmerUtils.class);
 
     /**
@@ -127,7 +131,43 @@ public class PSKmerUtils {
         writeKryoObject(bloomFilter, filePath);
     }
 
+    /**
+     * Builds a memory-mappable hash set of the kmers (see {@link PSMappedKmerCollection}) directly in a local file
+     */
+    public static void writeMappedKmerSet(final String path, final Collection<long[]> maskedKmers, final long numLongs,
+                                          final int kmerSize, final SVKmerShort kmerMask) {
+        PSMappedKmerCollection.writeHashSet(getLocalPath(addExtensionIfMissing(path, MAPPED_HOPSCOTCH_SET_EXTENSION)),
+                maskedKmers, numLongs, kmerSize, kmerMask);
+    }
+
+    /**
+     * Writes a Bloom filter of the kmers to a local file that can be memory-mapped (see {@link PSMappedKmerCollection})
+     */
+    public static void writeMappedKmerBloomFilter(final String path, final LongBloomFilter maskedKmerBloomFilter, final long numElements,
+                                                  final int kmerSize, final SVKmerShort kmerMask) {
+        PSMappedKmerCollection.writeBloomFilter(getLocalPath(addExtensionIfMissing(path, MAPPED_BLOOM_FILTER_EXTENSION)),
+                maskedKmerBloomFilter, numElements, kmerSize, kmerMask);
+    }
+
+    private static String addExtensionIfMissing(final String path, final String extension) {
+        return path.toLowerCase().endsWith(extension.toLowerCase()) ? path : path + extension;
+    }
+
+    private static Path getLocalPath(final String path) {
+        if (BucketUtils.isRemoteStorageUrl(path)) {
+            throw new UserException.BadInput("Memory-mapped kmer files must be on local disk, but got " + path);
+        }
+        return IOUtils.getPath(path);
+    }
+
+    /**
+     * Files with the {@link #MAPPED_HOPSCOTCH_SET_EXTENSION} or {@link #MAPPED_BLOOM_FILTER_EXTENSION} extensions are
+     * memory-mapped, so they must be available on local disk (at the same path on every executor when running on Spark)
+     */
     public static PSKmerCollection readKmerFilter(final String uri) {
+        if (uri.endsWith(MAPPED_HOPSCOTCH_SET_EXTENSION) || uri.endsWith(MAPPED_BLOOM_FILTER_EXTENSION)) {
+            return PSMappedKmerCollection.map(getLocalPath(uri));
+        }
         final Input input = new Input(BucketUtils.openFile(uri));
         final Kryo kryo = new Kryo();
         if (uri.endsWith(HOPSCOTCH_SET_EXTENSION)) {
@@ -0,0 +1,191 @@
+package org.broadinstitute.hellbender.tools.spark.pathseq;
+
+import htsjdk.samtools.SAMFileHeader;
+import org.broadinstitute.hellbender.engine.filters.AmbiguousBaseReadFilter;
+import org.broadinstitute.hellbender.engine.filters.ReadFilter;
+import org.broadinstitute.hellbender.engine.filters.ReadLengthReadFilter;
+import org.broadinstitute.hellbender.tools.spark.pathseq.loggers.PSFilterMetrics;
+import org.broadinstitute.hellbender.tools.spark.sv.utils.SVUtils;
+import org.broadinstitute.hellbender.transformers.*;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.bwa.BwaMemIndexCache;
+import org.broadinstitute.hellbender.utils.read.GATKRead;
+import scala.Tuple2;
+
+import java.util.*;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Performs the PathSeq filtering steps of {@link PSFilter} on reads held in memory, without Spark.
+ *
+ * <p>Steps that act on each read independently (quality filtering, k-mer filtering and host alignment) are applied to
+ * batches of reads with {@link #filterBatch}, which may be called concurrently from multiple threads. The remaining
+ * steps (deduplication and pairing), which require all of the reads, are then applied once with {@link #finish}.</p>
+ */
+public final class PSLocalFilter implements AutoCloseable {
+
+    private final PSFilterArgumentCollection filterArgs;
+    private final SAMFileHeader header;
+    private final ReadFilter prealignedHostFilter;
+    private final ReadFilter kmerFilter;
+
+    private final ReadTransformer stripMateNumberTransformer = new StripMateNumberTransformer();
+    private final ReadTransformer adapterTrimTransformer;
+    private final ReadTransformer repeatMaskTransformer1 = new SimpleRepeatMaskTransformer(PSFilter.MAX_AT_CONTENT_1, PSFilter.MAX_GC_CONTENT_1, PSFilter.REPEAT_WINDOW_SIZE_1);
+    private final ReadTransformer repeatMaskTransformer2 = new SimpleRepeatMaskTransformer(PSFilter.MAX_AT_CONTENT_2, PSFilter.MAX_GC_CONTENT_2, PSFilter.REPEAT_WINDOW_SIZE_2);
+    private final ReadTransformer dustTransformer;
+    private final ReadTransformer baseQualityClipTransformer;
+    private final ReadFilter readLengthFilter;
+    private final ReadTransformer baseQualityTransformer;
+    private final ReadFilter ambiguousBaseFilter;
+
+    private final LongAdder numPrimaryReads = new LongAdder();
+    private final LongAdder numReadsAfterPrealignedHostFilter = new LongAdder();
+    private final LongAdder numReadsAfterQualityFilter = new LongAdder();
+    private final LongAdder numReadsAfterHostFilter = new LongAdder();
+    private long numReadsAfterDeduplication;
+    private long numFinalPairedReads;
+
+    public PSLocalFilter(final PSFilterArgumentCollection filterArgs, final SAMFileHeader header) {
+        Utils.nonNull(filterArgs, "Filter arguments cannot be null");
+        Utils.nonNull(header, "Header cannot be null");
+        this.filterArgs = filterArgs;
+        this.header = header;
+        PSFilter.validateFilterArguments(filterArgs, header);
+
+        prealignedHostFilter = filterArgs.alignedInput
+                ? new HostAlignmentReadFilter(filterArgs.minIdentity, Collections.unmodifiableSet(new HashSet<>(filterArgs.alignmentContigsToIgnore)))
+                : null;
+        kmerFilter = filterArgs.kmerFilePath != null ? new ContainsKmerReadFilter(filterArgs.kmerFilePath, filterArgs.hostKmerThresh) : null;
+
+        adapterTrimTransformer = new AdapterTrimTransformer(filterArgs.maxAdapterMismatches, filterArgs.minAdapterLength, PSFilter.ADAPTER_SEQUENCES);
+        dustTransformer = new DUSTReadTransformer(filterArgs.dustMask, filterArgs.dustW, filterArgs.dustT);
+        baseQualityClipTransformer = new BaseQualityClipReadTransformer(filterArgs.readTrimThresh);
+        readLengthFilter = new ReadLengthReadFilter(filterArgs.minReadLength, Integer.MAX_VALUE);
+        baseQualityTransformer = new BaseQualityReadTransformer(filterArgs.qualPhredThresh);
+        ambiguousBaseFilter = new AmbiguousBaseReadFilter(filterArgs.maxAmbiguousBases);
+    }
+
+    /**
+     * Applies the per-read filtering steps and host alignment filtering to a batch of reads. Returns the reads that
+     * passed, in their original order. Thread-safe.
+     */
+    public List<GATKRead> filterBatch(final List<GATKRead> reads) {
+        Utils.nonNull(reads, "Input reads cannot be null");
+        List<GATKRead> result = new ArrayList<>(reads.size());
+        for (GATKRead read : reads) {
+            if (read.isSecondaryAlignment() || read.isSupplementaryAlignment()) continue;
+            numPrimaryReads.increment();
+
+            if (prealignedHostFilter != null && !prealignedHostFilter.test(read)) continue;
+            numReadsAfterPrealignedHostFilter.increment();
+
+            read = PSFilter.clearReadAlignment(read, header);
+            read = stripMateNumberTransformer.apply(read);
+            if (!filterArgs.skipFilters) {
+                read = applyQualityFilters(read);
+                if (read == null) continue;
+            }
+            numReadsAfterQualityFilter.increment();
+
+            if (kmerFilter != null && !kmerFilter.test(read)) continue;
+            result.add(read);
+        }
+
+        if (filterArgs.indexImageFile != null) {
+            final Iterator<GATKRead> hostFilteredReads = new PSBwaFilter(filterArgs.indexImageFile, filterArgs.minIdentity,
+                    filterArgs.minSeedLength, filterArgs.bwaThreads, false).apply(result.iterator());
+            result = new ArrayList<>(result.size());
+            hostFilteredReads.forEachRemaining(result::add);
+        }
+        numReadsAfterHostFilter.add(result.size());
+        return result;
+    }
+
+    /**
+     * Same steps, in the same order, as the quality filtering in {@link PSFilter#doFilter}.
+     * Returns null if the read was filtered out.
+     */
+    private GATKRead applyQualityFilters(GATKRead read) {
+        read = adapterTrimTransformer.apply(read);
+        read = repeatMaskTransformer1.apply(read);
+        read = repeatMaskTransformer2.apply(read);
+        read = dustTransformer.apply(read);
+        read = baseQualityClipTransformer.apply(read);
+        if (!readLengthFilter.test(read)) return null;
+        read = baseQualityTransformer.apply(read);
+        if (!ambiguousBaseFilter.test(read)) return null;
+        return read;
+    }
+
+    /**
+     * Deduplicates and pairs the reads returned by all calls to {@link #filterBatch}.
+     * Returns a tuple containing the paired reads, with mates adjacent, and the unpaired reads.
+     */
+    public Tuple2<List<GATKRead>, List<GATKRead>> finish(List<GATKRead> reads) {
+        Utils.nonNull(reads, "Input reads cannot be null");
+        if (filterArgs.filterDuplicates) {
+            reads = setPairFlags(reads);
+            reads = filterDuplicateSequences(reads);
+        }
+        numReadsAfterDeduplication = reads.size();
+
+        //Sets pairedness flags properly
+        reads = setPairFlags(reads);
+        final List<GATKRead> clearedReads = new ArrayList<>(reads.size());
+        for (final GATKRead read : reads) {
+            clearedReads.add(PSFilter.clearReadAlignment(read, header));
+        }
+
+        final Tuple2<List<GATKRead>, List<GATKRead>> result = PSFilter.getPairedAndUnpairedLists(clearedReads.iterator(), clearedReads.size());
+        numFinalPairedReads = result._1.size();
+        return result;
+    }
+
+    private static List<GATKRead> setPairFlags(final List<GATKRead> reads) {
+        final List<GATKRead> result = new ArrayList<>(reads.size());
+        PSFilter.setPartitionUnpairedFlags(reads.iterator(), reads.size()).forEachRemaining(result::add);
+        return result;
+    }
+
+    /**
+     * Keeps one read per canonical sequence, preferring unpaired reads as in {@link PSFilter#filterDuplicateSequences}
+     */
+    private static List<GATKRead> filterDuplicateSequences(final List<GATKRead> reads) {
+        final Map<Long, GATKRead> readsBySequence = new LinkedHashMap<>(SVUtils.hashMapCapacity(reads.size()));
+        for (final GATKRead read : reads) {
+            final Long key = PSFilter.canonicalizeRead(read)._1;
+            final GATKRead keptRead = readsBySequence.get(key);
+            if (keptRead == null || (keptRead.isPaired() && !read.isPaired())) {
+                readsBySequence.put(key, read);
+            }
+        }
+        return new ArrayList<>(readsBySequence.values());
+    }
+
+    /**
+     * Returns read counts after each step. Call only after {@link #finish}.
+     */
+    public PSFilterMetrics getMetrics() {
+        final PSFilterMetrics metrics = new PSFilterMetrics();
+        metrics.PRIMARY_READS = numPrimaryReads.sum();
+        metrics.READS_AFTER_PREALIGNED_HOST_FILTER = numReadsAfterPrealignedHostFilter.sum();
+        metrics.READS_AFTER_QUALITY_AND_COMPLEXITY_FILTER = numReadsAfterQualityFilter.sum();
+        metrics.READS_AFTER_HOST_FILTER = numReadsAfterHostFilter.sum();
+        metrics.READS_AFTER_DEDUPLICATION = numReadsAfterDeduplication;
+        metrics.FINAL_PAIRED_READS = numFinalPairedReads;
+        metrics.computeDerivedMetrics();
+        return metrics;
+    }
+
+    /**
+     * Releases the host BWA index and k-mer library, which must be done before loading the microbe BWA index
+     */
+    @Override
+    public void close() {
+        if (filterArgs.indexImageFile != null) {
+            BwaMemIndexCache.closeInstance(filterArgs.indexImageFile);
+        }
+        ContainsKmerReadFilter.closeKmerLib();
+    }
+}
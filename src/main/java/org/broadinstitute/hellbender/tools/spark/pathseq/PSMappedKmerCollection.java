@@ -0,0 +1,151 @@
+package org.broadinstitute.hellbender.tools.spark.pathseq;
+
+import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.tools.spark.sv.utils.SVKmerShort;
+import org.broadinstitute.hellbender.tools.spark.utils.LongBloomFilter;
+import org.broadinstitute.hellbender.tools.spark.utils.MappedLongBloomFilter;
+import org.broadinstitute.hellbender.tools.spark.utils.MappedLongHashSet;
+import org.broadinstitute.hellbender.utils.Utils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.function.LongPredicate;
+
+/**
+ * Kmer hash set or Bloom filter that is memory-mapped from a local file and queried in place, rather than deserialized
+ * onto the heap. All tasks and executors on a machine share the page-cached file, so startup is nearly instantaneous
+ * and executors do not need heap for the kmers.
+ * <p>
+ * The file begins with a 32-byte header containing 8 magic bytes identifying the type of collection, the kmer size,
+ * the kmer mask, and the false positive probability, followed by a {@link MappedLongHashSet} or {@link MappedLongBloomFilter}.
+ */
+public final class PSMappedKmerCollection extends PSKmerCollection {
+
+    private static final byte[] HASH_SET_MAGIC = {'P', 'S', 'K', 'M', 'H', 'S', 'S', 1};
+    private static final byte[] BLOOM_FILTER_MAGIC = {'P', 'S', 'K', 'M', 'B', 'F', 'I', 1};
+    private static final int HEADER_BYTES = 32;
+
+    private final LongPredicate maskedKmers;
+    private final int kmerSize;
+    private final SVKmerShort kmerMask;
+    private final double falsePositiveProbability;
+
+    private PSMappedKmerCollection(final LongPredicate maskedKmers, final int kmerSize, final SVKmerShort kmerMask,
+                                   final double falsePositiveProbability) {
+        this.maskedKmers = maskedKmers;
+        this.kmerSize = kmerSize;
+        this.kmerMask = kmerMask;
+        this.falsePositiveProbability = falsePositiveProbability;
+    }
+
+    /**
+     * Memory-maps a kmer file written by {@link #writeHashSet} or {@link #writeBloomFilter}
+     */
+    public static PSMappedKmerCollection map(final Path path) {
+        Utils.nonNull(path);
+        try (final FileChannel channel = FileChannel.open(path, StandardOpenOption.READ)) {
+            final ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+            while (header.hasRemaining()) {
+                if (channel.read(header) < 0) {
+                    throw new UserException.BadInput("Kmer file is truncated: " + path);
+                }
+            }
+            header.flip();
+            final byte[] magic = new byte[HASH_SET_MAGIC.length];
+            header.get(magic);
+            final int kmerSize = header.getInt();
+            header.getInt();
+            final SVKmerShort kmerMask = new SVKmerShort(header.getLong());
+            final double falsePositiveProbability = header.getDouble();
+            //the mapping remains valid after the channel is closed
+            if (Arrays.equals(magic, HASH_SET_MAGIC)) {
+                final MappedLongHashSet set = MappedLongHashSet.map(channel, HEADER_BYTES);
+                return new PSMappedKmerCollection(set::contains, kmerSize, kmerMask, falsePositiveProbability);
+            } else if (Arrays.equals(magic, BLOOM_FILTER_MAGIC)) {
+                final MappedLongBloomFilter bloomFilter = MappedLongBloomFilter.map(channel, HEADER_BYTES);
+                return new PSMappedKmerCollection(bloomFilter::contains, kmerSize, kmerMask, falsePositiveProbability);
+            }
+            throw new UserException.BadInput("Not a memory-mappable kmer file: " + path);
+        } catch (final IOException e) {
+            throw new UserException.CouldNotReadInputFile(path, e);
+        }
+    }
+
+    /**
+     * Builds a hash set of the kmers directly in the file. Note kmers should have been run through canonicalizeAndMask().
+     * @param numLongs  total number of kmers in the collection, including duplicates
+     */
+    public static void writeHashSet(final Path path, final Collection<long[]> maskedKmers, final long numLongs,
+                                    final int kmerSize, final SVKmerShort kmerMask) {
+        try (final FileChannel channel = openForWriting(path)) {
+            writeHeader(channel, HASH_SET_MAGIC, kmerSize, kmerMask, 0);
+            MappedLongHashSet.write(channel, HEADER_BYTES, maskedKmers, numLongs);
+        } catch (final IOException e) {
+            throw new UserException.CouldNotCreateOutputFile(path.toString(), "Could not write kmer hash set", e);
+        }
+    }
+
+    /**
+     * Writes a Bloom filter of kmers that have been run through canonicalizeAndMask().
+     */
+    public static void writeBloomFilter(final Path path, final LongBloomFilter maskedKmerBloomFilter, final long numElements,
+                                        final int kmerSize, final SVKmerShort kmerMask) {
+        try (final FileChannel channel = openForWriting(path)) {
+            writeHeader(channel, BLOOM_FILTER_MAGIC, kmerSize, kmerMask, maskedKmerBloomFilter.getTheoreticalFPP(numElements));
+            MappedLongBloomFilter.write(channel, HEADER_BYTES, maskedKmerBloomFilter);
+        } catch (final IOException e) {
+            throw new UserException.CouldNotCreateOutputFile(path.toString(), "Could not write kmer Bloom filter", e);
+        }
+    }
+
+    private static FileChannel openForWriting(final Path path) throws IOException {
+        Utils.nonNull(path);
+        return FileChannel.open(path, StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING,
+                StandardOpenOption.READ, StandardOpenOption.WRITE);
+    }
+
+    private static void writeHeader(final FileChannel channel, final byte[] magic, final int kmerSize,
+                                     final SVKmerShort kmerMask, final double falsePositiveProbability) throws IOException {
+        Utils.nonNull(kmerMask);
+        final ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(ByteOrder.LITTLE_ENDIAN);
+        header.put(magic);
+        header.putInt(kmerSize);
+        header.putInt(0);
+        header.putLong(kmerMask.getLong());
+        header.putDouble(falsePositiveProbability);
+        header.flip();
+        long position = 0;
+        while (header.hasRemaining()) {
+            position += channel.write(header, position);
+        }
+    }
+
+    /**
+     * Input should not be canonicalized/masked
+     */
+    @Override
+    public boolean contains(final SVKmerShort rawKmer) {
+        return maskedKmers.test(canonicalizeAndMask(rawKmer, kmerSize, kmerMask));
+    }
+
+    @Override
+    public int kmerSize() {
+        return kmerSize;
+    }
+
+    @Override
+    public SVKmerShort getMask() {
+        return kmerMask;
+    }
+
+    @Override
+    public double getFalsePositiveProbability() {
+        return falsePositiveProbability;
+    }
+}
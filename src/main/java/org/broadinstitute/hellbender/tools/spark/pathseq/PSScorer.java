@@ -68,15 +68,43 @@ public final class PSScorer {
                 .mapPartitionsToPair(iter -> computeTaxScores(iter, taxonomyDatabaseBroadcast.value(), divideByGenomeLength));
 
         //Reduce scores by taxon and compute normalized scores
-        Map<Integer, PSPathogenTaxonScore> taxScoresMap = new HashMap<>(taxScoresRdd.reduceByKey(PSPathogenTaxonScore::add).collectAsMap());
-        taxScoresMap = computeNormalizedScores(taxScoresMap, taxDB.tree, scoreArgs.notNormalizedByKingdom);
-
-        //Write scores to file
-        writeScoresFile(taxScoresMap, taxDB.tree, scoreArgs.scoresPath);
+        final Map<Integer, PSPathogenTaxonScore> taxScoresMap = new HashMap<>(taxScoresRdd.reduceByKey(PSPathogenTaxonScore::add).collectAsMap());
+        writeScores(taxScoresMap, taxDB);
 
         return readsFinal;
     }
 
+    /**
+     * Scores a batch of aligned reads without Spark, setting the HITS_TAG of each read that has hits. Paired reads must
+     * be adjacent to their mates. Returns the unnormalized scores of the batch, which can be combined across batches
+     * with {@link PSPathogenTaxonScore#add} and then passed to {@link #writeScores}.
+     */
+    public Map<Integer, PSPathogenTaxonScore> scoreReadBatch(final List<GATKRead> reads,
+                                                            final boolean paired,
+                                                            final PSTaxonomyDatabase taxDB) {
+        Utils.nonNull(reads, "Reads cannot be null");
+        Utils.nonNull(taxDB, "Taxonomy database cannot be null");
+        final Iterator<Iterable<GATKRead>> groupedReads = paired
+                ? groupPairedReadsPartition(reads.iterator(), reads.size())
+                : reads.stream().map(read -> (Iterable<GATKRead>) Collections.singletonList(read)).iterator();
+        final List<PSPathogenAlignmentHit> alignmentHits = new ArrayList<>(paired ? reads.size() / 2 : reads.size());
+        while (groupedReads.hasNext()) {
+            alignmentHits.add(getAlignmentHit(groupedReads.next(), scoreArgs.minIdentity, scoreArgs.identityMargin, taxDB));
+        }
+        final Map<Integer, PSPathogenTaxonScore> taxScores = new HashMap<>();
+        computeTaxScores(alignmentHits.iterator(), taxDB, scoreArgs.divideByGenomeLength)
+                .forEachRemaining(tuple -> taxScores.put(tuple._1, tuple._2));
+        return taxScores;
+    }
+
+    /**
+     * Computes normalized scores from the unnormalized scores of all reads and writes them to the scores file
+     */
+    public void writeScores(final Map<Integer, PSPathogenTaxonScore> taxScoresMap, final PSTaxonomyDatabase taxDB) {
+        final Map<Integer, PSPathogenTaxonScore> normalizedScoresMap = computeNormalizedScores(taxScoresMap, taxDB.tree, scoreArgs.notNormalizedByKingdom);
+        writeScoresFile(normalizedScoresMap, taxDB.tree, scoreArgs.scoresPath);
+    }
+
     /**
      * Collects the second elements of all tuples in an RDD
      */
@@ -168,41 +196,50 @@ public final class PSScorer {
                                                                                             final double minIdentity,
                                                                                             final double identityMargin,
                                                                                             final Broadcast<PSTaxonomyDatabase> taxonomyDatabaseBroadcast) {
-        return pairs.map(readIter -> {
+        return pairs.map(readIter -> new Tuple2<>(readIter,
+                getAlignmentHit(readIter, minIdentity, identityMargin, taxonomyDatabaseBroadcast.value())));
+    }
 
-            //Number of reads in the pair (1 for unpaired reads)
-            final int numReads = (int) Utils.stream(readIter).count();
+    /**
+     * Gets the hits of a single read or pair for mapGroupedReadsToTax(). Also sets HITS_TAG on the reads.
+     */
+    private static PSPathogenAlignmentHit getAlignmentHit(final Iterable<GATKRead> readIter,
+                                                          final double minIdentity,
+                                                          final double identityMargin,
+                                                          final PSTaxonomyDatabase taxonomyDatabase) {
 
-            //Get tax IDs of all alignments in all reads that meet the coverage/identity criteria.
-            final Stream<Integer> taxIds = Utils.stream(readIter)
-                    .flatMap(read -> getValidHits(read, taxonomyDatabaseBroadcast.value(), minIdentity, identityMargin).stream());
+        //Number of reads in the pair (1 for unpaired reads)
+        final int numReads = (int) Utils.stream(readIter).count();
 
-            //Get list of tax IDs that are hits in all reads
-            final List<Integer> hitTaxIds;
-            if (numReads > 1) {
+        //Get tax IDs of all alignments in all reads that meet the coverage/identity criteria.
+        final Stream<Integer> taxIds = Utils.stream(readIter)
+                .flatMap(read -> getValidHits(read, taxonomyDatabase, minIdentity, identityMargin).stream());
 
-                //Group the flattened stream by tax id, e.g. 3453 -> {3453, 3453}, 938 -> {938}, etc., so that the
-                // length of the list is the number of reads with that tax ID. Then map the lists to list lengths.
-                final Map<Integer, Long> taxIdCounts = taxIds.collect(Collectors.groupingBy(e -> e, Collectors.counting()));
+        //Get list of tax IDs that are hits in all reads
+        final List<Integer> hitTaxIds;
+        if (numReads > 1) {
 
-                //Filter hits that didn't occur in all reads
-                hitTaxIds = taxIdCounts.entrySet().stream().map(entry -> entry.getValue() == numReads ? entry.getKey() : null)
-                        .filter(Objects::nonNull).collect(Collectors.toList());
+            //Group the flattened stream by tax id, e.g. 3453 -> {3453, 3453}, 938 -> {938}, etc., so that the
+            // length of the list is the number of reads with that tax ID. Then map the lists to list lengths.
+            final Map<Integer, Long> taxIdCounts = taxIds.collect(Collectors.groupingBy(e -> e, Collectors.counting()));
 
-            } else {
-                //Unpaired reads
-                hitTaxIds = taxIds.collect(Collectors.toList());
-            }
+            //Filter hits that didn't occur in all reads
+            hitTaxIds = taxIdCounts.entrySet().stream().map(entry -> entry.getValue() == numReads ? entry.getKey() : null)
+                    .filter(Objects::nonNull).collect(Collectors.toList());
 
-            final PSPathogenAlignmentHit info = new PSPathogenAlignmentHit(hitTaxIds, numReads);
+        } else {
+            //Unpaired reads
+            hitTaxIds = taxIds.collect(Collectors.toList());
+        }
 
-            //If there was at least one hit, append a tag to each read with the list of hits
-            if (hitTaxIds.size() > 0) {
-                final String hitString = String.join(",", hitTaxIds.stream().map(String::valueOf).collect(Collectors.toList()));
-                Utils.stream(readIter).forEach(read -> read.setAttribute(HITS_TAG, hitString));
-            }
-            return new Tuple2<>(readIter, info);
-        });
+        final PSPathogenAlignmentHit info = new PSPathogenAlignmentHit(hitTaxIds, numReads);
+
+        //If there was at least one hit, append a tag to each read with the list of hits
+        if (hitTaxIds.size() > 0) {
+            final String hitString = String.join(",", hitTaxIds.stream().map(String::valueOf).collect(Collectors.toList()));
+            Utils.stream(readIter).forEach(read -> read.setAttribute(HITS_TAG, hitString));
+        }
+        return info;
     }
 
 
@@ -32,6 +32,12 @@ import java.util.Collection;
  *
  * <p>Note that the file formats used for storing these k-mer data structures are only readable by the PathSeq tools.</p>
  *
+ * <p>With --memory-mapped, either structure is written in a format that PathSeq memory-maps and queries in place
+ * instead of loading it onto the Java heap. All tasks on a machine then share a single copy of the k-mers in the
+ * operating system's page cache, which greatly reduces startup time and executor memory. The hash set is also built
+ * directly in the output file, so building it requires far less heap. Memory-mapped files must be on local disk
+ * wherever they are used.</p>
+ *
  * <h3>Input</h3>
  * <ul>
  *     <li>An indexed host reference in FASTA format</li>
@@ -87,10 +93,13 @@ public final class PathSeqBuildKmers extends CommandLineProgram {
     public static final String KMER_MASK_SHORT_NAME = "M";
     public static final String KMER_SPACING_LONG_NAME = "kmer-spacing";
     public static final String KMER_SPACING_SHORT_NAME = "SP";
+    public static final String MEMORY_MAPPED_LONG_NAME = "memory-mapped";
 
     @Argument(doc = "File for k-mer set output. Extension will be automatically added if not present ("
             + PSKmerUtils.HOPSCOTCH_SET_EXTENSION + " for hash set or "
-            + PSKmerUtils.BLOOM_FILTER_EXTENSION + " for Bloom filter)",
+            + PSKmerUtils.BLOOM_FILTER_EXTENSION + " for Bloom filter, or "
+            + PSKmerUtils.MAPPED_HOPSCOTCH_SET_EXTENSION + " and "
+            + PSKmerUtils.MAPPED_BLOOM_FILTER_EXTENSION + " for memory-mapped files)",
             shortName = StandardArgumentDefinitions.OUTPUT_SHORT_NAME,
             fullName = StandardArgumentDefinitions.OUTPUT_LONG_NAME)
     public String outputFile;
@@ -147,6 +156,16 @@ public final class PathSeqBuildKmers extends CommandLineProgram {
             optional = true)
     public int kmerSpacing = 1;
 
+    /**
+     * Memory-mapped k-mer files are queried in place rather than loaded onto the heap, so all tasks on a machine share
+     * one copy of the file in the page cache and PathSeq starts much faster with much smaller executors. The file must
+     * be on local disk wherever it is used, e.g. at the same path on every Spark executor.
+     */
+    @Argument(doc = "Write the k-mer set in a format that is memory-mapped when it is used, rather than loaded onto the heap",
+            fullName = MEMORY_MAPPED_LONG_NAME,
+            optional = true)
+    public boolean memoryMapped = false;
+
     /**
      * Get the list of distinct kmers in the reference, and write them to a file as a HopScotch set or Bloom filter.
      */
@@ -166,7 +185,14 @@ public final class PathSeqBuildKmers extends CommandLineProgram {
             final LongBloomFilter bloomFilter = PSKmerUtils.longArrayCollectionToBloomFilter(maskedKmerCollection, numLongs, bloomFpp);
             final PSKmerBloomFilter kmerBloomFilter = new PSKmerBloomFilter(bloomFilter, kmerSize, kmerMask, numLongs);
             logger.info("Theoretical Bloom filter false positive probability: " + kmerBloomFilter.getFalsePositiveProbability());
-            PSKmerUtils.writeKmerBloomFilter(outputFile, kmerBloomFilter);
+            if (memoryMapped) {
+                PSKmerUtils.writeMappedKmerBloomFilter(outputFile, bloomFilter, numLongs, kmerSize, kmerMask);
+            } else {
+                PSKmerUtils.writeKmerBloomFilter(outputFile, kmerBloomFilter);
+            }
+        } else if (memoryMapped) {
+            logger.info("Building memory-mapped kmer hash set...");
+            PSKmerUtils.writeMappedKmerSet(outputFile, maskedKmerCollection, numLongs, kmerSize, kmerMask);
         } else {
             logger.info("Building kmer hash set...");
             final LargeLongHopscotchSet kmerHopscotchSet = PSKmerUtils.longArrayCollectionToSet(maskedKmerCollection, numLongs);
@@ -0,0 +1,304 @@
+package org.broadinstitute.hellbender.tools.spark.pathseq;
+
+import com.google.common.collect.Lists;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
+import htsjdk.samtools.SAMFileHeader;
+import htsjdk.samtools.metrics.MetricsFile;
+import org.broadinstitute.barclay.argparser.Argument;
+import org.broadinstitute.barclay.argparser.ArgumentCollection;
+import org.broadinstitute.barclay.argparser.CommandLineProgramProperties;
+import org.broadinstitute.barclay.help.DocumentedFeature;
+import org.broadinstitute.hellbender.cmdline.GATKPlugin.GATKReadFilterPluginDescriptor;
+import org.broadinstitute.hellbender.cmdline.StandardArgumentDefinitions;
+import org.broadinstitute.hellbender.cmdline.programgroups.MetagenomicsProgramGroup;
+import org.broadinstitute.hellbender.engine.FeatureContext;
+import org.broadinstitute.hellbender.engine.ReadWalker;
+import org.broadinstitute.hellbender.engine.ReferenceContext;
+import org.broadinstitute.hellbender.exceptions.GATKException;
+import org.broadinstitute.hellbender.metrics.MetricsUtils;
+import org.broadinstitute.hellbender.tools.spark.pathseq.loggers.PSFilterMetrics;
+import org.broadinstitute.hellbender.tools.spark.pathseq.loggers.PSScoreMetrics;
+import org.broadinstitute.hellbender.utils.bwa.BwaMemIndexCache;
+import org.broadinstitute.hellbender.utils.io.IOUtils;
+import org.broadinstitute.hellbender.utils.read.GATKRead;
+import org.broadinstitute.hellbender.utils.read.ReadUtils;
+import org.broadinstitute.hellbender.utils.read.SAMFileGATKReadWriter;
+import scala.Tuple2;
+
+import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Performs all PathSeq steps on a single machine without Spark: read filtering, microbe reference alignment and
+ * abundance scoring
+ *
+ * <p>This tool runs the same pipeline as PathSeqPipelineSpark, accepts the same arguments, and produces the same
+ * outputs. See PathSeqPipelineSpark for a description of the pipeline and its reference files. Rather than
+ * distributing reads over a Spark cluster, reads are streamed from the input in batches that are processed on a
+ * pool of threads. This avoids the startup, serialization and shuffle costs of Spark and is the faster choice for
+ * processing one sample on one machine.</p>
+ *
+ * <p>Reads are filtered and aligned to the host reference as they are read from the input. The number of batches that
+ * are being processed or waiting to be processed is bounded, so that memory usage does not depend on the size of the
+ * input. The reads that pass filtering are kept in memory until the input has been read, because they must be
+ * deduplicated and paired. The host BWA index and k-mer library are then released, and the remaining reads are aligned
+ * to the microbe reference and scored in batches on the same pool of threads.</p>
+ *
+ * <p>The host and microbe BWA images are each loaded once and shared by all threads. Note that the number of reads
+ * remaining after filtering is usually a small fraction of the input, but memory must be sufficient to hold them.</p>
+ *
+ * <h3>Input</h3>
+ *
+ * <ul>
+ *     <li>BAM containing input reads (either unaligned or aligned to a host reference)</li>
+ *     <li>Host k-mer file generated using PathSeqBuildKmers</li>
+ *     <li>Host BWA-MEM index image generated using BwaMemIndexImageCreator</li>
+ *     <li>Microbe BWA-MEM index image generated using BwaMemIndexImageCreator</li>
+ *     <li>Indexed microbe reference dictionary (fasta file NOT required)</li>
+ *     <li>Taxonomy file generated using PathSeqBuildReferenceTaxonomy</li>
+ * </ul>
+ *
+ * <h3>Output</h3>
+ *
+ * <ul>
+ *     <li>Taxonomic scores table</li>
+ *     <li>Annotated BAM aligned to the microbe reference</li>
+ *     <li>Filter metrics file (optional)</li>
+ *     <li>Score metrics file (optional)</li>
+ * </ul>
+ *
+ * <h3>Usage example</h3>
+ *
+ * <pre>
+ * gatk PathSeqPipeline  \
+ *   --input input_reads.bam \
+ *   --kmer-file host_kmers.bfi \
+ *   --filter-bwa-image host_reference.img \
+ *   --microbe-bwa-image microbe_reference.img \
+ *   --microbe-dict reference.dict \
+ *   --taxonomy-file taxonomy.db \
+ *   --min-clipped-read-length 60 \
+ *   --min-score-identity 0.90 \
+ *   --identity-margin 0.02 \
+ *   --pipeline-threads 16 \
+ *   --scores-output scores.txt \
+ *   --output output_reads.bam \
+ *   --filter-metrics filter_metrics.txt \
+ *   --score-metrics score_metrics.txt
+ * </pre>
+ */
+@CommandLineProgramProperties(summary = "Performs all PathSeq steps on a single machine without Spark: read filtering, microbe reference alignment and abundance scoring",
+        oneLineSummary = "Performs all PathSeq steps without Spark: read filtering, microbe reference alignment, and abundance scoring",
+        programGroup = MetagenomicsProgramGroup.class)
+@DocumentedFeature
+public final class PathSeqPipeline extends ReadWalker {
+
+    public static final String READS_PER_BATCH_LONG_NAME = "pipeline-reads-per-batch";
+    public static final String THREADS_LONG_NAME = "pipeline-threads";
+
+    //Number of batches per thread that may be queued or in progress at once
+    private static final int MAX_PENDING_BATCHES_PER_THREAD = 2;
+    private static final long EXECUTOR_TERMINATION_POLL_SECONDS = 60;
+
+    @ArgumentCollection
+    public PSFilterArgumentCollection filterArgs = new PSFilterArgumentCollection();
+
+    @ArgumentCollection
+    public PSBwaArgumentCollection bwaArgs = new PSBwaArgumentCollection();
+
+    @ArgumentCollection
+    public PSScoreArgumentCollection scoreArgs = new PSScoreArgumentCollection();
+
+    @Argument(doc = "Output BAM",
+            fullName = StandardArgumentDefinitions.OUTPUT_LONG_NAME,
+            shortName = StandardArgumentDefinitions.OUTPUT_SHORT_NAME,
+            optional = true)
+    public String outputPath = null;
+
+    @Argument(doc = "Number of reads per batch to use for filtering, alignment and scoring.",
+            fullName = READS_PER_BATCH_LONG_NAME,
+            optional = true,
+            minValue = 100)
+    public int readsPerBatch = 5000;
+
+    @Argument(doc = "Number of threads used to process batches of reads.",
+            fullName = THREADS_LONG_NAME,
+            optional = true,
+            minValue = 1)
+    public int numThreads = 4;
+
+    private SAMFileHeader header;
+    private PSLocalFilter filter;
+    private ExecutorService executor;
+    private Deque<Future<List<GATKRead>>> pendingBatches;
+    private List<GATKRead> currentBatch;
+    private List<GATKRead> filteredReads;
+
+    @Override
+    public void onTraversalStart() {
+        filterArgs.doReadFilterArgumentWarnings(getCommandLineParser().getPluginDescriptor(GATKReadFilterPluginDescriptor.class), logger);
+        header = PSUtils.checkAndClearHeaderSequences(getHeaderForReads(), filterArgs, logger);
+        filter = new PSLocalFilter(filterArgs, header);
+
+        logger.info("Processing batches of up to " + readsPerBatch + " reads with " + numThreads + " threads");
+        final ThreadFactoryBuilder threadFactoryBuilder = new ThreadFactoryBuilder()
+                .setNameFormat("pathseq-pipeline-thread-%d")
+                .setDaemon(true);
+        executor = Executors.newFixedThreadPool(numThreads, threadFactoryBuilder.build());
+        pendingBatches = new ArrayDeque<>();
+        currentBatch = new ArrayList<>(readsPerBatch);
+        filteredReads = new ArrayList<>();
+    }
+
+    @Override
+    public void apply(final GATKRead read, final ReferenceContext referenceContext, final FeatureContext featureContext) {
+        currentBatch.add(read);
+        if (currentBatch.size() >= readsPerBatch) {
+            submitCurrentBatch();
+        }
+    }
+
+    /**
+     * Submits the current batch for filtering. If too many batches are pending, waits for the oldest one to finish so
+     * that reads are not read from the input faster than they can be filtered.
+     */
+    private void submitCurrentBatch() {
+        final List<GATKRead> batch = currentBatch;
+        currentBatch = new ArrayList<>(readsPerBatch);
+        pendingBatches.add(executor.submit(() -> filter.filterBatch(batch)));
+        if (pendingBatches.size() > MAX_PENDING_BATCHES_PER_THREAD * numThreads) {
+            filteredReads.addAll(getResult(pendingBatches.remove()));
+        }
+    }
+
+    @Override
+    public Object onTraversalSuccess() {
+
+        //Finish filtering
+        if (!currentBatch.isEmpty()) {
+            submitCurrentBatch();
+        }
+        while (!pendingBatches.isEmpty()) {
+            filteredReads.addAll(getResult(pendingBatches.remove()));
+        }
+        final Tuple2<List<GATKRead>, List<GATKRead>> filterResult = filter.finish(filteredReads);
+        filteredReads = null;
+        final List<GATKRead> pairedReads = filterResult._1;
+        final List<GATKRead> unpairedReads = filterResult._2;
+        if (filterArgs.filterMetricsFileUri != null) {
+            final MetricsFile<PSFilterMetrics, Long> filterMetricsFile = getMetricsFile();
+            filterMetricsFile.addMetric(filter.getMetrics());
+            MetricsUtils.saveMetrics(filterMetricsFile, filterArgs.filterMetricsFileUri);
+        }
+
+        //Note the host Bwa image must be unloaded before trying to load the pathogen image
+        filter.close();
+
+        //Load taxonomy database, created by running PathSeqBuildReferenceTaxonomy with this reference
+        PSBwaUtils.addReferenceSequencesToHeader(header, bwaArgs.microbeDictionary);
+        final PSTaxonomyDatabase taxDB = PSScorer.readTaxonomyDatabase(scoreArgs.taxonomyDatabasePath);
+        if (scoreArgs.headerWarningFile != null) {
+            PSScorer.writeMissingReferenceAccessions(scoreArgs.headerWarningFile, header, taxDB, logger);
+        }
+
+        //Align and score batches in parallel, keeping mates in the same batch
+        final PSScorer scorer = new PSScorer(scoreArgs);
+        final List<Future<Tuple2<List<GATKRead>, Map<Integer, PSPathogenTaxonScore>>>> alignedBatches = new ArrayList<>();
+        for (final List<GATKRead> batch : Lists.partition(pairedReads, readsPerBatch + (readsPerBatch & 1))) {
+            alignedBatches.add(executor.submit(() -> alignAndScoreBatch(batch, true, scorer, taxDB)));
+        }
+        for (final List<GATKRead> batch : Lists.partition(unpairedReads, readsPerBatch)) {
+            alignedBatches.add(executor.submit(() -> alignAndScoreBatch(batch, false, scorer, taxDB)));
+        }
+        final List<GATKRead> readsFinal = new ArrayList<>(pairedReads.size() + unpairedReads.size());
+        final Map<Integer, PSPathogenTaxonScore> taxScoresMap = new HashMap<>();
+        for (final Future<Tuple2<List<GATKRead>, Map<Integer, PSPathogenTaxonScore>>> alignedBatch : alignedBatches) {
+            final Tuple2<List<GATKRead>, Map<Integer, PSPathogenTaxonScore>> result = getResult(alignedBatch);
+            readsFinal.addAll(result._1);
+            result._2.forEach((taxId, score) -> taxScoresMap.merge(taxId, score, PSPathogenTaxonScore::add));
+        }
+        BwaMemIndexCache.closeInstance(bwaArgs.bwaImage);
+        scorer.writeScores(taxScoresMap, taxDB);
+
+        //Clean up header
+        header = PSBwaUtils.removeUnmappedHeaderSequences(header, readsFinal, logger);
+
+        //Log read counts
+        if (scoreArgs.scoreMetricsFileUri != null) {
+            final PSScoreMetrics scoreMetrics = new PSScoreMetrics();
+            scoreMetrics.MAPPED_READS = readsFinal.stream().filter(read -> read.hasAttribute(PSScorer.HITS_TAG)).count();
+            scoreMetrics.UNMAPPED_READS = readsFinal.size() - scoreMetrics.MAPPED_READS;
+            final MetricsFile<PSScoreMetrics, Long> scoreMetricsFile = getMetricsFile();
+            scoreMetricsFile.addMetric(scoreMetrics);
+            MetricsUtils.saveMetrics(scoreMetricsFile, scoreArgs.scoreMetricsFileUri);
+        }
+
+        //Write reads to BAM, if specified
+        if (outputPath != null) {
+            try (final SAMFileGATKReadWriter writer = new SAMFileGATKReadWriter(ReadUtils.createCommonSAMWriter(
+                    IOUtils.getPath(outputPath), referenceArguments.getReferencePath(), header, false,
+                    createOutputBamIndex, createOutputBamMD5))) {
+                readsFinal.forEach(writer::addRead);
+            }
+        }
+        return null;
+    }
+
+    private Tuple2<List<GATKRead>, Map<Integer, PSPathogenTaxonScore>> alignAndScoreBatch(final List<GATKRead> reads,
+                                                                                         final boolean paired,
+                                                                                         final PSScorer scorer,
+                                                                                         final PSTaxonomyDatabase taxDB) {
+        final List<GATKRead> alignedReads = new ArrayList<>(reads.size());
+        new PSBwaAligner(bwaArgs, paired).apply(reads.iterator(), header).forEachRemaining(alignedReads::add);
+        return new Tuple2<>(alignedReads, scorer.scoreReadBatch(alignedReads, paired, taxDB));
+    }
+
+    /**
+     * Waits for a task to finish, rethrowing any exception it threw
+     */
+    private static <T> T getResult(final Future<T> future) {
+        try {
+            return future.get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GATKException("Interrupted while processing reads", e);
+        } catch (final ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new GATKException("Error processing reads", e.getCause());
+        }
+    }
+
+    @Override
+    public void closeTool() {
+        if (executor != null) {
+            executor.shutdownNow();
+            //batches that are still running may be inside native BWA calls, which cannot be interrupted;
+            //they must finish before the filter and the index they use are closed below
+            boolean interrupted = false;
+            while (!executor.isTerminated()) {
+                try {
+                    if (!executor.awaitTermination(EXECUTOR_TERMINATION_POLL_SECONDS, TimeUnit.SECONDS)) {
+                        logger.info("Waiting for running batches to finish...");
+                    }
+                } catch (final InterruptedException e) {
+                    interrupted = true;
+                }
+            }
+            if (interrupted) {
+                Thread.currentThread().interrupt();
+            }
+        }
+        if (filter != null) {
+            filter.close();
+        }
+        if (bwaArgs.bwaImage != null) {
+            BwaMemIndexCache.closeInstance(bwaArgs.bwaImage);
+        }
+    }
+}
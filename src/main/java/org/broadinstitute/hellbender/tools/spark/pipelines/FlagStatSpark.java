@@ -8,11 +8,14 @@ import org.broadinstitute.barclay.help.DocumentedFeature;
 import org.broadinstitute.hellbender.cmdline.StandardArgumentDefinitions;
 import picard.cmdline.programgroups.DiagnosticsAndQCProgramGroup;
 import org.broadinstitute.hellbender.engine.spark.GATKSparkTool;
+import org.broadinstitute.hellbender.engine.spark.datasources.ReadField;
 import org.broadinstitute.hellbender.tools.FlagStat.FlagStatus;
 import org.broadinstitute.hellbender.utils.gcs.BucketUtils;
 import org.broadinstitute.hellbender.utils.read.GATKRead;
 
 import java.io.PrintStream;
+import java.util.EnumSet;
+import java.util.Set;
 
 /**
  * Spark tool to accumulate flag statistics given a BAM file, e.g. total number of reads with QC failure flag set, number of
@@ -64,6 +67,12 @@ public final class FlagStatSpark extends GATKSparkTool {
     )
     public String out;
 
+    // the read name is not needed, but the bases, qualities and read group are used by the default WellformedReadFilter
+    @Override
+    public Set<ReadField> getRequiredReadFields() {
+        return EnumSet.of(ReadField.BASES, ReadField.QUALITIES, ReadField.ATTRIBUTES);
+    }
+
     @Override
     protected void runTool(final JavaSparkContext ctx) {
         final JavaRDD<GATKRead> reads = getReads();
@@ -57,7 +57,7 @@ public final class PrintVariantsSpark extends VariantWalkerSpark {
     protected void processVariants(JavaRDD<VariantWalkerContext> rdd, JavaSparkContext ctx) {
         try {
             VariantsSparkSink.writeVariants(ctx, output, rdd.map(VariantWalkerContext::getVariant), getHeaderForVariants(),
-                    createOutputVariantIndex, false);
+                    false, null, 0, 0, createOutputVariantIndex, false, outputMergeThreads);
         } catch (IOException e) {
             throw new UserException.CouldNotCreateOutputFile(output, "writing failed", e);
         }
@@ -142,6 +142,27 @@ public class StructuralVariationDiscoveryArgumentCollection implements Serializa
         @Advanced @Argument(doc = "ZDropoff (see Bwa mem manual) for contig alignment.", fullName = "z-dropoff")
         public int zDropoff = 20;
 
+        @Advanced
+        @Argument(doc = "Number of threads with which to do local assemblies on the driver rather than on the executors. " +
+                "Intended for running on a single machine: the reads for each assembly are grouped in memory instead of " +
+                "by a shuffle, and the largest assemblies are started first. 0 means assemble on the executors.",
+                fullName = "local-assembly-threads", optional = true)
+        public int localAssemblyThreads = 0;
+
+        @Advanced
+        @Argument(doc = "Maximum number of template names to assemble for any one interval. Intervals with more " +
+                "templates are downsampled (deterministically) to this many, and are reported in the log and in the " +
+                "interval file. 0 means no cap.",
+                fullName = "max-assembly-templates", optional = true)
+        public int maxAssemblyTemplates = 0;
+
+        @Advanced
+        @Argument(doc = "Maximum number of partitions for the assembly stage. Intervals are assigned to partitions in " +
+                "order of decreasing predicted cost (number of templates), each to the partition with the least cost so far. " +
+                "0 means one partition per interval.",
+                fullName = "max-assembly-partitions", optional = true)
+        public int maxAssemblyPartitions = 0;
+
         @Argument(doc = "Allow evidence filter to run without gaps annotation (assume no gaps).", fullName = "run-without-gaps-annotation")
         public boolean runWithoutGapsAnnotation = false;
         @Argument(doc = "Allow evidence filter to run without annotation for single-read mappability of 100-mers (assume all mappable).",
@@ -256,6 +277,9 @@ public class StructuralVariationDiscoveryArgumentCollection implements Serializa
             ParamUtils.isPositive(cleanerMaxCopyNumber, "invalid value provided to cleanerMaxCopyNumber: " + cleanerMaxCopyNumber);
             ParamUtils.isPositive(assemblyToMappedSizeRatioGuess, "invalid value provided to assemblyToMappedSizeRatioGuess: " + assemblyToMappedSizeRatioGuess);
             ParamUtils.isPositive(maxFASTQSize, "invalid value provided to maxFASTQSize: " + maxFASTQSize);
+            ParamUtils.isPositiveOrZero(localAssemblyThreads, "invalid value provided to localAssemblyThreads: " + localAssemblyThreads);
+            ParamUtils.isPositiveOrZero(maxAssemblyTemplates, "invalid value provided to maxAssemblyTemplates: " + maxAssemblyTemplates);
+            ParamUtils.isPositiveOrZero(maxAssemblyPartitions, "invalid value provided to maxAssemblyPartitions: " + maxAssemblyPartitions);
             ParamUtils.isPositiveOrZero(exclusionIntervalPadding, "invalid value provided to exclusionIntervalPadding: " + exclusionIntervalPadding);
             ParamUtils.isPositive(externalEvidenceWeight, "invalid value provided to externalEvidenceWeight: " + externalEvidenceWeight);
             ParamUtils.isPositive(externalEvidenceUncertainty, "invalid value provided to externalEvidenceUncertainty: " + externalEvidenceUncertainty);
@@ -22,6 +22,7 @@ import java.io.BufferedOutputStream;
 import java.io.IOException;
 import java.io.OutputStreamWriter;
 import java.util.ArrayList;
+import java.util.Collections;
 import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
@@ -277,7 +278,21 @@ public final class AlignedAssemblyOrExcuse {
                                           final SAMFileHeader header,
                                           final List<SVInterval> intervals,
                                           final List<AlignedAssemblyOrExcuse> intervalDispositions ) {
-        Utils.validate(intervalFile != null && header != null && intervals != null && intervalDispositions != null,
+        writeIntervalFile(intervalFile, header, intervals, intervalDispositions, Collections.emptyMap(), 0);
+    }
+
+    /**
+     * As above, but also notes, for each interval whose template names were downsampled before assembly, the number
+     * of template names it had originally (downsampledTemplateCounts, keyed by interval id) and the number assembled.
+     */
+    public static void writeIntervalFile( final String intervalFile,
+                                          final SAMFileHeader header,
+                                          final List<SVInterval> intervals,
+                                          final List<AlignedAssemblyOrExcuse> intervalDispositions,
+                                          final Map<Integer, Integer> downsampledTemplateCounts,
+                                          final int maxAssemblyTemplates ) {
+        Utils.validate(intervalFile != null && header != null && intervals != null && intervalDispositions != null &&
+                        downsampledTemplateCounts != null,
                 "At least one of the arguments is null.");
 
         final Map<Integer, AlignedAssemblyOrExcuse> resultsMap = new HashMap<>();
@@ -293,7 +308,7 @@ public final class AlignedAssemblyOrExcuse {
                 Utils.nonNull(interval, "interval is null for " + intervalIdx);
                 final String seqName = contigs.get(interval.getContig()).getSequenceName();
                 final AlignedAssemblyOrExcuse alignedAssemblyOrExcuse = resultsMap.get(intervalIdx);
-                final String disposition;
+                String disposition;
                 if ( alignedAssemblyOrExcuse == null ) {
                     disposition = "unknown";
                 } else if ( alignedAssemblyOrExcuse.getErrorMessage() != null ) {
@@ -302,6 +317,10 @@ public final class AlignedAssemblyOrExcuse {
                     disposition = "produced " + alignedAssemblyOrExcuse.getAssembly().getNContigs() +
                             " contigs in " + alignedAssemblyOrExcuse.getSecondsInAssembly() + " secs.";
                 }
+                final Integer templateCount = downsampledTemplateCounts.get(intervalIdx);
+                if ( templateCount != null ) {
+                    disposition += " Downsampled from " + templateCount + " to " + maxAssemblyTemplates + " template names.";
+                }
                 writer.write(intervalIdx + "\t" +
                         seqName + ":" + interval.getStart() + "-" + interval.getEnd() + "\t" +
                         disposition + "\n");
@@ -1,6 +1,7 @@
 package org.broadinstitute.hellbender.tools.spark.sv.evidence;
 
 import com.google.common.annotations.VisibleForTesting;
+import com.google.common.util.concurrent.ThreadFactoryBuilder;
 import htsjdk.samtools.SAMFileHeader;
 import htsjdk.samtools.SAMSequenceDictionary;
 import htsjdk.samtools.SAMSequenceRecord;
@@ -38,6 +39,10 @@ import scala.Tuple2;
 
 import java.io.*;
 import java.util.*;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
 import java.util.function.Function;
 import java.util.stream.Collectors;
 
@@ -166,7 +171,7 @@ public final class FindBreakpointEvidenceSpark extends GATKSparkTool {
                 new ArrayList<>(),
                 evidenceScanResults.evidenceTargetLinks);
 
-        final HopscotchUniqueMultiMap<String, Integer, QNameAndInterval> qNamesMultiMap = evidenceScanResults.qNamesForAssemblyMultiMap;
+        HopscotchUniqueMultiMap<String, Integer, QNameAndInterval> qNamesMultiMap = evidenceScanResults.qNamesForAssemblyMultiMap;
 
         // supplement the template names with other reads that share kmers
         final List<AlignedAssemblyOrExcuse> alignedAssemblyOrExcuseList;
@@ -177,6 +182,12 @@ public final class FindBreakpointEvidenceSpark extends GATKSparkTool {
                     unfilteredReads, filter, logger);
         }
 
+        final Map<Integer, Integer> downsampledTemplateCounts = new HashMap<>();
+        if ( params.maxAssemblyTemplates > 0 ) {
+            qNamesMultiMap = capAssemblyTemplates(qNamesMultiMap, intervals.size(), params.maxAssemblyTemplates,
+                                                    downsampledTemplateCounts, logger);
+        }
+
         // write a FASTQ file for each interval
         final FermiLiteAssemblyHandler fermiLiteAssemblyHandler =
                 new FermiLiteAssemblyHandler(params.alignerIndexImageFile, params.maxFASTQSize,
@@ -185,13 +196,15 @@ public final class FindBreakpointEvidenceSpark extends GATKSparkTool {
                                                 params.expandAssemblyGraph, params.zDropoff);
         alignedAssemblyOrExcuseList.addAll(
                 handleAssemblies(ctx, qNamesMultiMap, unfilteredReads, filter, intervals.size(),
-                        params.includeMappingLocation, fermiLiteAssemblyHandler));
+                        params.includeMappingLocation, fermiLiteAssemblyHandler,
+                        params.localAssemblyThreads, params.maxAssemblyPartitions, logger));
 
         alignedAssemblyOrExcuseList.sort(Comparator.comparingInt(AlignedAssemblyOrExcuse::getAssemblyId));
 
         // record the intervals
         if ( params.intervalFile != null ) {
-            AlignedAssemblyOrExcuse.writeIntervalFile(params.intervalFile, header, intervals, alignedAssemblyOrExcuseList);
+            AlignedAssemblyOrExcuse.writeIntervalFile(params.intervalFile, header, intervals, alignedAssemblyOrExcuseList,
+                                                        downsampledTemplateCounts, params.maxAssemblyTemplates);
         }
 
         // write alignments of the assembled contigs
@@ -285,10 +298,10 @@ public final class FindBreakpointEvidenceSpark extends GATKSparkTool {
                                         params.externalEvidenceWeight, params.externalEvidenceUncertainty);
         log("External evidence retrieved.", logger);
 
-        final SVIntervalTree<SVInterval> highCoverageSubintervalTree =
+        final SVIntervalIndex<SVInterval> highCoverageSubintervalTree =
                 findGenomewideHighCoverageIntervalsToIgnore(params, readMetadata, ctx, header, unfilteredReads, filter, logger, broadcastMetadata);
 
-        final Broadcast<SVIntervalTree<SVInterval>> broadcastHighCoverageSubIntervals = ctx.broadcast(highCoverageSubintervalTree);
+        final Broadcast<SVIntervalIndex<SVInterval>> broadcastHighCoverageSubIntervals = ctx.broadcast(highCoverageSubintervalTree);
 
         final Broadcast<List<List<BreakpointEvidence>>> broadcastExternalEvidence = ctx.broadcast(externalEvidence);
         final Tuple2<List<SVInterval>, List<EvidenceTargetLink>> intervalsAndEvidenceTargetLinks =
@@ -341,7 +354,7 @@ public final class FindBreakpointEvidenceSpark extends GATKSparkTool {
         return new EvidenceScanResults(readMetadata, intervals, intervalsAndEvidenceTargetLinks._2(), qNamesMultiMap);
     }
 
-    static SVIntervalTree<SVInterval> findGenomewideHighCoverageIntervalsToIgnore(final FindBreakpointEvidenceSparkArgumentCollection params,
+    static SVIntervalIndex<SVInterval> findGenomewideHighCoverageIntervalsToIgnore(final FindBreakpointEvidenceSparkArgumentCollection params,
                                                                                   final ReadMetadata readMetadata,
                                                                                   final JavaSparkContext ctx,
                                                                                   final SAMFileHeader header,
@@ -365,7 +378,7 @@ public final class FindBreakpointEvidenceSpark extends GATKSparkTool {
         final SVIntervalTree<SVInterval> highCoverageSubintervalTree = new SVIntervalTree<>();
         highCoverageSubintervals.forEach(i -> highCoverageSubintervalTree.put(i, i));
 
-        return highCoverageSubintervalTree;
+        return new SVIntervalIndex<>(highCoverageSubintervalTree);
     }
 
     static final class EvidenceScanResults {
@@ -572,12 +585,37 @@ public final class FindBreakpointEvidenceSpark extends GATKSparkTool {
             final int nIntervals,
             final boolean includeMappingLocation,
             final LocalAssemblyHandler localAssemblyHandler ) {
+        return handleAssemblies(ctx, qNamesMultiMap, unfilteredReads, filter, nIntervals, includeMappingLocation,
+                                localAssemblyHandler, 0, 0, null);
+    }
+
+    /**
+     * As above, but if localAssemblyThreads is positive the assemblies are done on the driver (see {@link #handleAssembliesLocally}).
+     * Otherwise the intervals are spread over at most maxAssemblyPartitions partitions (or one partition per interval,
+     * if that's 0) by a {@link ComplexityPartitioner}, using the number of template names as the predicted cost.
+     */
+    @VisibleForTesting static List<AlignedAssemblyOrExcuse> handleAssemblies(
+            final JavaSparkContext ctx,
+            final HopscotchUniqueMultiMap<String, Integer, QNameAndInterval> qNamesMultiMap,
+            final JavaRDD<GATKRead> unfilteredReads,
+            final SVReadFilter filter,
+            final int nIntervals,
+            final boolean includeMappingLocation,
+            final LocalAssemblyHandler localAssemblyHandler,
+            final int localAssemblyThreads,
+            final int maxAssemblyPartitions,
+            final Logger logger ) {
+
+        if ( localAssemblyThreads > 0 ) {
+            return handleAssembliesLocally(ctx, qNamesMultiMap, unfilteredReads, filter, nIntervals,
+                                            includeMappingLocation, localAssemblyHandler, localAssemblyThreads, logger);
+        }
 
         final int[] counts = new int[nIntervals];
         for ( final QNameAndInterval qNameAndInterval : qNamesMultiMap ) {
             counts[qNameAndInterval.getIntervalId()] += 1;
         }
-        final ComplexityPartitioner partitioner = new ComplexityPartitioner(counts);
+        final ComplexityPartitioner partitioner = new ComplexityPartitioner(counts, maxAssemblyPartitions);
 
         final Broadcast<HopscotchUniqueMultiMap<String, Integer, QNameAndInterval>> broadcastQNamesMultiMap =
                 ctx.broadcast(qNamesMultiMap);
@@ -599,6 +637,133 @@ public final class FindBreakpointEvidenceSpark extends GATKSparkTool {
         return intervalDispositions;
     }
 
+    /**
+     * Limits the number of template names for each interval to maxTemplates.  The template names kept for an interval
+     * that has too many are those with the smallest hash codes, so the choice doesn't depend on the order of the
+     * multimap, and the same templates are chosen on every run.  Each interval that's downsampled is logged, and its
+     * original number of template names is put into downsampledTemplateCounts (keyed by interval id), so that it can
+     * be recorded in the interval file.
+     */
+    @VisibleForTesting static HopscotchUniqueMultiMap<String, Integer, QNameAndInterval> capAssemblyTemplates(
+            final HopscotchUniqueMultiMap<String, Integer, QNameAndInterval> qNamesMultiMap,
+            final int nIntervals,
+            final int maxTemplates,
+            final Map<Integer, Integer> downsampledTemplateCounts,
+            final Logger logger ) {
+        final int[] counts = new int[nIntervals];
+        for ( final QNameAndInterval qNameAndInterval : qNamesMultiMap ) {
+            counts[qNameAndInterval.getIntervalId()] += 1;
+        }
+        final Map<Integer, List<QNameAndInterval>> cappedIntervals = new HashMap<>();
+        for ( int intervalId = 0; intervalId != nIntervals; ++intervalId ) {
+            if ( counts[intervalId] > maxTemplates ) {
+                cappedIntervals.put(intervalId, new ArrayList<>(counts[intervalId]));
+            }
+        }
+        if ( cappedIntervals.isEmpty() ) return qNamesMultiMap;
+
+        final HopscotchUniqueMultiMap<String, Integer, QNameAndInterval> cappedMultiMap =
+                new HopscotchUniqueMultiMap<>(qNamesMultiMap.size());
+        for ( final QNameAndInterval qNameAndInterval : qNamesMultiMap ) {
+            final List<QNameAndInterval> templates = cappedIntervals.get(qNameAndInterval.getIntervalId());
+            if ( templates == null ) {
+                cappedMultiMap.add(qNameAndInterval);
+            } else {
+                templates.add(qNameAndInterval);
+            }
+        }
+        final Comparator<QNameAndInterval> hashOrder =
+                Comparator.comparingInt((QNameAndInterval qNameAndInterval) -> qNameAndInterval.getQName().hashCode())
+                        .thenComparing(QNameAndInterval::getQName);
+        for ( final Map.Entry<Integer, List<QNameAndInterval>> entry : new TreeMap<>(cappedIntervals).entrySet() ) {
+            final List<QNameAndInterval> templates = entry.getValue();
+            templates.sort(hashOrder);
+            cappedMultiMap.addAll(templates.subList(0, maxTemplates));
+            downsampledTemplateCounts.put(entry.getKey(), templates.size());
+            if ( logger != null ) {
+                log("Downsampled " + AlignedAssemblyOrExcuse.formatAssemblyID(entry.getKey()) + " from " +
+                        templates.size() + " to " + maxTemplates + " template names.", logger);
+            }
+        }
+        if ( logger != null ) {
+            log("Capped the template names of " + cappedIntervals.size() + " intervals at " + maxTemplates + ".", logger);
+        }
+        return cappedMultiMap;
+    }
+
+    /**
+     * Gathers the reads for each interval onto the driver, and does the assemblies there with a pool of threads.
+     * This is meant for running on a single machine:  the reads are grouped into per-interval lists in memory rather
+     * than by a shuffle, the aligner index is loaded just once, and assemblies are started in order of decreasing
+     * number of reads, so that the largest ones don't end up trailing at the end of the stage.
+     */
+    private static List<AlignedAssemblyOrExcuse> handleAssembliesLocally(
+            final JavaSparkContext ctx,
+            final HopscotchUniqueMultiMap<String, Integer, QNameAndInterval> qNamesMultiMap,
+            final JavaRDD<GATKRead> unfilteredReads,
+            final SVReadFilter filter,
+            final int nIntervals,
+            final boolean includeMappingLocation,
+            final LocalAssemblyHandler localAssemblyHandler,
+            final int nThreads,
+            final Logger logger ) {
+
+        final Broadcast<HopscotchUniqueMultiMap<String, Integer, QNameAndInterval>> broadcastQNamesMultiMap =
+                ctx.broadcast(qNamesMultiMap);
+        final List<Tuple2<Integer, List<SVFastqUtils.FastqRead>>> partitionReads =
+            unfilteredReads
+                .mapPartitions(readItr ->
+                        new ReadsForQNamesFinder(broadcastQNamesMultiMap.value(), nIntervals,
+                                includeMappingLocation, readItr, filter).iterator(), false)
+                .collect();
+        SparkUtils.destroyBroadcast(broadcastQNamesMultiMap, "QNames multi map");
+
+        @SuppressWarnings({ "unchecked", "rawtypes" })
+        final List<SVFastqUtils.FastqRead>[] intervalReads = new List[nIntervals];
+        for ( final Tuple2<Integer, List<SVFastqUtils.FastqRead>> readsForInterval : partitionReads ) {
+            final int intervalId = readsForInterval._1();
+            if ( intervalReads[intervalId] == null ) {
+                intervalReads[intervalId] = new ArrayList<>(readsForInterval._2());
+            } else {
+                intervalReads[intervalId].addAll(readsForInterval._2());
+            }
+        }
+        partitionReads.clear();
+
+        final List<Integer> intervalIds = new ArrayList<>(nIntervals);
+        for ( int intervalId = 0; intervalId != nIntervals; ++intervalId ) {
+            if ( intervalReads[intervalId] != null ) intervalIds.add(intervalId);
+        }
+        intervalIds.sort(Comparator.comparingInt((Integer intervalId) -> intervalReads[intervalId].size()).reversed());
+        if ( logger != null ) {
+            log("Assembling " + intervalIds.size() + " intervals locally with " + nThreads + " threads.", logger);
+        }
+
+        final ExecutorService executor = Executors.newFixedThreadPool(nThreads,
+                new ThreadFactoryBuilder().setNameFormat("local-assembly-%d").setDaemon(true).build());
+        try {
+            final List<Future<AlignedAssemblyOrExcuse>> assemblies = new ArrayList<>(intervalIds.size());
+            for ( final int intervalId : intervalIds ) {
+                final List<SVFastqUtils.FastqRead> reads = intervalReads[intervalId];
+                intervalReads[intervalId] = null;
+                assemblies.add(executor.submit(() -> localAssemblyHandler.apply(new Tuple2<>(intervalId, reads))));
+            }
+            final List<AlignedAssemblyOrExcuse> intervalDispositions = new ArrayList<>(assemblies.size());
+            for ( final Future<AlignedAssemblyOrExcuse> assembly : assemblies ) {
+                intervalDispositions.add(assembly.get());
+            }
+            return intervalDispositions;
+        } catch ( final InterruptedException e ) {
+            Thread.currentThread().interrupt();
+            throw new GATKException("Interrupted while running local assemblies", e);
+        } catch ( final ExecutionException e ) {
+            throw new GATKException("Local assembly failed", e.getCause());
+        } finally {
+            executor.shutdownNow();
+            BwaMemIndexCache.closeInstances();
+        }
+    }
+
     public static final class IntPair {
         private final int int1;
         private final int int2;
@@ -951,7 +1116,7 @@ public final class FindBreakpointEvidenceSpark extends GATKSparkTool {
             final List<SVInterval> intervals,
             final JavaRDD<GATKRead> unfilteredReads,
             final SVReadFilter filter,
-            final Broadcast<SVIntervalTree<SVInterval>> broadcastHighCoverageSubIntervals) {
+            final Broadcast<SVIntervalIndex<SVInterval>> broadcastHighCoverageSubIntervals) {
         final Broadcast<List<SVInterval>> broadcastIntervals = ctx.broadcast(intervals);
         final List<QNameAndInterval> qNameAndIntervalList =
                 unfilteredReads
@@ -981,7 +1146,7 @@ public final class FindBreakpointEvidenceSpark extends GATKSparkTool {
             final SAMFileHeader header,
             final JavaRDD<GATKRead> unfilteredReads,
             final SVReadFilter filter,
-            final Logger logger, final Broadcast<SVIntervalTree<SVInterval>> highCoverageSubintervalTree) {
+            final Logger logger, final Broadcast<SVIntervalIndex<SVInterval>> highCoverageSubintervalTree) {
         // find all breakpoint evidence, then filter for pile-ups
         final int nContigs = header.getSequenceDictionary().getSequences().size();
         final int allowedOverhang = params.allowedShortFragmentOverhang;
@@ -1,6 +1,7 @@
 package org.broadinstitute.hellbender.tools.spark.sv.evidence;
 
 import org.broadinstitute.hellbender.tools.spark.sv.utils.SVInterval;
+import org.broadinstitute.hellbender.tools.spark.sv.utils.SVIntervalIndex;
 import org.broadinstitute.hellbender.tools.spark.sv.utils.SVIntervalTree;
 import org.broadinstitute.hellbender.tools.spark.sv.StructuralVariationDiscoveryArgumentCollection.FindBreakpointEvidenceSparkArgumentCollection;
 import org.broadinstitute.hellbender.tools.spark.sv.utils.SVUtils;
@@ -65,7 +66,7 @@ public class SVReadFilter implements Serializable {
                 read.getStart() - allowedShortFragmentOverhang <= read.getMateStart();
     }
 
-    public boolean containedInRegionToIgnore(final SVInterval interval, final SVIntervalTree<SVInterval> regionsToIgnore) {
+    public boolean containedInRegionToIgnore(final SVInterval interval, final SVIntervalIndex<SVInterval> regionsToIgnore) {
         final Iterator<SVIntervalTree.Entry<SVInterval>> overlappers = regionsToIgnore.overlappers(interval);
         while (overlappers.hasNext()) {
             SVIntervalTree.Entry<SVInterval> depthFilteredInterval = overlappers.next();
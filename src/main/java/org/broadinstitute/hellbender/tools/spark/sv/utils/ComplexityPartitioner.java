@@ -1,26 +1,57 @@
 package org.broadinstitute.hellbender.tools.spark.sv.utils;
 
 import org.apache.spark.Partitioner;
+import org.broadinstitute.hellbender.utils.Utils;
 
 import java.util.Arrays;
+import java.util.PriorityQueue;
 
-/** A Spark Partitioner that puts tasks with greater complexities into earlier partitions. */
+/**
+ * A Spark Partitioner that puts tasks with greater complexities into earlier partitions.
+ * By default each task gets its own partition.  If there are more tasks than some maximum number of partitions,
+ * the tasks are dealt out in order of decreasing complexity, each to the partition with the least total complexity
+ * so far, so that the partitions are about equally expensive and the most expensive tasks are started first.
+ */
 public final class ComplexityPartitioner extends Partitioner {
     private static final long serialVersionUID = 1L;
     private final int[] partitions;
+    private final int nPartitions;
 
     public ComplexityPartitioner( final int[] complexities ) {
+        this(complexities, 0);
+    }
+
+    /** @param maxPartitions the maximum number of partitions, or 0 for one partition per task */
+    public ComplexityPartitioner( final int[] complexities, final int maxPartitions ) {
+        Utils.validateArg(maxPartitions >= 0, "maxPartitions must be non-negative");
         final Integer[] tags = new Integer[complexities.length];
         for ( int idx = 0; idx != tags.length; ++idx ) {
             tags[idx] = idx;
         }
         Arrays.sort(tags, (a, b) -> Integer.compare(complexities[b], complexities[a]));
         partitions = new int[complexities.length];
-        for ( int idx = 0; idx != tags.length; ++idx ) {
-            partitions[tags[idx]] = idx;
+        if ( maxPartitions == 0 || maxPartitions >= complexities.length ) {
+            nPartitions = complexities.length;
+            for ( int idx = 0; idx != tags.length; ++idx ) {
+                partitions[tags[idx]] = idx;
+            }
+        } else {
+            nPartitions = maxPartitions;
+            final long[] loads = new long[nPartitions];
+            final PriorityQueue<Integer> leastLoaded = new PriorityQueue<>(nPartitions,
+                    (a, b) -> loads[a] != loads[b] ? Long.compare(loads[a], loads[b]) : Integer.compare(a, b));
+            for ( int partition = 0; partition != nPartitions; ++partition ) {
+                leastLoaded.add(partition);
+            }
+            for ( final int tag : tags ) {
+                final int partition = leastLoaded.poll();
+                partitions[tag] = partition;
+                loads[partition] += complexities[tag];
+                leastLoaded.add(partition);
+            }
         }
     }
 
-    @Override public int numPartitions() { return partitions.length; }
+    @Override public int numPartitions() { return nPartitions; }
     @Override public int getPartition( final Object key ) { return partitions[(Integer)key]; }
 }
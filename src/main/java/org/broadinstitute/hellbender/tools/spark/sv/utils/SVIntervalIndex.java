@@ -0,0 +1,406 @@
+package org.broadinstitute.hellbender.tools.spark.sv.utils;
+
+import com.esotericsoftware.kryo.DefaultSerializer;
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import org.broadinstitute.hellbender.utils.Utils;
+
+import java.util.Arrays;
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+import java.util.Objects;
+
+/**
+ * An immutable, array-backed alternative to {@link SVIntervalTree} for interval sets that are built once and then
+ * only queried, such as those broadcast to executors.
+ * <p>
+ * Intervals are kept in the same order as in SVIntervalTree (by contig, then start, then end) in parallel arrays of
+ * starts, ends and values. The intervals on each contig form an implicit, perfectly balanced binary search tree
+ * (the node at index i has level equal to the number of trailing 1 bits in i), augmented with the maximum end of
+ * each sub-tree, so overlap queries take logarithmic time without any per-node objects.
+ * The Kryo form holds only the contig counts, delta-encoded starts, lengths and values.
+ */
+@DefaultSerializer(SVIntervalIndex.Serializer.class)
+public final class SVIntervalIndex<V> implements Iterable<SVIntervalTree.Entry<V>> {
+    // sub-trees of at most this level are scanned linearly when querying
+    private static final int MAX_SCANNED_LEVEL = 3;
+    private static final int MAX_STACK_SIZE = 64;
+
+    private final int[] contigs;        // distinct contigs, in ascending order
+    private final int[] contigOffsets;  // index of the first interval on each contig, plus the total size at the end
+    private final int[] rootLevels;     // level of the root of the implicit tree for each contig
+    private final int[] starts;
+    private final int[] ends;
+    private final int[] maxEnds;        // maximum end of the sub-tree rooted at each interval
+    private final Object[] values;
+
+    /**
+     * Copies the intervals and values of a tree.
+     */
+    public SVIntervalIndex( final SVIntervalTree<V> tree ) {
+        Utils.nonNull(tree, "tree cannot be null");
+        final int size = tree.size();
+        starts = new int[size];
+        ends = new int[size];
+        values = new Object[size];
+        final int[] intervalContigs = new int[size];
+        int idx = 0;
+        for ( final SVIntervalTree.Entry<V> entry : tree ) {
+            final SVInterval interval = entry.getInterval();
+            intervalContigs[idx] = interval.getContig();
+            starts[idx] = interval.getStart();
+            ends[idx] = interval.getEnd();
+            values[idx] = entry.getValue();
+            idx += 1;
+        }
+
+        int nContigs = 0;
+        for ( int i = 0; i < size; ++i ) {
+            if ( i == 0 || intervalContigs[i] != intervalContigs[i - 1] ) nContigs += 1;
+        }
+        final int[] contigSizes = new int[nContigs];
+        contigs = new int[nContigs];
+        int contigIdx = -1;
+        for ( int i = 0; i < size; ++i ) {
+            if ( i == 0 || intervalContigs[i] != intervalContigs[i - 1] ) contigs[++contigIdx] = intervalContigs[i];
+            contigSizes[contigIdx] += 1;
+        }
+        contigOffsets = new int[nContigs + 1];
+        rootLevels = new int[nContigs];
+        maxEnds = new int[size];
+        indexContigs(contigSizes);
+    }
+
+    private SVIntervalIndex( final Kryo kryo, final Input input ) {
+        final int size = input.readVarInt(true);
+        final int nContigs = input.readVarInt(true);
+        final boolean valuesAreIntervals = input.readBoolean();
+        contigs = new int[nContigs];
+        final int[] contigSizes = new int[nContigs];
+        for ( int i = 0; i < nContigs; ++i ) {
+            contigs[i] = input.readVarInt(false);
+            contigSizes[i] = input.readVarInt(true);
+        }
+        starts = new int[size];
+        ends = new int[size];
+        values = new Object[size];
+        int idx = 0;
+        for ( int i = 0; i < nContigs; ++i ) {
+            int start = 0;
+            for ( int j = 0; j < contigSizes[i]; ++j ) {
+                start += input.readVarInt(false);
+                starts[idx] = start;
+                ends[idx] = start + input.readVarInt(false);
+                values[idx] = valuesAreIntervals ? makeInterval(contigs[i], idx) : kryo.readClassAndObject(input);
+                idx += 1;
+            }
+        }
+        contigOffsets = new int[nContigs + 1];
+        rootLevels = new int[nContigs];
+        maxEnds = new int[size];
+        indexContigs(contigSizes);
+    }
+
+    private void serialize( final Kryo kryo, final Output output ) {
+        final boolean valuesAreIntervals = valuesAreIntervals();
+        output.writeVarInt(size(), true);
+        output.writeVarInt(contigs.length, true);
+        output.writeBoolean(valuesAreIntervals);
+        for ( int i = 0; i < contigs.length; ++i ) {
+            output.writeVarInt(contigs[i], false);
+            output.writeVarInt(contigOffsets[i + 1] - contigOffsets[i], true);
+        }
+        for ( int i = 0; i < contigs.length; ++i ) {
+            int start = 0;
+            for ( int idx = contigOffsets[i]; idx < contigOffsets[i + 1]; ++idx ) {
+                output.writeVarInt(starts[idx] - start, false);
+                output.writeVarInt(ends[idx] - starts[idx], false);
+                start = starts[idx];
+                if ( !valuesAreIntervals ) {
+                    kryo.writeClassAndObject(output, values[idx]);
+                }
+            }
+        }
+    }
+
+    // true if each value is equal to its interval, as when indexing a set of intervals, so the values need not be serialized
+    private boolean valuesAreIntervals() {
+        for ( int i = 0; i < contigs.length; ++i ) {
+            for ( int idx = contigOffsets[i]; idx < contigOffsets[i + 1]; ++idx ) {
+                if ( !(values[idx] instanceof SVInterval) || !values[idx].equals(makeInterval(contigs[i], idx)) ) {
+                    return false;
+                }
+            }
+        }
+        return true;
+    }
+
+    /**
+     * Fills in the offsets of each contig, and the maximum ends and root level of each contig's implicit tree.
+     */
+    private void indexContigs( final int[] contigSizes ) {
+        for ( int i = 0; i < contigSizes.length; ++i ) {
+            contigOffsets[i + 1] = contigOffsets[i] + contigSizes[i];
+            rootLevels[i] = indexContig(contigOffsets[i], contigSizes[i]);
+        }
+    }
+
+    /**
+     * Computes the maximum ends of the implicit tree of n intervals starting at the specified offset.
+     * Returns the level of the root of the tree.
+     */
+    private int indexContig( final int offset, final int n ) {
+        int lastIdx = 0;
+        int lastMaxEnd = 0;
+        // leaves
+        for ( int i = 0; i < n; i += 2 ) {
+            lastIdx = i;
+            lastMaxEnd = maxEnds[offset + i] = ends[offset + i];
+        }
+        // internal nodes, one level at a time.  nodes whose right sub-tree is beyond the end of the array use the
+        // maximum end of the last (partial) sub-tree instead.
+        int level = 1;
+        for ( ; (1L << level) <= n; ++level ) {
+            final int halfWidth = 1 << (level - 1);
+            final long step = (long)halfWidth << 2;
+            for ( long i = ((long)halfWidth << 1) - 1; i < n; i += step ) {
+                final int idx = (int)i;
+                final int leftMaxEnd = maxEnds[offset + idx - halfWidth];
+                final int rightMaxEnd = (long)idx + halfWidth < n ? maxEnds[offset + idx + halfWidth] : lastMaxEnd;
+                maxEnds[offset + idx] = Math.max(ends[offset + idx], Math.max(leftMaxEnd, rightMaxEnd));
+            }
+            lastIdx = ((lastIdx >> level) & 1) != 0 ? lastIdx - halfWidth : lastIdx + halfWidth;
+            if ( lastIdx < n && maxEnds[offset + lastIdx] > lastMaxEnd ) {
+                lastMaxEnd = maxEnds[offset + lastIdx];
+            }
+        }
+        return level - 1;
+    }
+
+    /**
+     * Return the number of intervals in the index.
+     */
+    public int size() { return starts.length; }
+
+    /**
+     * Check the index against a probe interval to see if there's an overlapping interval.
+     *
+     * @param interval The interval sought.
+     * @return Whether or not there's an overlapping interval in this index.
+     */
+    public boolean hasOverlapper( final SVInterval interval ) {
+        return new OverlapIterator(interval).hasNext();
+    }
+
+    /**
+     * Find the earliest interval in the index that overlaps the specified interval.
+     *
+     * @param interval The interval sought.
+     * @return The earliest overlapping interval, or null if there is none.
+     */
+    public SVIntervalTree.Entry<V> minOverlapper( final SVInterval interval ) {
+        final OverlapIterator overlappers = new OverlapIterator(interval);
+        return overlappers.hasNext() ? overlappers.next() : null;
+    }
+
+    /**
+     * Return an iterator over all intervals overlapping the specified interval, in order.
+     *
+     * @param interval Interval to overlap.
+     * @return An iterator.
+     */
+    public Iterator<SVIntervalTree.Entry<V>> overlappers( final SVInterval interval ) { return new OverlapIterator(interval); }
+
+    /**
+     * Return an iterator over the entire index.
+     *
+     * @return An iterator.
+     */
+    @Override
+    public Iterator<SVIntervalTree.Entry<V>> iterator() {
+        return new Iterator<SVIntervalTree.Entry<V>>() {
+            private int contigIdx = 0;
+            private int idx = 0;
+
+            @Override
+            public boolean hasNext() { return idx < size(); }
+
+            @Override
+            public SVIntervalTree.Entry<V> next() {
+                if ( !hasNext() ) {
+                    throw new NoSuchElementException("No next element.");
+                }
+                while ( idx >= contigOffsets[contigIdx + 1] ) {
+                    contigIdx += 1;
+                }
+                return makeEntry(contigIdx, idx++);
+            }
+        };
+    }
+
+    /** fraction of the intervals in this index that overlap with intervals in some tree */
+    public float overlapFraction( final SVIntervalTree<?> that ) {
+        int count = 0;
+        for ( final SVIntervalTree.Entry<V> entry : this ) {
+            if ( that.hasOverlapper(entry.getInterval()) ) count += 1;
+        }
+        return (float)count/size();
+    }
+
+    private SVInterval makeInterval( final int contig, final int idx ) {
+        return new SVInterval(contig, starts[idx], ends[idx], SVInterval.SVIntervalConstructorArgsValidator.ACCEPTS_ALL);
+    }
+
+    @SuppressWarnings("unchecked")
+    private SVIntervalTree.Entry<V> makeEntry( final int contigIdx, final int idx ) {
+        return new IndexEntry<>(makeInterval(contigs[contigIdx], idx), (V)values[idx]);
+    }
+
+    private static final class IndexEntry<V1> implements SVIntervalTree.Entry<V1> {
+        private final SVInterval interval;
+        private final V1 value;
+
+        IndexEntry( final SVInterval interval, final V1 value ) {
+            this.interval = interval;
+            this.value = value;
+        }
+
+        @Override
+        public SVInterval getInterval() { return interval; }
+
+        @Override
+        public V1 getValue() { return value; }
+
+        @Override
+        public V1 setValue( final V1 value ) {
+            throw new UnsupportedOperationException("SVIntervalIndex is immutable.");
+        }
+
+        @Override
+        public boolean equals( final Object obj ) {
+            if ( !(obj instanceof IndexEntry) ) return false;
+            final IndexEntry<?> that = (IndexEntry<?>)obj;
+            return interval.equals(that.interval) && Objects.equals(value, that.value);
+        }
+
+        @Override
+        public int hashCode() { return 47*interval.hashCode() + Objects.hashCode(value); }
+    }
+
+    /**
+     * Top-down, in-order traversal of the implicit tree of the query's contig, skipping sub-trees that cannot
+     * contain an overlapper: those whose maximum end is not past the query start, and the right sub-trees of
+     * intervals that start at or after the query end.
+     */
+    private final class OverlapIterator implements Iterator<SVIntervalTree.Entry<V>> {
+        private final int contigIdx;
+        private final int offset;
+        private final int n;
+        private final int queryStart;
+        private final int queryEnd;
+
+        // pending sub-trees: the local index of the root, its level, and whether its left sub-tree has been visited
+        private final int[] stackIdx = new int[MAX_STACK_SIZE];
+        private final int[] stackLevel = new int[MAX_STACK_SIZE];
+        private final boolean[] stackLeftVisited = new boolean[MAX_STACK_SIZE];
+        private int stackSize = 0;
+
+        // range of local indices of a small sub-tree that's being scanned
+        private int scanIdx = 0;
+        private int scanEnd = 0;
+
+        private int next;
+
+        OverlapIterator( final SVInterval interval ) {
+            Utils.nonNull(interval, "interval cannot be null");
+            contigIdx = Arrays.binarySearch(contigs, interval.getContig());
+            queryStart = interval.getStart();
+            queryEnd = interval.getEnd();
+            if ( contigIdx >= 0 ) {
+                offset = contigOffsets[contigIdx];
+                n = contigOffsets[contigIdx + 1] - offset;
+                push((int)((1L << rootLevels[contigIdx]) - 1), rootLevels[contigIdx], false);
+            } else {
+                offset = 0;
+                n = 0;
+            }
+            next = advance();
+        }
+
+        @Override
+        public boolean hasNext() { return next >= 0; }
+
+        @Override
+        public SVIntervalTree.Entry<V> next() {
+            if ( next < 0 ) {
+                throw new NoSuchElementException("No next element.");
+            }
+            final SVIntervalTree.Entry<V> result = makeEntry(contigIdx, next);
+            next = advance();
+            return result;
+        }
+
+        private void push( final int idx, final int level, final boolean leftVisited ) {
+            stackIdx[stackSize] = idx;
+            stackLevel[stackSize] = level;
+            stackLeftVisited[stackSize] = leftVisited;
+            stackSize += 1;
+        }
+
+        // returns the global index of the next overlapper, or -1 if there are no more
+        private int advance() {
+            while ( true ) {
+                if ( scanIdx < scanEnd ) {
+                    final int idx = offset + scanIdx++;
+                    if ( starts[idx] >= queryEnd ) {
+                        scanIdx = scanEnd;
+                    } else if ( queryStart < ends[idx] ) {
+                        return idx;
+                    }
+                    continue;
+                }
+                if ( stackSize == 0 ) {
+                    return -1;
+                }
+
+                stackSize -= 1;
+                final int idx = stackIdx[stackSize];
+                final int level = stackLevel[stackSize];
+                if ( level <= MAX_SCANNED_LEVEL ) {
+                    // scan the whole (small) sub-tree
+                    final long first = (long)(idx >> level) << level;
+                    scanIdx = (int)Math.min(first, n);
+                    scanEnd = (int)Math.min(first + (1L << (level + 1)) - 1, n);
+                } else if ( !stackLeftVisited[stackSize] ) {
+                    // revisit this node after its left sub-tree, which need only be visited if it might contain an
+                    // overlapper.  the left child may be beyond the end of the array, in which case its own left
+                    // sub-tree might still contain intervals.
+                    final int leftIdx = idx - (1 << (level - 1));
+                    push(idx, level, true);
+                    if ( leftIdx >= n || maxEnds[offset + leftIdx] > queryStart ) {
+                        push(leftIdx, level - 1, false);
+                    }
+                } else if ( idx < n && starts[offset + idx] < queryEnd ) {
+                    // the right sub-tree starts no earlier than this node, so it might contain an overlapper
+                    push(idx + (1 << (level - 1)), level - 1, false);
+                    if ( queryStart < ends[offset + idx] ) {
+                        return offset + idx;
+                    }
+                }
+            }
+        }
+    }
+
+    public static final class Serializer<T> extends com.esotericsoftware.kryo.Serializer<SVIntervalIndex<T>> {
+        @Override
+        public void write( final Kryo kryo, final Output output, final SVIntervalIndex<T> index ) {
+            index.serialize(kryo, output);
+        }
+
+        @Override
+        public SVIntervalIndex<T> read( final Kryo kryo, final Input input, final Class<SVIntervalIndex<T>> klass ) {
+            return new SVIntervalIndex<>(kryo, input);
+        }
+    }
+}
@@ -39,7 +39,7 @@ public final class LongBloomFilter {
             4294967311L, 8589934609L, 17179869209L, 34359738337L, 68719476767L,
             137438953481L, 274877906951L, 549755813881L, 1099511627791L};
 
-    private final static long HASH_SEED_2 = 0x6cebe6dca7f118a6L;
+    final static long HASH_SEED_2 = 0x6cebe6dca7f118a6L;
 
     public LongBloomFilter(final long numElements, final double fpp) {
         Utils.validateArg(numElements > 0, "Number of elements must be greater than 0");
@@ -183,6 +183,13 @@ public final class LongBloomFilter {
      * Structures & Algorithms. 33:2, 187-218.
      */
     private long applyHashFunction(final int i, final long fnvHash1, final long fnvHash2) {
+        return applyHashFunction(i, fnvHash1, fnvHash2, totalBits);
+    }
+
+    /**
+     * Shared with {@link MappedLongBloomFilter}, which must compute identical bit indices
+     */
+    static long applyHashFunction(final int i, final long fnvHash1, final long fnvHash2, final long totalBits) {
         final long result = (fnvHash1+ i * fnvHash2) % totalBits;
         return result < 0 ? result + totalBits : result;
     }
@@ -208,6 +215,21 @@ public final class LongBloomFilter {
         return (byte) (1 << (bitIndex & 7));
     }
 
+    long getTotalBits() {
+        return totalBits;
+    }
+
+    int getNumHashes() {
+        return numHashes;
+    }
+
+    /**
+     * Returns the bucket arrays, which hold the bits of the filter in order (bit i is bit (i % 8) of byte i / 8)
+     */
+    byte[][] getBuckets() {
+        return buckets;
+    }
+
     public void clear() {
         for (int i = 0; i < numBucketArrays; i++) {
             Arrays.fill(buckets[i], (byte) 0);
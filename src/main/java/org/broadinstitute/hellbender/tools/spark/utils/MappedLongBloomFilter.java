@@ -0,0 +1,104 @@
+package org.broadinstitute.hellbender.tools.spark.utils;
+
+import org.broadinstitute.hellbender.tools.spark.sv.utils.SVUtils;
+import org.broadinstitute.hellbender.utils.Utils;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+
+/**
+ * Read-only view of the bits of a {@link LongBloomFilter} stored in a file, which is memory-mapped and queried in place,
+ * so that many tasks and JVMs on the same machine share a single page-cached copy of the file.
+ * Membership queries give results identical to those of the {@link LongBloomFilter} that was written.
+ * <p>
+ * The filter is stored at a given offset in the file as the number of bits (a little-endian long), the number of
+ * hash functions (a little-endian int), 4 bytes of padding, and the bits themselves (bit i is bit (i % 8) of byte i / 8).
+ */
+public final class MappedLongBloomFilter {
+
+    private static final ByteOrder BYTE_ORDER = ByteOrder.LITTLE_ENDIAN;
+    private static final int LOG2_BYTES_PER_CHUNK = 30;  //each chunk is mapped as a separate 1GB buffer
+    private static final long BYTES_PER_CHUNK = 1L << LOG2_BYTES_PER_CHUNK;
+    private static final int HEADER_BYTES = 16;
+
+    private final long totalBits;
+    private final int numHashes;
+    private final ByteBuffer[] chunks;
+
+    private MappedLongBloomFilter(final long totalBits, final int numHashes, final ByteBuffer[] chunks) {
+        this.totalBits = totalBits;
+        this.numHashes = numHashes;
+        this.chunks = chunks;
+    }
+
+    /**
+     * Memory-maps a filter previously written at {@code offset} by {@link #write}.
+     */
+    public static MappedLongBloomFilter map(final FileChannel channel, final long offset) throws IOException {
+        Utils.nonNull(channel);
+        final ByteBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, offset, HEADER_BYTES).order(BYTE_ORDER);
+        final long totalBits = header.getLong(0);
+        final int numHashes = header.getInt(Long.BYTES);
+        Utils.validate(totalBits > 0 && numHashes > 0, "Invalid Bloom filter header.");
+        final long numBytes = getNumBitBytes(totalBits);
+        Utils.validate(channel.size() >= offset + HEADER_BYTES + numBytes, "Bloom filter file is truncated.");
+
+        final int numChunks = (int) ((numBytes + BYTES_PER_CHUNK - 1) / BYTES_PER_CHUNK);
+        final ByteBuffer[] chunks = new ByteBuffer[numChunks];
+        for (int i = 0; i < numChunks; i++) {
+            final long chunkStart = i * BYTES_PER_CHUNK;
+            chunks[i] = channel.map(FileChannel.MapMode.READ_ONLY, offset + HEADER_BYTES + chunkStart,
+                    Math.min(BYTES_PER_CHUNK, numBytes - chunkStart));
+        }
+        return new MappedLongBloomFilter(totalBits, numHashes, chunks);
+    }
+
+    /**
+     * Writes the bits of a filter at {@code offset} of a file.
+     * @return the number of bytes written
+     */
+    public static long write(final FileChannel channel, final long offset,
+                             final LongBloomFilter bloomFilter) throws IOException {
+        Utils.nonNull(channel);
+        Utils.nonNull(bloomFilter);
+        final ByteBuffer header = ByteBuffer.allocate(HEADER_BYTES).order(BYTE_ORDER);
+        header.putLong(bloomFilter.getTotalBits());
+        header.putInt(bloomFilter.getNumHashes());
+        header.putInt(0);
+        header.flip();
+        long position = offset;
+        position += writeFully(channel, header, position);
+        for (final byte[] bucketArray : bloomFilter.getBuckets()) {
+            position += writeFully(channel, ByteBuffer.wrap(bucketArray), position);
+        }
+        Utils.validate(position - offset == HEADER_BYTES + getNumBitBytes(bloomFilter.getTotalBits()),
+                "Number of Bloom filter bytes written does not match the number of bits.");
+        return position - offset;
+    }
+
+    public boolean contains(final long key) {
+        final long hash1 = SVUtils.fnvLong64(key);
+        final long hash2 = SVUtils.fnvLong64(LongBloomFilter.HASH_SEED_2, key);
+        for (int i = 0; i < numHashes; i++) {
+            final long bitIndex = LongBloomFilter.applyHashFunction(i, hash1, hash2, totalBits);
+            final long byteIndex = bitIndex >>> 3;
+            final byte bits = chunks[(int) (byteIndex >>> LOG2_BYTES_PER_CHUNK)].get((int) (byteIndex & (BYTES_PER_CHUNK - 1)));
+            if ((bits & (1 << (bitIndex & 7))) == 0) return false;
+        }
+        return true;
+    }
+
+    private static long getNumBitBytes(final long totalBits) {
+        return (totalBits / 8) + (totalBits % 8 > 0 ? 1 : 0);
+    }
+
+    private static int writeFully(final FileChannel channel, final ByteBuffer buffer, final long position) throws IOException {
+        int numBytesWritten = 0;
+        while (buffer.hasRemaining()) {
+            numBytesWritten += channel.write(buffer, position + numBytesWritten);
+        }
+        return numBytesWritten;
+    }
+}
@@ -0,0 +1,170 @@
+package org.broadinstitute.hellbender.tools.spark.utils;
+
+import org.broadinstitute.hellbender.tools.spark.sv.utils.SVUtils;
+import org.broadinstitute.hellbender.utils.Utils;
+
+import java.io.IOException;
+import java.nio.ByteOrder;
+import java.nio.LongBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.Collection;
+
+/**
+ * Read-only set of non-negative longs stored in a file as an open-addressing hash table with linear probing,
+ * which is memory-mapped and queried in place. Unlike {@link LargeLongHopscotchSet}, no part of the table is held
+ * on the heap, so that many tasks and JVMs on the same machine share a single page-cached copy of the file.
+ * <p>
+ * The table is stored at a given offset in the file as its capacity (a power of 2), followed by its size,
+ * followed by one slot per unit of capacity. Empty slots hold -1. All values are little-endian longs.
+ * The table is built directly in the mapped file, so writing does not require the table to fit on the heap either.
+ */
+public final class MappedLongHashSet {
+
+    private static final ByteOrder BYTE_ORDER = ByteOrder.LITTLE_ENDIAN;
+    private static final int LOG2_LONGS_PER_CHUNK = 27;  //each chunk is mapped as a separate 1GB buffer
+    private static final long LONGS_PER_CHUNK = 1L << LOG2_LONGS_PER_CHUNK;
+    private static final long EMPTY_SLOT = -1L;
+    private static final double MAX_LOAD_FACTOR = 0.75;
+    private static final int HEADER_LONGS = 2;
+
+    private final long capacity;
+    private final long size;
+    private final long indexMask;
+    private final LongBuffer[] chunks;
+
+    private MappedLongHashSet(final long capacity, final long size, final LongBuffer[] chunks) {
+        this.capacity = capacity;
+        this.size = size;
+        this.indexMask = capacity - 1;
+        this.chunks = chunks;
+    }
+
+    /**
+     * Memory-maps a table previously written at {@code offset} by {@link #write}.
+     */
+    public static MappedLongHashSet map(final FileChannel channel, final long offset) throws IOException {
+        Utils.nonNull(channel);
+        final LongBuffer header = channel.map(FileChannel.MapMode.READ_ONLY, offset, HEADER_LONGS * Long.BYTES)
+                .order(BYTE_ORDER).asLongBuffer();
+        final long capacity = header.get(0);
+        final long size = header.get(1);
+        Utils.validate(capacity > 0 && Long.bitCount(capacity) == 1 && size >= 0 && size <= capacity,
+                "Invalid hash table header.");
+        Utils.validate(channel.size() >= offset + getNumBytes(capacity), "Hash table file is truncated.");
+        return new MappedLongHashSet(capacity, size,
+                asLongBuffers(mapChunks(channel, FileChannel.MapMode.READ_ONLY, offset + HEADER_LONGS * Long.BYTES, capacity)));
+    }
+
+    /**
+     * Builds a table containing the given values at {@code offset} of a file, which is extended as necessary.
+     * Duplicate values are stored once.
+     * @param maxNumValues  upper bound on the number of distinct values, used to size the table
+     * @return the number of bytes written
+     */
+    public static long write(final FileChannel channel, final long offset,
+                             final Collection<long[]> values, final long maxNumValues) throws IOException {
+        Utils.nonNull(channel);
+        Utils.nonNull(values);
+        Utils.validateArg(maxNumValues >= 0, "Number of values must be non-negative");
+        final long capacity = Math.max(Long.highestOneBit((long) Math.ceil(maxNumValues / MAX_LOAD_FACTOR)) << 1, 2L);
+        final MappedByteBuffer[] mappedChunks = mapChunks(channel, FileChannel.MapMode.READ_WRITE, offset + HEADER_LONGS * Long.BYTES, capacity);
+        final LongBuffer[] chunks = asLongBuffers(mappedChunks);
+        for (final LongBuffer chunk : chunks) {
+            for (int i = 0; i < chunk.capacity(); i++) {
+                chunk.put(i, EMPTY_SLOT);
+            }
+        }
+
+        final long indexMask = capacity - 1;
+        long size = 0;
+        for (final long[] array : values) {
+            for (final long value : array) {
+                Utils.validateArg(value >= 0, "Tried to add negative entry to MappedLongHashSet");
+                long index = hash(value) & indexMask;
+                while (true) {
+                    final long entry = get(chunks, index);
+                    if (entry == value) {
+                        break;
+                    }
+                    if (entry == EMPTY_SLOT) {
+                        Utils.validate(++size < capacity, "Number of values exceeds the table capacity");
+                        set(chunks, index, value);
+                        break;
+                    }
+                    index = (index + 1) & indexMask;
+                }
+            }
+        }
+
+        final MappedByteBuffer header = channel.map(FileChannel.MapMode.READ_WRITE, offset, HEADER_LONGS * Long.BYTES);
+        header.order(BYTE_ORDER).asLongBuffer().put(0, capacity).put(1, size);
+        header.force();
+        for (final MappedByteBuffer mappedChunk : mappedChunks) {
+            mappedChunk.force();
+        }
+        return getNumBytes(capacity);
+    }
+
+    public boolean contains(final long key) {
+        if (key < 0) {
+            return false;
+        }
+        long index = hash(key) & indexMask;
+        while (true) {
+            final long entry = get(chunks, index);
+            if (entry == key) {
+                return true;
+            }
+            if (entry == EMPTY_SLOT) {
+                return false;
+            }
+            index = (index + 1) & indexMask;
+        }
+    }
+
+    public long size() {
+        return size;
+    }
+
+    public long capacity() {
+        return capacity;
+    }
+
+    private static long getNumBytes(final long capacity) {
+        return (HEADER_LONGS + capacity) * Long.BYTES;
+    }
+
+    private static long hash(final long value) {
+        final long hash = SVUtils.fnvLong64(value);
+        return hash ^ (hash >>> 32);
+    }
+
+    private static long get(final LongBuffer[] chunks, final long index) {
+        return chunks[(int) (index >>> LOG2_LONGS_PER_CHUNK)].get((int) (index & (LONGS_PER_CHUNK - 1)));
+    }
+
+    private static void set(final LongBuffer[] chunks, final long index, final long value) {
+        chunks[(int) (index >>> LOG2_LONGS_PER_CHUNK)].put((int) (index & (LONGS_PER_CHUNK - 1)), value);
+    }
+
+    private static MappedByteBuffer[] mapChunks(final FileChannel channel, final FileChannel.MapMode mode,
+                                                final long offset, final long numLongs) throws IOException {
+        final int numChunks = (int) ((numLongs + LONGS_PER_CHUNK - 1) / LONGS_PER_CHUNK);
+        final MappedByteBuffer[] chunks = new MappedByteBuffer[numChunks];
+        for (int i = 0; i < numChunks; i++) {
+            final long chunkStart = i * LONGS_PER_CHUNK;
+            final long chunkLongs = Math.min(LONGS_PER_CHUNK, numLongs - chunkStart);
+            chunks[i] = channel.map(mode, offset + chunkStart * Long.BYTES, chunkLongs * Long.BYTES);
+        }
+        return chunks;
+    }
+
+    private static LongBuffer[] asLongBuffers(final MappedByteBuffer[] chunks) {
+        final LongBuffer[] longBuffers = new LongBuffer[chunks.length];
+        for (int i = 0; i < chunks.length; i++) {
+            longBuffers[i] = chunks[i].order(BYTE_ORDER).asLongBuffer();
+        }
+        return longBuffers;
+    }
+}
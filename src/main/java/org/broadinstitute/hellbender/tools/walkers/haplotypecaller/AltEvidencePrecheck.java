@@ -0,0 +1,112 @@
+package org.broadinstitute.hellbender.tools.walkers.haplotypecaller;
+
+import htsjdk.samtools.CigarElement;
+import org.broadinstitute.hellbender.utils.BaseUtils;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.read.GATKRead;
+
+import java.util.List;
+
+/**
+ * Cheap pileup-based check, run before assembly, for whether an active region has any plausible evidence of variation.
+ *
+ * Reads are walked along their cigars against the reference and, at each reference position, we count the reads
+ * with a high-quality mismatch, an insertion or deletion starting there, or a soft clip starting or ending there.
+ * If no position has at least {@code minAltReads} such reads, assembly would almost certainly yield only the reference
+ * haplotype, so the caller can skip assembly and the PairHMM and go straight to the reference model.
+ */
+public final class AltEvidencePrecheck {
+
+    private final int minAltReads;
+    private final byte minBaseQuality;
+
+    private long regionsChecked = 0;
+    private long regionsWithoutAltEvidence = 0;
+
+    /**
+     * @param minAltReads minimum number of reads that must show the same kind of non-reference event at a position
+     * @param minBaseQuality minimum base quality for a mismatch to count as evidence
+     */
+    public AltEvidencePrecheck(final int minAltReads, final byte minBaseQuality) {
+        Utils.validateArg(minAltReads > 0, "minAltReads must be > 0");
+        this.minAltReads = minAltReads;
+        this.minBaseQuality = minBaseQuality;
+    }
+
+    /**
+     * @param reads the reads of the region
+     * @param refBases reference bases covering at least the span of the region's padded span
+     * @param refStart the 1-based reference position of {@code refBases[0]}
+     * @return true if some position of the region has enough non-reference evidence to justify assembly
+     */
+    public boolean hasPlausibleAltEvidence(final List<GATKRead> reads, final byte[] refBases, final int refStart) {
+        Utils.nonNull(reads);
+        Utils.nonNull(refBases);
+        regionsChecked++;
+
+        final int[] mismatchCounts = new int[refBases.length];
+        final int[] indelOrClipCounts = new int[refBases.length];
+
+        for (final GATKRead read : reads) {
+            final byte[] bases = read.getBases();
+            final byte[] quals = read.getBaseQualities();
+            int refOffset = read.getStart() - refStart;
+            int readOffset = 0;
+
+            for (final CigarElement element : read.getCigarElements()) {
+                final int length = element.getLength();
+                switch (element.getOperator()) {
+                    case M:
+                    case EQ:
+                    case X:
+                        for (int i = 0; i < length; i++) {
+                            final int refIndex = refOffset + i;
+                            if (refIndex >= 0 && refIndex < refBases.length && quals[readOffset + i] >= minBaseQuality
+                                    && isMismatch(bases[readOffset + i], refBases[refIndex])
+                                    && ++mismatchCounts[refIndex] >= minAltReads) {
+                                return true;
+                            }
+                        }
+                        refOffset += length;
+                        readOffset += length;
+                        break;
+                    case I:
+                    case S:
+                        if (countEvent(indelOrClipCounts, refOffset)) {
+                            return true;
+                        }
+                        readOffset += length;
+                        break;
+                    case D:
+                        if (countEvent(indelOrClipCounts, refOffset)) {
+                            return true;
+                        }
+                        refOffset += length;
+                        break;
+                    case N:
+                        refOffset += length;
+                        break;
+                    default:
+                        // H and P consume neither read nor reference bases
+                        break;
+                }
+            }
+        }
+
+        regionsWithoutAltEvidence++;
+        return false;
+    }
+
+    private boolean countEvent(final int[] counts, final int refIndex) {
+        return refIndex >= 0 && refIndex < counts.length && ++counts[refIndex] >= minAltReads;
+    }
+
+    private static boolean isMismatch(final byte readBase, final byte refBase) {
+        return BaseUtils.isRegularBase(readBase) && BaseUtils.isRegularBase(refBase)
+                && BaseUtils.simpleBaseToBaseIndex(readBase) != BaseUtils.simpleBaseToBaseIndex(refBase);
+    }
+
+    public long getRegionsChecked() { return regionsChecked; }
+
+    public long getRegionsWithoutAltEvidence() { return regionsWithoutAltEvidence; }
+}
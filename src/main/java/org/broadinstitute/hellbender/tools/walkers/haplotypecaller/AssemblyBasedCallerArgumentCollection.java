@@ -9,6 +9,8 @@ import org.broadinstitute.hellbender.tools.walkers.haplotypecaller.readthreading
 import org.broadinstitute.hellbender.utils.haplotype.HaplotypeBAMWriter;
 import org.broadinstitute.hellbender.utils.smithwaterman.SmithWatermanAligner;
 
+import java.util.List;
+
 /**
  * Set of arguments for Assembly Based Callers
  */
@@ -32,8 +34,20 @@ public abstract class AssemblyBasedCallerArgumentCollection {
     public static final String EMIT_REF_CONFIDENCE_SHORT_NAME = "ERC";
     public static final String ALLELE_EXTENSION_LONG_NAME = "allele-informative-reads-overlap-margin";
 
+    public static final String MAX_REGION_RUNTIME_LONG_NAME = "max-region-runtime";
+    public static final String MAX_REGION_WORK_LONG_NAME = "max-region-work";
+    public static final String DEGRADED_MAX_NUM_HAPLOTYPES_LONG_NAME = "degraded-max-num-haplotypes";
+    public static final String DEGRADED_REGION_REPORT_LONG_NAME = "degraded-region-report";
+
     public ReadThreadingAssembler createReadThreadingAssembler() {
-        final ReadThreadingAssembler assemblyEngine = assemblerArgs.makeReadThreadingAssembler();
+        return createReadThreadingAssembler(assemblerArgs.maxNumHaplotypesInPopulation, assemblerArgs.kmerSizes);
+    }
+
+    /**
+     * @return an assembler configured by these arguments, except for the maximum number of haplotypes and the kmer sizes
+     */
+    public ReadThreadingAssembler createReadThreadingAssembler(final int maxNumHaplotypes, final List<Integer> kmerSizes) {
+        final ReadThreadingAssembler assemblyEngine = assemblerArgs.makeReadThreadingAssembler(maxNumHaplotypes, kmerSizes);
         assemblyEngine.setDebug(assemblerArgs.debugAssembly);
         assemblyEngine.setMinBaseQualityToUseInAssembly(minBaseQualityScore);
 
@@ -144,4 +158,41 @@ public abstract class AssemblyBasedCallerArgumentCollection {
                     "that overlap the variant or any base no further than this distance expressed in base pairs",
             optional = true)
     public int informativeReadOverlapMargin = 2;
+
+    // -----------------------------------------------------------------------------------------------
+    // per-region compute budget
+    // -----------------------------------------------------------------------------------------------
+
+    /**
+     * Wall-clock budget, in milliseconds, for calling a single active region. The expected runtime of each region is
+     * predicted from its work (reads x padded length) and the runtime of previous regions. Regions predicted to exceed
+     * the budget are called in progressively cheaper modes: first with at most --degraded-max-num-haplotypes haplotypes,
+     * then additionally with only the largest kmer size, and finally without assembly or PairHMM, emitting only the
+     * pileup-based reference model (in GVCF mode) or no calls. Regions whose assembly alone exceeds the budget also skip
+     * the PairHMM. A value of 0 disables the time budget.
+     */
+    @Advanced
+    @Argument(fullName = MAX_REGION_RUNTIME_LONG_NAME, doc = "Wall-clock budget in milliseconds per active region before falling back to cheaper calling modes (0 to disable)", optional = true, minValue = 0)
+    public long maxRegionRuntimeMillis = 0L;
+
+    /**
+     * Work budget for a single active region, measured as (number of reads) x (padded region length). Regions exceeding
+     * this by up to 2x, 4x and more are called in progressively cheaper modes as described for --max-region-runtime.
+     * Unlike the time budget this is deterministic. A value of 0 disables the work budget.
+     */
+    @Advanced
+    @Argument(fullName = MAX_REGION_WORK_LONG_NAME, doc = "Work budget (reads x padded length) per active region before falling back to cheaper calling modes (0 to disable)", optional = true, minValue = 0)
+    public long maxRegionWork = 0L;
+
+    @Advanced
+    @Argument(fullName = DEGRADED_MAX_NUM_HAPLOTYPES_LONG_NAME, doc = "Maximum number of haplotypes to assemble in regions that exceed their compute budget", optional = true, minValue = 1)
+    public int degradedMaxNumHaplotypes = 16;
+
+    /**
+     * If provided, every region called in a degraded mode is written to this tab-separated file, along with the
+     * fallback that was applied and the time spent on it.
+     */
+    @Advanced
+    @Argument(fullName = DEGRADED_REGION_REPORT_LONG_NAME, doc = "Output report of regions that were called in a degraded mode (not supported by HaplotypeCallerSpark)", optional = true)
+    public String degradedRegionReport = null;
 }
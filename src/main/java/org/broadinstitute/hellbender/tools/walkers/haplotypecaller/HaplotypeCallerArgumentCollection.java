@@ -119,6 +119,22 @@ public class HaplotypeCallerArgumentCollection extends AssemblyBasedCallerArgume
             optional = true)
     public boolean disableOptimizations = false;
 
+    /**
+     * If set, each active region is first checked for pileup evidence of variation: high-quality mismatches, indels
+     * or soft clips shared by at least --min-alt-evidence-reads reads at the same position. Regions without any such
+     * evidence skip assembly and the PairHMM entirely and are emitted directly as reference confidence. This saves
+     * considerable time when many active regions are false positives, at the risk of missing events that only
+     * assembly can reveal. Has no effect with --disable-optimizations or when given alleles overlap the region.
+     */
+    @Advanced
+    @Argument(fullName = "skip-regions-without-alt-evidence", doc = "Skip assembly of active regions with no pileup evidence of variation", optional = true)
+    public boolean skipRegionsWithoutAltEvidence = false;
+
+    @Advanced
+    @Argument(fullName = "min-alt-evidence-reads", doc = "Minimum number of reads with the same non-reference event at a position for a region to be assembled, if --skip-regions-without-alt-evidence is set",
+            optional = true, minValue = 1)
+    public int minAltEvidenceReads = 2;
+
     @Hidden
     @Argument(fullName = "keep-rg", doc = "Only use reads from this read group when making calls (but use all reads to build the assembly)", optional = true)
     public String keepRG = null;
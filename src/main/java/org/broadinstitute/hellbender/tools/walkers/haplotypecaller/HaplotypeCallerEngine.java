@@ -81,6 +81,12 @@ public final class HaplotypeCallerEngine implements AssemblyRegionEvaluator {
 
     private ReadThreadingAssembler assemblyEngine = null;
 
+    // optional per-region compute budget, null if disabled
+    private RegionComputeBudget regionBudget = null;
+
+    // optional pre-assembly check for evidence of variation, null if disabled
+    private AltEvidencePrecheck altEvidencePrecheck = null;
+
     private ReadLikelihoodCalculationEngine likelihoodCalculationEngine = null;
 
     private HaplotypeCallerGenotypingEngine genotypingEngine = null;
@@ -229,6 +235,9 @@ public final class HaplotypeCallerEngine implements AssemblyRegionEvaluator {
 
         haplotypeBAMWriter = AssemblyBasedCallerUtils.createBamWriter(hcArgs, createBamOutIndex, createBamOutMD5, readsHeader);
         assemblyEngine = hcArgs.createReadThreadingAssembler();
+        regionBudget = RegionComputeBudget.isEnabled(hcArgs) ? new RegionComputeBudget(hcArgs, assemblyEngine) : null;
+        altEvidencePrecheck = hcArgs.skipRegionsWithoutAltEvidence && !hcArgs.disableOptimizations ?
+                new AltEvidencePrecheck(hcArgs.minAltEvidenceReads, hcArgs.minBaseQualityScore) : null;
         likelihoodCalculationEngine = AssemblyBasedCallerUtils.createLikelihoodCalculationEngine(hcArgs.likelihoodArgs);
     }
 
@@ -389,6 +398,9 @@ public final class HaplotypeCallerEngine implements AssemblyRegionEvaluator {
         // all callers need to add these standard annotation header lines
         headerInfo.add(GATKVCFHeaderLines.getInfoLine(GATKVCFConstants.MLE_ALLELE_COUNT_KEY));
         headerInfo.add(GATKVCFHeaderLines.getInfoLine(GATKVCFConstants.MLE_ALLELE_FREQUENCY_KEY));
+        if ( RegionComputeBudget.isEnabled(hcArgs) ) {
+            headerInfo.add(RegionComputeBudget.getVCFHeaderLine());
+        }
         // all callers need to add these standard FORMAT field header lines
         VCFStandardHeaderLines.addStandardFormatLines(headerInfo, true,
                 VCFConstants.GENOTYPE_KEY,
@@ -498,11 +510,28 @@ public final class HaplotypeCallerEngine implements AssemblyRegionEvaluator {
     /**
      * Generate variant calls for an assembly region
      *
+     * If a per-region compute budget was requested, active regions predicted to exceed it are called in a cheaper,
+     * degraded mode (see {@link RegionComputeBudget}).
+     *
      * @param region region to assemble and perform variant calling on
      * @param features Features overlapping the assembly region
      * @return List of variants discovered in the region (may be empty)
      */
     public List<VariantContext> callRegion(final AssemblyRegion region, final FeatureContext features, final ReferenceContext referenceContext) {
+        if ( regionBudget == null || ! region.isActive() ) {
+            return callRegion(region, features, referenceContext, null);
+        }
+
+        final RegionComputeBudget.RegionBudget budget = regionBudget.startRegion(region);
+        try {
+            return RegionComputeBudget.annotateCalls(budget, callRegion(region, features, referenceContext, budget));
+        } finally {
+            regionBudget.finishRegion(budget);
+        }
+    }
+
+    private List<VariantContext> callRegion(final AssemblyRegion region, final FeatureContext features, final ReferenceContext referenceContext,
+                                            final RegionComputeBudget.RegionBudget budget) {
         if ( hcArgs.justDetermineActiveRegions ) {
             // we're benchmarking ART and/or the active region determination code in the HC, just leave without doing any work
             return NO_CALLS;
@@ -537,8 +566,20 @@ public final class HaplotypeCallerEngine implements AssemblyRegionEvaluator {
             }
         }
 
+        if ( altEvidencePrecheck != null && givenAlleles.isEmpty() && !altEvidencePrecheck.hasPlausibleAltEvidence(region.getReads(),
+                region.getAssemblyRegionReference(referenceReader), region.getPaddedSpan().getStart()) ) {
+            // no read supports any non-reference event, so assembly could only recover the reference haplotype
+            return referenceModelForNoVariation(region, true, VCpriors);
+        }
+
+        if ( budget != null && budget.skipAssembly() ) {
+            // this region is too expensive to assemble within its compute budget
+            return referenceModelForNoVariation(region, true, VCpriors);
+        }
+
         // run the local assembler, getting back a collection of information on how we should proceed
-        final AssemblyResultSet untrimmedAssemblyResult =  AssemblyBasedCallerUtils.assembleReads(region, givenAlleles, hcArgs, readsHeader, samplesList, logger, referenceReader, assemblyEngine, aligner, !hcArgs.doNotCorrectOverlappingBaseQualities);
+        final ReadThreadingAssembler assembler = budget == null ? assemblyEngine : regionBudget.getAssembler(budget);
+        final AssemblyResultSet untrimmedAssemblyResult =  AssemblyBasedCallerUtils.assembleReads(region, givenAlleles, hcArgs, readsHeader, samplesList, logger, referenceReader, assembler, aligner, !hcArgs.doNotCorrectOverlappingBaseQualities);
 
         if (assemblyDebugOutStream != null) {
             assemblyDebugOutStream.println("\nThere were " + untrimmedAssemblyResult.getHaplotypeList().size() + " haplotypes found. Here they are:");
@@ -587,6 +628,11 @@ public final class HaplotypeCallerEngine implements AssemblyRegionEvaluator {
             return referenceModelForNoVariation(region, false, VCpriors);
         }
 
+        if ( budget != null && regionBudget.exhaustedAfterAssembly(budget) ) {
+            // assembly alone used up the compute budget for this region, so skip the PairHMM
+            return referenceModelForNoVariation(region, false, VCpriors);
+        }
+
         // evaluate each sample's reads against all haplotypes
         final List<Haplotype> haplotypes = assemblyResult.getHaplotypeList();
         final Map<String,List<GATKRead>> reads = AssemblyBasedCallerUtils.splitReadsBySample(samplesList, readsHeader, regionForGenotyping.getReads());
@@ -702,6 +748,13 @@ public final class HaplotypeCallerEngine implements AssemblyRegionEvaluator {
     public void shutdown() {
         likelihoodCalculationEngine.close();
         aligner.close();
+        if ( regionBudget != null ) {
+            regionBudget.close();
+        }
+        if ( altEvidencePrecheck != null ) {
+            logger.info(String.format("%d of %d active regions had no pileup evidence of variation and were not assembled",
+                    altEvidencePrecheck.getRegionsWithoutAltEvidence(), altEvidencePrecheck.getRegionsChecked()));
+        }
         if ( haplotypeBAMWriter.isPresent() ) {
             haplotypeBAMWriter.get().close();
         }
@@ -7,6 +7,7 @@ import org.broadinstitute.hellbender.tools.walkers.haplotypecaller.readthreading
 
 import java.io.File;
 import java.util.Collections;
+import java.util.List;
 
 public class HaplotypeCallerReadThreadingAssemblerArgumentCollection extends ReadThreadingAssemblerArgumentCollection {
     private static final long serialVersionUID = 6520834L;
@@ -34,8 +35,8 @@ public class HaplotypeCallerReadThreadingAssemblerArgumentCollection extends Rea
     public boolean DEPRECATED_RecoverDanglingHeads = false;
 
     @Override
-    public ReadThreadingAssembler makeReadThreadingAssembler() {
-        final ReadThreadingAssembler assemblyEngine = new ReadThreadingAssembler(maxNumHaplotypesInPopulation, Collections.unmodifiableList(kmerSizes),
+    public ReadThreadingAssembler makeReadThreadingAssembler(final int maxNumHaplotypes, final List<Integer> kmerSizes) {
+        final ReadThreadingAssembler assemblyEngine = new ReadThreadingAssembler(maxNumHaplotypes, Collections.unmodifiableList(kmerSizes),
                 dontIncreaseKmerSizesForCycles, allowNonUniqueKmersInRef, numPruningSamples, useAdaptivePruning ? 0 : minPruneFactor,
                 useAdaptivePruning, initialErrorRateForPruning, pruningLogOddsThreshold, maxUnprunedVariants, useLinkedDeBruijnGraph);
         assemblyEngine.setDebugGraphTransformations(debugGraphTransformations);
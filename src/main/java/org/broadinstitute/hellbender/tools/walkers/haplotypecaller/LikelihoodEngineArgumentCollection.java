@@ -62,6 +62,16 @@ public final class LikelihoodEngineArgumentCollection implements Serializable {
     @Argument(fullName="phred-scaled-global-read-mismapping-rate", doc="The global assumed mismapping rate for reads", optional = true)
     public int phredScaledGlobalReadMismappingRate = 45;
 
+    /**
+     * Adjacent and overlapping assembly regions frequently score the same reads against haplotypes with identical bases.
+     * When this is positive, the raw PairHMM results of up to this many reads are kept and reused in subsequent regions,
+     * keyed by read identity and clipped span, the exact qualities fed to the PairHMM and the haplotype bases. Cached
+     * reads are evicted as traversal moves past them. A value of 0 disables the cache.
+     */
+    @Advanced
+    @Argument(fullName = "pair-hmm-results-cache-size", doc = "Maximum number of reads whose PairHMM results are cached for reuse across regions (0 to disable)", optional = true, minValue = 0)
+    public int pairHMMResultsCacheSize = 0;
+
     @ArgumentCollection
     public PairHMMNativeArgumentCollection pairHMMNativeArgs = new PairHMMNativeArgumentCollection();
 
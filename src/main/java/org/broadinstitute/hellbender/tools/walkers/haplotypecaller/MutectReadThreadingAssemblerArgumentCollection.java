@@ -6,6 +6,7 @@ import org.broadinstitute.hellbender.tools.walkers.haplotypecaller.readthreading
 
 import java.io.File;
 import java.util.Collections;
+import java.util.List;
 
 public class MutectReadThreadingAssemblerArgumentCollection extends ReadThreadingAssemblerArgumentCollection {
     private static final long serialVersionUID = 5304L;
@@ -20,8 +21,8 @@ public class MutectReadThreadingAssemblerArgumentCollection extends ReadThreadin
     public boolean disableAdaptivePruning = false;
 
     @Override
-    public ReadThreadingAssembler makeReadThreadingAssembler() {
-        final ReadThreadingAssembler assemblyEngine = new ReadThreadingAssembler(maxNumHaplotypesInPopulation, Collections.unmodifiableList(kmerSizes),
+    public ReadThreadingAssembler makeReadThreadingAssembler(final int maxNumHaplotypes, final List<Integer> kmerSizes) {
+        final ReadThreadingAssembler assemblyEngine = new ReadThreadingAssembler(maxNumHaplotypes, Collections.unmodifiableList(kmerSizes),
                 dontIncreaseKmerSizesForCycles, allowNonUniqueKmersInRef, numPruningSamples, disableAdaptivePruning ? minPruneFactor : 0,
                 !disableAdaptivePruning, initialErrorRateForPruning, pruningLogOddsThreshold, maxUnprunedVariants, useLinkedDeBruijnGraph);
         assemblyEngine.setDebugGraphTransformations(debugGraphTransformations);
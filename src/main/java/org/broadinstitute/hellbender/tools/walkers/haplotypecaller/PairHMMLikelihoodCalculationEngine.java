@@ -8,6 +8,7 @@ import org.broadinstitute.gatk.nativebindings.pairhmm.PairHMMNativeArguments;
 import org.broadinstitute.hellbender.exceptions.GATKException;
 import org.broadinstitute.hellbender.utils.MathUtils;
 import org.broadinstitute.hellbender.utils.QualityUtils;
+import org.broadinstitute.hellbender.utils.SimpleInterval;
 import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.genotyper.*;
 import org.broadinstitute.hellbender.utils.haplotype.Haplotype;
@@ -22,6 +23,7 @@ import java.io.FileOutputStream;
 import java.io.PrintStream;
 import java.util.*;
 import java.util.function.ToDoubleFunction;
+import java.util.stream.Collectors;
 
 /*
  * Classic likelihood computation: full pair-hmm all haplotypes vs all reads.
@@ -43,6 +45,11 @@ public final class PairHMMLikelihoodCalculationEngine implements ReadLikelihoodC
 
     private final PairHMM pairHMM;
 
+    /**
+     * Optional cache of PairHMM results shared across regions; {@code null} when disabled.
+     */
+    private final PairHMMResultsCache resultsCache;
+
     public enum PCRErrorModel {
         /** no specialized PCR error model will be applied; if base insertion/deletion qualities are present they will be used */
         NONE(0.0),
@@ -120,6 +127,28 @@ public final class PairHMMLikelihoodCalculationEngine implements ReadLikelihoodC
                                               final double log10globalReadMismappingRate,
                                               final PCRErrorModel pcrErrorModel,
                                               final byte baseQualityScoreThreshold) {
+        this( constantGCP, arguments, hmmType, log10globalReadMismappingRate, pcrErrorModel, baseQualityScoreThreshold, 0 );
+    }
+
+    /**
+     * Create a new PairHMMLikelihoodCalculationEngine using provided parameters and hmm to do its calculations
+     *
+     * @param constantGCP the gap continuation penalty to use with the PairHMM
+     * @param hmmType the type of the HMM to use
+     * @param log10globalReadMismappingRate the global mismapping probability, in log10(prob) units.
+     * @param pcrErrorModel model to correct for PCR indel artifacts
+     * @param baseQualityScoreThreshold Base qualities below this threshold will be reduced to the minimum usable base
+     *                                  quality.
+     * @param resultsCacheSize maximum number of reads whose PairHMM results are kept for reuse in subsequent
+     *                         regions, or 0 to disable the cache.
+     */
+    public PairHMMLikelihoodCalculationEngine(final byte constantGCP,
+                                              final PairHMMNativeArguments arguments,
+                                              final PairHMM.Implementation hmmType,
+                                              final double log10globalReadMismappingRate,
+                                              final PCRErrorModel pcrErrorModel,
+                                              final byte baseQualityScoreThreshold,
+                                              final int resultsCacheSize) {
         Utils.nonNull(hmmType, "hmmType is null");
         Utils.nonNull(pcrErrorModel, "pcrErrorModel is null");
         if (constantGCP < 0){
@@ -139,13 +168,24 @@ public final class PairHMMLikelihoodCalculationEngine implements ReadLikelihoodC
             throw new IllegalArgumentException("baseQualityScoreThreshold must be greater than or equal to " + QualityUtils.MIN_USABLE_Q_SCORE + " (QualityUtils.MIN_USABLE_Q_SCORE)");
         }
         this.baseQualityScoreThreshold = baseQualityScoreThreshold;
+
+        Utils.validateArg(resultsCacheSize >= 0, "the PairHMM results cache size cannot be negative");
+        this.resultsCache = resultsCacheSize > 0 ? new PairHMMResultsCache(resultsCacheSize) : null;
     }
 
     @Override
     public void close() {
+        if (resultsCache != null) {
+            resultsCache.logStatistics();
+        }
         pairHMM.close();
     }
 
+    @VisibleForTesting
+    PairHMMResultsCache getResultsCache() {
+        return resultsCache;
+    }
+
     @Override
     public AlleleLikelihoods<GATKRead, Haplotype> computeReadLikelihoods( final AssemblyResultSet assemblyResultSet, final SampleList samples, final Map<String, List<GATKRead>> perSampleReadList ) {
         Utils.nonNull(assemblyResultSet, "assemblyResultSet is null");
@@ -157,12 +197,14 @@ public final class PairHMMLikelihoodCalculationEngine implements ReadLikelihoodC
 
         initializePairHMM(haplotypeList, perSampleReadList);
 
+        if (resultsCache != null && assemblyResultSet.getRegionForGenotyping() != null) {
+            final SimpleInterval span = assemblyResultSet.getRegionForGenotyping().getPaddedSpan();
+            resultsCache.evictBefore(span.getContig(), span.getStart());
+        }
+
         // Add likelihoods for each sample's reads to our result
         final AlleleLikelihoods<GATKRead, Haplotype> result = new AlleleLikelihoods<>(samples, haplotypes, perSampleReadList);
-        final int sampleCount = result.numberOfSamples();
-        for (int i = 0; i < sampleCount; i++) {
-            computeReadLikelihoods(result.sampleMatrix(i));
-        }
+        computeReadLikelihoods(result);
 
         result.normalizeLikelihoods(log10globalReadMismappingRate);
         result.filterPoorlyModeledEvidence(log10MinTrueLikelihood(EXPECTED_ERROR_RATE_PER_BASE));
@@ -231,14 +273,146 @@ public final class PairHMMLikelihoodCalculationEngine implements ReadLikelihoodC
         pairHMM.initialize(haplotypes, perSampleReadList, readMaxLength, haplotypeMaxLength);
     }
 
-    private void computeReadLikelihoods(final LikelihoodMatrix<GATKRead, Haplotype> likelihoods) {
-        // Modify the read qualities by applying the PCR error model and capping the minimum base,insertion,deletion qualities
-        final List<GATKRead> processedReads = modifyReadQualities(likelihoods.evidence());
+    /**
+     * Computes the likelihoods of every sample's reads with a single batched PairHMM call, so that native
+     * implementations pay their setup and marshalling cost once per region rather than once per sample.
+     *
+     * If the results cache is enabled, reads with every haplotype cached are filled in directly and only the remaining
+     * reads are sent to the PairHMM, after which their results are added to the cache.
+     */
+    private void computeReadLikelihoods(final AlleleLikelihoods<GATKRead, Haplotype> result) {
+        final int sampleCount = result.numberOfSamples();
+        final List<LikelihoodMatrix<GATKRead, Haplotype>> matricesToScore = new ArrayList<>(sampleCount);
+        final List<List<GATKRead>> readsToScore = new ArrayList<>(sampleCount);
+
+        for (int i = 0; i < sampleCount; i++) {
+            final LikelihoodMatrix<GATKRead, Haplotype> likelihoods = result.sampleMatrix(i);
+
+            // Modify the read qualities by applying the PCR error model and capping the minimum base,insertion,deletion qualities
+            final List<GATKRead> processedReads = modifyReadQualities(likelihoods.evidence());
 
-        final Map<GATKRead, byte[]> gapContinuationPenalties = buildGapContinuationPenalties(processedReads, constantGCP);
+            if (resultsCache == null) {
+                matricesToScore.add(likelihoods);
+                readsToScore.add(processedReads);
+            } else {
+                final List<Integer> uncachedReadIndices = fillLikelihoodsFromCache(likelihoods, processedReads);
+                if (!uncachedReadIndices.isEmpty()) {
+                    matricesToScore.add(new ReadSubsetLikelihoodMatrix(likelihoods, uncachedReadIndices));
+                    readsToScore.add(uncachedReadIndices.stream().map(processedReads::get).collect(Collectors.toList()));
+                }
+            }
+        }
+
+        if (matricesToScore.isEmpty()) {
+            return;
+        }
+
+        final Map<GATKRead, byte[]> gapContinuationPenalties = buildGapContinuationPenalties(
+                readsToScore.stream().flatMap(List::stream).collect(Collectors.toList()), constantGCP);
 
         // Run the PairHMM to calculate the log10 likelihood of each (processed) reads' arising from each haplotype
-        pairHMM.computeLog10Likelihoods(likelihoods, processedReads, gapContinuationPenalties);
+        pairHMM.computeLog10Likelihoods(matricesToScore, readsToScore, gapContinuationPenalties);
+
+        if (resultsCache != null) {
+            for (int m = 0; m < matricesToScore.size(); m++) {
+                storeLikelihoodsInCache(matricesToScore.get(m), readsToScore.get(m));
+            }
+        }
+    }
+
+    /**
+     * Fills the likelihood matrix with cached values for reads that have every haplotype cached.
+     *
+     * @return the indices of the reads that still need to be scored by the PairHMM
+     */
+    private List<Integer> fillLikelihoodsFromCache(final LikelihoodMatrix<GATKRead, Haplotype> likelihoods, final List<GATKRead> processedReads) {
+        final List<GATKRead> reads = likelihoods.evidence();
+        final List<Haplotype> haplotypes = likelihoods.alleles();
+        final int haplotypeCount = haplotypes.size();
+        final double[] values = new double[haplotypeCount];
+
+        final List<Integer> uncachedReadIndices = new ArrayList<>();
+        for (int r = 0; r < reads.size(); r++) {
+            if (resultsCache.lookup(reads.get(r), processedReads.get(r), haplotypes, values)) {
+                for (int h = 0; h < haplotypeCount; h++) {
+                    likelihoods.set(h, r, values[h]);
+                }
+            } else {
+                uncachedReadIndices.add(r);
+            }
+        }
+        return uncachedReadIndices;
+    }
+
+    private void storeLikelihoodsInCache(final LikelihoodMatrix<GATKRead, Haplotype> likelihoods, final List<GATKRead> processedReads) {
+        final List<Haplotype> haplotypes = likelihoods.alleles();
+        final double[] values = new double[haplotypes.size()];
+        for (int r = 0; r < likelihoods.evidenceCount(); r++) {
+            for (int h = 0; h < values.length; h++) {
+                values[h] = likelihoods.get(h, r);
+            }
+            resultsCache.store(likelihoods.getEvidence(r), processedReads.get(r), haplotypes, values);
+        }
+    }
+
+    /**
+     * View of a subset of the evidence of a likelihood matrix, so that the PairHMM can write directly into the
+     * rows of the reads that were not found in the results cache.
+     */
+    private static final class ReadSubsetLikelihoodMatrix implements LikelihoodMatrix<GATKRead, Haplotype> {
+        private final LikelihoodMatrix<GATKRead, Haplotype> matrix;
+        private final List<Integer> evidenceIndices;
+        private final List<GATKRead> evidence;
+
+        private ReadSubsetLikelihoodMatrix(final LikelihoodMatrix<GATKRead, Haplotype> matrix, final List<Integer> evidenceIndices) {
+            this.matrix = matrix;
+            this.evidenceIndices = evidenceIndices;
+            this.evidence = evidenceIndices.stream().map(matrix::getEvidence).collect(Collectors.toList());
+        }
+
+        @Override
+        public List<GATKRead> evidence() { return Collections.unmodifiableList(evidence); }
+
+        @Override
+        public List<Haplotype> alleles() { return matrix.alleles(); }
+
+        @Override
+        public void set(final int alleleIndex, final int evidenceIndex, final double value) {
+            matrix.set(alleleIndex, evidenceIndices.get(evidenceIndex), value);
+        }
+
+        @Override
+        public double get(final int alleleIndex, final int evidenceIndex) {
+            return matrix.get(alleleIndex, evidenceIndices.get(evidenceIndex));
+        }
+
+        @Override
+        public int indexOfAllele(final Haplotype allele) { return matrix.indexOfAllele(allele); }
+
+        @Override
+        public int indexOfEvidence(final GATKRead evidence) {
+            Utils.nonNull(evidence);
+            return this.evidence.indexOf(evidence);
+        }
+
+        @Override
+        public int numberOfAlleles() { return matrix.numberOfAlleles(); }
+
+        @Override
+        public int evidenceCount() { return evidence.size(); }
+
+        @Override
+        public Haplotype getAllele(final int alleleIndex) { return matrix.getAllele(alleleIndex); }
+
+        @Override
+        public GATKRead getEvidence(final int evidenceIndex) { return evidence.get(evidenceIndex); }
+
+        @Override
+        public void copyAlleleLikelihoods(final int alleleIndex, final double[] dest, final int offset) {
+            for (int r = 0; r < evidence.size(); r++) {
+                dest[offset + r] = get(alleleIndex, r);
+            }
+        }
     }
 
     /**
@@ -0,0 +1,245 @@
+package org.broadinstitute.hellbender.tools.walkers.haplotypecaller;
+
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.haplotype.Haplotype;
+import org.broadinstitute.hellbender.utils.read.GATKRead;
+import org.broadinstitute.hellbender.utils.read.ReadUtils;
+
+import java.util.*;
+
+/**
+ * Bounded cache of raw (un-normalized) PairHMM log10 likelihoods shared across consecutive assembly regions.
+ *
+ * Adjacent and overlapping regions frequently score the same reads against haplotypes that have identical bases,
+ * so results are keyed by the identity of the read (name, pair end and clipped span), the exact bases and
+ * qualities that were fed to the PairHMM, and the haplotype bases.  Keys compare the full arrays, so a hash
+ * collision can never return the likelihoods of another read or haplotype.
+ *
+ * Entries are evicted in LRU order once {@code maxReads} reads are cached, and also as traversal moves forward:
+ * any read that ends before the start of the next region (or lies on another contig) can never be seen again and is
+ * dropped by {@link #evictBefore(String, int)}, which finds those reads through an index by end position.
+ */
+public final class PairHMMResultsCache {
+
+    private static final Logger logger = LogManager.getLogger(PairHMMResultsCache.class);
+
+    private final int maxReads;
+    private final Map<ReadKey, ReadEntry> cache;
+    // keys of the cached reads, by contig and then by end position
+    private final Map<String, TreeMap<Integer, List<ReadKey>>> keysByEnd = new HashMap<>();
+
+    private long hits = 0;
+    private long misses = 0;
+    private long evictions = 0;
+
+    /**
+     * @param maxReads maximum number of distinct (read, clipped span) entries to hold; must be positive.
+     */
+    public PairHMMResultsCache(final int maxReads) {
+        Utils.validateArg(maxReads > 0, () -> "the maximum number of cached reads must be positive but got " + maxReads);
+        this.maxReads = maxReads;
+        cache = new LinkedHashMap<ReadKey, ReadEntry>(maxReads + 1, 1.0f, true) {
+            private static final long serialVersionUID = 1L;
+
+            @Override
+            protected boolean removeEldestEntry(final Map.Entry<ReadKey, ReadEntry> eldest) {
+                if (size() > PairHMMResultsCache.this.maxReads) {
+                    unindex(eldest.getKey());
+                    return true;
+                }
+                return false;
+            }
+        };
+    }
+
+    /**
+     * Drops every cached read that can't overlap a region starting at {@code start} on {@code contig}.
+     *
+     * @param contig contig of the upcoming region
+     * @param start start of the upcoming region, including padding
+     */
+    public void evictBefore(final String contig, final int start) {
+        final Iterator<Map.Entry<String, TreeMap<Integer, List<ReadKey>>>> contigItr = keysByEnd.entrySet().iterator();
+        while (contigItr.hasNext()) {
+            final Map.Entry<String, TreeMap<Integer, List<ReadKey>>> contigEntry = contigItr.next();
+            final NavigableMap<Integer, List<ReadKey>> passedKeys = Objects.equals(contigEntry.getKey(), contig) ?
+                    contigEntry.getValue().headMap(start, false) : contigEntry.getValue();
+            for (final List<ReadKey> keys : passedKeys.values()) {
+                for (final ReadKey key : keys) {
+                    cache.remove(key);
+                }
+                evictions += keys.size();
+            }
+            passedKeys.clear();
+            if (contigEntry.getValue().isEmpty()) {
+                contigItr.remove();
+            }
+        }
+    }
+
+    /**
+     * Fills in {@code destination} with the cached log10 likelihoods of a read against each haplotype.
+     *
+     * @param originalRead the read as it appears in the likelihood matrix (used for identity and span)
+     * @param processedRead the quality-adjusted read that would be sent to the PairHMM
+     * @param haplotypes haplotypes in likelihood matrix order
+     * @param destination array of length {@code haplotypes.size()} that receives the cached values
+     * @return {@code true} iff every haplotype had a cached value for this read.
+     */
+    public boolean lookup(final GATKRead originalRead, final GATKRead processedRead, final List<Haplotype> haplotypes, final double[] destination) {
+        final ReadEntry entry = cache.get(new ReadKey(originalRead, processedRead));
+        if (entry == null) {
+            misses += haplotypes.size();
+            return false;
+        }
+        for (int h = 0; h < haplotypes.size(); h++) {
+            final Double value = entry.likelihoodByHaplotype.get(new HaplotypeKey(haplotypes.get(h).getBases()));
+            if (value == null) {
+                misses += haplotypes.size() - h;
+                hits += h;
+                return false;
+            }
+            destination[h] = value;
+        }
+        hits += haplotypes.size();
+        return true;
+    }
+
+    /**
+     * Records the log10 likelihoods of a read against each haplotype.
+     *
+     * @param originalRead the read as it appears in the likelihood matrix (used for identity and span)
+     * @param processedRead the quality-adjusted read that was sent to the PairHMM
+     * @param haplotypes haplotypes in likelihood matrix order
+     * @param likelihoods the PairHMM results, one per haplotype
+     */
+    public void store(final GATKRead originalRead, final GATKRead processedRead, final List<Haplotype> haplotypes, final double[] likelihoods) {
+        final ReadKey key = new ReadKey(originalRead, processedRead);
+        ReadEntry entry = cache.get(key);
+        if (entry == null) {
+            entry = new ReadEntry();
+            keysByEnd.computeIfAbsent(key.contig, contig -> new TreeMap<>())
+                    .computeIfAbsent(key.end, end -> new ArrayList<>(1))
+                    .add(key);
+            cache.put(key, entry);
+        }
+        for (int h = 0; h < haplotypes.size(); h++) {
+            entry.likelihoodByHaplotype.put(new HaplotypeKey(haplotypes.get(h).getBases().clone()), likelihoods[h]);
+        }
+    }
+
+    private void unindex(final ReadKey key) {
+        final TreeMap<Integer, List<ReadKey>> contigKeys = keysByEnd.get(key.contig);
+        if (contigKeys == null) {
+            return;
+        }
+        final List<ReadKey> keys = contigKeys.get(key.end);
+        if (keys != null && keys.remove(key) && keys.isEmpty()) {
+            contigKeys.remove(key.end);
+            if (contigKeys.isEmpty()) {
+                keysByEnd.remove(key.contig);
+            }
+        }
+    }
+
+    public long getHits() { return hits; }
+
+    public long getMisses() { return misses; }
+
+    public long getEvictions() { return evictions; }
+
+    public int size() { return cache.size(); }
+
+    /**
+     * @return the fraction of read-haplotype lookups that were served from the cache, or 0 if there were none.
+     */
+    public double getHitRate() {
+        final long total = hits + misses;
+        return total == 0 ? 0.0 : hits / (double) total;
+    }
+
+    public void logStatistics() {
+        logger.info(String.format("PairHMM results cache: %d hits, %d misses (hit rate %.3f), %d reads evicted by traversal",
+                hits, misses, getHitRate(), evictions));
+    }
+
+    /**
+     * The bases of a haplotype, compared in full.
+     */
+    private static final class HaplotypeKey {
+        private final byte[] bases;
+        private final int hash;
+
+        private HaplotypeKey(final byte[] bases) {
+            this.bases = bases;
+            this.hash = Arrays.hashCode(bases);
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            return this == o || (o instanceof HaplotypeKey && hash == ((HaplotypeKey) o).hash && Arrays.equals(bases, ((HaplotypeKey) o).bases));
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+
+    private static final class ReadEntry {
+        private final Map<HaplotypeKey, Double> likelihoodByHaplotype = new HashMap<>();
+    }
+
+    private static final class ReadKey {
+        private final String name;
+        private final boolean firstOfPair;
+        private final String contig;
+        private final int start;
+        private final int end;
+        private final byte[] bases;
+        private final byte[] qualities;
+        private final byte[] insertionQualities;
+        private final byte[] deletionQualities;
+        private final int hash;
+
+        private ReadKey(final GATKRead originalRead, final GATKRead processedRead) {
+            name = originalRead.getName();
+            firstOfPair = originalRead.isPaired() && originalRead.isFirstOfPair();
+            contig = originalRead.getContig();
+            start = originalRead.getStart();
+            end = originalRead.getEnd();
+            bases = processedRead.getBases();
+            qualities = processedRead.getBaseQualities();
+            insertionQualities = ReadUtils.getBaseInsertionQualities(processedRead);
+            deletionQualities = ReadUtils.getBaseDeletionQualities(processedRead);
+            int contentHash = Arrays.hashCode(bases);
+            contentHash = 31 * contentHash + Arrays.hashCode(qualities);
+            contentHash = 31 * contentHash + Arrays.hashCode(insertionQualities);
+            contentHash = 31 * contentHash + Arrays.hashCode(deletionQualities);
+            hash = 31 * Objects.hash(name, firstOfPair, contig, start, end) + contentHash;
+        }
+
+        @Override
+        public boolean equals(final Object o) {
+            if (this == o) {
+                return true;
+            }
+            if (o == null || getClass() != o.getClass()) {
+                return false;
+            }
+            final ReadKey other = (ReadKey) o;
+            return hash == other.hash && firstOfPair == other.firstOfPair && start == other.start && end == other.end
+                    && Objects.equals(name, other.name) && Objects.equals(contig, other.contig)
+                    && Arrays.equals(bases, other.bases) && Arrays.equals(qualities, other.qualities)
+                    && Arrays.equals(insertionQualities, other.insertionQualities)
+                    && Arrays.equals(deletionQualities, other.deletionQualities);
+        }
+
+        @Override
+        public int hashCode() {
+            return hash;
+        }
+    }
+}
@@ -201,5 +201,16 @@ public abstract class ReadThreadingAssemblerArgumentCollection implements Serial
     @Argument(fullName="min-observations-for-kmer-to-be-solid", doc = "A k-mer must be seen at least these times for it considered to be solid", optional = true)
     public int minObservationsForKmerToBeSolid = 20;
 
-    public abstract ReadThreadingAssembler makeReadThreadingAssembler();
+    public ReadThreadingAssembler makeReadThreadingAssembler() {
+        return makeReadThreadingAssembler(maxNumHaplotypesInPopulation, kmerSizes);
+    }
+
+    /**
+     * Make an assembler configured by these arguments, except for the number of haplotypes and the kmer sizes.
+     * Used to build cheaper assemblers for regions that would otherwise exceed their compute budget.
+     *
+     * @param maxNumHaplotypes the maximum number of haplotypes to take from the graph
+     * @param kmerSizes the kmer sizes to attempt
+     */
+    public abstract ReadThreadingAssembler makeReadThreadingAssembler(final int maxNumHaplotypes, final List<Integer> kmerSizes);
 }
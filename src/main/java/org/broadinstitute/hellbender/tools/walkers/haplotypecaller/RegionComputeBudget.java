@@ -0,0 +1,251 @@
+package org.broadinstitute.hellbender.tools.walkers.haplotypecaller;
+
+import com.google.common.annotations.VisibleForTesting;
+import htsjdk.variant.variantcontext.Allele;
+import htsjdk.variant.variantcontext.VariantContext;
+import htsjdk.variant.variantcontext.VariantContextBuilder;
+import htsjdk.variant.vcf.VCFInfoHeaderLine;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.broadinstitute.hellbender.engine.AssemblyRegion;
+import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.tools.walkers.haplotypecaller.readthreading.ReadThreadingAssembler;
+import org.broadinstitute.hellbender.utils.SimpleInterval;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.io.IOUtils;
+import org.broadinstitute.hellbender.utils.variant.GATKVCFConstants;
+import org.broadinstitute.hellbender.utils.variant.GATKVCFHeaderLines;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.nio.file.Files;
+import java.util.Collections;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+/**
+ * Per-region compute budget for assembly-based callers, with staged fallbacks to cheaper calling modes.
+ *
+ * The cost of each active region is predicted from its work, (number of reads) x (padded region length), either against
+ * a fixed work budget or, for the wall-clock budget, using the runtime per unit of work observed in previous regions
+ * that were called normally. Regions predicted to exceed their budget are assigned a {@link DegradationLevel}, which
+ * tells the caller which assembler to use and whether to skip assembly altogether. The wall clock is also checked after
+ * assembly, so that a region whose assembly alone blew the budget skips the PairHMM.
+ *
+ * Every degraded region is counted, and written to an optional tab-separated report. Variants called in a degraded
+ * region are annotated with the {@link GATKVCFConstants#DEGRADED_REGION_KEY} INFO field.
+ */
+public final class RegionComputeBudget implements AutoCloseable {
+
+    private static final Logger logger = LogManager.getLogger(RegionComputeBudget.class);
+
+    /**
+     * Weight given to the most recent region when updating the running estimate of runtime per unit of work.
+     */
+    private static final double RUNTIME_ESTIMATE_UPDATE_WEIGHT = 0.1;
+
+    public enum DegradationLevel {
+        /** the region is called normally */
+        NONE,
+        /** the region is assembled with a reduced maximum number of haplotypes */
+        REDUCED_HAPLOTYPES,
+        /** the region is assembled with a reduced maximum number of haplotypes and only the largest kmer size */
+        LARGEST_KMER_ONLY,
+        /** assembly and PairHMM are skipped; only the pileup-based reference model is emitted, if any */
+        PILEUP_ONLY;
+
+        public DegradationLevel atLeast(final DegradationLevel other) {
+            return compareTo(other) >= 0 ? this : other;
+        }
+    }
+
+    /**
+     * Budget bookkeeping for a single region.
+     */
+    public static final class RegionBudget {
+        private final SimpleInterval span;
+        private final int readCount;
+        private final long work;
+        private final long startNanos;
+        private DegradationLevel level;
+
+        private RegionBudget(final SimpleInterval span, final int readCount, final long work, final DegradationLevel level) {
+            this.span = span;
+            this.readCount = readCount;
+            this.work = work;
+            this.level = level;
+            this.startNanos = System.nanoTime();
+        }
+
+        public DegradationLevel getLevel() { return level; }
+
+        public boolean skipAssembly() { return level == DegradationLevel.PILEUP_ONLY; }
+
+        private long elapsedNanos() { return System.nanoTime() - startNanos; }
+    }
+
+    private final long maxRuntimeNanos;
+    private final long maxWork;
+    private final Map<DegradationLevel, ReadThreadingAssembler> assemblers = new EnumMap<>(DegradationLevel.class);
+    private final Map<DegradationLevel, Long> regionCounts = new EnumMap<>(DegradationLevel.class);
+    private final PrintStream report;
+
+    private double nanosPerWorkUnit = Double.NaN;
+
+    /**
+     * @return true if the arguments request a per-region runtime or work budget
+     */
+    public static boolean isEnabled(final AssemblyBasedCallerArgumentCollection args) {
+        return args.maxRegionRuntimeMillis > 0 || args.maxRegionWork > 0;
+    }
+
+    /**
+     * @param args caller arguments, from which the budgets and degraded assemblers are configured
+     * @param defaultAssembler the assembler used for regions within budget
+     */
+    public RegionComputeBudget(final AssemblyBasedCallerArgumentCollection args, final ReadThreadingAssembler defaultAssembler) {
+        Utils.nonNull(args);
+        Utils.nonNull(defaultAssembler);
+        Utils.validateArg(isEnabled(args), "a region compute budget requires a maximum runtime or work per region");
+        maxRuntimeNanos = args.maxRegionRuntimeMillis * 1_000_000L;
+        maxWork = args.maxRegionWork;
+
+        final int degradedMaxHaplotypes = Math.min(args.degradedMaxNumHaplotypes, args.assemblerArgs.maxNumHaplotypesInPopulation);
+        assemblers.put(DegradationLevel.NONE, defaultAssembler);
+        assemblers.put(DegradationLevel.REDUCED_HAPLOTYPES, args.createReadThreadingAssembler(degradedMaxHaplotypes, args.assemblerArgs.kmerSizes));
+        assemblers.put(DegradationLevel.LARGEST_KMER_ONLY, args.createReadThreadingAssembler(degradedMaxHaplotypes,
+                Collections.singletonList(Collections.max(args.assemblerArgs.kmerSizes))));
+        for (final DegradationLevel level : DegradationLevel.values()) {
+            regionCounts.put(level, 0L);
+        }
+
+        if (args.degradedRegionReport != null) {
+            try {
+                report = new PrintStream(Files.newOutputStream(IOUtils.getPath(args.degradedRegionReport)));
+            } catch (final IOException e) {
+                throw new UserException.CouldNotCreateOutputFile(args.degradedRegionReport, "Could not create degraded region report", e);
+            }
+            report.println(String.join("\t", "CONTIG", "START", "END", "READS", "WORK", "LEVEL", "ELAPSED_MS"));
+        } else {
+            report = null;
+        }
+    }
+
+    /**
+     * Start timing a region and decide up front how cheaply it must be called.
+     */
+    public RegionBudget startRegion(final AssemblyRegion region) {
+        final long work = (long) region.size() * region.getPaddedSpan().size();
+        return new RegionBudget(region.getSpan(), region.size(), work, predictLevel(work));
+    }
+
+    @VisibleForTesting
+    DegradationLevel predictLevel(final long work) {
+        double overBudgetRatio = 0.0;
+        if (maxWork > 0) {
+            overBudgetRatio = Math.max(overBudgetRatio, work / (double) maxWork);
+        }
+        if (maxRuntimeNanos > 0 && !Double.isNaN(nanosPerWorkUnit)) {
+            overBudgetRatio = Math.max(overBudgetRatio, work * nanosPerWorkUnit / maxRuntimeNanos);
+        }
+
+        if (overBudgetRatio <= 1.0) {
+            return DegradationLevel.NONE;
+        } else if (overBudgetRatio <= 2.0) {
+            return DegradationLevel.REDUCED_HAPLOTYPES;
+        } else if (overBudgetRatio <= 4.0) {
+            return DegradationLevel.LARGEST_KMER_ONLY;
+        } else {
+            return DegradationLevel.PILEUP_ONLY;
+        }
+    }
+
+    /**
+     * @return the assembler appropriate for the degradation level of the region
+     */
+    public ReadThreadingAssembler getAssembler(final RegionBudget regionBudget) {
+        Utils.validate(!regionBudget.skipAssembly(), "regions called from the pileup only should not be assembled");
+        return assemblers.get(regionBudget.level);
+    }
+
+    /**
+     * Check the wall clock once the region has been assembled. If the time budget has already been spent, the region
+     * is downgraded to {@link DegradationLevel#PILEUP_ONLY} so that the caller can skip the PairHMM.
+     *
+     * @return true if the remaining likelihood calculation and genotyping should be skipped
+     */
+    public boolean exhaustedAfterAssembly(final RegionBudget regionBudget) {
+        if (maxRuntimeNanos > 0 && regionBudget.elapsedNanos() > maxRuntimeNanos) {
+            regionBudget.level = DegradationLevel.PILEUP_ONLY;
+            return true;
+        }
+        return false;
+    }
+
+    /**
+     * Record the outcome of a region once calling is done.
+     */
+    public void finishRegion(final RegionBudget regionBudget) {
+        final long elapsedNanos = regionBudget.elapsedNanos();
+        regionCounts.merge(regionBudget.level, 1L, Long::sum);
+
+        if (regionBudget.level == DegradationLevel.NONE) {
+            if (regionBudget.work > 0) {
+                final double observed = elapsedNanos / (double) regionBudget.work;
+                nanosPerWorkUnit = Double.isNaN(nanosPerWorkUnit) ? observed
+                        : (1 - RUNTIME_ESTIMATE_UPDATE_WEIGHT) * nanosPerWorkUnit + RUNTIME_ESTIMATE_UPDATE_WEIGHT * observed;
+            }
+            return;
+        }
+
+        if (report != null) {
+            report.println(String.join("\t", regionBudget.span.getContig(), Integer.toString(regionBudget.span.getStart()),
+                    Integer.toString(regionBudget.span.getEnd()), Integer.toString(regionBudget.readCount),
+                    Long.toString(regionBudget.work), regionBudget.level.name(), Long.toString(elapsedNanos / 1_000_000L)));
+        }
+    }
+
+    /**
+     * Marks the variants called in a degraded region with the degradation level of the region.
+     * Reference blocks, which are emitted in GVCF mode, are left as they are.
+     *
+     * @return the calls, annotated if the region was degraded
+     */
+    public static List<VariantContext> annotateCalls(final RegionBudget regionBudget, final List<VariantContext> calls) {
+        if (regionBudget.level == DegradationLevel.NONE || calls.isEmpty()) {
+            return calls;
+        }
+        return calls.stream()
+                .map(vc -> isReferenceBlock(vc) ? vc :
+                        new VariantContextBuilder(vc).attribute(GATKVCFConstants.DEGRADED_REGION_KEY, regionBudget.level.name()).make())
+                .collect(Collectors.toList());
+    }
+
+    private static boolean isReferenceBlock(final VariantContext vc) {
+        return vc.getNAlleles() == 2 && vc.getAlternateAllele(0).equals(Allele.NON_REF_ALLELE);
+    }
+
+    /**
+     * @return the INFO header line for the annotation added by {@link #annotateCalls}
+     */
+    public static VCFInfoHeaderLine getVCFHeaderLine() {
+        return GATKVCFHeaderLines.getInfoLine(GATKVCFConstants.DEGRADED_REGION_KEY);
+    }
+
+    @VisibleForTesting
+    long getRegionCount(final DegradationLevel level) {
+        return regionCounts.get(level);
+    }
+
+    @Override
+    public void close() {
+        logger.info(String.format("Region compute budget: %d regions called normally, %d with reduced haplotypes, %d with the largest kmer only, %d from the pileup only",
+                regionCounts.get(DegradationLevel.NONE), regionCounts.get(DegradationLevel.REDUCED_HAPLOTYPES),
+                regionCounts.get(DegradationLevel.LARGEST_KMER_ONLY), regionCounts.get(DegradationLevel.PILEUP_ONLY)));
+        if (report != null) {
+            report.close();
+        }
+    }
+}
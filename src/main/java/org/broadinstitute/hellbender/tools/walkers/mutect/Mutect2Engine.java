@@ -93,6 +93,7 @@ public final class Mutect2Engine implements AssemblyRegionEvaluator {
 
     private CachingIndexedFastaSequenceFile referenceReader;
     private ReadThreadingAssembler assemblyEngine;
+    private RegionComputeBudget regionBudget;
     private ReadLikelihoodCalculationEngine likelihoodCalculationEngine;
     private SomaticGenotypingEngine genotypingEngine;
     private Optional<HaplotypeBAMWriter> haplotypeBAMWriter;
@@ -138,6 +139,7 @@ public final class Mutect2Engine implements AssemblyRegionEvaluator {
 
         annotationEngine = Utils.nonNull(annotatorEngine);
         assemblyEngine = MTAC.createReadThreadingAssembler();
+        regionBudget = RegionComputeBudget.isEnabled(MTAC) ? new RegionComputeBudget(MTAC, assemblyEngine) : null;
         likelihoodCalculationEngine = AssemblyBasedCallerUtils.createLikelihoodCalculationEngine(MTAC.likelihoodArgs);
         genotypingEngine = new SomaticGenotypingEngine(MTAC, normalSamples, annotationEngine);
         haplotypeBAMWriter = AssemblyBasedCallerUtils.createBamWriter(MTAC, createBamOutIndex, createBamOutMD5, header);
@@ -182,6 +184,9 @@ public final class Mutect2Engine implements AssemblyRegionEvaluator {
         headerInfo.addAll(annotationEngine.getVCFAnnotationDescriptions(false));
         headerInfo.addAll(defaultToolHeaderLines);
         STANDARD_MUTECT_INFO_FIELDS.stream().map(GATKVCFHeaderLines::getInfoLine).forEach(headerInfo::add);
+        if ( RegionComputeBudget.isEnabled(MTAC) ) {
+            headerInfo.add(RegionComputeBudget.getVCFHeaderLine());
+        }
 
         VCFStandardHeaderLines.addStandardFormatLines(headerInfo, true,
                 VCFConstants.GENOTYPE_KEY,
@@ -209,6 +214,20 @@ public final class Mutect2Engine implements AssemblyRegionEvaluator {
     }
 
     public List<VariantContext> callRegion(final AssemblyRegion originalAssemblyRegion, final ReferenceContext referenceContext, final FeatureContext featureContext ) {
+        if ( regionBudget == null || !originalAssemblyRegion.isActive() ) {
+            return callRegion(originalAssemblyRegion, referenceContext, featureContext, null);
+        }
+
+        final RegionComputeBudget.RegionBudget budget = regionBudget.startRegion(originalAssemblyRegion);
+        try {
+            return RegionComputeBudget.annotateCalls(budget, callRegion(originalAssemblyRegion, referenceContext, featureContext, budget));
+        } finally {
+            regionBudget.finishRegion(budget);
+        }
+    }
+
+    private List<VariantContext> callRegion(final AssemblyRegion originalAssemblyRegion, final ReferenceContext referenceContext,
+                                            final FeatureContext featureContext, final RegionComputeBudget.RegionBudget budget) {
         // divide PCR qual by two in order to get the correct total qual when treating paired reads as independent
         AssemblyBasedCallerUtils.cleanOverlappingReadPairs(originalAssemblyRegion.getReads(), samplesList, header,
                 false, OptionalInt.of(MTAC.pcrSnvQual /2), OptionalInt.of(MTAC.pcrIndelQual /2));
@@ -222,8 +241,14 @@ public final class Mutect2Engine implements AssemblyRegionEvaluator {
         final List<VariantContext> givenAlleles = featureContext.getValues(MTAC.alleles).stream()
                 .filter(vc -> MTAC.forceCallFiltered || vc.isNotFiltered()).collect(Collectors.toList());
 
+        if ( budget != null && budget.skipAssembly() ) {
+            // this region is too expensive to assemble within its compute budget
+            return emitReferenceConfidence() ? referenceModelForNoVariation(originalAssemblyRegion) : NO_CALLS;
+        }
+
         final AssemblyRegion assemblyActiveRegion = AssemblyBasedCallerUtils.assemblyRegionWithWellMappedReads(originalAssemblyRegion, READ_QUALITY_FILTER_THRESHOLD, header);
-        final AssemblyResultSet untrimmedAssemblyResult = AssemblyBasedCallerUtils.assembleReads(assemblyActiveRegion, givenAlleles, MTAC, header, samplesList, logger, referenceReader, assemblyEngine, aligner, false);
+        final ReadThreadingAssembler assembler = budget == null ? assemblyEngine : regionBudget.getAssembler(budget);
+        final AssemblyResultSet untrimmedAssemblyResult = AssemblyBasedCallerUtils.assembleReads(assemblyActiveRegion, givenAlleles, MTAC, header, samplesList, logger, referenceReader, assembler, aligner, false);
 
         final SortedSet<VariantContext> allVariationEvents = untrimmedAssemblyResult.getVariationEvents(MTAC.maxMnpDistance);
         final AssemblyRegionTrimmer.Result trimmingResult = trimmer.trim(originalAssemblyRegion, allVariationEvents, referenceContext);
@@ -238,6 +263,11 @@ public final class Mutect2Engine implements AssemblyRegionEvaluator {
             return emitReferenceConfidence() ? referenceModelForNoVariation(originalAssemblyRegion) : NO_CALLS;
         }
 
+        if ( budget != null && regionBudget.exhaustedAfterAssembly(budget) ) {
+            // assembly alone used up the compute budget for this region, so skip the PairHMM
+            return emitReferenceConfidence() ? referenceModelForNoVariation(originalAssemblyRegion) : NO_CALLS;
+        }
+
         final AssemblyRegion regionForGenotyping = assemblyResult.getRegionForGenotyping();
         removeReadStubs(regionForGenotyping);
 
@@ -349,6 +379,9 @@ public final class Mutect2Engine implements AssemblyRegionEvaluator {
     public void shutdown() {
         likelihoodCalculationEngine.close();
         aligner.close();
+        if ( regionBudget != null ) {
+            regionBudget.close();
+        }
         haplotypeBAMWriter.ifPresent(writer -> writer.close());
         referenceReader.close();
     }
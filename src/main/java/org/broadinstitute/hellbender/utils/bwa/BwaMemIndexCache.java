@@ -1,18 +1,37 @@
 package org.broadinstitute.hellbender.utils.bwa;
 
+import com.google.common.annotations.VisibleForTesting;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
 import org.apache.spark.api.java.JavaSparkContext;
 import org.broadinstitute.hellbender.exceptions.GATKException;
 import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.io.IOUtils;
 
+import java.io.IOException;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileLock;
+import java.nio.file.*;
+import java.nio.file.attribute.FileTime;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
 
 /**
  * Manage a global collection of {@link BwaMemIndex} instances.
+ * <p>
+ *     The index image is memory-mapped when it's loaded, so all the JVMs on a host that load the same local file share
+ *     a single copy of the image in memory.  {@link #getSharedInstance} takes advantage of this by first staging the
+ *     image into a local directory that is common to all the executors on the host.
+ * </p>
  */
 public class BwaMemIndexCache {
+    private static final Logger logger = LogManager.getLogger(BwaMemIndexCache.class);
 
     private final static Map<String, BwaMemIndex> instances = new HashMap<>();
 
+    // one monitor per staged image, since the file lock that guards staging can only be held once per JVM
+    private final static Map<Path, Object> stagingMonitors = new ConcurrentHashMap<>();
+
     /**
      * Returns a {@link BwaMemIndex} instance that corresponds to  given index image file.
      * @param indexImageFile the target image file.
@@ -20,10 +39,98 @@ public class BwaMemIndexCache {
      */
     public static synchronized BwaMemIndex getInstance( final String indexImageFile ) {
         Utils.nonNull(indexImageFile, "the index image file name provided cannot be null");
-        if (!instances.containsKey(indexImageFile)) {
-            instances.put(indexImageFile, new BwaMemIndex(indexImageFile));
+        return instances.computeIfAbsent(indexImageFile, imageFile -> loadIndex(imageFile));
+    }
+
+    /**
+     * Returns a {@link BwaMemIndex} instance for the given index image file, which may be on any file system that
+     * we can read (e.g., HDFS or GCS), after copying it into a local directory.
+     * The copy is made just once per host:  every JVM that asks for the same image in the same local directory maps
+     * the same file, and therefore shares its memory.  The copy is left in place to be reused by later stages and jobs.
+     * <p>
+     *     The instance is cached under the name of the original image file, so it can be closed by
+     *     {@link #closeInstance(String)} with the same name that was used here.
+     * </p>
+     * <p>
+     *     The image is staged without holding the cache's lock, so a long copy doesn't block threads that are using
+     *     or closing other instances.
+     * </p>
+     * @param indexImageFile the image file to be staged.
+     * @param localDirectory a directory on local disk, the same for all executors on a host.
+     * @return never {@code null}.
+     */
+    public static BwaMemIndex getSharedInstance( final String indexImageFile, final String localDirectory ) {
+        Utils.nonNull(indexImageFile, "the index image file name provided cannot be null");
+        Utils.nonNull(localDirectory, "the local directory provided cannot be null");
+        synchronized ( BwaMemIndexCache.class ) {
+            final BwaMemIndex index = instances.get(indexImageFile);
+            if ( index != null ) return index;
+        }
+        final String stagedImageFile = stageIndexImage(indexImageFile, localDirectory);
+        synchronized ( BwaMemIndexCache.class ) {
+            // another thread may have loaded the image while we were staging it
+            return instances.computeIfAbsent(indexImageFile, imageFile -> loadIndex(stagedImageFile));
         }
-        return instances.get(indexImageFile);
+    }
+
+    private static BwaMemIndex loadIndex( final String indexImageFile ) {
+        final long startTime = System.currentTimeMillis();
+        final BwaMemIndex index = new BwaMemIndex(indexImageFile);
+        logger.info("Loaded BWA-MEM index image " + indexImageFile + " in " +
+                (System.currentTimeMillis() - startTime) + " ms.");
+        return index;
+    }
+
+    /**
+     * Copies an index image file into a local directory, unless a file of the same name, size and last-modified time
+     * is already there, and returns the name of the local copy.  The copy is given the last-modified time of the
+     * original, so an image that's been rewritten since it was staged is staged again, even if its size is unchanged.
+     * The copy is written to a temporary file and then renamed while holding a lock on the local directory,
+     * so several JVMs on a host can safely try to stage the same image at once, and a partial copy is never used.
+     */
+    @VisibleForTesting
+    static String stageIndexImage( final String indexImageFile, final String localDirectory ) {
+        final Path source = IOUtils.getPath(indexImageFile);
+        final String imageName = source.getFileName().toString();
+        final Path directory = Paths.get(localDirectory);
+        final Path target = directory.resolve(imageName);
+        try {
+            final long imageSize = Files.size(source);
+            final FileTime imageTime = Files.getLastModifiedTime(source);
+            if ( isStaged(target, imageSize, imageTime) ) return target.toString();
+
+            Files.createDirectories(directory);
+            synchronized ( stagingMonitors.computeIfAbsent(target.toAbsolutePath(), path -> new Object()) ) {
+                try ( final FileChannel lockChannel = FileChannel.open(directory.resolve(imageName + ".lock"),
+                                                        StandardOpenOption.CREATE, StandardOpenOption.WRITE);
+                      final FileLock lock = lockChannel.lock() ) {
+                    // another thread or JVM may have staged the image while we were waiting for the lock
+                    if ( isStaged(target, imageSize, imageTime) ) return target.toString();
+
+                    final long startTime = System.currentTimeMillis();
+                    final Path tempFile = Files.createTempFile(directory, imageName, ".tmp");
+                    try {
+                        // the time is set explicitly, since COPY_ATTRIBUTES isn't supported between file systems
+                        Files.copy(source, tempFile, StandardCopyOption.REPLACE_EXISTING);
+                        Files.setLastModifiedTime(tempFile, imageTime);
+                        Files.move(tempFile, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+                    } finally {
+                        Files.deleteIfExists(tempFile);
+                    }
+                    logger.info("Staged BWA-MEM index image " + indexImageFile + " (" + imageSize + " bytes) to " +
+                            target + " in " + (System.currentTimeMillis() - startTime) + " ms.");
+                }
+            }
+        } catch ( final IOException ioe ) {
+            throw new GATKException("Unable to stage BWA-MEM index image " + indexImageFile + " to " + localDirectory, ioe);
+        }
+        return target.toString();
+    }
+
+    // times are compared to the millisecond, since file systems store them with differing precision
+    private static boolean isStaged( final Path target, final long imageSize, final FileTime imageTime ) throws IOException {
+        return Files.isRegularFile(target) && Files.size(target) == imageSize &&
+                Files.getLastModifiedTime(target).toMillis() == imageTime.toMillis();
     }
 
     /**
@@ -0,0 +1,145 @@
+package org.broadinstitute.hellbender.utils.downsampling;
+
+import htsjdk.samtools.Cigar;
+import htsjdk.samtools.CigarOperator;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.broadinstitute.hellbender.engine.AssemblyRegion;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.read.GATKRead;
+
+import java.util.*;
+
+/**
+ * Cost-aware downsampler for whole assembly regions.
+ *
+ * Unlike the {@link ReadsDownsampler}s, which operate on the read stream before region boundaries are known, this
+ * downsampler looks at a finished {@link AssemblyRegion} and estimates how expensive it will be to assemble and
+ * genotype as (number of reads) x (haplotype length) x (expected number of haplotypes). The haplotype length is the
+ * padded span of the region, and the expected number of haplotypes is approximated by the number of distinct
+ * non-trivial cigars among the reads, which tracks indel and soft-clip diversity in STRs and other messy regions.
+ *
+ * Regions whose estimated cost exceeds the budget are reservoir-downsampled to the largest number of reads that fits
+ * the budget; all other regions are left untouched, so ordinary regions are unaffected. Reads retained in a
+ * downsampled region keep their coordinate order.
+ */
+public final class AssemblyRegionCostDownsampler {
+
+    private static final Logger logger = LogManager.getLogger(AssemblyRegionCostDownsampler.class);
+
+    /**
+     * Upper bound on the expected haplotype count, matching the default cap on haplotypes in the assembly engine.
+     */
+    public static final int DEFAULT_MAX_EXPECTED_HAPLOTYPES = 128;
+
+    private final long maxRegionCost;
+    private final int maxExpectedHaplotypes;
+
+    private long regionsSeen = 0;
+    private long regionsDownsampled = 0;
+    private long readsDiscarded = 0;
+
+    /**
+     * @param maxRegionCost maximum estimated cost allowed for a region before it is downsampled, must be positive
+     * @param maxExpectedHaplotypes cap on the number of expected haplotypes used in the cost estimate, must be positive
+     */
+    public AssemblyRegionCostDownsampler(final long maxRegionCost, final int maxExpectedHaplotypes) {
+        Utils.validateArg(maxRegionCost > 0, "maxRegionCost must be > 0");
+        Utils.validateArg(maxExpectedHaplotypes > 0, "maxExpectedHaplotypes must be > 0");
+        this.maxRegionCost = maxRegionCost;
+        this.maxExpectedHaplotypes = maxExpectedHaplotypes;
+    }
+
+    public AssemblyRegionCostDownsampler(final long maxRegionCost) {
+        this(maxRegionCost, DEFAULT_MAX_EXPECTED_HAPLOTYPES);
+    }
+
+    /**
+     * Estimate the number of haplotypes assembly is likely to produce from the distinct read cigars.
+     * Reads that are a single full-length match don't contribute, since they support the reference (or a SNP).
+     */
+    public int estimateHaplotypeCount(final List<GATKRead> reads) {
+        final Set<Cigar> distinctCigars = new HashSet<>();
+        for (final GATKRead read : reads) {
+            final Cigar cigar = read.getCigar();
+            if (cigar.isEmpty()) {
+                continue;
+            }
+            if (cigar.numCigarElements() > 1 || cigar.getFirstCigarElement().getOperator() != CigarOperator.M) {
+                distinctCigars.add(cigar);
+                if (distinctCigars.size() + 1 >= maxExpectedHaplotypes) {
+                    break;
+                }
+            }
+        }
+        return Math.min(distinctCigars.size() + 1, maxExpectedHaplotypes);
+    }
+
+    /**
+     * @return the estimated assembly + PairHMM cost of the given region
+     */
+    public long estimateCost(final AssemblyRegion region) {
+        return estimateCost(region.size(), region.getPaddedSpan().size(), estimateHaplotypeCount(region.getReads()));
+    }
+
+    private static long estimateCost(final int readCount, final int haplotypeLength, final int haplotypeCount) {
+        return (long) readCount * haplotypeLength * haplotypeCount;
+    }
+
+    /**
+     * Downsample the reads in the region in-place if its estimated cost exceeds the budget.
+     *
+     * @param region region to evaluate; inactive regions are never downsampled as they are not assembled
+     * @return the number of reads removed from the region
+     */
+    public int downsample(final AssemblyRegion region) {
+        Utils.nonNull(region);
+        if (!region.isActive() || region.size() == 0) {
+            return 0;
+        }
+        regionsSeen++;
+
+        final List<GATKRead> reads = region.getReads();
+        final int haplotypeLength = region.getPaddedSpan().size();
+        final int haplotypeCount = estimateHaplotypeCount(reads);
+        final long cost = estimateCost(reads.size(), haplotypeLength, haplotypeCount);
+        if (cost <= maxRegionCost) {
+            return 0;
+        }
+
+        final int targetReadCount = (int) Math.max(1, maxRegionCost / ((long) haplotypeLength * haplotypeCount));
+        final ReservoirDownsampler reservoir = new ReservoirDownsampler(targetReadCount);
+        reservoir.submit(reads);
+        reservoir.signalEndOfInput();
+        final Set<GATKRead> retained = Collections.newSetFromMap(new IdentityHashMap<>());
+        retained.addAll(reservoir.consumeFinalizedItems());
+
+        region.clearReads();
+        for (final GATKRead read : reads) {
+            if (retained.contains(read)) {
+                region.add(read);
+            }
+        }
+
+        final int discarded = reads.size() - region.size();
+        regionsDownsampled++;
+        readsDiscarded += discarded;
+        logger.debug(String.format("Downsampled region %s from %d to %d reads (estimated cost %d with %d expected haplotypes of length %d)",
+                region.getSpan(), reads.size(), region.size(), cost, haplotypeCount, haplotypeLength));
+        return discarded;
+    }
+
+    public long getRegionsSeen() { return regionsSeen; }
+
+    public long getRegionsDownsampled() { return regionsDownsampled; }
+
+    public long getReadsDiscarded() { return readsDiscarded; }
+
+    /**
+     * @return a one-line summary of what this downsampler did, suitable for logging at the end of traversal
+     */
+    public String getSummaryLine() {
+        return String.format("Cost-aware downsampling reduced %d of %d active regions exceeding a cost of %d, discarding %d reads",
+                regionsDownsampled, regionsSeen, maxRegionCost, readsDiscarded);
+    }
+}
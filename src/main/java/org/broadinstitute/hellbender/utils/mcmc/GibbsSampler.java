@@ -20,14 +20,14 @@ import java.util.stream.Collectors;
  * @author Samuel Lee &lt;slee@broadinstitute.org&gt;
  */
 public final class GibbsSampler<V extends Enum<V> & ParameterEnum, S extends ParameterizedState<V>, T extends DataCollection> {
-    private static final int RANDOM_SEED = 42;
-    private static final RandomGenerator rng =
-            RandomGeneratorFactory.createRandomGenerator(new Random(RANDOM_SEED));
+    static final int RANDOM_SEED = 42;
 
     private static final Logger logger = LogManager.getLogger(GibbsSampler.class);
     private static final int NUMBER_OF_SAMPLES_PER_LOG_ENTRY = 25;
 
     private final int numSamples;
+    private final int randomSeed;
+    private final RandomGenerator rng;
     private int numSamplesPerLogEntry;
 
     private final ParameterizedModel<V, S, T> model;
@@ -44,10 +44,24 @@ public final class GibbsSampler<V extends Enum<V> & ParameterEnum, S extends Par
      * @param model         {@link ParameterizedModel} to be sampled
      */
     public GibbsSampler(final int numSamples, final ParameterizedModel<V, S, T> model) {
+        this(numSamples, model, RANDOM_SEED);
+    }
+
+    /**
+     * Constructs a GibbsSampler as above, but with the specified seed for the random number generator.
+     * Samplers with different seeds can be used to run independent chains concurrently
+     * (see {@link MultipleChainGibbsSampler}).
+     * @param numSamples    total number of samples; must be positive
+     * @param model         {@link ParameterizedModel} to be sampled
+     * @param randomSeed    seed for the random number generator, which is reset at the start of each run
+     */
+    public GibbsSampler(final int numSamples, final ParameterizedModel<V, S, T> model, final int randomSeed) {
         ParamUtils.isPositive(numSamples, "Number of samples must be positive.");
         Utils.validateArg(model.getUpdateMethod() == ParameterizedModel.UpdateMethod.GIBBS, "ParameterizedModel must be constructed to update using Gibbs sampling.");
         this.numSamples = numSamples;
         this.model = model;
+        this.randomSeed = randomSeed;
+        rng = RandomGeneratorFactory.createRandomGenerator(new Random(randomSeed));
         numSamplesPerLogEntry = NUMBER_OF_SAMPLES_PER_LOG_ENTRY;
         samples = new ArrayList<>(numSamples);
         samples.add(model.state());
@@ -67,7 +81,7 @@ public final class GibbsSampler<V extends Enum<V> & ParameterEnum, S extends Par
      * Progress is logged according to {@code numSamplesPerLogEntry}.
      */
     public void runMCMC() {
-        rng.setSeed(RANDOM_SEED);
+        rng.setSeed(randomSeed);
         logger.info("Starting MCMC sampling.");
         for (int sample = 1; sample < numSamples; sample++) {
             if (sample % numSamplesPerLogEntry == 0) {
@@ -0,0 +1,183 @@
+package org.broadinstitute.hellbender.utils.mcmc;
+
+import org.apache.commons.math3.stat.descriptive.moment.Mean;
+import org.apache.commons.math3.stat.descriptive.moment.Variance;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.broadinstitute.hellbender.exceptions.GATKException;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.param.ParamUtils;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+/**
+ * Runs independent Gibbs-sampling chains (see {@link GibbsSampler}) of the same model, optionally concurrently.
+ * Posterior samples from all chains are pooled, and the potential scale reduction factor
+ * (see {@link #calculatePotentialScaleReductionFactor}) can be used to check that the chains have converged
+ * to the same distribution.
+ *
+ * <p>
+ *     Each chain samples its own {@link ParameterizedModel}, which must not share any mutable state with the models
+ *     of the other chains.  The chain with index i is seeded with the default seed of {@link GibbsSampler} plus i, so that a
+ *     single chain reproduces the result of a plain {@link GibbsSampler}.  When more than one thread is used,
+ *     the chains are run in a dedicated {@link ForkJoinPool}; {@link ParameterSampler}s may check
+ *     {@link java.util.concurrent.ForkJoinTask#inForkJoinPool()} to parallelize their own work in the same pool.
+ * </p>
+ */
+public final class MultipleChainGibbsSampler<V extends Enum<V> & ParameterEnum, S extends ParameterizedState<V>, T extends DataCollection> {
+    private static final Logger logger = LogManager.getLogger(MultipleChainGibbsSampler.class);
+
+    private final int numSamples;
+    private final int numThreads;
+    private final List<GibbsSampler<V, S, T>> chains;
+
+    private boolean isMCMCRunComplete = false;
+
+    /**
+     * @param numSamples    total number of samples per chain (including burn-in); must be positive
+     * @param models        one {@link ParameterizedModel} per chain, each holding the initial state of its chain; must be non-empty
+     * @param numThreads    number of threads to use to run the chains; must be positive
+     */
+    public MultipleChainGibbsSampler(final int numSamples,
+                                     final List<ParameterizedModel<V, S, T>> models,
+                                     final int numThreads) {
+        ParamUtils.isPositive(numSamples, "Number of samples must be positive.");
+        Utils.nonEmpty(models, "List of models cannot be empty.");
+        ParamUtils.isPositive(numThreads, "Number of threads must be positive.");
+        this.numSamples = numSamples;
+        this.numThreads = numThreads;
+        chains = IntStream.range(0, models.size())
+                .mapToObj(chainIndex -> new GibbsSampler<>(numSamples, models.get(chainIndex), GibbsSampler.RANDOM_SEED + chainIndex))
+                .collect(Collectors.toList());
+    }
+
+    public int getNumChains() {
+        return chains.size();
+    }
+
+    /**
+     * Runs all chains, using the states of the models provided in the constructor to initialize.
+     */
+    public void runMCMC() {
+        logger.info(String.format("Running %d MCMC chain(s) using %d thread(s)...", chains.size(), numThreads));
+        if (numThreads == 1) {
+            chains.forEach(GibbsSampler::runMCMC);
+        } else {
+            final ForkJoinPool pool = new ForkJoinPool(numThreads);
+            try {
+                pool.submit(() -> chains.parallelStream().forEach(GibbsSampler::runMCMC)).get();
+            } catch (final InterruptedException e) {
+                Thread.currentThread().interrupt();
+                throw new GATKException("Interrupted while running MCMC chains.", e);
+            } catch (final ExecutionException e) {
+                if (e.getCause() instanceof RuntimeException) {
+                    throw (RuntimeException) e.getCause();
+                }
+                throw new GATKException("Exception while running MCMC chains.", e.getCause());
+            } finally {
+                pool.shutdown();
+            }
+        }
+        isMCMCRunComplete = true;
+    }
+
+    /**
+     * Returns the samples for a specified model parameter from all chains, in order of chain,
+     * discarding the first {@code numBurnIn} samples of each chain.
+     * @param parameterName         name of parameter
+     * @param parameterValueClass   class of parameter value
+     * @param numBurnIn             number of burn-in samples to discard from beginning of each chain
+     * @param <U>                   type of parameter value
+     * @return                      List of pooled parameter samples
+     */
+    public <U> List<U> getSamples(final V parameterName, final Class<U> parameterValueClass, final int numBurnIn) {
+        final List<U> samples = new ArrayList<>(chains.size() * (numSamples - numBurnIn));
+        getSamplesPerChain(parameterName, parameterValueClass, numBurnIn).forEach(samples::addAll);
+        return samples;
+    }
+
+    /**
+     * Returns the samples for a specified model parameter separately for each chain,
+     * discarding the first {@code numBurnIn} samples of each chain.
+     * @param parameterName         name of parameter
+     * @param parameterValueClass   class of parameter value
+     * @param numBurnIn             number of burn-in samples to discard from beginning of each chain
+     * @param <U>                   type of parameter value
+     * @return                      List of parameter samples for each chain
+     */
+    public <U> List<List<U>> getSamplesPerChain(final V parameterName, final Class<U> parameterValueClass, final int numBurnIn) {
+        if (!isMCMCRunComplete) {
+            runMCMC();
+        }
+        return chains.stream()
+                .map(chain -> chain.getSamples(parameterName, parameterValueClass, numBurnIn))
+                .collect(Collectors.toList());
+    }
+
+    /**
+     * Calculates the Gelman-Rubin potential scale reduction factor (R-hat) for a scalar parameter,
+     * which compares the variance of the samples between chains to that within chains.
+     * Values close to 1 indicate that the chains have converged to the same distribution;
+     * values above ~1.1 are commonly taken to indicate that more samples (or more burn-in) are needed.
+     * @param samplesPerChain   post-burn-in samples for each chain; all chains must have the same number of samples
+     * @return  the potential scale reduction factor, or {@link Double#NaN} if there are fewer than two chains,
+     *          fewer than two samples per chain, or if the samples contain {@link Double#NaN}
+     */
+    public static double calculatePotentialScaleReductionFactor(final List<List<Double>> samplesPerChain) {
+        Utils.nonNull(samplesPerChain);
+        final int numChains = samplesPerChain.size();
+        if (numChains < 2) {
+            return Double.NaN;
+        }
+        final int numSamplesPerChain = samplesPerChain.get(0).size();
+        Utils.validateArg(samplesPerChain.stream().allMatch(s -> s.size() == numSamplesPerChain),
+                "All chains must have the same number of samples.");
+        if (numSamplesPerChain < 2) {
+            return Double.NaN;
+        }
+
+        final double[] chainMeans = new double[numChains];
+        final double[] chainVariances = new double[numChains];
+        for (int chainIndex = 0; chainIndex < numChains; chainIndex++) {
+            final double[] samples = samplesPerChain.get(chainIndex).stream().mapToDouble(Double::doubleValue).toArray();
+            chainMeans[chainIndex] = new Mean().evaluate(samples);
+            chainVariances[chainIndex] = new Variance().evaluate(samples);
+        }
+        final double betweenChainVariance = numSamplesPerChain * new Variance().evaluate(chainMeans);
+        final double withinChainVariance = new Mean().evaluate(chainVariances);
+        if (withinChainVariance == 0.) {
+            //chains are constant; they have converged only if they are all equal
+            return betweenChainVariance == 0. ? 1. : Double.POSITIVE_INFINITY;
+        }
+        final double pooledVariance =
+                (numSamplesPerChain - 1.) / numSamplesPerChain * withinChainVariance + betweenChainVariance / numSamplesPerChain;
+        return Math.sqrt(pooledVariance / withinChainVariance);
+    }
+
+    /**
+     * Calculates the maximum of the potential scale reduction factors (see {@link #calculatePotentialScaleReductionFactor})
+     * over the components of a vector parameter (e.g., a segment-level parameter), ignoring components for which
+     * the factor is {@link Double#NaN}.
+     * @param samplesPerChain   post-burn-in samples for each chain; all samples must have the same number of components
+     * @return  the maximum potential scale reduction factor, or {@link Double#NaN} if it is {@link Double#NaN} for all components
+     */
+    public static double calculateMaximumPotentialScaleReductionFactor(final List<? extends List<? extends List<Double>>> samplesPerChain) {
+        Utils.nonNull(samplesPerChain);
+        if (samplesPerChain.isEmpty() || samplesPerChain.get(0).isEmpty()) {
+            return Double.NaN;
+        }
+        final int numComponents = samplesPerChain.get(0).get(0).size();
+        return IntStream.range(0, numComponents)
+                .mapToDouble(j -> calculatePotentialScaleReductionFactor(samplesPerChain.stream()
+                        .map(chain -> chain.stream().map(s -> s.get(j)).collect(Collectors.toList()))
+                        .collect(Collectors.toList())))
+                .filter(r -> !Double.isNaN(r))
+                .max()
+                .orElse(Double.NaN);
+    }
+}
@@ -258,6 +258,31 @@ public abstract class PairHMM implements Closeable{
         }
     }
 
+    /**
+     *  Batched version of {@link #computeLog10Likelihoods(LikelihoodMatrix, List, Map)} that scores several likelihood
+     *  matrices sharing the same haplotypes (typically one per sample) at once.
+     *
+     *  This implementation simply scores each matrix in turn; implementations with a significant per-call overhead,
+     *  such as the native ones, override it to score all the reads in a single call and scatter the results back into
+     *  each matrix.
+     *
+     * @param logLikelihoods the destination matrices, all of which must have the same alleles in the same order.
+     * @param processedReads for each matrix, the reads to analyze instead of the ones present in the matrix.
+     * @param gcp penalty for gap continuations base array map for all processed reads.
+     */
+    public void computeLog10Likelihoods(final List<? extends LikelihoodMatrix<GATKRead, Haplotype>> logLikelihoods,
+                                        final List<List<GATKRead>> processedReads,
+                                        final Map<GATKRead, byte[]> gcp) {
+        Utils.validateArg(logLikelihoods.size() == processedReads.size(), "there must be one list of processed reads per likelihood matrix");
+        final double[][] batchLogLikelihoods = new double[logLikelihoods.size()][];
+        for (int m = 0; m < logLikelihoods.size(); m++) {
+            mLogLikelihoodArray = null;
+            computeLog10Likelihoods(logLikelihoods.get(m), processedReads.get(m), gcp);
+            batchLogLikelihoods[m] = mLogLikelihoodArray == null ? new double[0] : mLogLikelihoodArray;
+        }
+        mLogLikelihoodArray = Arrays.stream(batchLogLikelihoods).flatMapToDouble(Arrays::stream).toArray();
+    }
+
     /**
      * Compute the total probability of read arising from haplotypeBases given base substitution, insertion, and deletion
      * probabilities.
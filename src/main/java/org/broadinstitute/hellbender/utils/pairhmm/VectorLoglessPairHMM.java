@@ -10,6 +10,7 @@ import org.broadinstitute.gatk.nativebindings.pairhmm.PairHMMNativeArguments;
 import org.broadinstitute.gatk.nativebindings.pairhmm.PairHMMNativeBinding;
 import org.broadinstitute.gatk.nativebindings.pairhmm.ReadDataHolder;
 import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.utils.Utils;
 import org.broadinstitute.hellbender.utils.genotyper.LikelihoodMatrix;
 import org.broadinstitute.hellbender.utils.haplotype.Haplotype;
 import org.broadinstitute.hellbender.utils.read.GATKRead;
@@ -171,6 +172,66 @@ public final class VectorLoglessPairHMM extends LoglessPairHMM {
     }
 
 
+    /**
+     * {@inheritDoc}
+     *
+     * All the reads from every matrix are sent to the native implementation in a single call, so the setup and
+     * marshalling overhead of the JNI call is paid once per batch rather than once per matrix.
+     */
+    @Override
+    public void computeLog10Likelihoods(final List<? extends LikelihoodMatrix<GATKRead, Haplotype>> logLikelihoods,
+                                        final List<List<GATKRead>> processedReads,
+                                        final Map<GATKRead, byte[]> gcp) {
+        Utils.validateArg(logLikelihoods.size() == processedReads.size(), "there must be one list of processed reads per likelihood matrix");
+        final int totalReadCount = processedReads.stream().mapToInt(List::size).sum();
+        if (totalReadCount == 0) {
+            return;
+        }
+        if (doProfiling) {
+            startTime = System.nanoTime();
+        }
+        final int numHaplotypes = mHaplotypeDataArray.length;
+        final ReadDataHolder[] readDataArray = new ReadDataHolder[totalReadCount];
+        int idx = 0;
+        for (final List<GATKRead> reads : processedReads) {
+            for (final GATKRead read : reads) {
+                readDataArray[idx] = new ReadDataHolder();
+                readDataArray[idx].readBases = read.getBases();
+                readDataArray[idx].readQuals = read.getBaseQualities();
+                readDataArray[idx].insertionGOP = ReadUtils.getBaseInsertionQualities(read);
+                readDataArray[idx].deletionGOP = ReadUtils.getBaseDeletionQualities(read);
+                readDataArray[idx].overallGCP = gcp.get(read);
+                ++idx;
+            }
+        }
+
+        mLogLikelihoodArray = new double[totalReadCount * numHaplotypes];      //to store results
+        if (doProfiling) {
+            threadLocalSetupTimeDiff = (System.nanoTime() - startTime);
+        }
+        pairHmm.computeLikelihoods(readDataArray, mHaplotypeDataArray, mLogLikelihoodArray);
+
+        // scatter the results back to each matrix, in the order in which the reads were batched
+        int readIdx = 0;
+        for (int m = 0; m < logLikelihoods.size(); m++) {
+            final LikelihoodMatrix<GATKRead, Haplotype> matrix = logLikelihoods.get(m);
+            final List<Haplotype> alleles = matrix.alleles();
+            final int[] idxInsideHaplotypeList = alleles.stream().mapToInt(haplotypeToHaplotypeListIdxMap::get).toArray();
+            final int readCount = processedReads.get(m).size();
+            for (int r = 0; r < readCount; r++) {
+                for (int hapIdx = 0; hapIdx < idxInsideHaplotypeList.length; hapIdx++) {
+                    matrix.set(hapIdx, r, mLogLikelihoodArray[readIdx + idxInsideHaplotypeList[hapIdx]]);
+                }
+                readIdx += numHaplotypes;
+            }
+        }
+        if (doProfiling) {
+            threadLocalPairHMMComputeTimeDiff = (System.nanoTime() - startTime);
+            pairHMMComputeTime += threadLocalPairHMMComputeTimeDiff;
+            pairHMMSetupTime += threadLocalSetupTimeDiff;
+        }
+    }
+
     @Override
     public void close() {
         pairHmm.done();
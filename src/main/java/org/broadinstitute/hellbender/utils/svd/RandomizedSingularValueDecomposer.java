@@ -0,0 +1,373 @@
+package org.broadinstitute.hellbender.utils.svd;
+
+import org.apache.commons.math3.linear.Array2DRowRealMatrix;
+import org.apache.commons.math3.linear.MatrixUtils;
+import org.apache.commons.math3.linear.RealMatrix;
+import org.apache.commons.math3.linear.SingularValueDecomposition;
+import org.apache.commons.math3.random.RandomGenerator;
+import org.apache.commons.math3.random.RandomGeneratorFactory;
+import org.apache.logging.log4j.LogManager;
+import org.apache.logging.log4j.Logger;
+import org.broadinstitute.hellbender.exceptions.GATKException;
+import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.param.ParamUtils;
+
+import java.util.Arrays;
+import java.util.Random;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.ForkJoinTask;
+import java.util.stream.IntStream;
+
+/**
+ * Truncated SVD using a randomized range finder with subspace iteration
+ * (see Algorithms 4.4 and 5.1 of Halko, Martinsson, and Tropp, SIAM Review 53, 217 (2011)).
+ *
+ * <p>
+ *     The n x m matrix A must be held in memory; it is not copied if it is an {@link Array2DRowRealMatrix}.
+ *     The decomposition makes 2 + 2 * (number of power iterations) passes over A and requires additional memory of
+ *     O((n + m) l), where l is the number of singular values requested plus the oversampling, so that it needs
+ *     far less memory than a full SVD when l is small.  The products are parallelized over subsets of the columns of A,
+ *     so this is most efficient for wide matrices (e.g., samples x intervals); the results do not depend on the number
+ *     of threads used.
+ * </p>
+ *
+ * <p>
+ *     The decomposition of the small l x m matrix B = Q<sup>T</sup> A (where the columns of Q are an orthonormal basis
+ *     for the approximate range of A) is obtained from a QR decomposition B<sup>T</sup> = P R followed by an SVD of
+ *     the l x l matrix R.  Unlike an eigendecomposition of B B<sup>T</sup>, this does not square the condition number,
+ *     so small singular values are resolved to working precision.  Only singular values that are numerically zero
+ *     (relative to the largest) are discarded, so fewer singular values than requested may be returned if A is rank
+ *     deficient.  The pseudoinverse is calculated from the truncated decomposition only when requested.
+ * </p>
+ */
+public final class RandomizedSingularValueDecomposer implements SingularValueDecomposer {
+
+    private static final Logger logger = LogManager.getLogger(RandomizedSingularValueDecomposer.class);
+
+    public static final int DEFAULT_OVERSAMPLING = 10;
+    public static final int DEFAULT_NUMBER_OF_POWER_ITERATIONS = 2;
+
+    private static final int RANDOM_SEED = 1729;
+    private static final double EPSILON = 1E-12;
+    private static final int NUM_INDICES_PER_TASK = 4096;
+
+    private final int numSingularValues;
+    private final int oversampling;
+    private final int numPowerIterations;
+    private final int numThreads;
+
+    /**
+     * @param numSingularValues     maximum number of singular values (and vectors) to calculate; must be positive
+     * @param numThreads            number of threads to use for the matrix products; must be positive
+     */
+    public RandomizedSingularValueDecomposer(final int numSingularValues,
+                                             final int numThreads) {
+        this(numSingularValues, DEFAULT_OVERSAMPLING, DEFAULT_NUMBER_OF_POWER_ITERATIONS, numThreads);
+    }
+
+    /**
+     * @param numSingularValues     maximum number of singular values (and vectors) to calculate; must be positive
+     * @param oversampling          number of additional random vectors used to find the range; must be non-negative
+     * @param numPowerIterations    number of subspace iterations, which improve accuracy when the singular values
+     *                              decay slowly; must be non-negative
+     * @param numThreads            number of threads to use for the matrix products; must be positive
+     */
+    public RandomizedSingularValueDecomposer(final int numSingularValues,
+                                             final int oversampling,
+                                             final int numPowerIterations,
+                                             final int numThreads) {
+        ParamUtils.isPositive(numSingularValues, "Number of singular values must be positive.");
+        ParamUtils.isPositiveOrZero(oversampling, "Oversampling must be non-negative.");
+        ParamUtils.isPositiveOrZero(numPowerIterations, "Number of power iterations must be non-negative.");
+        ParamUtils.isPositive(numThreads, "Number of threads must be positive.");
+        this.numSingularValues = numSingularValues;
+        this.oversampling = oversampling;
+        this.numPowerIterations = numPowerIterations;
+        this.numThreads = numThreads;
+    }
+
+    /**
+     * Create a truncated SVD instance of an in-memory matrix.
+     *
+     * @param m matrix that is not {@code null}
+     * @return SVD instance that is never {@code null}
+     * @throws UserException.BadInput if all singular values of the matrix are zero (e.g., all of its entries are zero)
+     */
+    @Override
+    public SVD createSVD(final RealMatrix m) {
+        Utils.nonNull(m, "Cannot create SVD on a null matrix.");
+        Utils.validateArg(m.getRowDimension() > 0 && m.getColumnDimension() > 0, "Cannot create SVD on an empty matrix.");
+        //avoid copying the matrix if possible, since it is only read
+        final double[][] a = m instanceof Array2DRowRealMatrix ? ((Array2DRowRealMatrix) m).getDataRef() : m.getData();
+        if (numThreads == 1) {
+            return decompose(a);
+        }
+        final ForkJoinPool pool = new ForkJoinPool(numThreads);
+        try {
+            return pool.submit(() -> decompose(a)).get();
+        } catch (final InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new GATKException("Interrupted while calculating SVD.", e);
+        } catch (final ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new GATKException("Exception while calculating SVD.", e.getCause());
+        } finally {
+            pool.shutdown();
+        }
+    }
+
+    //a is given as an array of rows
+    private SVD decompose(final double[][] a) {
+        final int numRows = a.length;
+        final int numColumns = a[0].length;
+        final int rank = Math.min(numSingularValues, Math.min(numRows, numColumns));
+        final int numRandomVectors = Math.min(rank + oversampling, Math.min(numRows, numColumns));
+        logger.info(String.format("Calculating randomized SVD (truncated at %d singular values) of %d x %d matrix using %d thread(s)...",
+                rank, numRows, numColumns, numThreads));
+
+        //find an orthonormal basis Q for the approximate range of A by applying A (A^T A)^q to a random matrix
+        final RandomGenerator rng = RandomGeneratorFactory.createRandomGenerator(new Random(RANDOM_SEED));
+        final double[][] randomMatrix = new double[numColumns][numRandomVectors];
+        for (final double[] row : randomMatrix) {
+            for (int k = 0; k < numRandomVectors; k++) {
+                row[k] = rng.nextGaussian();
+            }
+        }
+        logger.info("Finding approximate range...");
+        double[][] q = orthonormalizeColumns(multiply(a, randomMatrix));
+        for (int iteration = 0; iteration < numPowerIterations; iteration++) {
+            logger.info(String.format("Performing power iteration %d / %d...", iteration + 1, numPowerIterations));
+            q = orthonormalizeColumns(multiply(a, multiplyTranspose(a, q)));
+        }
+
+        //decompose B = Q^T A using the QR decomposition B^T = P R (by Gram-Schmidt, as above) and the SVD R = X S Y^T
+        //of the small l x l matrix R, so that A ~ Q B = (Q Y) S (P X)^T
+        logger.info("Decomposing projection onto approximate range...");
+        final double[][] bTranspose = multiplyTranspose(a, q);
+        final double[][] p = orthonormalizeColumns(bTranspose);
+        final SingularValueDecomposition smallSVD = new SingularValueDecomposition(calculateTransposeProduct(p, bTranspose));
+        final double[] smallSingularValues = smallSVD.getSingularValues();   //in decreasing order
+        if (!(smallSingularValues[0] > 0.)) {
+            throw new UserException.BadInput(String.format("Cannot create SVD of a %d x %d matrix whose singular values are all zero.",
+                    numRows, numColumns));
+        }
+        //discard singular values that are zero to within the precision of the decomposition
+        final double tolerance = Math.max(numRows, numColumns) * Math.ulp(smallSingularValues[0]);
+        final int numRetained = (int) IntStream.range(0, Math.min(rank, smallSingularValues.length))
+                .filter(k -> smallSingularValues[k] > tolerance)
+                .count();
+        if (numRetained < rank) {
+            logger.warn(String.format("Attempted to truncate at %d singular values, but only %d non-zero singular values were found...",
+                    rank, numRetained));
+        }
+
+        final double[] singularValues = Arrays.copyOf(smallSingularValues, numRetained);
+        final double[][] x = smallSVD.getU().getSubMatrix(0, numRandomVectors - 1, 0, numRetained - 1).getData();
+        final double[][] y = smallSVD.getV().getSubMatrix(0, numRandomVectors - 1, 0, numRetained - 1).getData();
+        final double[][] basis = q;
+        final double[][] u = new double[numRows][];
+        maybeParallel(IntStream.range(0, numRows)).forEach(i -> u[i] = multiplyRow(basis[i], y, 1.));
+        final double[][] v = new double[numColumns][];
+        maybeParallel(IntStream.range(0, numColumns)).forEach(j -> v[j] = multiplyRow(p[j], x, 1.));
+        logger.info("Randomized SVD calculated.");
+
+        return new TruncatedSVD(new Array2DRowRealMatrix(u, false), singularValues, new Array2DRowRealMatrix(v, false));
+    }
+    //returns a parallel stream if we are running in a fork-join pool (see createSVD), and a sequential stream otherwise
+    private static IntStream maybeParallel(final IntStream stream) {
+        return ForkJoinTask.inForkJoinPool() ? stream.parallel() : stream;
+    }
+
+    //returns the number of tasks needed to process numIndices rows or columns in subsets of NUM_INDICES_PER_TASK
+    private static int getNumTasks(final int numIndices) {
+        return (numIndices + NUM_INDICES_PER_TASK - 1) / NUM_INDICES_PER_TASK;
+    }
+
+    //returns the n x l product A X; partial products over each subset of columns of A are summed in a fixed order
+    private static double[][] multiply(final double[][] a,
+                                       final double[][] x) {
+        final int numRows = a.length;
+        final int numColumns = a[0].length;
+        final int numProductColumns = x[0].length;
+        final double[][][] partialProducts = maybeParallel(IntStream.range(0, getNumTasks(numColumns)))
+                .mapToObj(task -> {
+                    final int startColumn = task * NUM_INDICES_PER_TASK;
+                    final int endColumn = Math.min(startColumn + NUM_INDICES_PER_TASK, numColumns);
+                    final double[][] partialProduct = new double[numRows][numProductColumns];
+                    for (int i = 0; i < numRows; i++) {
+                        final double[] row = a[i];
+                        final double[] partialProductRow = partialProduct[i];
+                        for (int j = startColumn; j < endColumn; j++) {
+                            addScaled(partialProductRow, x[j], row[j]);
+                        }
+                    }
+                    return partialProduct;
+                })
+                .toArray(double[][][]::new);
+        final double[][] result = new double[numRows][numProductColumns];
+        for (final double[][] partialProduct : partialProducts) {
+            for (int i = 0; i < numRows; i++) {
+                addScaled(result[i], partialProduct[i], 1.);
+            }
+        }
+        return result;
+    }
+
+    //returns the m x l product A^T Y; each task accumulates the rows of the product for a subset of the columns of A
+    private static double[][] multiplyTranspose(final double[][] a,
+                                                final double[][] y) {
+        final int numRows = a.length;
+        final int numColumns = a[0].length;
+        final double[][] result = new double[numColumns][y[0].length];
+        maybeParallel(IntStream.range(0, getNumTasks(numColumns))).forEach(task -> {
+            final int startColumn = task * NUM_INDICES_PER_TASK;
+            final int endColumn = Math.min(startColumn + NUM_INDICES_PER_TASK, numColumns);
+            for (int i = 0; i < numRows; i++) {
+                final double[] row = a[i];
+                final double[] yRow = y[i];
+                for (int j = startColumn; j < endColumn; j++) {
+                    addScaled(result[j], yRow, row[j]);
+                }
+            }
+        });
+        return result;
+    }
+
+    //returns the l x l matrix X^T Y for the m x l matrices X and Y; partial sums over subsets of rows are summed in a fixed order
+    private static RealMatrix calculateTransposeProduct(final double[][] x,
+                                                        final double[][] y) {
+        final int numRows = x.length;
+        final int numColumns = x[0].length;
+        final double[][][] partialProducts = maybeParallel(IntStream.range(0, getNumTasks(numRows)))
+                .mapToObj(task -> {
+                    final double[][] partialProduct = new double[numColumns][numColumns];
+                    for (int i = task * NUM_INDICES_PER_TASK; i < Math.min((task + 1) * NUM_INDICES_PER_TASK, numRows); i++) {
+                        for (int k = 0; k < numColumns; k++) {
+                            addScaled(partialProduct[k], y[i], x[i][k]);
+                        }
+                    }
+                    return partialProduct;
+                })
+                .toArray(double[][][]::new);
+        final double[][] product = new double[numColumns][numColumns];
+        for (final double[][] partialProduct : partialProducts) {
+            for (int k = 0; k < numColumns; k++) {
+                addScaled(product[k], partialProduct[k], 1.);
+            }
+        }
+        return new Array2DRowRealMatrix(product, false);
+    }
+
+    //orthonormalizes the columns of the n x l matrix Y by modified Gram-Schmidt with reorthogonalization;
+    //columns that are numerically linearly dependent on previous columns are set to zero
+    private static double[][] orthonormalizeColumns(final double[][] y) {
+        final int numRows = y.length;
+        final int numColumns = y[0].length;
+        final double[][] columns = new double[numColumns][numRows];
+        for (int i = 0; i < numRows; i++) {
+            for (int k = 0; k < numColumns; k++) {
+                columns[k][i] = y[i][k];
+            }
+        }
+        for (int k = 0; k < numColumns; k++) {
+            final double[] column = columns[k];
+            final double originalNorm = Math.sqrt(dot(column, column));
+            for (int pass = 0; pass < 2; pass++) {
+                for (int previous = 0; previous < k; previous++) {
+                    addScaled(column, columns[previous], -dot(columns[previous], column));
+                }
+            }
+            final double norm = Math.sqrt(dot(column, column));
+            if (norm > EPSILON * originalNorm) {
+                for (int i = 0; i < numRows; i++) {
+                    column[i] /= norm;
+                }
+            } else {
+                Arrays.fill(column, 0.);
+            }
+        }
+        final double[][] q = new double[numRows][numColumns];
+        for (int i = 0; i < numRows; i++) {
+            for (int k = 0; k < numColumns; k++) {
+                q[i][k] = columns[k][i];
+            }
+        }
+        return q;
+    }
+
+    //returns scale * (row x), where x is given as an array of rows
+    private static double[] multiplyRow(final double[] row,
+                                        final double[][] x,
+                                        final double scale) {
+        final double[] result = new double[x[0].length];
+        for (int j = 0; j < row.length; j++) {
+            addScaled(result, x[j], scale * row[j]);
+        }
+        return result;
+    }
+
+    //sets x = x + scale * y
+    private static void addScaled(final double[] x,
+                                  final double[] y,
+                                  final double scale) {
+        for (int k = 0; k < x.length; k++) {
+            x[k] += scale * y[k];
+        }
+    }
+
+    private static double dot(final double[] x,
+                              final double[] y) {
+        double result = 0.;
+        for (int i = 0; i < x.length; i++) {
+            result += x[i] * y[i];
+        }
+        return result;
+    }
+
+    private static final class TruncatedSVD implements SVD {
+        private final RealMatrix u;
+        private final double[] singularValues;
+        private final RealMatrix v;
+        private RealMatrix pinv = null;
+
+        private TruncatedSVD(final RealMatrix u,
+                             final double[] singularValues,
+                             final RealMatrix v) {
+            this.u = u;
+            this.singularValues = singularValues;
+            this.v = v;
+        }
+
+        @Override
+        public RealMatrix getV() {
+            return v;
+        }
+
+        @Override
+        public RealMatrix getU() {
+            return u;
+        }
+
+        /**
+         * The pseudoinverse V S^-1 U^T of the truncated decomposition, which has the same number of values as the
+         * original matrix and is thus only calculated when requested.
+         */
+        @Override
+        public RealMatrix getPinv() {
+            if (pinv == null) {
+                pinv = v.multiply(MatrixUtils.createRealDiagonalMatrix(Arrays.stream(singularValues).map(s -> 1. / s).toArray()))
+                        .multiply(u.transpose());
+            }
+            return pinv;
+        }
+
+        @Override
+        public double[] getSingularValues() {
+            return singularValues;
+        }
+    }
+}
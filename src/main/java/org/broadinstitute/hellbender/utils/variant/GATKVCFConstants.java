@@ -38,6 +38,7 @@ public final class GATKVCFConstants {
     public static final String CLIPPING_RANK_SUM_KEY =              "ClippingRankSum";
     public static final String CULPRIT_KEY =                        "culprit";
     public static final String ORIGINAL_DP_KEY =                    "DP_Orig"; //SelectVariants
+    public static final String DEGRADED_REGION_KEY =                "DEGRADED_REGION";
     public static final String DOWNSAMPLED_KEY =                    "DS";
     public static final String EVENT_COUNT_IN_HAPLOTYPE_KEY =       "ECNT"; //M2
     public static final String FISHER_STRAND_KEY =                  "FS";
@@ -1,5 +1,8 @@
 package org.broadinstitute.hellbender.utils.variant;
 
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
 import org.broadinstitute.hellbender.utils.SimpleInterval;
 
 import java.io.Serializable;
@@ -57,4 +60,26 @@ public class MinimalVariant implements GATKVariant, Serializable {
         return String.format("MinimalVariant -- interval(%s:%d-%d), snp(%b), indel(%b)",
                 interval.getContig(), interval.getStart(), interval.getEnd(), snp, indel);
     }
+
+    /**
+     * Compact Kryo serializer that writes the end position relative to the start, since variants are short
+     */
+    public static final class Serializer extends com.esotericsoftware.kryo.Serializer<MinimalVariant> {
+        @Override
+        public void write(final Kryo kryo, final Output output, final MinimalVariant variant) {
+            output.writeString(variant.getContig());
+            output.writeVarInt(variant.getStart(), true);
+            output.writeVarInt(variant.getEnd() - variant.getStart(), true);
+            output.writeByte((variant.isSnp() ? 1 : 0) | (variant.isIndel() ? 2 : 0));
+        }
+
+        @Override
+        public MinimalVariant read(final Kryo kryo, final Input input, final Class<MinimalVariant> klass) {
+            final String contig = input.readString();
+            final int start = input.readVarInt(true);
+            final int end = start + input.readVarInt(true);
+            final byte type = input.readByte();
+            return new MinimalVariant(new SimpleInterval(contig, start, end), (type & 1) != 0, (type & 2) != 0);
+        }
+    }
 }
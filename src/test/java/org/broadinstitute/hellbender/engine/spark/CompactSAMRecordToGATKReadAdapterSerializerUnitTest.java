@@ -0,0 +1,156 @@
+package org.broadinstitute.hellbender.engine.spark;
+
+import com.esotericsoftware.kryo.Kryo;
+import com.esotericsoftware.kryo.Serializer;
+import com.esotericsoftware.kryo.io.Input;
+import com.esotericsoftware.kryo.io.Output;
+import org.apache.spark.SparkConf;
+import org.apache.spark.serializer.KryoRegistrator;
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.broadinstitute.hellbender.testutils.SparkTestUtils;
+import org.broadinstitute.hellbender.utils.SimpleInterval;
+import org.broadinstitute.hellbender.utils.read.ArtificialReadUtils;
+import org.broadinstitute.hellbender.utils.read.GATKRead;
+import org.broadinstitute.hellbender.utils.read.SAMRecordToGATKReadAdapter;
+import org.broadinstitute.hellbender.utils.variant.GATKVariant;
+import org.broadinstitute.hellbender.utils.variant.MinimalVariant;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.Random;
+
+public class CompactSAMRecordToGATKReadAdapterSerializerUnitTest extends GATKBaseTest {
+
+    public static class TestGATKRegistrator implements KryoRegistrator {
+        @SuppressWarnings("unchecked")
+        @Override
+        public void registerClasses(Kryo kryo) {
+            kryo.register(SAMRecordToGATKReadAdapter.class, new CompactSAMRecordToGATKReadAdapterSerializer());
+            kryo.register(MinimalVariant.class, new MinimalVariant.Serializer());
+        }
+    }
+
+    private static final SparkConf CONF = new SparkConf().set("spark.kryo.registrator",
+            "org.broadinstitute.hellbender.engine.spark.CompactSAMRecordToGATKReadAdapterSerializerUnitTest$TestGATKRegistrator");
+
+    private static GATKRead createRead(final String contig, final int start, final int length, final byte[] qualities) {
+        final GATKRead read = ArtificialReadUtils.createHeaderlessSamBackedRead("read1", contig, start, length);
+        read.setBaseQualities(qualities);
+        return read;
+    }
+
+    private static byte[] qualities(final int length, final byte... values) {
+        final byte[] qualities = new byte[length];
+        for (int i = 0; i < length; i++) {
+            qualities[i] = values[(i * 7) % values.length];
+        }
+        return qualities;
+    }
+
+    @DataProvider(name = "reads")
+    public Object[][] reads() {
+        final byte[] allQualities = new byte[41];
+        for (int i = 0; i < allQualities.length; i++) {
+            allQualities[i] = (byte) i;
+        }
+
+        final GATKRead mateOnOtherContig = createRead("1", 100, 50, qualities(50, (byte) 30));
+        mateOnOtherContig.setIsPaired(true);
+        mateOnOtherContig.setMatePosition("2", 300);
+        mateOnOtherContig.setFragmentLength(-250);
+
+        final GATKRead withAttributes = createRead("1", 100, 51, qualities(51, (byte) 2, (byte) 12, (byte) 23, (byte) 37));
+        withAttributes.setAttribute("RG", "readGroup1");
+        withAttributes.setAttribute("NM", 3);
+        withAttributes.setAttribute("BQ", new byte[]{1, 2, 3});
+
+        final GATKRead unmapped = createRead("1", 100, 49, qualities(49, (byte) 20, (byte) 30, (byte) 40));
+        unmapped.setIsUnmapped();
+
+        return new Object[][]{
+                {createRead("1", 100, 50, qualities(50, (byte) 30))},
+                {createRead("1", 100, 51, qualities(51, (byte) 10, (byte) 20))},
+                {createRead("1", 100, 50, qualities(50, Arrays.copyOf(allQualities, 16)))},
+                {createRead("1", 100, 50, qualities(50, Arrays.copyOf(allQualities, 17)))},
+                {createRead("1", 100, 50, qualities(50, allQualities))},
+                {createRead("1", 100, 50, new byte[0])},
+                {mateOnOtherContig},
+                {withAttributes},
+                {unmapped}
+        };
+    }
+
+    @Test(dataProvider = "reads")
+    public void testSerializerRoundTrip(final GATKRead read) {
+        final GATKRead roundTrippedRead = SparkTestUtils.roundTripInKryo(read, GATKRead.class, CONF);
+        Assert.assertEquals(roundTrippedRead, read);
+        Assert.assertEquals(roundTrippedRead.getContig(), read.getContig());
+        Assert.assertEquals(roundTrippedRead.getMateContig(), read.getMateContig());
+        Assert.assertEquals(roundTrippedRead.getBaseQualities(), read.getBaseQualities());
+    }
+
+    @Test
+    public void testChangingContigsOnHeaderlessGATKRead() {
+        final GATKRead read = ArtificialReadUtils.createHeaderlessSamBackedRead("read1", "1", 100, 50);
+        Assert.assertEquals(SparkTestUtils.roundTripInKryo(read, GATKRead.class, CONF), read);
+
+        read.setPosition("2", 1);
+        Assert.assertEquals(SparkTestUtils.roundTripInKryo(read, GATKRead.class, CONF), read);
+    }
+
+    @Test
+    public void testMinimalVariantRoundTrip() {
+        final MinimalVariant variant = new MinimalVariant(new SimpleInterval("1", 1000, 1003), false, true);
+        Assert.assertEquals(SparkTestUtils.roundTripInKryo(variant, GATKVariant.class, CONF), variant);
+    }
+
+    /**
+     * Compares the serialized size and throughput of the compact serializer with {@link SAMRecordToGATKReadAdapterSerializer}.
+     * This test is disabled by default since it only prints timings.
+     */
+    @Test(enabled = false)
+    public void benchmarkSerializers() {
+        final Random random = new Random(1);
+        final int numReads = 100000;
+        final List<GATKRead> reads = new ArrayList<>(numReads);
+        for (int i = 0; i < numReads; i++) {
+            // binned qualities, as produced by recent Illumina instruments
+            final GATKRead read = createRead("20", 1000000 + i * 10, 151, qualities(151, (byte) 2, (byte) 12, (byte) 23, (byte) 37));
+            read.setName("HWI-ST1234:8:1101:" + random.nextInt(20000) + ":" + random.nextInt(200000));
+            read.setIsPaired(true);
+            read.setMatePosition("20", 1000300 + i * 10);
+            read.setFragmentLength(450);
+            read.setAttribute("RG", "readGroup1");
+            read.setAttribute("NM", random.nextInt(5));
+            reads.add(read);
+        }
+
+        for (final Serializer<SAMRecordToGATKReadAdapter> serializer :
+                Arrays.asList(new SAMRecordToGATKReadAdapterSerializer(), new CompactSAMRecordToGATKReadAdapterSerializer())) {
+            final Kryo kryo = new Kryo();
+            kryo.register(SAMRecordToGATKReadAdapter.class, serializer);
+            final Output output = new Output(1 << 20, -1);
+            final long writeStart = System.nanoTime();
+            for (final GATKRead read : reads) {
+                kryo.writeObject(output, read);
+            }
+            final long writeTime = System.nanoTime() - writeStart;
+            final byte[] bytes = output.toBytes();
+
+            final Input input = new Input(bytes);
+            final long readStart = System.nanoTime();
+            for (int i = 0; i < numReads; i++) {
+                kryo.readObject(input, SAMRecordToGATKReadAdapter.class).getBaseQualities();
+            }
+            final long readTime = System.nanoTime() - readStart;
+
+            System.out.println(String.format("%s: %.1f bytes/record, write %.0f records/s, read %.0f records/s",
+                    serializer.getClass().getSimpleName(), bytes.length / (double) numReads,
+                    numReads / (writeTime / 1e9), numReads / (readTime / 1e9)));
+        }
+    }
+}
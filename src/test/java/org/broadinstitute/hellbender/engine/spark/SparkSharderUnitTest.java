@@ -435,6 +435,29 @@ public class SparkSharderUnitTest extends GATKBaseTest implements Serializable {
                 ));
     }
 
+    @Test
+    public void testEdgeLocatables() {
+        // Reads in partition 2, which is needed by intervals starting in partition 0 (extending to 1:12)
+        // and partition 1 (extending to 1:14)
+        List<TestRead> reads = ImmutableList.of(
+                new TestRead(11, 13), new TestRead(12, 14), new TestRead(14, 16), new TestRead(15, 17), new TestRead(16, 18));
+        List<SparkSharder.PartitionLocatable<SimpleInterval>> targets = ImmutableList.of(
+                new SparkSharder.PartitionLocatable<>(0, new SimpleInterval("1", 12, 12)),
+                new SparkSharder.PartitionLocatable<>(1, new SimpleInterval("1", 14, 14)));
+
+        List<Tuple2<SparkSharder.EdgeKey, TestRead>> edges =
+                Lists.newArrayList(SparkSharder.edgeLocatables(2, reads.iterator(), targets, sequenceDictionary));
+        assertEquals(edges.stream().map(Tuple2::_1).collect(Collectors.toList()), ImmutableList.of(
+                new SparkSharder.EdgeKey(0, 2, 0), new SparkSharder.EdgeKey(1, 2, 0),
+                new SparkSharder.EdgeKey(0, 2, 1), new SparkSharder.EdgeKey(1, 2, 1),
+                new SparkSharder.EdgeKey(1, 2, 2)));
+        assertEquals(edges.stream().map(Tuple2::_2).collect(Collectors.toList()), ImmutableList.of(
+                reads.get(0), reads.get(0), reads.get(1), reads.get(1), reads.get(2)));
+
+        // no earlier partitions need any reads
+        assertFalse(SparkSharder.edgeLocatables(2, reads.iterator(), ImmutableList.of(), sequenceDictionary).hasNext());
+    }
+
     private static class TestRead implements Locatable {
         private static final long serialVersionUID = 1L;
         private final String contig;
@@ -2,6 +2,7 @@ package org.broadinstitute.hellbender.engine.spark.datasources;
 
 
 import htsjdk.samtools.*;
+import htsjdk.samtools.util.BlockCompressedStreamConstants;
 import htsjdk.samtools.util.FileExtensions;
 import org.apache.hadoop.conf.Configuration;
 import org.apache.hadoop.fs.FileSystem;
@@ -24,6 +25,7 @@ import org.testng.annotations.BeforeClass;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
+import java.io.ByteArrayOutputStream;
 import java.io.File;
 import java.io.IOException;
 import java.nio.file.Files;
@@ -170,7 +172,39 @@ public class ReadsSparkSinkUnitTest extends GATKBaseTest {
         assertSingleShardedWritingWorks(inputBam, null, outputUrl, null, true, true, 100L);
     }
 
+    @Test(dataProvider = "loadReadsBAM", groups = "spark")
+    public void readsSinkParallelMergeTest(String inputBam, String outputFileName, String referenceFile, String outputFileExtension, boolean writeBai, boolean writeSbi, long sbiGranularity) throws IOException {
+        final File outputFile = createTempFile(outputFileName, outputFileExtension);
+        assertSingleShardedWritingWorks(new GATKPath(inputBam), referenceFile, outputFile.getAbsolutePath(), null, writeBai, writeSbi, sbiGranularity, 4);
+    }
+
+    @Test
+    public void testConcatenateParts() throws IOException {
+        final List<java.nio.file.Path> inputs = new ArrayList<>();
+        final ByteArrayOutputStream expected = new ByteArrayOutputStream();
+        for (int i = 0; i < 5; i++) {
+            final byte[] bytes = new byte[i * 1000];
+            for (int j = 0; j < bytes.length; j++) {
+                bytes[j] = (byte) (i + j);
+            }
+            final java.nio.file.Path input = createTempFile("part" + i, ".bin").toPath();
+            Files.write(input, bytes);
+            inputs.add(input);
+            expected.write(bytes);
+        }
+        expected.write(BlockCompressedStreamConstants.EMPTY_GZIP_BLOCK);
+
+        final java.nio.file.Path output = createTempFile("concatenated", ".bin").toPath();
+        final long[] offsets = ParallelPartsMerger.concatenate(inputs.get(0), inputs.subList(1, inputs.size()), output, 3);
+        Assert.assertEquals(offsets, new long[]{0, 1000, 3000, 6000, 10000});
+        Assert.assertEquals(Files.readAllBytes(output), expected.toByteArray());
+    }
+
     private void assertSingleShardedWritingWorks(GATKPath inputBam, String referenceFile, String outputPath, String outputPartsPath, boolean writeBai, boolean writeSbi, long sbiGranularity) throws IOException {
+        assertSingleShardedWritingWorks(inputBam, referenceFile, outputPath, outputPartsPath, writeBai, writeSbi, sbiGranularity, 0);
+    }
+
+    private void assertSingleShardedWritingWorks(GATKPath inputBam, String referenceFile, String outputPath, String outputPartsPath, boolean writeBai, boolean writeSbi, long sbiGranularity, int mergeThreads) throws IOException {
         JavaSparkContext ctx = SparkContextFactory.getTestSparkContext();
 
         final GATKPath referencePath = referenceFile == null ? null : new GATKPath(referenceFile);
@@ -179,7 +213,7 @@ public class ReadsSparkSinkUnitTest extends GATKBaseTest {
         JavaRDD<GATKRead> rddParallelReads = readSource.getParallelReads(inputBam, referencePath);
         SAMFileHeader header = readSource.getHeader(inputBam, referencePath);
 
-        ReadsSparkSink.writeReads(ctx, outputPath, referencePath, rddParallelReads, header, ReadsWriteFormat.SINGLE, 0, outputPartsPath, writeBai, writeSbi, true, sbiGranularity);
+        ReadsSparkSink.writeReads(ctx, outputPath, referencePath, rddParallelReads, header, ReadsWriteFormat.SINGLE, 0, outputPartsPath, writeBai, writeSbi, true, sbiGranularity, mergeThreads);
 
         // check that a bai file is created
         if (new GATKPath(outputPath).isBam() && writeBai) {
@@ -4,9 +4,11 @@ import com.google.common.collect.ImmutableList;
 import com.google.common.collect.Iterators;
 import com.google.common.collect.Lists;
 import htsjdk.samtools.*;
+import org.apache.avro.Schema;
 import org.apache.hadoop.fs.Path;
 import org.apache.spark.api.java.JavaRDD;
 import org.apache.spark.api.java.JavaSparkContext;
+import org.bdgenomics.formats.avro.AlignmentRecord;
 import org.broadinstitute.hellbender.engine.GATKPath;
 import org.broadinstitute.hellbender.engine.ReadsDataSource;
 import org.broadinstitute.hellbender.engine.ReadsPathDataSource;
@@ -26,7 +28,12 @@ import org.testng.annotations.Test;
 
 import java.io.File;
 import java.io.IOException;
+import java.util.Arrays;
+import java.util.EnumSet;
+import java.util.HashSet;
 import java.util.List;
+import java.util.Set;
+import java.util.stream.Collectors;
 
 import static org.testng.Assert.assertEquals;
 
@@ -276,6 +283,69 @@ public class ReadsSparkSourceUnitTest extends GATKBaseTest {
         }
     }
 
+    @Test(groups = "spark")
+    public void testReadFieldProjection() {
+        final JavaSparkContext ctx = SparkContextFactory.getTestSparkContext();
+        final ReadsSparkSource readSource = new ReadsSparkSource(ctx);
+        final GATKPath bamPathSpecifier = new GATKPath(dirBQSR + "HiSeq.1mb.1RG.2k_lines.alternate.bam");
+        final List<GATKRead> allFieldReads = readSource.getParallelReads(bamPathSpecifier, null, null, 0, false, ReadField.ALL).collect();
+        final List<GATKRead> projectedReads = readSource.getParallelReads(bamPathSpecifier, null, null, 0, false,
+                EnumSet.of(ReadField.QUALITIES)).collect();
+
+        Assert.assertEquals(projectedReads.size(), allFieldReads.size());
+        for (int i = 0; i < allFieldReads.size(); i++) {
+            final GATKRead read = allFieldReads.get(i);
+            final GATKRead projectedRead = projectedReads.get(i);
+            Assert.assertEquals(projectedRead.getFlags(), read.getFlags());
+            Assert.assertEquals(projectedRead.getContig(), read.getContig());
+            Assert.assertEquals(projectedRead.getStart(), read.getStart());
+            Assert.assertEquals(projectedRead.getEnd(), read.getEnd());
+            Assert.assertEquals(projectedRead.getCigar(), read.getCigar());
+            Assert.assertEquals(projectedRead.getMappingQuality(), read.getMappingQuality());
+            Assert.assertEquals(projectedRead.getMateContig(), read.getMateContig());
+            Assert.assertEquals(projectedRead.getFragmentLength(), read.getFragmentLength());
+            Assert.assertEquals(projectedRead.getBaseQualities(), read.getBaseQualities());
+            // the bases are loaded along with the qualities
+            Assert.assertEquals(projectedRead.getBases(), read.getBases());
+            Assert.assertNull(projectedRead.getName());
+            Assert.assertNull(projectedRead.getReadGroup());
+        }
+    }
+
+    @Test
+    public void testFieldsToLoad() {
+        Assert.assertEquals(ReadsSparkSource.getFieldsToLoad(null, EnumSet.noneOf(ReadField.class)), EnumSet.noneOf(ReadField.class));
+        Assert.assertEquals(ReadsSparkSource.getFieldsToLoad(null, EnumSet.of(ReadField.QUALITIES)),
+                EnumSet.of(ReadField.BASES, ReadField.QUALITIES));
+        final SAMFileHeader queryGroupedHeader = new SAMFileHeader();
+        queryGroupedHeader.setGroupOrder(SAMFileHeader.GroupOrder.query);
+        Assert.assertEquals(ReadsSparkSource.getFieldsToLoad(queryGroupedHeader, EnumSet.of(ReadField.BASES)),
+                EnumSet.of(ReadField.NAME, ReadField.BASES));
+    }
+
+    @Test
+    public void testAlignmentRecordProjection() {
+        final Set<String> allColumns = getFieldNames(AlignmentRecord.getClassSchema());
+        Assert.assertTrue(allColumns.containsAll(Arrays.asList("readName", "sequence", "qual", "attributes")));
+
+        final Set<String> projectedColumns = getFieldNames(
+                ReadsSparkSource.getAlignmentRecordProjection(EnumSet.of(ReadField.NAME, ReadField.ATTRIBUTES)));
+        Assert.assertTrue(projectedColumns.contains("readName"));
+        Assert.assertTrue(projectedColumns.contains("attributes"));
+        Assert.assertFalse(projectedColumns.contains("sequence"));
+        Assert.assertFalse(projectedColumns.contains("qual"));
+        // the columns that are always needed are kept
+        final Set<String> expectedColumns = new HashSet<>(allColumns);
+        expectedColumns.removeAll(Arrays.asList("sequence", "qual"));
+        Assert.assertEquals(projectedColumns, expectedColumns);
+
+        Assert.assertEquals(getFieldNames(ReadsSparkSource.getAlignmentRecordProjection(ReadField.ALL)), allColumns);
+    }
+
+    private static Set<String> getFieldNames(final Schema schema) {
+        return schema.getFields().stream().map(Schema.Field::name).collect(Collectors.toSet());
+    }
+
     /**
      * Loads Reads using samReaderFactory, then calling ctx.parallelize.
      * @param bam file to load
@@ -6,6 +6,7 @@ import htsjdk.samtools.SAMSequenceRecord;
 import htsjdk.samtools.seekablestream.SeekablePathStream;
 import htsjdk.samtools.seekablestream.SeekableStream;
 import htsjdk.samtools.util.BlockCompressedInputStream;
+import htsjdk.samtools.util.CloseableIterator;
 import htsjdk.samtools.util.FileExtensions;
 import htsjdk.samtools.util.IOUtil;
 import htsjdk.variant.utils.VCFHeaderReader;
@@ -14,6 +15,7 @@ import htsjdk.variant.variantcontext.GenotypeBuilder;
 import htsjdk.variant.variantcontext.VariantContext;
 import htsjdk.variant.variantcontext.VariantContextBuilder;
 import htsjdk.variant.vcf.VCFConstants;
+import htsjdk.variant.vcf.VCFFileReader;
 import htsjdk.variant.vcf.VCFHeader;
 import htsjdk.variant.vcf.VCFHeaderLine;
 import htsjdk.variant.vcf.VCFStandardHeaderLines;
@@ -42,6 +44,7 @@ import org.testng.annotations.Test;
 import java.io.*;
 import java.net.URI;
 import java.util.*;
+import java.util.stream.Collectors;
 import java.util.zip.GZIPInputStream;
 
 public final class VariantsSparkSinkUnitTest extends GATKBaseTest {
@@ -100,6 +103,51 @@ public final class VariantsSparkSinkUnitTest extends GATKBaseTest {
         assertSingleShardedWritingWorks(vcf, outputUrl, writeTabixIndex);
     }
 
+    @DataProvider
+    public Object[][] parallelMergeCases() {
+        return new Object[][]{
+                {".vcf", false},
+                {".vcf.gz", true},
+        };
+    }
+
+    @Test(dataProvider = "parallelMergeCases", groups = "spark")
+    public void testParallelMergeMatchesSerialWriter(String outputFileExtension, boolean writeTabixIndex) throws IOException {
+        final JavaSparkContext ctx = SparkContextFactory.getTestSparkContext();
+        final JavaRDD<VariantContext> variants = new VariantsSparkSource(ctx).getParallelVariantContexts(hg19_chr1_1M_dbSNP, null);
+        final VCFHeader header = getHeader(hg19_chr1_1M_dbSNP);
+
+        final File serialOutput = createTempFile(outputFileName + ".serial", outputFileExtension);
+        final File parallelOutput = createTempFile(outputFileName + ".parallel", outputFileExtension);
+        VariantsSparkSink.writeVariants(ctx, serialOutput.getAbsolutePath(), variants, header, false, null, 0, 3, writeTabixIndex, true, 0);
+        VariantsSparkSink.writeVariants(ctx, parallelOutput.getAbsolutePath(), variants, header, false, null, 0, 3, writeTabixIndex, true, 2);
+
+        checkFileExtensionConsistentWithContents(parallelOutput.getAbsolutePath(), writeTabixIndex);
+        Assert.assertEquals(readRecordLines(parallelOutput), readRecordLines(serialOutput));
+        final List<VariantContext> serialVariants = readVariants(serialOutput.getAbsolutePath());
+        VariantContextTestUtils.assertEqualVariants(readVariants(parallelOutput.getAbsolutePath()), serialVariants);
+        Assert.assertFalse(java.nio.file.Files.exists(IOUtils.getPath(ReadsSparkSink.getDefaultPartsDirectory(parallelOutput.getAbsolutePath()))));
+
+        if (writeTabixIndex) {
+            // the merged index must find every record, including those at the boundaries between parts
+            try (final VCFFileReader reader = new VCFFileReader(parallelOutput, true);
+                 final CloseableIterator<VariantContext> it = reader.query("1", 1, 1_000_000)) {
+                final List<VariantContext> queried = new ArrayList<>();
+                it.forEachRemaining(queried::add);
+                VariantContextTestUtils.assertEqualVariants(queried, serialVariants);
+            }
+        }
+    }
+
+    // the data lines of a plain or block compressed VCF
+    private static List<String> readRecordLines(final File vcf) throws IOException {
+        final InputStream in = vcf.getName().endsWith(".gz")
+                ? new BlockCompressedInputStream(vcf) : new FileInputStream(vcf);
+        try (final BufferedReader reader = new BufferedReader(new InputStreamReader(in))) {
+            return reader.lines().filter(line -> !line.startsWith("#")).collect(Collectors.toList());
+        }
+    }
+
     @DataProvider
     public static Object[][] brokenCases() {
         return new Object[][]{
@@ -239,6 +239,19 @@ public class HaplotypeCallerSparkIntegrationTest extends CommandLineProgramTest
         runCommandLine(args);
     }
 
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testDegradedRegionReportIsDisallowed() {
+        final String[] args = {
+                "-I", NA12878_20_21_WGS_bam,
+                "-R", b37_reference_20_21,
+                "-L", "20:10000000-10100000",
+                "-O", createTempFile("testDegradedRegionReport", ".vcf").getAbsolutePath(),
+                "--" + AssemblyBasedCallerArgumentCollection.DEGRADED_REGION_REPORT_LONG_NAME, createTempFile("degradedRegions", ".tsv").getAbsolutePath()
+        };
+
+        runCommandLine(args);
+    }
+
     @DataProvider
     public static Object[][] gvcfCases() {
         return new Object[][]{
@@ -109,4 +109,20 @@ public final class CollectReadCountsIntegrationTest extends CommandLineProgramTe
         final SimpleCountCollection resultCounts = SimpleCountCollection.read(resultOutputFile);
         Assert.assertEquals(expectedCounts, resultCounts);
     }
+
+    @Test(dataProvider = "testData")
+    public void testMultithreadedTSVOutput(final File inputBAMFile, final File expectedOutputFile) {
+        final File resultOutputFile = createTempFile("collect-read-counts-test", ".tsv");
+        final ArgumentsBuilder argsBuilder = new ArgumentsBuilder()
+                .addInput(inputBAMFile)
+                .add(StandardArgumentDefinitions.INTERVALS_LONG_NAME, INTERVALS_FILE.getAbsolutePath())
+                .add(IntervalArgumentCollection.INTERVAL_MERGING_RULE_LONG_NAME, IntervalMergingRule.OVERLAPPING_ONLY.toString())
+                .add(CollectReadCounts.FORMAT_LONG_NAME, CollectReadCounts.Format.TSV.toString())
+                .add(CollectReadCounts.NUMBER_OF_THREADS_LONG_NAME, 2)
+                .addOutput(resultOutputFile);
+        runCommandLine(argsBuilder);
+        final SimpleCountCollection expectedCounts = SimpleCountCollection.read(expectedOutputFile);
+        final SimpleCountCollection resultCounts = SimpleCountCollection.read(resultOutputFile);
+        Assert.assertEquals(expectedCounts, resultCounts);
+    }
 }
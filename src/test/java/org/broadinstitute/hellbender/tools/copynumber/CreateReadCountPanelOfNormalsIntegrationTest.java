@@ -248,6 +248,28 @@ public final class CreateReadCountPanelOfNormalsIntegrationTest extends CommandL
         testPanelOfNormals(annotatedIntervalsFile, expectedNumberOfEigenvalues, resultOutputFile);
     }
 
+    @Test(dataProvider = "dataPanelOfNormals")
+    public void testRandomizedSVD(final List<File> inputFiles,
+                                  final File annotatedIntervalsFile,
+                                  final int expectedNumberOfEigenvalues) {
+        final File resultOutputFile = createTempFile("create-read-count-panel-of-normals-test", ".tsv");
+        final ArgumentsBuilder argsBuilder = new ArgumentsBuilder()
+                .add(CreateReadCountPanelOfNormals.MINIMUM_INTERVAL_MEDIAN_PERCENTILE_LONG_NAME, Double.toString(MINIMUM_INTERVAL_MEDIAN_PERCENTILE))
+                .add(CreateReadCountPanelOfNormals.MAXIMUM_ZEROS_IN_SAMPLE_PERCENTAGE_LONG_NAME, Double.toString(MAXIMUM_ZEROS_IN_SAMPLE_PERCENTAGE))
+                .add(CreateReadCountPanelOfNormals.MAXIMUM_ZEROS_IN_INTERVAL_PERCENTAGE_LONG_NAME, Double.toString(MAXIMUM_ZEROS_IN_INTERVAL_PERCENTAGE))
+                .add(CreateReadCountPanelOfNormals.EXTREME_SAMPLE_MEDIAN_PERCENTILE_LONG_NAME, Double.toString(EXTREME_SAMPLE_MEDIAN_PERCENTILE))
+                .add(CopyNumberStandardArgument.NUMBER_OF_EIGENSAMPLES_LONG_NAME, Integer.toString(NUMBER_OF_EIGENVALUES_REQUESTED))
+                .add(CreateReadCountPanelOfNormals.SVD_METHOD_LONG_NAME, CreateReadCountPanelOfNormals.SVDMethod.RANDOMIZED.name())
+                .add(CreateReadCountPanelOfNormals.NUMBER_OF_SVD_THREADS_LONG_NAME, "2")
+                .addOutput(resultOutputFile);
+        if (annotatedIntervalsFile != null) {
+            argsBuilder.add(CopyNumberStandardArgument.ANNOTATED_INTERVALS_FILE_LONG_NAME, annotatedIntervalsFile);
+        }
+        inputFiles.forEach(argsBuilder::addInput);
+        runCommandLine(argsBuilder);
+        testPanelOfNormals(annotatedIntervalsFile, expectedNumberOfEigenvalues, resultOutputFile);
+    }
+
     @Test(dataProvider = "dataPanelOfNormals")
     public void testSingleSample(final List<File> inputFiles,
                                  final File annotatedIntervalsFile,
@@ -5,6 +5,9 @@ import org.broadinstitute.hellbender.cmdline.StandardArgumentDefinitions;
 import org.broadinstitute.hellbender.testutils.ArgumentsBuilder;
 import org.broadinstitute.hellbender.tools.copynumber.arguments.CopyNumberStandardArgument;
 import org.broadinstitute.hellbender.tools.copynumber.formats.collections.CopyRatioCollection;
+import org.broadinstitute.hellbender.tools.copynumber.formats.collections.SimpleCountCollection;
+import org.broadinstitute.hellbender.tools.copynumber.formats.metadata.SimpleSampleLocatableMetadata;
+import org.broadinstitute.hellbender.tools.copynumber.formats.records.SimpleCount;
 import org.testng.Assert;
 import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
@@ -13,6 +16,7 @@ import java.io.File;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.List;
+import java.util.stream.Collectors;
 
 /**
  * Integration tests for {@link DenoiseReadCounts}.
@@ -82,4 +86,92 @@ public final class DenoiseReadCountsIntegrationTest extends CommandLineProgramTe
         //standardized and denoised copy ratios should be the same if PoN is not provided
         Assert.assertEquals(standardizedCopyRatios.getLog2CopyRatioValues().equals(denoisedCopyRatios.getLog2CopyRatioValues()), isStandardizedEqualsDenoised);
     }
+
+    @DataProvider(name = "dataDenoiseReadCountsMultipleSamples")
+    public Object[][] dataDenoiseReadCountsMultipleSamples() {
+        return new Object[][]{
+                {WGS_DO_GC_PON_FILE, null},
+                {WGS_NO_GC_PON_FILE, 1},
+                {null, null}
+        };
+    }
+
+    /**
+     * Results for multiple samples denoised in batches should be identical to those for each sample denoised alone.
+     */
+    @Test(dataProvider = "dataDenoiseReadCountsMultipleSamples")
+    public void testDenoiseReadCountsMultipleSamples(final File ponFile,
+                                                     final Integer numberOfEigenvalues) {
+        //create additional samples with distinct sample names and scaled counts
+        final SimpleCountCollection readCounts = SimpleCountCollection.read(WGS_READ_COUNTS_HDF5_FILE);
+        final List<File> inputReadCountFiles = new ArrayList<>();
+        final List<String> sampleNames = new ArrayList<>();
+        for (int sampleIndex = 0; sampleIndex < 3; sampleIndex++) {
+            final String sampleName = "sample_" + sampleIndex;
+            final int scale = sampleIndex + 1;
+            final SimpleCountCollection sampleReadCounts = new SimpleCountCollection(
+                    new SimpleSampleLocatableMetadata(sampleName, readCounts.getMetadata().getSequenceDictionary()),
+                    readCounts.getRecords().stream()
+                            .map(c -> new SimpleCount(c.getInterval(), scale * c.getCount()))
+                            .collect(Collectors.toList()));
+            final File inputReadCountFile = createTempFile(sampleName, ".counts.tsv");
+            sampleReadCounts.write(inputReadCountFile);
+            inputReadCountFiles.add(inputReadCountFile);
+            sampleNames.add(sampleName);
+        }
+
+        final File outputDir = createTempDir("denoise-read-counts-multiple-samples");
+        final ArgumentsBuilder multipleSampleArguments = new ArgumentsBuilder();
+        inputReadCountFiles.forEach(f -> multipleSampleArguments.add(StandardArgumentDefinitions.INPUT_SHORT_NAME, f));
+        addOptionalArguments(multipleSampleArguments, ponFile, numberOfEigenvalues);
+        multipleSampleArguments
+                .add(DenoiseReadCounts.NUMBER_OF_SAMPLES_PER_BATCH_LONG_NAME, "2")
+                .add(StandardArgumentDefinitions.OUTPUT_SHORT_NAME, outputDir);
+        runCommandLine(multipleSampleArguments.getArgsArray());
+
+        for (int sampleIndex = 0; sampleIndex < inputReadCountFiles.size(); sampleIndex++) {
+            final File standardizedCRFile = createTempFile("test", ".standardizedCR.tsv");
+            final File denoisedCRFile = createTempFile("test", ".denoisedCR.tsv");
+            final ArgumentsBuilder singleSampleArguments = new ArgumentsBuilder()
+                    .add(StandardArgumentDefinitions.INPUT_SHORT_NAME, inputReadCountFiles.get(sampleIndex));
+            addOptionalArguments(singleSampleArguments, ponFile, numberOfEigenvalues);
+            singleSampleArguments
+                    .add(CopyNumberStandardArgument.STANDARDIZED_COPY_RATIOS_FILE_LONG_NAME, standardizedCRFile)
+                    .add(CopyNumberStandardArgument.DENOISED_COPY_RATIOS_FILE_LONG_NAME, denoisedCRFile);
+            runCommandLine(singleSampleArguments.getArgsArray());
+
+            final String sampleName = sampleNames.get(sampleIndex);
+            final CopyRatioCollection standardizedCopyRatios = new CopyRatioCollection(
+                    new File(outputDir, sampleName + DenoiseReadCounts.STANDARDIZED_COPY_RATIOS_FILE_SUFFIX));
+            final CopyRatioCollection denoisedCopyRatios = new CopyRatioCollection(
+                    new File(outputDir, sampleName + DenoiseReadCounts.DENOISED_COPY_RATIOS_FILE_SUFFIX));
+            Assert.assertEquals(standardizedCopyRatios.getMetadata().getSampleName(), sampleName);
+            Assert.assertEquals(standardizedCopyRatios.getRecords(), new CopyRatioCollection(standardizedCRFile).getRecords());
+            Assert.assertEquals(denoisedCopyRatios.getRecords(), new CopyRatioCollection(denoisedCRFile).getRecords());
+        }
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testMultipleSamplesWithoutOutputDirectory() {
+        final String[] arguments = new ArgumentsBuilder()
+                .add(StandardArgumentDefinitions.INPUT_SHORT_NAME, WGS_READ_COUNTS_TSV_FILE)
+                .add(StandardArgumentDefinitions.INPUT_SHORT_NAME, WGS_READ_COUNTS_HDF5_FILE)
+                .add(CopyNumberStandardArgument.STANDARDIZED_COPY_RATIOS_FILE_LONG_NAME, createTempFile("test", ".standardizedCR.tsv"))
+                .add(CopyNumberStandardArgument.DENOISED_COPY_RATIOS_FILE_LONG_NAME, createTempFile("test", ".denoisedCR.tsv"))
+                .getArgsArray();
+        runCommandLine(arguments);
+    }
+
+    private static void addOptionalArguments(final ArgumentsBuilder arguments,
+                                             final File ponFile,
+                                             final Integer numberOfEigenvalues) {
+        if (ponFile != null) {
+            arguments.add(CopyNumberStandardArgument.COUNT_PANEL_OF_NORMALS_FILE_LONG_NAME, ponFile);
+        } else {
+            arguments.add(CopyNumberStandardArgument.ANNOTATED_INTERVALS_FILE_LONG_NAME, WGS_ANNOTATED_INTERVALS_FILE);
+        }
+        if (numberOfEigenvalues != null) {
+            arguments.add(CopyNumberStandardArgument.NUMBER_OF_EIGENSAMPLES_LONG_NAME, numberOfEigenvalues.toString());
+        }
+    }
 }
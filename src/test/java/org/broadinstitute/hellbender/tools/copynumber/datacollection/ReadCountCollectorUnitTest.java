@@ -0,0 +1,78 @@
+package org.broadinstitute.hellbender.tools.copynumber.datacollection;
+
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.broadinstitute.hellbender.utils.SimpleInterval;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.List;
+
+public final class ReadCountCollectorUnitTest extends GATKBaseTest {
+    private static final List<SimpleInterval> INTERVALS = Arrays.asList(
+            new SimpleInterval("1", 101, 200),
+            new SimpleInterval("1", 201, 300),
+            new SimpleInterval("1", 501, 600),
+            new SimpleInterval("2", 1, 100),
+            new SimpleInterval("1", 1, 50));    //intervals need not be sorted
+
+    @Test
+    public void testSortedReadStarts() {
+        final ReadCountCollector collector = new ReadCountCollector(INTERVALS);
+        for (final int start : new int[]{1, 50, 51, 100, 101, 150, 200, 201, 300, 301, 450, 600, 601, 1000}) {
+            collector.addReadStart("1", start);
+        }
+        collector.addReadStart("2", 100);
+        collector.addReadStart("2", 101);
+        collector.addReadStart("3", 1);     //no intervals on this contig
+
+        Assert.assertEquals(collector.getCount(0), 3);
+        Assert.assertEquals(collector.getCount(1), 2);
+        Assert.assertEquals(collector.getCount(2), 1);
+        Assert.assertEquals(collector.getCount(3), 1);
+        Assert.assertEquals(collector.getCount(4), 2);
+    }
+
+    @Test
+    public void testUnsortedReadStarts() {
+        final ReadCountCollector collector = new ReadCountCollector(INTERVALS);
+        for (final int start : new int[]{550, 250, 1, 150, 999, 50, 550, 0}) {
+            collector.addReadStart("1", start);
+        }
+        collector.addReadStart("2", 5);
+        collector.addReadStart("1", 120);
+
+        Assert.assertEquals(collector.getCount(0), 2);
+        Assert.assertEquals(collector.getCount(1), 1);
+        Assert.assertEquals(collector.getCount(2), 2);
+        Assert.assertEquals(collector.getCount(3), 1);
+        Assert.assertEquals(collector.getCount(4), 2);
+    }
+
+    @Test
+    public void testContigCounters() {
+        final ReadCountCollector collector = new ReadCountCollector(INTERVALS);
+        Assert.assertEquals(collector.getContigs(), Arrays.asList("1", "2"));
+        Assert.assertEquals(collector.getIntervalsOnContig("1"),
+                Arrays.asList(INTERVALS.get(4), INTERVALS.get(0), INTERVALS.get(1), INTERVALS.get(2)));
+        Assert.assertTrue(collector.getIntervalsOnContig("3").isEmpty());
+
+        final ReadCountCollector.ContigCounter counter1 = collector.getContigCounter("1");
+        final ReadCountCollector.ContigCounter counter2 = collector.getContigCounter("2");
+        counter1.addReadStart(10);
+        counter2.addReadStart(10);
+        counter1.addReadStart(210);
+        counter2.addReadStart(20);
+
+        Assert.assertEquals(collector.getCount(1), 1);
+        Assert.assertEquals(collector.getCount(3), 2);
+        Assert.assertEquals(collector.getCount(4), 1);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testOverlappingIntervals() {
+        new ReadCountCollector(Arrays.asList(
+                new SimpleInterval("1", 101, 200),
+                new SimpleInterval("1", 200, 300)));
+    }
+}
@@ -16,6 +16,7 @@ import org.testng.annotations.Test;
 import java.io.File;
 import java.io.IOException;
 import java.util.Arrays;
+import java.util.stream.Collectors;
 
 /**
  * Unit tests for {@link AllelicCountCollection}.
@@ -82,4 +83,17 @@ public final class AllelicCountCollectionUnitTest extends GATKBaseTest {
         ALLELIC_COUNTS_EXPECTED.write(outputFile);
         Assert.assertTrue(FileUtils.contentEquals(outputFile, ALLELIC_COUNTS_FILE));
     }
+
+    @Test
+    public void testWriteAndReadColumnar() {
+        final File outputFile = createTempFile("allelic-count-collection-test-output", ".allelicCounts.bin");
+        ALLELIC_COUNTS_EXPECTED.writeColumnar(outputFile);
+        final AllelicCountCollection allelicCounts = AllelicCountCollection.read(outputFile);
+        Assert.assertEquals(allelicCounts, ALLELIC_COUNTS_EXPECTED);
+        Assert.assertEquals(allelicCounts.getRecords().stream().map(AllelicCount::getRefNucleotide).collect(Collectors.toList()),
+                ALLELIC_COUNTS_EXPECTED.getRecords().stream().map(AllelicCount::getRefNucleotide).collect(Collectors.toList()));
+        Assert.assertEquals(allelicCounts.getRecords().stream().map(AllelicCount::getAltNucleotide).collect(Collectors.toList()),
+                ALLELIC_COUNTS_EXPECTED.getRecords().stream().map(AllelicCount::getAltNucleotide).collect(Collectors.toList()));
+        Assert.assertEquals(AllelicCountCollection.read(ALLELIC_COUNTS_FILE), ALLELIC_COUNTS_EXPECTED);
+    }
 }
@@ -15,6 +15,8 @@ import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
 import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
 import java.util.Arrays;
 import java.util.Collections;
 import java.util.HashSet;
@@ -95,6 +97,28 @@ public final class SimpleCountCollectionUnitTest extends GATKBaseTest {
         assertCountsExpected(counts);
     }
 
+    @Test
+    public void testWriteAndReadColumnar() {
+        final File outputFile = createTempFile("simple-count-collection-test-output", ".counts.bin");
+        SimpleCountCollection.read(INTEGER_COUNTS_TSV_FILE).writeColumnar(outputFile);
+        Assert.assertTrue(ColumnarCountCollection.isColumnarFile(outputFile));
+        Assert.assertFalse(ColumnarCountCollection.isColumnarFile(INTEGER_COUNTS_TSV_FILE));
+        assertCountsExpected(SimpleCountCollection.read(outputFile));
+        assertCountsSubsetExpected(
+                SimpleCountCollection.readAndSubset(outputFile, ImmutableSet.of(INTERVALS_EXPECTED.get(1), INTERVALS_EXPECTED.get(7))),
+                Arrays.asList(1, 7));
+    }
+
+    @Test(expectedExceptions = UserException.BadInput.class)
+    public void testReadTruncatedColumnar() throws IOException {
+        final File outputFile = createTempFile("simple-count-collection-test-output", ".counts.bin");
+        SimpleCountCollection.read(INTEGER_COUNTS_TSV_FILE).writeColumnar(outputFile);
+        try (final RandomAccessFile file = new RandomAccessFile(outputFile, "rw")) {
+            file.setLength(file.length() - Integer.BYTES);
+        }
+        SimpleCountCollection.read(outputFile);
+    }
+
     @Test(expectedExceptions = IllegalArgumentException.class)
     public void testReadMissingHeader() {
         SimpleCountCollection.read(INTEGER_COUNTS_MISSING_HEADER_TSV_FILE);
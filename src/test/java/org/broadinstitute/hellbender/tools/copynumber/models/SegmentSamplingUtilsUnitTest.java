@@ -0,0 +1,38 @@
+package org.broadinstitute.hellbender.tools.copynumber.models;
+
+import org.apache.commons.math3.random.RandomGenerator;
+import org.apache.commons.math3.random.RandomGeneratorFactory;
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+public final class SegmentSamplingUtilsUnitTest extends GATKBaseTest {
+    private static final int RANDOM_SEED = 13;
+    private static final int NUM_SEGMENTS = 100;
+
+    private static final SegmentSamplingUtils.SegmentSampler SEGMENT_SAMPLER =
+            (rng, segmentIndex) -> segmentIndex + rng.nextGaussian();
+
+    @Test
+    public void testSamplesDoNotDependOnParallelism() throws Exception {
+        final RandomGenerator serialRng = RandomGeneratorFactory.createRandomGenerator(new Random(RANDOM_SEED));
+        final List<Double> serialSamples = SegmentSamplingUtils.sampleSegments(serialRng, NUM_SEGMENTS, SEGMENT_SAMPLER);
+
+        final RandomGenerator parallelRng = RandomGeneratorFactory.createRandomGenerator(new Random(RANDOM_SEED));
+        final ForkJoinPool pool = new ForkJoinPool(4);
+        final List<Double> parallelSamples;
+        try {
+            parallelSamples = pool.submit(() -> SegmentSamplingUtils.sampleSegments(parallelRng, NUM_SEGMENTS, SEGMENT_SAMPLER)).get();
+        } finally {
+            pool.shutdown();
+        }
+
+        Assert.assertEquals(parallelSamples, serialSamples);
+        //the generator of the chain must also be left in the same state
+        Assert.assertEquals(parallelRng.nextLong(), serialRng.nextLong());
+    }
+}
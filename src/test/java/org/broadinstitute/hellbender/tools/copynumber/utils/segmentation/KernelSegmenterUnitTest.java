@@ -11,6 +11,8 @@ import java.util.Collections;
 import java.util.List;
 import java.util.Random;
 import java.util.function.BiFunction;
+import java.util.function.DoubleBinaryOperator;
+import java.util.function.ToDoubleBiFunction;
 import java.util.stream.Collectors;
 import java.util.stream.IntStream;
 
@@ -66,6 +68,48 @@ public final class KernelSegmenterUnitTest extends GATKBaseTest {
         };
     }
 
+    @Test(dataProvider = "dataKernelSegmenter")
+    public void testKernelSegmenterInParallel(final List<Double> data,
+                                              final BiFunction<Double, Double, Double> kernel,
+                                              final List<Integer> changepointsExpected) {
+        final int maxNumChangepoints = 25;
+        final int kernelApproximationDimension = 20;
+        final List<Integer> windowSizes = Arrays.asList(8, 16, 32, 64);
+        final double numChangepointsPenaltyLinearFactor = 2.;
+        final double numChangepointsPenaltyLogLinearFactor = 2.;
+
+        //segment several copies of the data at once, as is done for chromosomes, using the primitive kernel
+        final ToDoubleBiFunction<Double, Double> unboxedKernel = kernel::apply;
+        final List<List<Integer>> changepointsPerCopy = KernelSegmenter.mapInParallel(
+                Collections.nCopies(4, data),
+                d -> new KernelSegmenter<>(d)
+                        .findChangepoints(maxNumChangepoints, unboxedKernel, kernelApproximationDimension, windowSizes,
+                                numChangepointsPenaltyLinearFactor, numChangepointsPenaltyLogLinearFactor, ChangepointSortOrder.BACKWARD_SELECTION),
+                4);
+
+        for (final List<Integer> changepoints : changepointsPerCopy) {
+            Assert.assertEquals(changepoints, changepointsExpected);
+        }
+    }
+
+    @Test(dataProvider = "dataKernelSegmenter")
+    public void testKernelSegmenterWithPrimitiveData(final List<Double> data,
+                                                     final BiFunction<Double, Double, Double> kernel,
+                                                     final List<Integer> changepointsExpected) {
+        final int maxNumChangepoints = 25;
+        final int kernelApproximationDimension = 20;
+        final List<Integer> windowSizes = Arrays.asList(8, 16, 32, 64);
+        final double numChangepointsPenaltyLinearFactor = 2.;
+        final double numChangepointsPenaltyLogLinearFactor = 2.;
+
+        final double[] primitiveData = data.stream().mapToDouble(Double::doubleValue).toArray();
+        final DoubleBinaryOperator primitiveKernel = kernel::apply;
+        final List<Integer> changepoints = KernelSegmenter.findChangepoints(primitiveData, maxNumChangepoints, primitiveKernel,
+                kernelApproximationDimension, windowSizes, numChangepointsPenaltyLinearFactor, numChangepointsPenaltyLogLinearFactor,
+                ChangepointSortOrder.BACKWARD_SELECTION);
+        Assert.assertEquals(changepoints, changepointsExpected);
+    }
+
     @Test(dataProvider = "dataKernelSegmenter")
     public void testKernelSegmenter(final List<Double> data,
                                     final BiFunction<Double, Double, Double> kernel,
@@ -1,11 +1,16 @@
 package org.broadinstitute.hellbender.tools.examples;
 
 import org.broadinstitute.hellbender.CommandLineProgramTest;
+import org.broadinstitute.hellbender.engine.spark.AssemblyRegionArgumentCollection;
 import org.broadinstitute.hellbender.testutils.ArgumentsBuilder;
 import org.broadinstitute.hellbender.testutils.IntegrationTestSpec;
+import org.testng.Assert;
 import org.testng.annotations.Test;
 
 import java.io.File;
+import java.nio.file.Files;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
 
 public class ExampleAssemblyRegionWalkerSparkIntegrationTest extends CommandLineProgramTest {
     private static final String TEST_OUTPUT_DIRECTORY = exampleTestDir;
@@ -48,4 +53,34 @@ public class ExampleAssemblyRegionWalkerSparkIntegrationTest extends CommandLine
         File expected = new File(TEST_OUTPUT_DIRECTORY, "expected_ExampleAssemblyRegionWalkerSparkIntegrationTest_non_strict_output.txt");
         IntegrationTestSpec.assertEqualTextFiles(new File(out, "part-00000"), expected);
     }
+
+    @Test()
+    public void testExampleAssemblyRegionWalkerWithMaxRegionCost() throws Exception {
+        final File out = File.createTempFile("out", ".txt");
+        out.delete();
+        out.deleteOnExit();
+        final ArgumentsBuilder args = new ArgumentsBuilder();
+        args.addRaw("--input");
+        args.addRaw(NA12878_20_21_WGS_bam);
+        args.addRaw("--output");
+        args.addRaw(out.getAbsolutePath());
+        args.addRaw("--reference");
+        args.addRaw(b37_reference_20_21);
+        args.addRaw("-knownVariants " + dbsnp_138_b37_20_21_vcf);
+        args.addRaw("-L 20:10000000-10050000");
+        // a cost budget of 1 leaves a single read in every active region
+        args.addRaw("--" + AssemblyRegionArgumentCollection.MAX_REGION_COST_LONG_NAME + " 1");
+        this.runCommandLine(args.getArgsArray());
+
+        final Pattern regionLine = Pattern.compile("^(ACTIVE|INACTIVE) assembly region at .* containing (\\d+) reads\\.$");
+        int activeRegions = 0;
+        for ( final String line : Files.readAllLines(new File(out, "part-00000").toPath()) ) {
+            final Matcher matcher = regionLine.matcher(line);
+            if ( matcher.matches() && matcher.group(1).equals("ACTIVE") ) {
+                activeRegions++;
+                Assert.assertTrue(Integer.parseInt(matcher.group(2)) <= 1, line);
+            }
+        }
+        Assert.assertTrue(activeRegions > 0);
+    }
 }
@@ -22,6 +22,8 @@ import java.io.File;
 import java.nio.file.Path;
 import java.nio.file.Paths;
 import java.util.*;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 public class FuncotatorEngineUnitTest extends GATKBaseTest {
     final static private String INPUT_VCF = FuncotatorTestConstants.FUNCOTATOR_TEST_DIR + "/PIK3CA_SNPS_engine_test_chr3.vcf";
@@ -33,14 +35,9 @@ public class FuncotatorEngineUnitTest extends GATKBaseTest {
                 {new File(INPUT_VCF), Arrays.asList("PIK3CA", "PIK3CA", "PIK3CA"), new boolean[]{true, true, false}}
         };
     }
-    @Test(dataProvider = "provideGt")
-    public void testGetFuncotationFactoriesAndCreateFuncotationMapForVariant(final File vcfFile,
-                                                                             final List<String> correspondingGeneName,
-                                                                             final boolean[] hasClinvarHit) {
-
-        final Pair<VCFHeader, List<VariantContext>> entireVcf = VariantContextTestUtils.readEntireVCFIntoMemory(vcfFile.getAbsolutePath());
-        final Map<Path, Properties> configData = DataSourceUtils.getAndValidateDataSourcesFromPaths("hg19", Collections.singletonList(DS_PIK3CA_DIR));
-
+    private static FuncotatorEngine createEngine(final File vcfFile,
+                                                 final Pair<VCFHeader, List<VariantContext>> entireVcf,
+                                                 final Map<Path, Properties> configData) {
         final Pair<VCFHeader, List<VariantContext>> vcfFileContents = VariantContextTestUtils.readEntireVCFIntoMemory(vcfFile.getAbsolutePath());
 
         // Set up our arguments:
@@ -50,8 +47,7 @@ public class FuncotatorEngineUnitTest extends GATKBaseTest {
         funcotatorArguments.lookaheadFeatureCachingInBp = FuncotatorArgumentDefinitions.LOOKAHEAD_CACHE_IN_BP_DEFAULT_VALUE;
 
         // Create the metadata directly from the input.
-        final FuncotatorEngine funcotatorEngine =
-                new FuncotatorEngine(
+        return new FuncotatorEngine(
                         funcotatorArguments,
                         vcfFileContents.getLeft().getSequenceDictionary(),
                         VcfFuncotationMetadata.create(new ArrayList<>(entireVcf.getLeft().getInfoHeaderLines())),
@@ -66,6 +62,17 @@ public class FuncotatorEngineUnitTest extends GATKBaseTest {
                                 false,
                                 FuncotatorUtils.DEFAULT_MIN_NUM_BASES_FOR_VALID_SEGMENT)
                 );
+    }
+
+    @Test(dataProvider = "provideGt")
+    public void testGetFuncotationFactoriesAndCreateFuncotationMapForVariant(final File vcfFile,
+                                                                             final List<String> correspondingGeneName,
+                                                                             final boolean[] hasClinvarHit) {
+
+        final Pair<VCFHeader, List<VariantContext>> entireVcf = VariantContextTestUtils.readEntireVCFIntoMemory(vcfFile.getAbsolutePath());
+        final Map<Path, Properties> configData = DataSourceUtils.getAndValidateDataSourcesFromPaths("hg19", Collections.singletonList(DS_PIK3CA_DIR));
+
+        final FuncotatorEngine funcotatorEngine = createEngine(vcfFile, entireVcf, configData);
 
         for (int i = 0; i < entireVcf.getRight().size(); i++) {
             final VariantContext vc = entireVcf.getRight().get(i);
@@ -84,4 +91,82 @@ public class FuncotatorEngineUnitTest extends GATKBaseTest {
             }
         }
     }
+
+    @Test(dataProvider = "provideGt")
+    public void testBatchedFuncotationMapsMatchSingleVariant(final File vcfFile,
+                                                            final List<String> correspondingGeneName,
+                                                            final boolean[] hasClinvarHit) {
+
+        final Pair<VCFHeader, List<VariantContext>> entireVcf = VariantContextTestUtils.readEntireVCFIntoMemory(vcfFile.getAbsolutePath());
+        final Map<Path, Properties> configData = DataSourceUtils.getAndValidateDataSourcesFromPaths("hg19", Collections.singletonList(DS_PIK3CA_DIR));
+        final FuncotatorEngine funcotatorEngine = createEngine(vcfFile, entireVcf, configData);
+        final ReferenceDataSource referenceDataSource = ReferenceDataSource.of(Paths.get(FuncotatorReferenceTestUtils.retrieveHg19Chr3Ref()));
+
+        final List<VariantContext> variants = entireVcf.getRight();
+        final List<ReferenceContext> referenceContexts = new ArrayList<>();
+        final List<FeatureContext> featureContexts = new ArrayList<>();
+        final List<FuncotationMap> expectedMaps = new ArrayList<>();
+        for (final VariantContext vc : variants) {
+            final SimpleInterval variantInterval = new SimpleInterval(vc.getContig(), vc.getStart(), vc.getEnd());
+            final ReferenceContext referenceContext = new ReferenceContext(referenceDataSource, variantInterval);
+            final FeatureContext featureContext = FuncotatorTestUtils.createFeatureContext(funcotatorEngine.getFuncotationFactories(), "TEST", variantInterval,
+                    0,0,0, null);
+            referenceContexts.add(referenceContext);
+            featureContexts.add(featureContext);
+            expectedMaps.add(funcotatorEngine.createFuncotationMapForVariant(vc, referenceContext, featureContext));
+        }
+
+        final ExecutorService executor = Executors.newFixedThreadPool(2);
+        try {
+            final List<FuncotationMap> batchedMaps = funcotatorEngine.createFuncotationMapsForVariants(variants, referenceContexts, featureContexts, executor);
+            Assert.assertEquals(batchedMaps.size(), variants.size());
+
+            for (int i = 0; i < variants.size(); i++) {
+                final FuncotationMap expected = expectedMaps.get(i);
+                final FuncotationMap actual = batchedMaps.get(i);
+                Assert.assertEquals(actual.getTranscriptList(), expected.getTranscriptList());
+                for (final String txId : expected.getTranscriptList()) {
+                    Assert.assertEquals(actual.get(txId), expected.get(txId));
+                    Assert.assertEquals(actual.getFieldValue(txId, "Gencode_19_hugoSymbol", variants.get(i).getAlternateAllele(0)), correspondingGeneName.get(i));
+                }
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    public void testBatchQueryIntervals() {
+        final int gap = FuncotatorEngine.MAX_BATCH_QUERY_GAP;
+        final List<SimpleInterval> queryIntervals = Arrays.asList(
+                new SimpleInterval("1", 1000, 1000),
+                new SimpleInterval("2", 500, 500),
+                new SimpleInterval("1", 1000 + gap, 1000 + gap),
+                null,
+                // too far from the previous interval on chromosome 1
+                new SimpleInterval("1", 2002 + 2 * gap, 2002 + 2 * gap),
+                new SimpleInterval("1", 1200, 1300)
+        );
+        final List<List<Integer>> batches = FuncotatorEngine.batchQueryIntervals(queryIntervals);
+        Assert.assertEquals(new HashSet<>(batches), new HashSet<>(Arrays.asList(
+                Collections.singletonList(3),
+                Arrays.asList(0, 5, 2),
+                Collections.singletonList(4),
+                Collections.singletonList(1))));
+    }
+
+    @Test
+    public void testBatchQueryIntervalsLimitsSpan() {
+        final List<SimpleInterval> queryIntervals = new ArrayList<>();
+        for ( int start = 1; start <= 3 * FuncotatorEngine.MAX_BATCH_QUERY_SPAN; start += FuncotatorEngine.MAX_BATCH_QUERY_GAP / 2 ) {
+            queryIntervals.add(new SimpleInterval("1", start, start));
+        }
+        final List<List<Integer>> batches = FuncotatorEngine.batchQueryIntervals(queryIntervals);
+        Assert.assertTrue(batches.size() >= 3);
+        Assert.assertEquals(batches.stream().mapToInt(List::size).sum(), queryIntervals.size());
+        for ( final List<Integer> batch : batches ) {
+            final int span = queryIntervals.get(batch.get(batch.size() - 1)).getEnd() - queryIntervals.get(batch.get(0)).getStart() + 1;
+            Assert.assertTrue(span <= FuncotatorEngine.MAX_BATCH_QUERY_SPAN);
+        }
+    }
 }
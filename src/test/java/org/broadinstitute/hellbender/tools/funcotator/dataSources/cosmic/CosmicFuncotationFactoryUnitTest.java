@@ -293,4 +293,29 @@ public class CosmicFuncotationFactoryUnitTest extends GATKBaseTest {
         Assert.assertFalse(factory.isSupportingSegmentFuncotation());
         Assert.assertEquals(factory.getSupportedFuncotationFieldsForSegments(), Collections.emptyList());
     }
+
+    @SuppressWarnings("unchecked")
+    @Test
+    public void testGeneRecordCacheGivesSameResults() {
+        final CosmicFuncotationFactory cosmicFuncotationFactory = new CosmicFuncotationFactory(PATH_TO_TEST_DB);
+
+        // Every case queries the same gene, so only the first query should go to the database:
+        int numQueries = 0;
+        for ( final Object[] testCase : provideForTestCreateFuncotations() ) {
+            final List<GencodeFuncotation> gencodeFuncotations = (List<GencodeFuncotation>) testCase[3];
+            Assert.assertEquals(
+                    cosmicFuncotationFactory.createFuncotationsOnVariant(
+                            (VariantContext) testCase[0],
+                            (ReferenceContext) testCase[1],
+                            (List<Feature>) testCase[2],
+                            gencodeFuncotations
+                    ),
+                    testCase[4]
+            );
+            numQueries += gencodeFuncotations.size();
+        }
+
+        Assert.assertEquals(cosmicFuncotationFactory.getGeneCacheMisses(), 1);
+        Assert.assertEquals(cosmicFuncotationFactory.getGeneCacheHits(), numQueries - 1);
+    }
 }
@@ -0,0 +1,142 @@
+package org.broadinstitute.hellbender.tools.funcotator.dataSources.gencode;
+
+import htsjdk.samtools.SAMSequenceRecord;
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.broadinstitute.hellbender.engine.ReferenceDataSource;
+import org.broadinstitute.hellbender.exceptions.UserException;
+import org.broadinstitute.hellbender.utils.io.IOUtils;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
+import java.util.Map;
+
+public class GencodeTranscriptIndexUnitTest extends GATKBaseTest {
+
+    private static final String CNTN4_GENCODE_TRANSCRIPT_FASTA_FILE = toolsTestDir + "funcotator/gencode.v19.CNTN4.pc_transcripts.fasta";
+
+    private static GencodeTranscriptIndex compileAndLoad(final Path fastaPath) {
+        final File indexFile = createTempFile("gencodeTranscripts", GencodeTranscriptIndex.INDEX_EXTENSION);
+        GencodeTranscriptIndex.compile(fastaPath, indexFile.toPath());
+        return GencodeTranscriptIndex.load(indexFile.toPath());
+    }
+
+    @Test
+    public void testIndexMatchesTranscriptFasta() {
+        final Path fastaPath = IOUtils.getPath(CNTN4_GENCODE_TRANSCRIPT_FASTA_FILE);
+        final GencodeTranscriptIndex index = compileAndLoad(fastaPath);
+
+        try ( final ReferenceDataSource fasta = ReferenceDataSource.of(fastaPath) ) {
+            Assert.assertEquals(index.getSequenceDictionary().size(), fasta.getSequenceDictionary().size());
+
+            for ( final SAMSequenceRecord sequence : fasta.getSequenceDictionary().getSequences() ) {
+                final String name = sequence.getSequenceName();
+                final int length = sequence.getSequenceLength();
+                Assert.assertEquals(index.getSequenceDictionary().getSequence(name).getSequenceLength(), length);
+
+                Assert.assertEquals(index.queryAndPrefetch(name, 1, length).getBaseString(), fasta.queryAndPrefetch(name, 1, length).getBaseString());
+                Assert.assertEquals(index.queryAndPrefetch(name, 2, Math.min(10, length)).getBaseString(), fasta.queryAndPrefetch(name, 2, Math.min(10, length)).getBaseString());
+            }
+
+            final Map<String, GencodeFuncotationFactory.MappedTranscriptIdInfo> expectedIdMap = GencodeFuncotationFactory.createTranscriptIdMap(fasta);
+            final Map<String, GencodeFuncotationFactory.MappedTranscriptIdInfo> actualIdMap = index.getTranscriptIdMap();
+            Assert.assertEquals(actualIdMap.keySet(), expectedIdMap.keySet());
+            for ( final Map.Entry<String, GencodeFuncotationFactory.MappedTranscriptIdInfo> entry : expectedIdMap.entrySet() ) {
+                final GencodeFuncotationFactory.MappedTranscriptIdInfo expected = entry.getValue();
+                final GencodeFuncotationFactory.MappedTranscriptIdInfo actual = actualIdMap.get(entry.getKey());
+                Assert.assertEquals(actual.mapKey, expected.mapKey);
+                Assert.assertEquals(actual.codingSequenceStart, expected.codingSequenceStart);
+                Assert.assertEquals(actual.codingSequenceEnd, expected.codingSequenceEnd);
+                Assert.assertEquals(actual.has5pUtr, expected.has5pUtr);
+                Assert.assertEquals(actual.fivePrimeUtrStart, expected.fivePrimeUtrStart);
+                Assert.assertEquals(actual.fivePrimeUtrEnd, expected.fivePrimeUtrEnd);
+                Assert.assertEquals(actual.has3pUtr, expected.has3pUtr);
+                Assert.assertEquals(actual.threePrimeUtrStart, expected.threePrimeUtrStart);
+                Assert.assertEquals(actual.threePrimeUtrEnd, expected.threePrimeUtrEnd);
+            }
+        }
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testQueryPastEndOfTranscript() {
+        final GencodeTranscriptIndex index = compileAndLoad(IOUtils.getPath(CNTN4_GENCODE_TRANSCRIPT_FASTA_FILE));
+        final SAMSequenceRecord sequence = index.getSequenceDictionary().getSequence(0);
+        index.queryAndPrefetch(sequence.getSequenceName(), 1, sequence.getSequenceLength() + 1);
+    }
+
+    @Test(expectedExceptions = UserException.MalformedFile.class)
+    public void testLoadNonIndexFile() throws Exception {
+        final File notAnIndex = createTempFile("notAnIndex", GencodeTranscriptIndex.INDEX_EXTENSION);
+        Files.write(notAnIndex.toPath(), "This is not an index.".getBytes());
+        GencodeTranscriptIndex.load(notAnIndex.toPath());
+    }
+
+    @Test
+    public void testIndexIsOutOfDateWhenFastaChanges() throws Exception {
+        // Copy the FASTA with its index and dictionary so that we can change its modification time:
+        final File tmpDir = createTempDir("gencodeTranscriptIndex");
+        final Path fastaPath = tmpDir.toPath().resolve("transcripts.fasta");
+        Files.copy(IOUtils.getPath(CNTN4_GENCODE_TRANSCRIPT_FASTA_FILE), fastaPath);
+        Files.copy(IOUtils.getPath(CNTN4_GENCODE_TRANSCRIPT_FASTA_FILE + ".fai"), tmpDir.toPath().resolve("transcripts.fasta.fai"));
+        Files.copy(IOUtils.getPath(CNTN4_GENCODE_TRANSCRIPT_FASTA_FILE.replace(".fasta", ".dict")), tmpDir.toPath().resolve("transcripts.dict"));
+
+        final Path indexPath = GencodeTranscriptIndex.getIndexPath(fastaPath);
+        Assert.assertFalse(GencodeTranscriptIndex.isUpToDate(indexPath, fastaPath));
+
+        GencodeTranscriptIndex.compile(fastaPath, indexPath);
+        Assert.assertTrue(GencodeTranscriptIndex.isUpToDate(indexPath, fastaPath));
+
+        // The same size but a different modification time means the FASTA may have been replaced:
+        Files.setLastModifiedTime(fastaPath, FileTime.fromMillis(Files.getLastModifiedTime(fastaPath).toMillis() - 60_000));
+        Assert.assertFalse(GencodeTranscriptIndex.isUpToDate(indexPath, fastaPath));
+
+        // Recompiling replaces the index without disturbing one that is already open:
+        final GencodeTranscriptIndex openIndex = GencodeTranscriptIndex.load(indexPath);
+        final SAMSequenceRecord firstSequence = openIndex.getSequenceDictionary().getSequence(0);
+        final String firstBases = openIndex.queryAndPrefetch(firstSequence.getSequenceName(), 1, firstSequence.getSequenceLength()).getBaseString();
+
+        GencodeTranscriptIndex.compile(fastaPath, indexPath);
+        Assert.assertTrue(GencodeTranscriptIndex.isUpToDate(indexPath, fastaPath));
+        Assert.assertEquals(openIndex.queryAndPrefetch(firstSequence.getSequenceName(), 1, firstSequence.getSequenceLength()).getBaseString(), firstBases);
+        try ( final ReferenceDataSource fasta = ReferenceDataSource.of(fastaPath) ) {
+            Assert.assertEquals(GencodeTranscriptIndex.load(indexPath).getSequenceDictionary().size(), fasta.getSequenceDictionary().size());
+        }
+
+        // No temporary files are left behind:
+        final String[] files = tmpDir.list();
+        Assert.assertNotNull(files);
+        for ( final String file : files ) {
+            Assert.assertFalse(file.endsWith(".tmp"), file);
+        }
+    }
+
+    @Test
+    public void testIteratorCoversAllTranscripts() {
+        final Path fastaPath = IOUtils.getPath(CNTN4_GENCODE_TRANSCRIPT_FASTA_FILE);
+        final GencodeTranscriptIndex index = compileAndLoad(fastaPath);
+
+        final StringBuilder expected = new StringBuilder();
+        try ( final ReferenceDataSource fasta = ReferenceDataSource.of(fastaPath) ) {
+            for ( final SAMSequenceRecord sequence : fasta.getSequenceDictionary().getSequences() ) {
+                if ( sequence.getSequenceLength() > 0 ) {
+                    expected.append(fasta.queryAndPrefetch(sequence.getSequenceName(), 1, sequence.getSequenceLength()).getBaseString());
+                }
+            }
+        }
+
+        final StringBuilder actual = new StringBuilder();
+        index.iterator().forEachRemaining(base -> actual.append((char) base.byteValue()));
+        Assert.assertEquals(actual.toString(), expected.toString());
+    }
+
+    @Test
+    public void testNonIndexFileIsNotUpToDate() throws Exception {
+        final File notAnIndex = createTempFile("notAnIndex", GencodeTranscriptIndex.INDEX_EXTENSION);
+        // Just the magic number, with nothing after it:
+        Files.write(notAnIndex.toPath(), "GTIX".getBytes());
+        Assert.assertFalse(GencodeTranscriptIndex.isUpToDate(notAnIndex.toPath(), IOUtils.getPath(CNTN4_GENCODE_TRANSCRIPT_FASTA_FILE)));
+    }
+}
@@ -20,7 +20,10 @@ import org.testng.annotations.DataProvider;
 import org.testng.annotations.Test;
 
 import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
 import java.nio.file.Path;
+import java.nio.file.attribute.FileTime;
 import java.util.*;
 
 /**
@@ -454,4 +457,73 @@ public class SimpleKeyXsvFuncotationFactoryUnitTest extends GATKBaseTest {
 
         Assert.assertFalse(simpleKeyXsvFuncotationFactory.requiresFeatures());
     }
+
+    @DataProvider
+    public Object[][] provideForTestCompiledIndexGivesSameFuncotations() {
+        return new Object[][] {
+                // Index compiled with the same settings as the factory:
+                { 0, 0 },
+                { 3, 3 },
+                // Out of date index that must be ignored:
+                { 1, 0 },
+        };
+    }
+
+    @Test(dataProvider = "provideForTestCompiledIndexGivesSameFuncotations")
+    public void testCompiledIndexGivesSameFuncotations(final int indexKeyColumn, final int keyColumn) throws IOException {
+        final Path xsvPath = IOUtils.getPath(FuncotatorTestConstants.XSV_CSV_FILE_PATH);
+
+        // Compile an index next to a copy of the data source file:
+        final Path indexedXsvPath = createTempDir("indexedXsv").toPath().resolve(xsvPath.getFileName().toString());
+        Files.copy(xsvPath, indexedXsvPath);
+        SimpleKeyXsvFuncotationFactory.compileIndex(indexedXsvPath, SimpleKeyXsvIndex.getIndexPath(indexedXsvPath), ",", indexKeyColumn,
+                SimpleKeyXsvFuncotationFactory.XsvDataKeyType.GENE_NAME, 0, false);
+
+        final SimpleKeyXsvFuncotationFactory inMemoryFactory = new SimpleKeyXsvFuncotationFactory(
+                defaultName, xsvPath, "VERSION", ",", keyColumn, SimpleKeyXsvFuncotationFactory.XsvDataKeyType.GENE_NAME);
+        final SimpleKeyXsvFuncotationFactory indexedFactory = new SimpleKeyXsvFuncotationFactory(
+                defaultName, indexedXsvPath, "VERSION", ",", keyColumn, SimpleKeyXsvFuncotationFactory.XsvDataKeyType.GENE_NAME,
+                new LinkedHashMap<>(), 0, false, false, 1, 4);
+
+        Assert.assertEquals(indexedFactory.getSupportedFuncotationFields(), inMemoryFactory.getSupportedFuncotationFields());
+
+        // Look up every key twice to exercise the lookup cache, along with keys that aren't in the file:
+        final List<GencodeFuncotation> gencodeFuncotations = new ArrayList<>();
+        for ( int pass = 0; pass < 2; ++pass ) {
+            for ( int row = 1; row <= squareSize; ++row ) {
+                gencodeFuncotations.add(new GencodeFuncotationBuilder().setHugoSymbol("R" + row + "C" + (keyColumn + 1)).build());
+            }
+            gencodeFuncotations.add(new GencodeFuncotationBuilder().setHugoSymbol("NOT_A_GENE").build());
+        }
+
+        for ( final GencodeFuncotation gencodeFuncotation : gencodeFuncotations ) {
+            final List<GencodeFuncotation> gencodeFuncotationList = Collections.singletonList(gencodeFuncotation);
+            Assert.assertEquals(
+                    indexedFactory.createFuncotationsOnVariant(defaultVariantContext, defaultReferenceContext, Collections.emptyList(), gencodeFuncotationList),
+                    inMemoryFactory.createFuncotationsOnVariant(defaultVariantContext, defaultReferenceContext, Collections.emptyList(), gencodeFuncotationList),
+                    "Funcotations differ for " + gencodeFuncotation.getHugoSymbol());
+        }
+    }
+
+    @Test
+    public void testIndexIsOutOfDateWhenXsvChanges() throws IOException {
+        final Path xsvPath = createTempDir("indexedXsv").toPath().resolve("data.csv");
+        Files.copy(IOUtils.getPath(FuncotatorTestConstants.XSV_CSV_FILE_PATH), xsvPath);
+        final Path indexPath = SimpleKeyXsvIndex.getIndexPath(xsvPath);
+        final SimpleKeyXsvFuncotationFactory.XsvDataKeyType keyType = SimpleKeyXsvFuncotationFactory.XsvDataKeyType.GENE_NAME;
+
+        Assert.assertFalse(SimpleKeyXsvFuncotationFactory.isIndexUpToDate(xsvPath, indexPath, ",", 0, keyType, 0, false));
+        SimpleKeyXsvFuncotationFactory.compileIndex(xsvPath, indexPath, ",", 0, keyType, 0, false);
+        Assert.assertTrue(SimpleKeyXsvFuncotationFactory.isIndexUpToDate(xsvPath, indexPath, ",", 0, keyType, 0, false));
+
+        // Different settings:
+        Assert.assertFalse(SimpleKeyXsvFuncotationFactory.isIndexUpToDate(xsvPath, indexPath, ",", 1, keyType, 0, false));
+
+        // The same size but a different modification time means the file may have been edited in place:
+        Files.setLastModifiedTime(xsvPath, FileTime.fromMillis(Files.getLastModifiedTime(xsvPath).toMillis() - 60_000));
+        Assert.assertFalse(SimpleKeyXsvFuncotationFactory.isIndexUpToDate(xsvPath, indexPath, ",", 0, keyType, 0, false));
+
+        SimpleKeyXsvFuncotationFactory.compileIndex(xsvPath, indexPath, ",", 0, keyType, 0, false);
+        Assert.assertTrue(SimpleKeyXsvFuncotationFactory.isIndexUpToDate(xsvPath, indexPath, ",", 0, keyType, 0, false));
+    }
 }
@@ -0,0 +1,67 @@
+package org.broadinstitute.hellbender.tools.funcotator.dataSources.xsv;
+
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.broadinstitute.hellbender.exceptions.UserException;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.*;
+
+public class SimpleKeyXsvIndexUnitTest extends GATKBaseTest {
+
+    private static Path writeIndex(final Map<String, List<String>> rows, final String signature) {
+        final Path indexPath = createTempFile("simpleKeyXsv", SimpleKeyXsvIndex.INDEX_EXTENSION).toPath();
+        try ( final SimpleKeyXsvIndex.Writer writer = new SimpleKeyXsvIndex.Writer(indexPath, signature) ) {
+            rows.forEach(writer::add);
+        }
+        return indexPath;
+    }
+
+    @DataProvider
+    public Object[][] provideNumRows() {
+        return new Object[][] { {0}, {1}, {2}, {7}, {1000} };
+    }
+
+    @Test(dataProvider = "provideNumRows")
+    public void testRoundTrip(final int numRows) {
+        final Map<String, List<String>> rows = new LinkedHashMap<>();
+        for ( int i = 0; i < numRows; ++i ) {
+            rows.put("GENE" + i, Arrays.asList("value" + i, "", "\u00e9t\u00e9 " + i));
+        }
+
+        final SimpleKeyXsvIndex index = SimpleKeyXsvIndex.load(writeIndex(rows, "sig"));
+        Assert.assertEquals(index.getSignature(), "sig");
+        Assert.assertEquals(index.getNumKeys(), numRows);
+        for ( final Map.Entry<String, List<String>> row : rows.entrySet() ) {
+            Assert.assertEquals(index.get(row.getKey()), row.getValue());
+        }
+        Assert.assertNull(index.get("NOT_A_GENE"));
+        Assert.assertNull(index.get(""));
+    }
+
+    @Test
+    public void testLastDuplicateKeyWins() {
+        final Path indexPath = createTempFile("simpleKeyXsv", SimpleKeyXsvIndex.INDEX_EXTENSION).toPath();
+        try ( final SimpleKeyXsvIndex.Writer writer = new SimpleKeyXsvIndex.Writer(indexPath, "sig") ) {
+            writer.add("GENE", Collections.singletonList("first"));
+            writer.add("OTHER", Collections.singletonList("other"));
+            writer.add("GENE", Collections.singletonList("second"));
+        }
+
+        final SimpleKeyXsvIndex index = SimpleKeyXsvIndex.load(indexPath);
+        Assert.assertEquals(index.getNumKeys(), 2);
+        Assert.assertEquals(index.get("GENE"), Collections.singletonList("second"));
+        Assert.assertEquals(index.get("OTHER"), Collections.singletonList("other"));
+    }
+
+    @Test(expectedExceptions = UserException.MalformedFile.class)
+    public void testLoadNonIndexFile() throws Exception {
+        final File notAnIndex = createTempFile("notAnIndex", SimpleKeyXsvIndex.INDEX_EXTENSION);
+        Files.write(notAnIndex.toPath(), "This is not an index.".getBytes());
+        SimpleKeyXsvIndex.load(notAnIndex.toPath());
+    }
+}
@@ -170,4 +170,54 @@ public class PSKmerUtilsTest extends CommandLineProgramTest {
         }
     }
 
-}
\ No newline at end of file
+    @Test
+    public void testReadWriteMappedSets() {
+        final int numElements = 200000;
+        final int kSize = 31;
+        final SVKmerShort mask = SVKmerShort.getMask(new byte[]{15}, kSize);
+        final Random rand = new Random(SEED);
+
+        //split the kmers into several arrays and include duplicates, as produced by getMaskedKmersFromLocalReference
+        final Collection<long[]> maskedKmers = new ArrayList<>();
+        final Set<Long> truthSet = new HashSet<>();
+        for (int i = 0; i < 4; i++) {
+            final long[] array = rand.longs(numElements / 4)
+                    .map(val -> PSKmerCollection.canonicalizeAndMask(new SVKmerShort(val >>> 2), kSize, mask))
+                    .toArray();
+            maskedKmers.add(array);
+            maskedKmers.add(Arrays.copyOf(array, 100));
+            Arrays.stream(array).forEach(truthSet::add);
+        }
+        final long numLongs = PSKmerUtils.longArrayCollectionSize(maskedKmers);
+
+        final File hssFile = createTempFile("set", ".bin");
+        PSKmerUtils.writeMappedKmerSet(hssFile.getPath(), maskedKmers, numLongs, kSize, mask);
+        final PSKmerCollection hssIn = PSKmerUtils.readKmerFilter(hssFile.getPath() + PSKmerUtils.MAPPED_HOPSCOTCH_SET_EXTENSION);
+        Assert.assertEquals(hssIn.kmerSize(), kSize);
+        Assert.assertEquals(hssIn.getMask(), mask);
+        Assert.assertEquals(hssIn.getFalsePositiveProbability(), 0.);
+        for (final long kmer : truthSet) {
+            Assert.assertTrue(hssIn.contains(new SVKmerShort(kmer)), "Mapped hash set is missing a kmer");
+        }
+        for (int i = 0; i < 10000; i++) {
+            final SVKmerShort kmer = new SVKmerShort(rand.nextLong() >>> 2);
+            Assert.assertEquals(hssIn.contains(kmer), truthSet.contains(PSKmerCollection.canonicalizeAndMask(kmer, kSize, mask)));
+        }
+
+        final LongBloomFilter bfOut = PSKmerUtils.longArrayCollectionToBloomFilter(maskedKmers, numLongs, 0.01);
+        final File bfFile = createTempFile("set", ".bin");
+        PSKmerUtils.writeMappedKmerBloomFilter(bfFile.getPath(), bfOut, truthSet.size(), kSize, mask);
+        final PSKmerCollection bloomIn = PSKmerUtils.readKmerFilter(bfFile.getPath() + PSKmerUtils.MAPPED_BLOOM_FILTER_EXTENSION);
+        Assert.assertEquals(bloomIn.kmerSize(), kSize);
+        Assert.assertEquals(bloomIn.getMask(), mask);
+        Assert.assertEquals(bloomIn.getFalsePositiveProbability(), bfOut.getTheoreticalFPP(truthSet.size()));
+        for (final long kmer : truthSet) {
+            Assert.assertTrue(bloomIn.contains(new SVKmerShort(kmer)), "Mapped Bloom filter is missing a kmer");
+        }
+        for (int i = 0; i < 10000; i++) {
+            final SVKmerShort kmer = new SVKmerShort(rand.nextLong() >>> 2);
+            Assert.assertEquals(bloomIn.contains(kmer), bfOut.contains(PSKmerCollection.canonicalizeAndMask(kmer, kSize, mask)),
+                    "Mapped Bloom filter differs from the filter that was written");
+        }
+    }
+}
@@ -0,0 +1,95 @@
+package org.broadinstitute.hellbender.tools.spark.pathseq;
+
+import htsjdk.samtools.ValidationStringency;
+import htsjdk.samtools.metrics.MetricsFile;
+import org.apache.commons.io.FileUtils;
+import org.broadinstitute.hellbender.CommandLineProgramTest;
+import org.broadinstitute.hellbender.testutils.ArgumentsBuilder;
+import org.broadinstitute.hellbender.testutils.SamAssertionUtils;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.nio.charset.StandardCharsets;
+
+public class PathSeqPipelineIntegrationTest extends CommandLineProgramTest {
+
+    private static final String kmerLibraryPath = PathSeqPipelineSparkIntegrationTest.kmerLibraryPath;
+    private static final String filterImagePath = PathSeqPipelineSparkIntegrationTest.filterImagePath;
+
+    @DataProvider(name = "pathseqPipelineTestData")
+    public Object[][] getTestData() {
+        return new Object[][]{
+                {"pipeline_input.bam",
+                 "pipeline_output.bam",
+                 "pipeline_output.txt",
+                 "pipeline_output.filter.metrics",
+                 "pipeline_output.score.metrics",
+                 false},
+                {"pipeline_input_aligned.bam",
+                 "pipeline_output_aligned.bam",
+                 "pipeline_output_aligned.txt",
+                 "pipeline_output_aligned.filter.metrics",
+                 "pipeline_output_aligned.score.metrics",
+                 true}
+        };
+    }
+
+    @Override
+    public String getToolTestDataDir() {
+        //Same test data and expected outputs as the Spark pipeline
+        return new PathSeqPipelineSparkIntegrationTest().getToolTestDataDir();
+    }
+
+    @Override
+    public String getTestedClassName() {
+        return PathSeqPipeline.class.getSimpleName();
+    }
+
+    @Test(dataProvider = "pathseqPipelineTestData")
+    public void testPipelineTool( final String inputBamFilename, final String expectedBamFilename, final String expectedScoresFilename,
+                         final String expectedFilterMetricsFilename, final String expectedScoreMetricsFilename,
+                          final boolean isHostAligned) throws Exception {
+
+        final File inputBamFile = getTestFile(inputBamFilename);
+        final File expectedBamFile = getTestFile(expectedBamFilename);
+        final File expectedScoresFile = getTestFile(expectedScoresFilename);
+        final File expectedFilterMetricsFile = getTestFile(expectedFilterMetricsFilename);
+        final File expectedScoreMetricsFile = getTestFile(expectedScoreMetricsFilename);
+
+        final File outputBamFile = createTempFile("pathseqLocalPipelineTestOutput", ".bam");
+        final File outputScoresFile = createTempFile("pathseqLocalPipelineTestOutput", ".txt");
+        final File outputFilterMetricsFile = createTempFile("filter", ".metrics");
+        final File outputScoreMetricsFile = createTempFile("score", ".metrics");
+        final File pathogenBwaImage = getTestFile("e_coli_k12_mini.fa.img");
+        final File pathogenDict = getTestFile("e_coli_k12_mini.dict");
+        final File taxonomyDatabase = getTestFile("e_coli_k12_mini.db");
+
+        final ArgumentsBuilder args = new ArgumentsBuilder();
+        args.addInput(inputBamFile);
+        args.addOutput(outputBamFile);
+        args.add(PSScoreArgumentCollection.SCORES_OUTPUT_LONG_NAME, outputScoresFile);
+        args.add(PSFilterArgumentCollection.KMER_FILE_PATH_LONG_NAME, kmerLibraryPath);
+        args.add(PSFilterArgumentCollection.FILTER_BWA_IMAGE_LONG_NAME, filterImagePath);
+        args.add(PSFilterArgumentCollection.IS_HOST_ALIGNED_LONG_NAME, isHostAligned);
+        args.add(PSBwaArgumentCollection.MICROBE_BWA_IMAGE_LONG_NAME, pathogenBwaImage);
+        args.add(PSBwaArgumentCollection.MICROBE_REF_DICT_LONG_NAME, pathogenDict);
+        args.add(PSScoreArgumentCollection.TAXONOMIC_DATABASE_LONG_NAME, taxonomyDatabase);
+        args.add(PSFilterArgumentCollection.FILTER_METRICS_FILE_LONG_NAME, outputFilterMetricsFile);
+        args.add(PSScoreArgumentCollection.SCORE_METRICS_FILE_LONG_NAME, outputScoreMetricsFile);
+        args.add(PathSeqPipeline.READS_PER_BATCH_LONG_NAME, 100);
+        args.add(PathSeqPipeline.THREADS_LONG_NAME, 2);
+        this.runCommandLine(args);
+
+        SamAssertionUtils.assertEqualBamFiles(outputBamFile, expectedBamFile, true, ValidationStringency.STRICT);
+
+        String expectedScoreString = FileUtils.readFileToString(expectedScoresFile, StandardCharsets.UTF_8);
+        String actualScoresString = FileUtils.readFileToString(outputScoresFile, StandardCharsets.UTF_8);
+        PathSeqScoreIntegrationTest.compareScoreTables(expectedScoreString, actualScoresString);
+
+        Assert.assertTrue(MetricsFile.areMetricsEqual(outputFilterMetricsFile, expectedFilterMetricsFile));
+        Assert.assertTrue(MetricsFile.areMetricsEqual(outputScoreMetricsFile, expectedScoreMetricsFile));
+    }
+
+}
@@ -148,6 +148,58 @@ public final class FindBreakpointEvidenceSparkUnitTest extends GATKBaseTest {
         FindBreakpointEvidenceSpark.handleAssemblies(ctx,qNameMultiMap,reads,filter,2,true,new LocalAssemblyComparator(fastqFile));
     }
 
+    @Test(groups = "sv")
+    public void generateFastqsLocallyTest() {
+        final HopscotchUniqueMultiMap<String, Integer, QNameAndInterval> qNameMultiMap =
+                new HopscotchUniqueMultiMap<>(expectedAssemblyQNames.size());
+        expectedAssemblyQNames.stream()
+                .map(qName -> new QNameAndInterval(qName, 0))
+                .forEach(qNameMultiMap::add);
+        final List<AlignedAssemblyOrExcuse> results =
+                FindBreakpointEvidenceSpark.handleAssemblies(ctx,qNameMultiMap,reads,filter,2,true,new LocalAssemblyComparator(fastqFile),2,0,null);
+        Assert.assertEquals(results.size(), 1);
+    }
+
+    @Test(groups = "sv")
+    public void capAssemblyTemplatesTest() {
+        final HopscotchUniqueMultiMap<String, Integer, QNameAndInterval> qNameMultiMap = new HopscotchUniqueMultiMap<>();
+        for ( int idx = 0; idx != 10; ++idx ) {
+            qNameMultiMap.add(new QNameAndInterval("template" + idx, 0));
+        }
+        qNameMultiMap.add(new QNameAndInterval("template0", 1));
+        qNameMultiMap.add(new QNameAndInterval("template1", 1));
+
+        final Map<Integer, Integer> downsampledTemplateCounts = new HashMap<>();
+        final HopscotchUniqueMultiMap<String, Integer, QNameAndInterval> capped =
+                FindBreakpointEvidenceSpark.capAssemblyTemplates(qNameMultiMap, 2, 4, downsampledTemplateCounts, null);
+        Assert.assertEquals(capped.size(), 6);
+        Assert.assertEquals(capped.stream().filter(qNameAndInterval -> qNameAndInterval.getIntervalId() == 0).count(), 4);
+        Assert.assertEquals(capped.stream().filter(qNameAndInterval -> qNameAndInterval.getIntervalId() == 1).count(), 2);
+        Assert.assertEquals(downsampledTemplateCounts, Collections.singletonMap(0, 10));
+        Assert.assertEquals(new HashSet<>(FindBreakpointEvidenceSpark.capAssemblyTemplates(qNameMultiMap, 2, 4, new HashMap<>(), null)),
+                            new HashSet<>(capped));
+
+        final Map<Integer, Integer> uncappedTemplateCounts = new HashMap<>();
+        Assert.assertSame(FindBreakpointEvidenceSpark.capAssemblyTemplates(qNameMultiMap, 2, 10, uncappedTemplateCounts, null), qNameMultiMap);
+        Assert.assertTrue(uncappedTemplateCounts.isEmpty());
+    }
+
+    @Test(groups = "sv")
+    public void writeIntervalFileRecordsDownsamplingTest() throws IOException {
+        final List<AlignedAssemblyOrExcuse> dispositions = Arrays.asList(
+                new AlignedAssemblyOrExcuse(0, "no assembly"),
+                new AlignedAssemblyOrExcuse(1, "no assembly"));
+        final File intervalFile = createTempFile("intervals", ".txt");
+        AlignedAssemblyOrExcuse.writeIntervalFile(intervalFile.getAbsolutePath(), header, Arrays.asList(testIntervals),
+                dispositions, Collections.singletonMap(1, 10), 4);
+        try ( final BufferedReader reader = new BufferedReader(new FileReader(intervalFile)) ) {
+            final List<String> lines = reader.lines().collect(Collectors.toList());
+            Assert.assertEquals(lines.size(), 2);
+            Assert.assertTrue(lines.get(0).endsWith("\tno assembly"));
+            Assert.assertTrue(lines.get(1).endsWith("\tno assembly Downsampled from 10 to 4 template names."));
+        }
+    }
+
     @Test(groups = "sv")
     public void readExternalEvidenceTest() {
         final int evidenceWeight = params.externalEvidenceWeight;
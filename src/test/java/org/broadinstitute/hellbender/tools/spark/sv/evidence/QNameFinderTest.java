@@ -4,6 +4,7 @@ import htsjdk.samtools.SAMFileHeader;
 import org.broadinstitute.hellbender.GATKBaseTest;
 import org.broadinstitute.hellbender.tools.spark.sv.StructuralVariationDiscoveryArgumentCollection;
 import org.broadinstitute.hellbender.tools.spark.sv.utils.SVInterval;
+import org.broadinstitute.hellbender.tools.spark.sv.utils.SVIntervalIndex;
 import org.broadinstitute.hellbender.tools.spark.sv.utils.SVIntervalTree;
 import org.broadinstitute.hellbender.utils.IntHistogramTest;
 import org.broadinstitute.hellbender.utils.read.ArtificialReadUtils;
@@ -49,7 +50,7 @@ public class QNameFinderTest extends GATKBaseTest {
         highDepthIntervals.put(highDepthInterval1, highDepthInterval1);
         highDepthIntervals.put(highDepthInterval2, highDepthInterval2);
 
-        final QNameFinder qNameFinder = new QNameFinder(readMetadata, intervals, new SVReadFilter(params), highDepthIntervals);
+        final QNameFinder qNameFinder = new QNameFinder(readMetadata, intervals, new SVReadFilter(params), new SVIntervalIndex<>(highDepthIntervals));
 
         Iterator<QNameAndInterval> read1Result = qNameFinder.apply(read1);
         Assert.assertTrue(! read1Result.hasNext());
@@ -81,7 +82,7 @@ public class QNameFinderTest extends GATKBaseTest {
 
         final SVIntervalTree<SVInterval> highDepthIntervals = new SVIntervalTree<>();
 
-        final QNameFinder qNameFinder = new QNameFinder(readMetadata, intervals, new SVReadFilter(params), highDepthIntervals);
+        final QNameFinder qNameFinder = new QNameFinder(readMetadata, intervals, new SVReadFilter(params), new SVIntervalIndex<>(highDepthIntervals));
 
         Iterator<QNameAndInterval> read1Result = qNameFinder.apply(read1);
         Assert.assertTrue( read1Result.hasNext());
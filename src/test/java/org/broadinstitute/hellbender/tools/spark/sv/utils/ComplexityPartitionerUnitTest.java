@@ -0,0 +1,43 @@
+package org.broadinstitute.hellbender.tools.spark.sv.utils;
+
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+public class ComplexityPartitionerUnitTest extends GATKBaseTest {
+    private static final int[] COMPLEXITIES = { 5, 100, 1, 40, 60, 3, 20 };
+
+    @Test(groups = "sv")
+    public void testOnePartitionPerTask() {
+        final ComplexityPartitioner partitioner = new ComplexityPartitioner(COMPLEXITIES);
+        Assert.assertEquals(partitioner.numPartitions(), COMPLEXITIES.length);
+        final int[] expectedPartitions = { 4, 0, 6, 2, 1, 5, 3 };
+        for ( int idx = 0; idx != COMPLEXITIES.length; ++idx ) {
+            Assert.assertEquals(partitioner.getPartition(idx), expectedPartitions[idx]);
+        }
+    }
+
+    @Test(groups = "sv")
+    public void testBalancedPartitions() {
+        final ComplexityPartitioner partitioner = new ComplexityPartitioner(COMPLEXITIES, 2);
+        Assert.assertEquals(partitioner.numPartitions(), 2);
+
+        // the biggest task starts the first partition, and the next biggest starts the second
+        Assert.assertEquals(partitioner.getPartition(1), 0);
+        Assert.assertEquals(partitioner.getPartition(4), 1);
+
+        final long[] loads = new long[2];
+        for ( int idx = 0; idx != COMPLEXITIES.length; ++idx ) {
+            loads[partitioner.getPartition(idx)] += COMPLEXITIES[idx];
+        }
+        Assert.assertEquals(loads[0], 120);
+        Assert.assertEquals(loads[1], 109);
+    }
+
+    @Test(groups = "sv")
+    public void testMorePartitionsThanTasks() {
+        final ComplexityPartitioner partitioner = new ComplexityPartitioner(COMPLEXITIES, 100);
+        Assert.assertEquals(partitioner.numPartitions(), COMPLEXITIES.length);
+        Assert.assertEquals(partitioner.getPartition(1), 0);
+    }
+}
@@ -0,0 +1,95 @@
+package org.broadinstitute.hellbender.tools.spark.sv.utils;
+
+import org.apache.spark.SparkConf;
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.broadinstitute.hellbender.testutils.SparkTestUtils;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Random;
+
+public class SVIntervalIndexUnitTest extends GATKBaseTest {
+
+    private static SVIntervalTree<Integer> randomTree( final Random random, final int nIntervals ) {
+        final SVIntervalTree<Integer> tree = new SVIntervalTree<>();
+        for ( int idx = 0; idx != nIntervals; ++idx ) {
+            final int contig = 2 * random.nextInt(3);
+            final int start = random.nextInt(10000);
+            // mostly short intervals, with some long ones that overlap many others
+            final int length = random.nextInt(10) == 0 ? random.nextInt(5000) : random.nextInt(100);
+            tree.put(new SVInterval(contig, start, start + length), idx);
+        }
+        return tree;
+    }
+
+    private static <V> List<SVIntervalTree.Entry<V>> toList( final Iterator<SVIntervalTree.Entry<V>> itr ) {
+        final List<SVIntervalTree.Entry<V>> result = new ArrayList<>();
+        itr.forEachRemaining(result::add);
+        return result;
+    }
+
+    private static <V> void assertEntriesEqual( final List<SVIntervalTree.Entry<V>> actual, final List<SVIntervalTree.Entry<V>> expected ) {
+        Assert.assertEquals(actual.size(), expected.size());
+        for ( int idx = 0; idx != actual.size(); ++idx ) {
+            Assert.assertEquals(actual.get(idx).getInterval(), expected.get(idx).getInterval());
+            Assert.assertEquals(actual.get(idx).getValue(), expected.get(idx).getValue());
+        }
+    }
+
+    @DataProvider(name = "treeSizes")
+    public Object[][] treeSizes() {
+        return new Object[][]{ {0}, {1}, {2}, {7}, {16}, {17}, {100}, {1000}, {5000} };
+    }
+
+    @Test(dataProvider = "treeSizes", groups = "sv")
+    public void testQueriesMatchTree( final int nIntervals ) {
+        final Random random = new Random(47);
+        final SVIntervalTree<Integer> tree = randomTree(random, nIntervals);
+        final SVIntervalIndex<Integer> index = new SVIntervalIndex<>(tree);
+        Assert.assertEquals(index.size(), tree.size());
+        assertEntriesEqual(toList(index.iterator()), toList(tree.iterator()));
+
+        for ( int query = 0; query != 1000; ++query ) {
+            final int start = random.nextInt(11000);
+            final SVInterval interval = new SVInterval(random.nextInt(5), start, start + random.nextInt(200));
+            assertEntriesEqual(toList(index.overlappers(interval)), toList(tree.overlappers(interval)));
+            Assert.assertEquals(index.hasOverlapper(interval), tree.hasOverlapper(interval));
+            final SVIntervalTree.Entry<Integer> minOverlapper = index.minOverlapper(interval);
+            final SVIntervalTree.Entry<Integer> expectedMinOverlapper = tree.minOverlapper(interval);
+            if ( expectedMinOverlapper == null ) {
+                Assert.assertNull(minOverlapper);
+            } else {
+                Assert.assertEquals(minOverlapper.getInterval(), expectedMinOverlapper.getInterval());
+                Assert.assertEquals(minOverlapper.getValue(), expectedMinOverlapper.getValue());
+            }
+        }
+    }
+
+    @Test(groups = "sv")
+    public void testSerialization() {
+        final Random random = new Random(47);
+        final SVIntervalIndex<Integer> index = new SVIntervalIndex<>(randomTree(random, 1000));
+        final SVIntervalIndex<Integer> roundTripped = SparkTestUtils.roundTripInKryo(index, SVIntervalIndex.class, new SparkConf());
+        assertEntriesEqual(toList(roundTripped.iterator()), toList(index.iterator()));
+
+        // an index of intervals whose values are the intervals themselves is serialized without the values
+        final SVIntervalTree<SVInterval> intervalTree = new SVIntervalTree<>();
+        index.forEach(entry -> intervalTree.put(entry.getInterval(), entry.getInterval()));
+        final SVIntervalIndex<SVInterval> intervalIndex = new SVIntervalIndex<>(intervalTree);
+        final SVIntervalIndex<SVInterval> roundTrippedIntervals = SparkTestUtils.roundTripInKryo(intervalIndex, SVIntervalIndex.class, new SparkConf());
+        assertEntriesEqual(toList(roundTrippedIntervals.iterator()), toList(intervalIndex.iterator()));
+        final SVInterval query = new SVInterval(2, 5000, 5100);
+        assertEntriesEqual(toList(roundTrippedIntervals.overlappers(query)), toList(intervalTree.overlappers(query)));
+    }
+
+    @Test(groups = "sv", expectedExceptions = UnsupportedOperationException.class)
+    public void testImmutable() {
+        final SVIntervalTree<Integer> tree = new SVIntervalTree<>();
+        tree.put(new SVInterval(0, 100, 200), 1);
+        new SVIntervalIndex<>(tree).iterator().next().setValue(2);
+    }
+}
@@ -0,0 +1,116 @@
+package org.broadinstitute.hellbender.tools.walkers.haplotypecaller;
+
+import htsjdk.samtools.SAMFileHeader;
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.broadinstitute.hellbender.utils.Utils;
+import org.broadinstitute.hellbender.utils.read.ArtificialReadUtils;
+import org.broadinstitute.hellbender.utils.read.GATKRead;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public final class AltEvidencePrecheckUnitTest extends GATKBaseTest {
+
+    private static final SAMFileHeader HEADER = ArtificialReadUtils.createArtificialSamHeader(1, 1, 10000);
+    private static final int REF_START = 1000;
+    private static final byte[] REF = "ACGTACGTACGTACGTACGTACGTACGTACGTACGTACGT".getBytes();
+
+    private static GATKRead makeRead(final String name, final int start, final byte[] bases, final byte qual, final String cigar) {
+        return ArtificialReadUtils.createArtificialRead(HEADER, name, 0, start, bases, Utils.dupBytes(qual, bases.length), cigar);
+    }
+
+    private static byte[] refBases(final int offset, final int length) {
+        return Arrays.copyOfRange(REF, offset, offset + length);
+    }
+
+    private static List<GATKRead> referenceReads(final int count) {
+        final List<GATKRead> reads = new ArrayList<>();
+        for (int i = 0; i < count; i++) {
+            reads.add(makeRead("ref" + i, REF_START + i, refBases(i, 20), (byte) 30, "20M"));
+        }
+        return reads;
+    }
+
+    private static GATKRead mismatchRead(final String name, final byte qual) {
+        final byte[] bases = refBases(0, 20);
+        bases[10] = bases[10] == 'A' ? (byte) 'C' : (byte) 'A';
+        return makeRead(name, REF_START, bases, qual, "20M");
+    }
+
+    @DataProvider
+    public Object[][] regions() {
+        final List<GATKRead> onlyRef = referenceReads(10);
+
+        final List<GATKRead> singleMismatch = referenceReads(10);
+        singleMismatch.add(mismatchRead("alt1", (byte) 30));
+
+        final List<GATKRead> sharedMismatch = referenceReads(10);
+        sharedMismatch.add(mismatchRead("alt1", (byte) 30));
+        sharedMismatch.add(mismatchRead("alt2", (byte) 30));
+
+        final List<GATKRead> lowQualityMismatch = referenceReads(10);
+        lowQualityMismatch.add(mismatchRead("alt1", (byte) 5));
+        lowQualityMismatch.add(mismatchRead("alt2", (byte) 5));
+
+        final List<GATKRead> sharedDeletion = referenceReads(10);
+        for (int i = 0; i < 2; i++) {
+            final byte[] bases = new byte[18];
+            System.arraycopy(REF, 0, bases, 0, 10);
+            System.arraycopy(REF, 12, bases, 10, 8);
+            sharedDeletion.add(makeRead("del" + i, REF_START, bases, (byte) 30, "10M2D8M"));
+        }
+
+        final List<GATKRead> sharedSoftClip = referenceReads(10);
+        for (int i = 0; i < 2; i++) {
+            final byte[] bases = refBases(0, 20);
+            Arrays.fill(bases, 15, 20, (byte) 'T');
+            sharedSoftClip.add(makeRead("clip" + i, REF_START, bases, (byte) 30, "15M5S"));
+        }
+
+        final List<GATKRead> mismatchedNs = referenceReads(10);
+        for (int i = 0; i < 3; i++) {
+            final byte[] bases = refBases(0, 20);
+            bases[10] = 'N';
+            mismatchedNs.add(makeRead("n" + i, REF_START, bases, (byte) 30, "20M"));
+        }
+
+        return new Object[][] {
+                { onlyRef, false },
+                { singleMismatch, false },
+                { sharedMismatch, true },
+                { lowQualityMismatch, false },
+                { sharedDeletion, true },
+                { sharedSoftClip, true },
+                { mismatchedNs, false }
+        };
+    }
+
+    @Test(dataProvider = "regions")
+    public void testHasPlausibleAltEvidence(final List<GATKRead> reads, final boolean expected) {
+        final AltEvidencePrecheck precheck = new AltEvidencePrecheck(2, (byte) 10);
+        Assert.assertEquals(precheck.hasPlausibleAltEvidence(reads, REF, REF_START), expected);
+        Assert.assertEquals(precheck.getRegionsChecked(), 1);
+        Assert.assertEquals(precheck.getRegionsWithoutAltEvidence(), expected ? 0 : 1);
+    }
+
+    @Test
+    public void testReadsOverhangingReference() {
+        // reads that start before or run past the reference window must not fail, and events outside it are ignored
+        final byte[] bases = new byte[30];
+        Arrays.fill(bases, (byte) 'T');
+        final List<GATKRead> reads = Arrays.asList(
+                makeRead("left1", REF_START - 25, bases, (byte) 30, "30M"),
+                makeRead("left2", REF_START - 25, bases, (byte) 30, "30M"));
+        final AltEvidencePrecheck precheck = new AltEvidencePrecheck(3, (byte) 10);
+        Assert.assertFalse(precheck.hasPlausibleAltEvidence(reads, REF, REF_START));
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testInvalidMinAltReads() {
+        new AltEvidencePrecheck(0, (byte) 10);
+    }
+}
@@ -20,6 +20,7 @@ import org.testng.annotations.Test;
 
 import java.io.File;
 import java.util.*;
+import java.util.stream.Collectors;
 
 /**
  * Unit tests for PairHMMLikelihoodCalculationEngine
@@ -198,4 +199,88 @@ public final class PairHMMLikelihoodCalculationEngineUnitTest extends GATKBaseTe
         Assert.assertTrue(v1 > v2, "matching haplotype should have a higher likelihood");
         lce.close();
     }
+
+    @Test
+    public void testResultsCacheDoesNotChangeLikelihoods() {
+        final LikelihoodEngineArgumentCollection LEAC = new LikelihoodEngineArgumentCollection();
+        final double log10MismappingRate = MathUtils.logToLog10(QualityUtils.qualToErrorProbLog10(LEAC.phredScaledGlobalReadMismappingRate));
+        final PairHMMLikelihoodCalculationEngine uncachedEngine = new PairHMMLikelihoodCalculationEngine((byte) 10, new PairHMMNativeArguments(),
+                PairHMM.Implementation.LOGLESS_CACHING, log10MismappingRate, PairHMMLikelihoodCalculationEngine.PCRErrorModel.CONSERVATIVE,
+                PairHMM.BASE_QUALITY_SCORE_THRESHOLD, 0);
+        final PairHMMLikelihoodCalculationEngine cachedEngine = new PairHMMLikelihoodCalculationEngine((byte) 10, new PairHMMNativeArguments(),
+                PairHMM.Implementation.LOGLESS_CACHING, log10MismappingRate, PairHMMLikelihoodCalculationEngine.PCRErrorModel.CONSERVATIVE,
+                PairHMM.BASE_QUALITY_SCORE_THRESHOLD, 100);
+
+        final Random random = new Random(13);
+        final String sample = "sample1";
+        final SampleList samples = new IndexedSampleList(sample);
+        final int readLength = 20;
+        final byte[] reference = randomBases(random, 60);
+        final List<GATKRead> reads = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            final GATKRead read = ArtificialReadUtils.createArtificialRead(TextCigarCodec.decode(readLength + "M"));
+            final int offset = random.nextInt(reference.length - readLength);
+            final byte[] readBases = Arrays.copyOfRange(reference, offset, offset + readLength);
+            readBases[random.nextInt(readLength)] = 'T';
+            final byte[] quals = new byte[readLength];
+            for (int j = 0; j < readLength; j++) {
+                quals[j] = (byte) (10 + random.nextInt(30));
+            }
+            read.setBases(readBases);
+            read.setBaseQualities(quals);
+            read.setName("read" + i);
+            read.setMappingQuality(60);
+            reads.add(read);
+        }
+
+        final List<Haplotype> haplotypes = new ArrayList<>();
+        haplotypes.add(new Haplotype(reference, true));
+        for (int i = 0; i < 3; i++) {
+            final byte[] alternate = reference.clone();
+            alternate[random.nextInt(alternate.length)] = 'G';
+            haplotypes.add(new Haplotype(alternate, false));
+        }
+
+        // score the reads against a first set of haplotypes, then against a set that adds to it,
+        // so that the second round mixes cached and newly computed values
+        for (final List<Haplotype> haplotypeSubset : Arrays.asList(haplotypes.subList(0, 2), haplotypes, haplotypes)) {
+            final AlleleLikelihoods<GATKRead, Haplotype> uncached = computeLikelihoods(uncachedEngine, haplotypeSubset, samples, sample, reads);
+            final AlleleLikelihoods<GATKRead, Haplotype> cached = computeLikelihoods(cachedEngine, haplotypeSubset, samples, sample, reads);
+            final LikelihoodMatrix<GATKRead, Haplotype> uncachedMatrix = uncached.sampleMatrix(0);
+            final LikelihoodMatrix<GATKRead, Haplotype> cachedMatrix = cached.sampleMatrix(0);
+            Assert.assertEquals(cachedMatrix.evidenceCount(), uncachedMatrix.evidenceCount());
+            for (int r = 0; r < uncachedMatrix.evidenceCount(); r++) {
+                for (int h = 0; h < haplotypeSubset.size(); h++) {
+                    Assert.assertEquals(cachedMatrix.get(h, r), uncachedMatrix.get(h, r), 1e-12);
+                }
+            }
+        }
+        Assert.assertTrue(cachedEngine.getResultsCache().getHits() > 0);
+        uncachedEngine.close();
+        cachedEngine.close();
+    }
+
+    private static AlleleLikelihoods<GATKRead, Haplotype> computeLikelihoods(final ReadLikelihoodCalculationEngine engine,
+                                                                          final List<Haplotype> haplotypes,
+                                                                          final SampleList samples, final String sample,
+                                                                          final List<GATKRead> reads) {
+        final AssemblyResultSet assemblyResultSet = new AssemblyResultSet();
+        for (final Haplotype haplotype : haplotypes) {
+            // fresh copies, so that cache hits depend on the haplotype bases rather than on object identity
+            final Haplotype copy = new Haplotype(haplotype.getBases(), haplotype.isReference());
+            copy.setGenomeLocation(reads.get(0));
+            assemblyResultSet.add(copy);
+        }
+        final Map<String, List<GATKRead>> perSampleReadList = new HashMap<>();
+        perSampleReadList.put(sample, reads.stream().map(GATKRead::copy).collect(Collectors.toList()));
+        return engine.computeReadLikelihoods(assemblyResultSet, samples, perSampleReadList);
+    }
+
+    private static byte[] randomBases(final Random random, final int length) {
+        final byte[] bases = new byte[length];
+        for (int i = 0; i < length; i++) {
+            bases[i] = "ACGT".getBytes()[random.nextInt(4)];
+        }
+        return bases;
+    }
 }
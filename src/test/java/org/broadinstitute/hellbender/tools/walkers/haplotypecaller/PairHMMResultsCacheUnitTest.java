@@ -0,0 +1,88 @@
+package org.broadinstitute.hellbender.tools.walkers.haplotypecaller;
+
+import htsjdk.samtools.SAMFileHeader;
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.broadinstitute.hellbender.utils.haplotype.Haplotype;
+import org.broadinstitute.hellbender.utils.read.ArtificialReadUtils;
+import org.broadinstitute.hellbender.utils.read.GATKRead;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+public final class PairHMMResultsCacheUnitTest extends GATKBaseTest {
+
+    private static final SAMFileHeader HEADER = ArtificialReadUtils.createArtificialSamHeader(1, 1, 1000);
+
+    private static GATKRead makeRead(final String name, final int start, final String bases) {
+        final byte[] quals = new byte[bases.length()];
+        Arrays.fill(quals, (byte) 30);
+        return ArtificialReadUtils.createArtificialRead(HEADER, name, 0, start, bases.getBytes(), quals, bases.length() + "M");
+    }
+
+    @Test
+    public void testStoreAndLookup() {
+        final PairHMMResultsCache cache = new PairHMMResultsCache(10);
+        final GATKRead read = makeRead("read1", 100, "ACGTACGTAC");
+        final List<Haplotype> haplotypes = Arrays.asList(new Haplotype("ACGTACGTACGTACGT".getBytes(), true), new Haplotype("ACGTACCTACGTACGT".getBytes()));
+        final double[] values = new double[haplotypes.size()];
+
+        Assert.assertFalse(cache.lookup(read, read, haplotypes, values));
+        cache.store(read, read, haplotypes, new double[] {-1.5, -7.25});
+
+        Assert.assertTrue(cache.lookup(read, read, haplotypes, values));
+        Assert.assertEquals(values, new double[] {-1.5, -7.25});
+
+        // a new haplotype object with identical bases should hit as well
+        Assert.assertTrue(cache.lookup(read, read, Collections.singletonList(new Haplotype("ACGTACCTACGTACGT".getBytes())), values));
+        Assert.assertEquals(values[0], -7.25);
+
+        // a haplotype that was never scored against the read is a miss
+        Assert.assertFalse(cache.lookup(read, read, Collections.singletonList(new Haplotype("TTTTACGTACGTACGT".getBytes())), values));
+
+        // the same read with different qualities is a different entry
+        final GATKRead requalified = read.copy();
+        requalified.setBaseQualities(new byte[] {10, 10, 10, 10, 10, 10, 10, 10, 10, 10});
+        Assert.assertFalse(cache.lookup(requalified, requalified, haplotypes, values));
+
+        Assert.assertEquals(cache.getHits(), 3);
+        Assert.assertTrue(cache.getHitRate() > 0.0 && cache.getHitRate() < 1.0);
+    }
+
+    @Test
+    public void testEvictionAsTraversalMovesForward() {
+        final PairHMMResultsCache cache = new PairHMMResultsCache(10);
+        final List<Haplotype> haplotypes = Collections.singletonList(new Haplotype("ACGTACGTACGTACGT".getBytes(), true));
+        final GATKRead early = makeRead("early", 100, "ACGTACGTAC");
+        final GATKRead late = makeRead("late", 200, "ACGTACGTAC");
+        cache.store(early, early, haplotypes, new double[] {-1.0});
+        cache.store(late, late, haplotypes, new double[] {-2.0});
+
+        cache.evictBefore(early.getContig(), 150);
+        Assert.assertEquals(cache.size(), 1);
+        Assert.assertEquals(cache.getEvictions(), 1);
+        Assert.assertTrue(cache.lookup(late, late, haplotypes, new double[1]));
+        Assert.assertFalse(cache.lookup(early, early, haplotypes, new double[1]));
+
+        cache.evictBefore("anotherContig", 1);
+        Assert.assertEquals(cache.size(), 0);
+    }
+
+    @Test
+    public void testCapacityIsBounded() {
+        final PairHMMResultsCache cache = new PairHMMResultsCache(2);
+        final List<Haplotype> haplotypes = Collections.singletonList(new Haplotype("ACGTACGTACGTACGT".getBytes(), true));
+        for (int i = 0; i < 5; i++) {
+            final GATKRead read = makeRead("read" + i, 100 + i, "ACGTACGTAC");
+            cache.store(read, read, haplotypes, new double[] {-i});
+        }
+        Assert.assertEquals(cache.size(), 2);
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testNonPositiveCapacity() {
+        new PairHMMResultsCache(0);
+    }
+}
@@ -0,0 +1,109 @@
+package org.broadinstitute.hellbender.tools.walkers.haplotypecaller;
+
+import htsjdk.samtools.SAMFileHeader;
+import htsjdk.variant.variantcontext.Allele;
+import htsjdk.variant.variantcontext.VariantContext;
+import htsjdk.variant.variantcontext.VariantContextBuilder;
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.broadinstitute.hellbender.engine.AssemblyRegion;
+import org.broadinstitute.hellbender.utils.SimpleInterval;
+import org.broadinstitute.hellbender.utils.read.ArtificialReadUtils;
+import org.broadinstitute.hellbender.utils.read.GATKRead;
+import org.broadinstitute.hellbender.utils.variant.GATKVCFConstants;
+import org.testng.Assert;
+import org.testng.annotations.DataProvider;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.util.Arrays;
+import java.util.List;
+
+import static org.broadinstitute.hellbender.tools.walkers.haplotypecaller.RegionComputeBudget.DegradationLevel;
+
+public final class RegionComputeBudgetUnitTest extends GATKBaseTest {
+
+    private static final SAMFileHeader HEADER = ArtificialReadUtils.createArtificialSamHeader(1, 1, 10000);
+
+    private static RegionComputeBudget makeBudget(final long maxWork, final File report) {
+        final HaplotypeCallerArgumentCollection args = new HaplotypeCallerArgumentCollection();
+        args.maxRegionWork = maxWork;
+        args.degradedRegionReport = report == null ? null : report.getAbsolutePath();
+        return new RegionComputeBudget(args, args.createReadThreadingAssembler());
+    }
+
+    @DataProvider
+    public Object[][] workLevels() {
+        return new Object[][] {
+                {500L, DegradationLevel.NONE},
+                {1000L, DegradationLevel.NONE},
+                {1500L, DegradationLevel.REDUCED_HAPLOTYPES},
+                {3000L, DegradationLevel.LARGEST_KMER_ONLY},
+                {5000L, DegradationLevel.PILEUP_ONLY}
+        };
+    }
+
+    @Test(dataProvider = "workLevels")
+    public void testPredictLevelFromWork(final long work, final DegradationLevel expected) {
+        try (final RegionComputeBudget budget = makeBudget(1000L, null)) {
+            Assert.assertEquals(budget.predictLevel(work), expected);
+        }
+    }
+
+    @Test
+    public void testDegradedRegionsAreReported() throws IOException {
+        final File report = createTempFile("degraded", ".tsv");
+        final AssemblyRegion region = new AssemblyRegion(new SimpleInterval("1", 1000, 1099), true, 50, HEADER);
+        for (int i = 0; i < 10; i++) {
+            final GATKRead read = ArtificialReadUtils.createArtificialRead(HEADER, "100M");
+            read.setPosition("1", 1000 + i);
+            region.add(read);
+        }
+
+        // 10 reads x 200 bp of padded span = 2000 units of work, twice the budget
+        try (final RegionComputeBudget budget = makeBudget(1000L, report)) {
+            final RegionComputeBudget.RegionBudget regionBudget = budget.startRegion(region);
+            Assert.assertEquals(regionBudget.getLevel(), DegradationLevel.REDUCED_HAPLOTYPES);
+            Assert.assertFalse(regionBudget.skipAssembly());
+            Assert.assertNotNull(budget.getAssembler(regionBudget));
+            Assert.assertFalse(budget.exhaustedAfterAssembly(regionBudget));
+            budget.finishRegion(regionBudget);
+            Assert.assertEquals(budget.getRegionCount(DegradationLevel.REDUCED_HAPLOTYPES), 1L);
+        }
+
+        final List<String> lines = Files.readAllLines(report.toPath());
+        Assert.assertEquals(lines.size(), 2);
+        Assert.assertTrue(lines.get(1).startsWith("1\t1000\t1099\t10\t2000\tREDUCED_HAPLOTYPES\t"));
+    }
+
+    @Test
+    public void testDegradedCallsAreAnnotated() {
+        final Allele ref = Allele.create("A", true);
+        final Allele alt = Allele.create("C");
+        final VariantContext call = new VariantContextBuilder("test", "1", 1050, 1050, Arrays.asList(ref, alt)).make();
+        final VariantContext refBlock = new VariantContextBuilder("test", "1", 1051, 1060, Arrays.asList(ref, Allele.NON_REF_ALLELE)).make();
+
+        final AssemblyRegion smallRegion = new AssemblyRegion(new SimpleInterval("1", 1000, 1099), true, 50, HEADER);
+        final AssemblyRegion largeRegion = new AssemblyRegion(new SimpleInterval("1", 1000, 1099), true, 50, HEADER);
+        for (int i = 0; i < 10; i++) {
+            final GATKRead read = ArtificialReadUtils.createArtificialRead(HEADER, "100M");
+            read.setPosition("1", 1000 + i);
+            largeRegion.add(read);
+        }
+
+        try (final RegionComputeBudget budget = makeBudget(1000L, null)) {
+            final List<VariantContext> normalCalls = RegionComputeBudget.annotateCalls(budget.startRegion(smallRegion), Arrays.asList(call, refBlock));
+            Assert.assertFalse(normalCalls.get(0).hasAttribute(GATKVCFConstants.DEGRADED_REGION_KEY));
+
+            final List<VariantContext> degradedCalls = RegionComputeBudget.annotateCalls(budget.startRegion(largeRegion), Arrays.asList(call, refBlock));
+            Assert.assertEquals(degradedCalls.get(0).getAttribute(GATKVCFConstants.DEGRADED_REGION_KEY), DegradationLevel.REDUCED_HAPLOTYPES.name());
+            Assert.assertFalse(degradedCalls.get(1).hasAttribute(GATKVCFConstants.DEGRADED_REGION_KEY));
+        }
+    }
+
+    @Test(expectedExceptions = IllegalArgumentException.class)
+    public void testRequiresABudget() {
+        makeBudget(0L, null);
+    }
+}
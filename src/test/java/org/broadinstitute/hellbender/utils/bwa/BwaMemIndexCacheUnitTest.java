@@ -0,0 +1,55 @@
+package org.broadinstitute.hellbender.utils.bwa;
+
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.io.File;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.FileTime;
+
+public class BwaMemIndexCacheUnitTest extends GATKBaseTest {
+
+    @Test
+    public void testStageIndexImage() throws IOException {
+        final File image = createTempFile("reference", ".img");
+        Files.write(image.toPath(), new byte[]{1, 2, 3, 4});
+        final File localDirectory = new File(createTempDir("bwaStaging"), "images");
+
+        final String stagedImage = BwaMemIndexCache.stageIndexImage(image.getAbsolutePath(), localDirectory.getAbsolutePath());
+        final Path stagedPath = Paths.get(stagedImage);
+        Assert.assertEquals(stagedPath.getParent().toFile().getCanonicalFile(), localDirectory.getCanonicalFile());
+        Assert.assertEquals(stagedPath.getFileName().toString(), image.getName());
+        Assert.assertEquals(Files.readAllBytes(stagedPath), new byte[]{1, 2, 3, 4});
+
+        Assert.assertEquals(Files.getLastModifiedTime(stagedPath).toMillis(), Files.getLastModifiedTime(image.toPath()).toMillis());
+
+        // an image of the same name, size and time that's already staged is reused
+        final FileTime stagedTime = Files.getLastModifiedTime(stagedPath);
+        Files.write(stagedPath, new byte[]{9, 9, 9, 9});
+        Files.setLastModifiedTime(stagedPath, stagedTime);
+        Assert.assertEquals(BwaMemIndexCache.stageIndexImage(image.getAbsolutePath(), localDirectory.getAbsolutePath()), stagedImage);
+        Assert.assertEquals(Files.readAllBytes(stagedPath), new byte[]{9, 9, 9, 9});
+
+        // but one of the same size that has since been rewritten is replaced
+        Files.write(image.toPath(), new byte[]{5, 6, 7, 8});
+        Files.setLastModifiedTime(image.toPath(), FileTime.fromMillis(stagedTime.toMillis() + 10000));
+        Assert.assertEquals(BwaMemIndexCache.stageIndexImage(image.getAbsolutePath(), localDirectory.getAbsolutePath()), stagedImage);
+        Assert.assertEquals(Files.readAllBytes(stagedPath), new byte[]{5, 6, 7, 8});
+
+        // as is one of a different size
+        Files.write(image.toPath(), new byte[]{5, 6, 7, 8, 9});
+        Assert.assertEquals(BwaMemIndexCache.stageIndexImage(image.getAbsolutePath(), localDirectory.getAbsolutePath()), stagedImage);
+        Assert.assertEquals(Files.readAllBytes(stagedPath), new byte[]{5, 6, 7, 8, 9});
+
+        // no temporary files are left behind
+        final String[] localFiles = localDirectory.list();
+        Assert.assertNotNull(localFiles);
+        for ( final String localFile : localFiles ) {
+            Assert.assertFalse(localFile.endsWith(".tmp"), localFile);
+        }
+    }
+}
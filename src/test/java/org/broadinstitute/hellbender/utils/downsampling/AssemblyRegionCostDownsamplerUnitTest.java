@@ -0,0 +1,77 @@
+package org.broadinstitute.hellbender.utils.downsampling;
+
+import htsjdk.samtools.SAMFileHeader;
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.broadinstitute.hellbender.engine.AssemblyRegion;
+import org.broadinstitute.hellbender.utils.SimpleInterval;
+import org.broadinstitute.hellbender.utils.read.ArtificialReadUtils;
+import org.broadinstitute.hellbender.utils.read.GATKRead;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+public final class AssemblyRegionCostDownsamplerUnitTest extends GATKBaseTest {
+
+    private static final SAMFileHeader HEADER = ArtificialReadUtils.createArtificialSamHeader(1, 1, 10000);
+
+    private static AssemblyRegion makeRegion(final int numReads, final boolean isActive, final String... cigars) {
+        final AssemblyRegion region = new AssemblyRegion(new SimpleInterval("1", 1000, 1099), isActive, 50, HEADER);
+        for (int i = 0; i < numReads; i++) {
+            final String cigar = cigars.length == 0 ? "100M" : cigars[i % cigars.length];
+            final GATKRead read = ArtificialReadUtils.createArtificialRead(HEADER, cigar);
+            read.setName("read" + i);
+            read.setPosition("1", 960 + i / 2);
+            region.add(read);
+        }
+        return region;
+    }
+
+    @Test
+    public void testCheapRegionIsUntouched() {
+        final AssemblyRegionCostDownsampler downsampler = new AssemblyRegionCostDownsampler(1_000_000L);
+        final AssemblyRegion region = makeRegion(50, true);
+        Assert.assertEquals(downsampler.estimateCost(region), 50L * 200 * 1);
+        Assert.assertEquals(downsampler.downsample(region), 0);
+        Assert.assertEquals(region.size(), 50);
+        Assert.assertEquals(downsampler.getRegionsDownsampled(), 0);
+    }
+
+    @Test
+    public void testExpensiveRegionIsDownsampledInOrder() {
+        final AssemblyRegionCostDownsampler downsampler = new AssemblyRegionCostDownsampler(200L * 3 * 20);
+        final AssemblyRegion region = makeRegion(100, true, "100M", "50M2I48M", "40M10D60M");
+        Assert.assertEquals(downsampler.estimateHaplotypeCount(region.getReads()), 3);
+
+        Assert.assertEquals(downsampler.downsample(region), 80);
+        Assert.assertEquals(region.size(), 20);
+        Assert.assertTrue(downsampler.estimateCost(region) <= 200L * 3 * 20);
+
+        final List<GATKRead> reads = region.getReads();
+        for (int i = 1; i < reads.size(); i++) {
+            Assert.assertTrue(reads.get(i - 1).getStart() <= reads.get(i).getStart());
+        }
+        Assert.assertEquals(downsampler.getRegionsSeen(), 1);
+        Assert.assertEquals(downsampler.getRegionsDownsampled(), 1);
+        Assert.assertEquals(downsampler.getReadsDiscarded(), 80);
+    }
+
+    @Test
+    public void testInactiveRegionIsNeverDownsampled() {
+        final AssemblyRegionCostDownsampler downsampler = new AssemblyRegionCostDownsampler(1L);
+        final AssemblyRegion region = makeRegion(100, false);
+        Assert.assertEquals(downsampler.downsample(region), 0);
+        Assert.assertEquals(region.size(), 100);
+        Assert.assertEquals(downsampler.getRegionsSeen(), 0);
+    }
+
+    @Test
+    public void testHaplotypeCountIsCapped() {
+        final AssemblyRegionCostDownsampler downsampler = new AssemblyRegionCostDownsampler(1L, 2);
+        final List<String> cigars = new ArrayList<>(Arrays.asList("10M1I89M", "20M1I79M", "30M1I69M", "40M1I59M"));
+        final AssemblyRegion region = makeRegion(4, true, cigars.toArray(new String[0]));
+        Assert.assertEquals(downsampler.estimateHaplotypeCount(region.getReads()), 2);
+    }
+}
@@ -198,4 +198,54 @@ public final class GibbsSamplerSingleGaussianUnitTest extends GATKBaseTest {
                 relativeError(meanPosteriorStandardDeviation, MEAN_POSTERIOR_STANDARD_DEVIATION_TRUTH),
                 0., RELATIVE_ERROR_THRESHOLD_FOR_STANDARD_DEVIATIONS);
     }
-}
\ No newline at end of file
+
+    /**
+     * Tests that running multiple chains with {@link MultipleChainGibbsSampler} pools the samples of all chains,
+     * that the first chain reproduces a single {@link GibbsSampler} run, that the result does not depend on the
+     * number of threads, and that the chains are diagnosed as converged.
+     */
+    @Test
+    public void testRunMultipleChainsOnSingleGaussianModel() {
+        final int numChains = 4;
+        final List<List<Double>> meanSamplesPerChainByNumThreads = new ArrayList<>();
+        for (final int numThreads : new int[]{1, 2}) {
+            final List<ParameterizedModel<GaussianParameter, ParameterizedState<GaussianParameter>, GaussianDataCollection>> models = new ArrayList<>();
+            for (int chainIndex = 0; chainIndex < numChains; chainIndex++) {
+                models.add(new GaussianModeller(VARIANCE_INITIAL, MEAN_INITIAL, datapointsList).model);
+            }
+            final MultipleChainGibbsSampler<GaussianParameter, ParameterizedState<GaussianParameter>, GaussianDataCollection> gibbsSampler =
+                    new MultipleChainGibbsSampler<>(NUM_SAMPLES, models, numThreads);
+            gibbsSampler.runMCMC();
+
+            final List<Double> meanSamples = gibbsSampler.getSamples(GaussianParameter.MEAN, Double.class, NUM_BURN_IN);
+            Assert.assertEquals(meanSamples.size(), numChains * (NUM_SAMPLES - NUM_BURN_IN));
+            Assert.assertEquals(relativeError(new Mean().evaluate(Doubles.toArray(meanSamples)), MEAN_TRUTH),
+                    0., RELATIVE_ERROR_THRESHOLD_FOR_CENTERS);
+            Assert.assertEquals(MultipleChainGibbsSampler.calculatePotentialScaleReductionFactor(
+                    gibbsSampler.getSamplesPerChain(GaussianParameter.MEAN, Double.class, NUM_BURN_IN)), 1., 0.1);
+            Assert.assertEquals(MultipleChainGibbsSampler.calculatePotentialScaleReductionFactor(
+                    gibbsSampler.getSamplesPerChain(GaussianParameter.VARIANCE, Double.class, NUM_BURN_IN)), 1., 0.1);
+            meanSamplesPerChainByNumThreads.add(meanSamples);
+        }
+        Assert.assertEquals(meanSamplesPerChainByNumThreads.get(0), meanSamplesPerChainByNumThreads.get(1));
+
+        final GibbsSampler<GaussianParameter, ParameterizedState<GaussianParameter>, GaussianDataCollection> singleChainGibbsSampler =
+                new GibbsSampler<>(NUM_SAMPLES, new GaussianModeller(VARIANCE_INITIAL, MEAN_INITIAL, datapointsList).model);
+        Assert.assertEquals(singleChainGibbsSampler.getSamples(GaussianParameter.MEAN, Double.class, NUM_BURN_IN),
+                meanSamplesPerChainByNumThreads.get(0).subList(0, NUM_SAMPLES - NUM_BURN_IN));
+    }
+
+    @Test
+    public void testPotentialScaleReductionFactor() {
+        //identical chains have no between-chain variance
+        final List<Double> chain = Arrays.asList(1., 2., 3., 4.);
+        Assert.assertEquals(MultipleChainGibbsSampler.calculatePotentialScaleReductionFactor(Arrays.asList(chain, chain)),
+                Math.sqrt(0.75), 1E-10);
+        //chain means 2.5 and 4.5, chain variances 5/3: B = 4 * 2, W = 5/3, V = (3/4) * W + B / 4
+        final List<Double> shiftedChain = Arrays.asList(3., 4., 5., 6.);
+        Assert.assertEquals(MultipleChainGibbsSampler.calculatePotentialScaleReductionFactor(Arrays.asList(chain, shiftedChain)),
+                Math.sqrt((0.75 * 5. / 3. + 2.) / (5. / 3.)), 1E-10);
+        //diagnostic is undefined for a single chain
+        Assert.assertTrue(Double.isNaN(MultipleChainGibbsSampler.calculatePotentialScaleReductionFactor(Collections.singletonList(chain))));
+    }
+}
@@ -532,6 +532,36 @@ public final class PairHMMUnitTest extends GATKBaseTest {
 
     }
 
+    @Test(dataProvider = "JustHMMProvider")
+    public void testBatchedLikelihoodsMatchUnbatched(final PairHMM hmm){
+        final byte[] refBases = "ACGTTAGCATCGATCGATGCATCGATC".getBytes();
+        final byte[] altBases = "ACGTTAGCATCGTTCGATGCATCGATC".getBytes();
+        final List<Haplotype> haplotypes = Arrays.asList(new Haplotype(refBases, true), new Haplotype(altBases));
+
+        final List<GATKRead> firstSampleReads = Arrays.asList(
+                ArtificialReadUtils.createArtificialRead("TAGCATCGATCG".getBytes(), Utils.dupBytes((byte) 30, 12), "12M"),
+                ArtificialReadUtils.createArtificialRead("TAGCATCGTTCG".getBytes(), Utils.dupBytes((byte) 30, 12), "12M"));
+        final List<GATKRead> secondSampleReads = Collections.singletonList(
+                ArtificialReadUtils.createArtificialRead("CATCGTTCGATG".getBytes(), Utils.dupBytes((byte) 20, 12), "12M"));
+        final Map<GATKRead, byte[]> gcps = buildGapContinuationPenalties(Arrays.asList(firstSampleReads.get(0), firstSampleReads.get(1), secondSampleReads.get(0)), (byte) 10);
+
+        hmm.initialize(12, refBases.length);
+        hmm.computeLog10Likelihoods(matrix(haplotypes), firstSampleReads, gcps);
+        final double[] firstExpected = hmm.getLogLikelihoodArray().clone();
+        hmm.computeLog10Likelihoods(matrix(haplotypes), secondSampleReads, gcps);
+        final double[] secondExpected = hmm.getLogLikelihoodArray().clone();
+
+        hmm.computeLog10Likelihoods(Arrays.asList(matrix(haplotypes), matrix(haplotypes)), Arrays.asList(firstSampleReads, secondSampleReads), gcps);
+        final double[] batched = hmm.getLogLikelihoodArray();
+        Assert.assertEquals(batched.length, firstExpected.length + secondExpected.length);
+        for (int i = 0; i < firstExpected.length; i++) {
+            Assert.assertEquals(batched[i], firstExpected[i], 1e-9);
+        }
+        for (int i = 0; i < secondExpected.length; i++) {
+            Assert.assertEquals(batched[firstExpected.length + i], secondExpected[i], 1e-9);
+        }
+    }
+
     private LikelihoodMatrix<GATKRead, Haplotype> matrix(final List<Haplotype> haplotypes) {
         return new LikelihoodMatrix<GATKRead, Haplotype>() {
             @Override
@@ -0,0 +1,129 @@
+package org.broadinstitute.hellbender.utils.svd;
+
+import org.apache.commons.math3.linear.Array2DRowRealMatrix;
+import org.apache.commons.math3.linear.MatrixUtils;
+import org.apache.commons.math3.linear.RealMatrix;
+import org.apache.commons.math3.random.RandomDataGenerator;
+import org.broadinstitute.hellbender.GATKBaseTest;
+import org.broadinstitute.hellbender.exceptions.UserException;
+import org.testng.Assert;
+import org.testng.annotations.Test;
+
+import java.util.Arrays;
+
+public final class RandomizedSingularValueDecomposerUnitTest extends GATKBaseTest {
+    private static final int RANDOM_SEED = 31;
+    private static final double TOLERANCE = 1E-6;
+
+    //returns a numRows x numColumns matrix of the given rank with singular values 2^(rank - 1), ..., 2, 1
+    private static RealMatrix createLowRankMatrix(final int numRows,
+                                                  final int numColumns,
+                                                  final int rank) {
+        final RandomDataGenerator rng = new RandomDataGenerator();
+        rng.reSeed(RANDOM_SEED);
+        final RealMatrix u = orthonormalBasis(rng, numRows, rank);
+        final RealMatrix v = orthonormalBasis(rng, numColumns, rank);
+        final double[] singularValues = new double[rank];
+        for (int k = 0; k < rank; k++) {
+            singularValues[k] = Math.pow(2., rank - 1 - k);
+        }
+        return u.multiply(MatrixUtils.createRealDiagonalMatrix(singularValues)).multiply(v.transpose());
+    }
+
+    private static RealMatrix orthonormalBasis(final RandomDataGenerator rng,
+                                               final int dimension,
+                                               final int numVectors) {
+        final RealMatrix m = new Array2DRowRealMatrix(dimension, numVectors);
+        for (int i = 0; i < dimension; i++) {
+            for (int k = 0; k < numVectors; k++) {
+                m.setEntry(i, k, rng.nextGaussian(0., 1.));
+            }
+        }
+        return new ApacheSingularValueDecomposer().createSVD(m).getU();
+    }
+
+    private static void assertEqualsMatrix(final RealMatrix left, final RealMatrix right, final double tolerance) {
+        Assert.assertEquals(left.getRowDimension(), right.getRowDimension());
+        Assert.assertEquals(left.getColumnDimension(), right.getColumnDimension());
+        Assert.assertEquals(left.subtract(right).getNorm(), 0., tolerance);
+    }
+
+    @Test
+    public void testLowRankMatrix() {
+        final int rank = 5;
+        final RealMatrix m = createLowRankMatrix(40, 10000, rank);
+        final SVD svd = new RandomizedSingularValueDecomposer(rank, 1).createSVD(m);
+
+        Assert.assertEquals(svd.getSingularValues().length, rank);
+        for (int k = 0; k < rank; k++) {
+            Assert.assertEquals(svd.getSingularValues()[k], Math.pow(2., rank - 1 - k), TOLERANCE);
+        }
+        final RealMatrix u = svd.getU();
+        final RealMatrix v = svd.getV();
+        Assert.assertEquals(u.getRowDimension(), 40);
+        Assert.assertEquals(v.getRowDimension(), 10000);
+        assertEqualsMatrix(u.transpose().multiply(u), MatrixUtils.createRealIdentityMatrix(rank), TOLERANCE);
+        assertEqualsMatrix(v.transpose().multiply(v), MatrixUtils.createRealIdentityMatrix(rank), TOLERANCE);
+        assertEqualsMatrix(u.multiply(MatrixUtils.createRealDiagonalMatrix(svd.getSingularValues())).multiply(v.transpose()), m, TOLERANCE);
+    }
+
+    @Test
+    public void testTruncation() {
+        //a matrix of rank 8 truncated at 3 singular values should give the leading singular values and vectors
+        final RealMatrix m = createLowRankMatrix(30, 5000, 8);
+        final SVD exactSVD = new ApacheSingularValueDecomposer().createSVD(m);
+        final SVD svd = new RandomizedSingularValueDecomposer(3, 2).createSVD(m);
+
+        Assert.assertEquals(svd.getSingularValues().length, 3);
+        for (int k = 0; k < 3; k++) {
+            Assert.assertEquals(svd.getSingularValues()[k], exactSVD.getSingularValues()[k], TOLERANCE);
+            //singular vectors are determined up to sign
+            final double overlap = svd.getV().getColumnVector(k).dotProduct(exactSVD.getV().getColumnVector(k));
+            Assert.assertEquals(Math.abs(overlap), 1., TOLERANCE);
+        }
+    }
+
+    @Test
+    public void testFullRankPseudoinverse() {
+        final RealMatrix m = new Array2DRowRealMatrix(new double[][]{{2.0, 0.0}, {0.0, -3.0}, {0.0, 0.0}});
+        final SVD svd = new RandomizedSingularValueDecomposer(2, 1).createSVD(m);
+
+        Assert.assertEquals(svd.getSingularValues()[0], 3., TOLERANCE);
+        Assert.assertEquals(svd.getSingularValues()[1], 2., TOLERANCE);
+        assertEqualsMatrix(svd.getPinv(), new ApacheSingularValueDecomposer().createSVD(m).getPinv(), TOLERANCE);
+    }
+
+    @Test
+    public void testResultDoesNotDependOnNumberOfThreads() {
+        final RealMatrix m = createLowRankMatrix(25, 9000, 12);
+        final SVD svd = new RandomizedSingularValueDecomposer(6, 1).createSVD(m);
+        for (final int numThreads : Arrays.asList(2, 4)) {
+            final SVD otherSVD = new RandomizedSingularValueDecomposer(6, numThreads).createSVD(m);
+            Assert.assertEquals(otherSVD.getSingularValues(), svd.getSingularValues());
+            Assert.assertEquals(otherSVD.getU(), svd.getU());
+            Assert.assertEquals(otherSVD.getV(), svd.getV());
+        }
+    }
+
+    @Test
+    public void testSmallSingularValues() {
+        //singular values spanning more orders of magnitude than can be resolved from the eigenvalues of B B^T
+        final RandomDataGenerator rng = new RandomDataGenerator();
+        rng.reSeed(RANDOM_SEED);
+        final double[] singularValues = {1., 1E-3, 1E-8};
+        final RealMatrix m = orthonormalBasis(rng, 20, 3)
+                .multiply(MatrixUtils.createRealDiagonalMatrix(singularValues))
+                .multiply(orthonormalBasis(rng, 300, 3).transpose());
+        final SVD svd = new RandomizedSingularValueDecomposer(3, 1).createSVD(m);
+
+        Assert.assertEquals(svd.getSingularValues().length, 3);
+        for (int k = 0; k < 3; k++) {
+            Assert.assertEquals(svd.getSingularValues()[k] / singularValues[k], 1., 1E-3);
+        }
+    }
+
+    @Test(expectedExceptions = UserException.BadInput.class)
+    public void testZeroMatrix() {
+        new RandomizedSingularValueDecomposer(2, 1).createSVD(new Array2DRowRealMatrix(10, 20));
+    }
+}